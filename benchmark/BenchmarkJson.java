@@ -0,0 +1,66 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class that writes the results of the benchmarks as JSON. Values are put in a map already encoded, so that nested
+ * objects and numbers are written as they are.
+ */
+final class BenchmarkJson {
+    private BenchmarkJson() {
+    }
+
+    /**
+     * Encodes <code>value</code> as a JSON string.
+     *
+     * @param value the string to encode.
+     * @return the JSON string.
+     */
+    static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Encodes <code>fields</code> as a JSON object, in the order of the map.
+     *
+     * @param fields the encoded value of every field by its name.
+     * @return the JSON object.
+     */
+    static String object(Map<String, String> fields) {
+        StringBuilder builder = new StringBuilder("{");
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (builder.length() > 1) builder.append(',');
+            builder.append(quote(field.getKey())).append(':').append(field.getValue());
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Encodes a time in nanoseconds as a number of milliseconds.
+     *
+     * @param nanos the time in nanoseconds.
+     * @return the milliseconds, to the microsecond.
+     */
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Writes <code>json</code> to the file named <code>path</code>, or to standard output if it is null.
+     *
+     * @param json the results.
+     * @param path the name of the file, or null.
+     * @throws IOException if the file can't be written.
+     */
+    static void write(String json, String path) throws IOException {
+        if (path == null) {
+            System.out.println(json);
+            return;
+        }
+        try (PrintStream output = new PrintStream(new FileOutputStream(path), true, "UTF-8")) {
+            output.println(json);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import client.controllers.LoginSystem;
+import client.controllers.LoginType;
+import client.databundle.DataBundle;
+import core.account.PasswordHasher;
+import core.admin.Admin;
+import core.user.User;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Class that measures how long logging in takes with many accounts, and writes the results as JSON so that runs can
+ * be compared.
+ * <p>
+ * A bundle of users is built with their passwords stored as they are, as in data saved before passwords were hashed,
+ * except for a sample of users whose passwords are hashed at the cost set by the <code>password.iterations</code>
+ * system property. Hashing every password would take hours at a realistic cost, and only the accounts logged in
+ * with are ever hashed. Each login goes through <code>LoginSystem</code>, so users are found through the username
+ * index and admins are only checked after no user matched. Every measurement reports the median, 99th percentile and
+ * longest login of the sample, in microseconds:
+ * <ul>
+ * <li><code>unknownUsername</code>: a username no account has, which is only looked up.</li>
+ * <li><code>firstLogin</code>: a hashed password logged in with for the first time, which is hashed to be checked.
+ * </li>
+ * <li><code>repeatedLogin</code>: the same logins again, which are answered by the cache of verified passwords.</li>
+ * <li><code>wrongPassword</code>: a wrong password, which is hashed to be checked.</li>
+ * <li><code>unhashedLogin</code>: a password stored as it is, which is hashed once it is verified.</li>
+ * </ul>
+ */
+public class LoginBenchmark {
+    private static final long SEED = 42;
+
+    private interface Login {
+        LoginType run(int i);
+    }
+
+    /**
+     * Runs the benchmark.
+     * <p>
+     * <code>args[0]</code> is the number of users, 1000000 by default.
+     * <code>args[1]</code> is the number of users in the sample, 200 by default.
+     * <code>args[2]</code> is the file the JSON results are written to, standard output by default.
+     *
+     * @param args the settings of the benchmark.
+     * @throws Exception thrown when the results can't be written
+     */
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        PasswordHasher hasher = PasswordHasher.getDefault();
+        Random random = new Random(SEED);
+
+        long start = System.nanoTime();
+        DataBundle dataBundle = new DataBundle();
+        dataBundle.admins.add(new Admin("admin", hasher.hash("password"), true));
+        for (int i = 0; i < users; i++) dataBundle.users.add(new User("user" + i, "password" + i));
+        /* Half of the sample is hashed, the other half is left as it is, and neither half is used twice. */
+        int[] hashed = new int[samples];
+        int[] unhashed = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            hashed[i] = random.nextInt(users / 2);
+            unhashed[i] = users / 2 + random.nextInt(users - users / 2);
+        }
+        hashed = Arrays.stream(hashed).distinct().toArray();
+        unhashed = Arrays.stream(unhashed).distinct().toArray();
+        for (int i : hashed) dataBundle.users.get(i).setPassword(hasher.hash("password" + i));
+        long generateNanos = System.nanoTime() - start;
+
+        LoginSystem loginSystem = new LoginSystem(dataBundle);
+        start = System.nanoTime();
+        loginSystem.login("user0", "");
+        long indexNanos = System.nanoTime() - start;
+
+        int[] hashedUsers = hashed;
+        int[] unhashedUsers = unhashed;
+        Map<String, String> report = new LinkedHashMap<>();
+        report.put("timestamp", BenchmarkJson.quote(Instant.now().toString()));
+        report.put("javaVersion", BenchmarkJson.quote(System.getProperty("java.version")));
+        report.put("maxHeapBytes", String.valueOf(Runtime.getRuntime().maxMemory()));
+        report.put("seed", String.valueOf(SEED));
+        report.put("users", String.valueOf(users));
+        report.put("samples", String.valueOf(hashedUsers.length));
+        report.put("iterations", String.valueOf(hasher.getIterations()));
+        report.put("generateMillis", BenchmarkJson.millis(generateNanos));
+        report.put("indexMillis", BenchmarkJson.millis(indexNanos));
+        report.put("unknownUsername", measure(hashedUsers.length, LoginType.FAILED,
+                i -> loginSystem.login("nobody" + i, "password")));
+        report.put("firstLogin", measure(hashedUsers.length, LoginType.USER,
+                i -> loginSystem.login("user" + hashedUsers[i], "password" + hashedUsers[i])));
+        report.put("repeatedLogin", measure(hashedUsers.length, LoginType.USER,
+                i -> loginSystem.login("user" + hashedUsers[i], "password" + hashedUsers[i])));
+        report.put("wrongPassword", measure(hashedUsers.length, LoginType.FAILED,
+                i -> loginSystem.login("user" + hashedUsers[i], "wrong")));
+        report.put("unhashedLogin", measure(unhashedUsers.length, LoginType.USER,
+                i -> loginSystem.login("user" + unhashedUsers[i], "password" + unhashedUsers[i])));
+        String json = BenchmarkJson.object(report);
+
+        BenchmarkJson.write(json, args.length > 2 ? args[2] : null);
+    }
+
+    /* Runs login for 0 to count - 1, checking each gives expected, and returns the times as a JSON object. */
+    private static String measure(int count, LoginType expected, Login login) {
+        long[] nanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            LoginType result = login.run(i);
+            nanos[i] = System.nanoTime() - start;
+            if (result != expected) throw new IllegalStateException("Login " + i + " gave " + result);
+        }
+        Arrays.sort(nanos);
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("medianMicros", micros(nanos[count / 2]));
+        result.put("p99Micros", micros(nanos[Math.min(count - 1, count * 99 / 100)]));
+        result.put("maxMicros", micros(nanos[count - 1]));
+        return BenchmarkJson.object(result);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e3);
+    }
+}
@@ -0,0 +1,188 @@
+import client.controllers.LoginSystem;
+import client.controllers.StartingSystem;
+import client.controllers.UserSystem;
+import client.databundle.BlockCodecs;
+import client.databundle.DataBundle;
+import client.databundle.DataBundleGenerator;
+import client.databundle.SnapshotCodec;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class that measures how long the data of the system takes to save and load, on bundles built by a
+ * <code>DataBundleGenerator</code>, and writes the results as JSON so that runs can be compared.
+ * <p>
+ * For every size, a bundle is built, written to a snapshot file and read back, each several times after a few
+ * warm-up rounds. Every measurement reports the median time, and the bytes allocated on every thread per round.
+ * Startup is measured up to the point where the first screen of a user has what it needs: the snapshot is read, the
+ * system is initialized, a user logs in and the trades of the user are first listed, which indexes every trade. The
+ * screens themselves are left out, so that the benchmark runs without a display.
+ */
+public class PersistenceBenchmark {
+    private static final long SEED = 42;
+    private static final int WARMUP_ROUNDS = 2;
+
+    /* The user whose screen startup is measured up to, who the generator gives every bundle. */
+    private static final String STARTUP_USERNAME = "user0";
+    private static final String STARTUP_PASSWORD = "password0";
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    /* The times of the rounds of a measurement, sorted, and the bytes allocated per round, or -1 if unknown. */
+    private static class Measurement {
+        private final long[] nanos;
+        private final long allocatedBytesPerRound;
+
+        Measurement(long[] nanos, long allocatedBytesPerRound) {
+            this.nanos = nanos;
+            this.allocatedBytesPerRound = allocatedBytesPerRound;
+        }
+
+        long medianNanos() {
+            return nanos[nanos.length / 2];
+        }
+
+        String toJson() {
+            Map<String, String> result = new LinkedHashMap<>();
+            result.put("medianMillis", BenchmarkJson.millis(medianNanos()));
+            result.put("minMillis", BenchmarkJson.millis(nanos[0]));
+            result.put("maxMillis", BenchmarkJson.millis(nanos[nanos.length - 1]));
+            result.put("allocatedBytesPerRound",
+                    allocatedBytesPerRound < 0 ? "null" : String.valueOf(allocatedBytesPerRound));
+            return BenchmarkJson.object(result);
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     * <p>
+     * <code>args[0]</code> is the comma-separated numbers of trades, 10000,100000,1000000 by default.
+     * <code>args[1]</code> is the number of measured rounds, 5 by default.
+     * <code>args[2]</code> is the file the JSON results are written to, standard output by default.
+     * <code>args[3]</code> is the name of the block codec of the snapshots, none by default.
+     *
+     * @param args the settings of the benchmark.
+     * @throws Exception thrown when (de)serialization fails
+     */
+    public static void main(String[] args) throws Exception {
+        String[] sizes = (args.length > 0 ? args[0] : "10000,100000,1000000").split(",");
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String codecName = args.length > 3 ? args[3] : "none";
+        SnapshotCodec codec = new SnapshotCodec(BlockCodecs.forName(codecName));
+
+        List<String> results = new ArrayList<>();
+        for (String size : sizes) {
+            int trades = Integer.parseInt(size.trim());
+            System.err.println("Benchmarking " + trades + " trades");
+            results.add(run(codec, trades, rounds));
+        }
+
+        Map<String, String> report = new LinkedHashMap<>();
+        report.put("timestamp", BenchmarkJson.quote(Instant.now().toString()));
+        report.put("javaVersion", BenchmarkJson.quote(System.getProperty("java.version")));
+        report.put("availableProcessors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        report.put("maxHeapBytes", String.valueOf(Runtime.getRuntime().maxMemory()));
+        report.put("codec", BenchmarkJson.quote(codecName));
+        report.put("seed", String.valueOf(SEED));
+        report.put("rounds", String.valueOf(rounds));
+        report.put("results", "[" + String.join(",", results) + "]");
+        String json = BenchmarkJson.object(report);
+
+        BenchmarkJson.write(json, args.length > 2 ? args[2] : null);
+    }
+
+    private static String run(SnapshotCodec codec, int trades, int rounds) throws Exception {
+        long start = System.nanoTime();
+        DataBundle dataBundle = new DataBundleGenerator(SEED).generateForTrades(trades);
+        long generateNanos = System.nanoTime() - start;
+        /* The snapshot file keeps earlier generations next to the snapshot, so it is written in a directory of its
+         * own that is removed with everything in it afterwards.
+         */
+        File directory = Files.createTempDirectory("benchmark").toFile();
+        try {
+            return run(codec, dataBundle, generateNanos, new File(directory, "benchmark.snap"), rounds);
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) for (File file : files) Files.deleteIfExists(file.toPath());
+            Files.deleteIfExists(directory.toPath());
+        }
+    }
+
+    private static String run(SnapshotCodec codec, DataBundle dataBundle, long generateNanos, File file, int rounds)
+            throws Exception {
+        SnapshotFile snapshotFile = new SnapshotFile(file.getPath());
+
+        Map<String, String> result = new LinkedHashMap<>();
+        /* The generator numbers entities from 1, so the id counters are the numbers of entities. */
+        result.put("trades", String.valueOf(dataBundle.tradeIdCounter));
+        result.put("users", String.valueOf(dataBundle.users.size()));
+        result.put("items", String.valueOf(dataBundle.itemIdCounter));
+        result.put("meetings", String.valueOf(dataBundle.meetingIdCounter));
+        result.put("generateMillis", String.valueOf(generateNanos / 1000000));
+
+        Measurement serialize = measure(rounds,
+                () -> snapshotFile.write(output -> codec.write(dataBundle, output)));
+        long snapshotBytes = file.length();
+        result.put("serialize", serialize.toJson());
+        result.put("snapshotBytes", String.valueOf(snapshotBytes));
+        result.put("serializeMegabytesPerSecond", throughput(serialize.medianNanos(), snapshotBytes));
+
+        result.put("deserializeLazy", measure(rounds, () -> SnapshotConverter.read(file)).toJson());
+        Measurement deserializeFull = measure(rounds,
+                () -> SnapshotCodec.decodeInParallel(SnapshotConverter.read(file)).join());
+        result.put("deserializeFull", deserializeFull.toJson());
+        result.put("deserializeMegabytesPerSecond", throughput(deserializeFull.medianNanos(), snapshotBytes));
+        result.put("startup", measure(rounds, () -> {
+            DataBundle loaded = snapshotFile.read(SnapshotConverter::read);
+            new StartingSystem(loaded).initializeSystem();
+            new LoginSystem(loaded).login(STARTUP_USERNAME, STARTUP_PASSWORD);
+            new UserSystem(loaded, STARTUP_USERNAME).getTradesInfo();
+        }).toJson());
+        return BenchmarkJson.object(result);
+    }
+
+    /* Runs task for the warm-up rounds, then measures it over rounds. */
+    private static Measurement measure(int rounds, Task task) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) task.run();
+        long[] nanos = new long[rounds];
+        long allocated = 0;
+        for (int i = 0; i < rounds; i++) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            task.run();
+            nanos[i] = System.nanoTime() - start;
+            allocated += allocatedBytes() - bytesBefore;
+        }
+        Arrays.sort(nanos);
+        return new Measurement(nanos, allocatedBytes() < 0 ? -1 : allocated / rounds);
+    }
+
+    /* Gets the bytes allocated so far by every live thread, or a negative number if the JVM can't tell. */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported()) return -1;
+        long total = 0;
+        for (long bytes : allocations.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private static String throughput(long nanos, long bytes) {
+        return nanos <= 0 ? "null" : String.format(Locale.ROOT, "%.2f", bytes / 1e6 / (nanos / 1e9));
+    }
+}
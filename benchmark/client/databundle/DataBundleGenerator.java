@@ -0,0 +1,173 @@
+package client.databundle;
+
+import core.account.reverter.PrivateMessageReverter;
+import core.admin.Admin;
+import core.item.Item;
+import core.meeting.Meeting;
+import core.meeting.reverter.ConfirmMeetingArrangementReverter;
+import core.reverter.ActionReverter;
+import core.trade.Trade;
+import core.trade.TradeStatus;
+import core.trade.reverter.DenyTradeReverter;
+import core.trade.reverter.RequestTradeReverter;
+import core.user.User;
+import core.user.reverter.AddToBlockListReverter;
+import core.user.reverter.SetCityReverter;
+import core.useritem.reverter.AddToWishListReverter;
+import core.useritem.reverter.ItemRequestReverter;
+import genericdatatype.Pair;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class that builds synthetic <code>DataBundle</code>s for benchmarks. The same seed and sizes always build the same
+ * bundle, so results of different runs can be compared.
+ * <p>
+ * Bundles are built directly rather than through the facades, which would take quadratic time at benchmark sizes,
+ * but hold what the facades would have left behind: every user has items, a wish list and messages, trades go
+ * through every status, trades under way have meetings, and each change has the reverter the facade would have
+ * added.
+ */
+public class DataBundleGenerator {
+    /* Ratios between the sizes of a bundle, used by generateForTrades. */
+    private static final double USERS_PER_TRADE = 0.5;
+    private static final double MEETINGS_PER_TRADE = 0.7;
+    private static final int ITEMS_PER_USER = 3;
+    private static final int MESSAGES_PER_USER = 4;
+    /* One in this many items is still waiting for an admin to approve it. */
+    private static final int PENDING_ITEM_RATIO = 20;
+    private static final String[] CITIES = {"Toronto", "Montreal", "Vancouver", "Ottawa", "Calgary", "Edmonton",
+            "Winnipeg", "Halifax"};
+    private static final String[] ITEM_TYPES = {"Book", "Clothing", "Electronics", "Furniture", "Toy", "Tool"};
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 9, 0);
+
+    private final long seed;
+
+    /**
+     * Constructs a DataBundleGenerator that builds bundles from <code>seed</code>.
+     *
+     * @param seed the seed of the random choices made.
+     */
+    public DataBundleGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Builds a bundle with <code>trades</code> trades, and as many users and meetings as usually come with them.
+     *
+     * @param trades the number of trades.
+     * @return the bundle built.
+     */
+    public DataBundle generateForTrades(int trades) {
+        return generate(Math.max(2, (int) (trades * USERS_PER_TRADE)), trades, (int) (trades * MEETINGS_PER_TRADE));
+    }
+
+    /**
+     * Builds a bundle with <code>users</code> users, <code>trades</code> trades and up to <code>meetings</code>
+     * meetings. Trades only get meetings once they are agreed to, so there may be fewer meetings than asked for.
+     *
+     * @param users    the number of users, at least 2.
+     * @param trades   the number of trades.
+     * @param meetings the number of meetings.
+     * @return the bundle built.
+     */
+    public DataBundle generate(int users, int trades, int meetings) {
+        if (users < 2) throw new IllegalArgumentException("A trade needs at least 2 users");
+        Random random = new Random(seed);
+        DataBundle dataBundle = new DataBundle();
+        List<ActionReverter> reverters = dataBundle.getActionReverters();
+        dataBundle.admins.add(new Admin("admin", "password", true));
+
+        for (int i = 0; i < users; i++) {
+            User user = new User("user" + i, "password" + i);
+            String city = CITIES[random.nextInt(CITIES.length)];
+            user.setCity(city);
+            reverters.add(new SetCityReverter(user, null, city));
+            for (int j = 0; j < ITEMS_PER_USER; j++) {
+                Item item = new Item(ITEM_TYPES[random.nextInt(ITEM_TYPES.length)], "Item " + i + "-" + j,
+                        "Item " + j + " of user" + i, ++dataBundle.itemIdCounter);
+                Pair<String, Item> request = new Pair<>(user.getUsername(), item);
+                if (random.nextInt(PENDING_ITEM_RATIO) == 0) dataBundle.getItemRequests().add(request);
+                else user.addToItemsAvailable(item);
+                reverters.add(new ItemRequestReverter(dataBundle.getItemRequests(), request));
+            }
+            dataBundle.users.add(user);
+        }
+        for (User user : dataBundle.users) {
+            User other = otherUser(dataBundle, random, user);
+            if (!other.getItemsAvailable().isEmpty()) {
+                Item wanted = other.getItemsAvailable().get(random.nextInt(other.getItemsAvailable().size()));
+                user.addToWishList(wanted);
+                reverters.add(new AddToWishListReverter(user, wanted));
+            }
+            for (int j = 0; j < MESSAGES_PER_USER; j++) {
+                User receiver = otherUser(dataBundle, random, user);
+                String message = "Message " + j + " from " + user.getUsername();
+                user.addToMessageSent(message);
+                receiver.addToMessageReceived(message);
+                reverters.add(new PrivateMessageReverter(user, receiver, message));
+            }
+            if (random.nextInt(10) == 0) {
+                String blocked = otherUser(dataBundle, random, user).getUsername();
+                user.addToBlockList(blocked);
+                reverters.add(new AddToBlockListReverter(user, blocked));
+            }
+        }
+
+        for (int i = 0; i < trades; i++) {
+            User initiator = dataBundle.users.get(random.nextInt(users));
+            User responder = otherUser(dataBundle, random, initiator);
+            Item[] items = {random.nextBoolean() ? randomItem(random, initiator) : null,
+                    randomItem(random, responder)};
+            Trade trade = new Trade(initiator.getUsername(), responder.getUsername(), items,
+                    random.nextInt(5) < 3, ++dataBundle.tradeIdCounter);
+            TradeStatus status = randomStatus(random);
+            trade.setStatus(status);
+            dataBundle.getTrades().add(trade);
+            reverters.add(new RequestTradeReverter(trade, initiator.getUsername(), dataBundle.getTrades()));
+            if (status == TradeStatus.DENIED) reverters.add(new DenyTradeReverter(trade, responder.getUsername()));
+            boolean agreed = status == TradeStatus.ONGOING || status == TradeStatus.COMPLETED;
+            if (agreed && dataBundle.getMeetings().size() < meetings) {
+                LocalDateTime time = START.plusDays(random.nextInt(365)).plusHours(random.nextInt(8));
+                Meeting meeting = new Meeting("Library " + random.nextInt(50), time, ++dataBundle.meetingIdCounter);
+                meeting.setMeetingConfirmed(0, true);
+                meeting.setMeetingConfirmed(1, true);
+                dataBundle.getMeetings().add(meeting);
+                trade.addMeetingRelated(meeting.getMeetingId());
+                reverters.add(new ConfirmMeetingArrangementReverter(meeting, responder.getUsername(), 1));
+                if (status == TradeStatus.COMPLETED) {
+                    meeting.setMeetingOccurred(0, true);
+                    meeting.setMeetingOccurred(1, true);
+                    trade.setCurrentMeetingOccurred();
+                    trade.setTradeCompletionTime(time);
+                    initiator.addNumBorrowed();
+                    responder.addNumLent();
+                }
+            }
+        }
+        return dataBundle;
+    }
+
+    private User otherUser(DataBundle dataBundle, Random random, User user) {
+        User other = dataBundle.users.get(random.nextInt(dataBundle.users.size() - 1));
+        return other == user ? dataBundle.users.get(dataBundle.users.size() - 1) : other;
+    }
+
+    private Item randomItem(Random random, User user) {
+        List<Item> items = new ArrayList<>(user.getItemsAvailable());
+        return items.isEmpty() ? null : items.get(random.nextInt(items.size()));
+    }
+
+    /* Half of all trades are completed, and the rest are spread over the other statuses. */
+    private TradeStatus randomStatus(Random random) {
+        int n = random.nextInt(20);
+        if (n < 10) return TradeStatus.COMPLETED;
+        if (n < 14) return TradeStatus.ONGOING;
+        if (n < 17) return TradeStatus.NOT_STARTED;
+        if (n < 19) return TradeStatus.DENIED;
+        return TradeStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Class that writes snapshots for a <code>JournaledDataSerializer</code> on a background thread, so that closed
+ * journal segments can be deleted and startup only has to replay a short tail of the journal.
+ */
+public class JournalCheckpointer {
+    private final JournaledDataSerializer serializer;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-checkpointer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /* The segment the newest requested checkpoint covers up to, and the one currently scheduled. */
+    private int requestedSegment;
+    private boolean scheduled;
+
+    /**
+     * Constructs a JournalCheckpointer that writes snapshots for <code>serializer</code>.
+     *
+     * @param serializer the serializer whose journal is checkpointed.
+     */
+    public JournalCheckpointer(JournaledDataSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Requests a snapshot covering every journal segment before <code>segment</code>. Requests made while a
+     * checkpoint is running are coalesced into a single following checkpoint.
+     *
+     * @param segment the first journal segment not covered by the snapshot.
+     */
+    public synchronized void requestCheckpoint(int segment) {
+        requestedSegment = Math.max(requestedSegment, segment);
+        if (scheduled) return;
+        scheduled = true;
+        executor.execute(this::runCheckpoints);
+    }
+
+    private void runCheckpoints() {
+        int segment;
+        synchronized (this) {
+            segment = requestedSegment;
+        }
+        while (true) {
+            try {
+                serializer.checkpoint(segment);
+            } catch (IOException | ClassNotFoundException e) {
+                /* The journal is still intact, so the next checkpoint will cover these segments. */
+                e.printStackTrace();
+            }
+            synchronized (this) {
+                if (requestedSegment == segment) {
+                    scheduled = false;
+                    return;
+                }
+                segment = requestedSegment;
+            }
+        }
+    }
+}
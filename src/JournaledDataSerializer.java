@@ -0,0 +1,327 @@
+import client.controllers.ReplaySystem;
+import client.controllers.StartingSystem;
+import client.databundle.DataBundle;
+import client.databundle.Mutation;
+import client.databundle.MutationJournal;
+import genericdatatype.Pair;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * Class used to serialize data to local files. Instead of rewriting the whole data bundle on every
+ * <code>serialize</code>, each change is appended to a journal, which is replayed on top of the last snapshot when
+ * deserializing.
+ * <p>
+ * The journal is split into numbered segments. Once a segment passes <code>SEGMENT_MAX_RECORDS</code> or
+ * <code>SEGMENT_MAX_BYTES</code> a new one is started, and a <code>JournalCheckpointer</code> writes a fresh
+ * snapshot covering the closed segments. Segments are deleted once the previous generation of the snapshot covers
+ * them too, so that generation can still be replayed if the newest one turns out to be damaged.
+ */
+public class JournaledDataSerializer extends LocalDataSerializer implements MutationJournal {
+    /* Number of records appended before the journal is forced to disk. */
+    private static final int GROUP_COMMIT_SIZE = 32;
+    /* A record larger than this is treated as a torn write. */
+    private static final int MAX_RECORD_LENGTH = 1 << 24;
+    private static final int SEGMENT_MAX_RECORDS = 4096;
+    private static final long SEGMENT_MAX_BYTES = 1 << 20;
+    /* Precedes the first journal segment a snapshot doesn't cover and its complement, "TSJC". */
+    private static final int SNAPSHOT_MAGIC = 0x54534A43;
+    /* Precedes the first journal segment alone in snapshots written before the complement was added, "TSJS". */
+    private static final int UNCHECKED_SNAPSHOT_MAGIC = 0x54534A53;
+
+    protected final String journalPath = "DataBundle.journal";
+    private final JournalCheckpointer checkpointer = new JournalCheckpointer(this);
+    /* Held while snapshots are read or segments are deleted, so a snapshot is never paired with the wrong segments. */
+    private final Object fileLock = new Object();
+    private FileOutputStream journalFile;
+    private DataOutputStream journalOutput;
+    private int pendingRecords;
+    private int currentSegment;
+    private int segmentRecords;
+    private long segmentBytes;
+
+    /**
+     * If the .ser file exists, deserialize it and replay the journal on top of it.
+     * Otherwise, create a new data bundle, serialize it and start an empty journal.
+     *
+     * @throws IOException            thrown when (de)serialization fails
+     * @throws ClassNotFoundException thrown when (de)serialization fails
+     */
+    @Override
+    public synchronized void setup() throws IOException, ClassNotFoundException {
+        int firstSegment;
+        if (snapshotFile.exists()) {
+            firstSegment = load();
+        } else {
+            /* a journal without its snapshot can't be replayed */
+            for (int segment : listSegments()) segmentFile(segment).delete();
+            dataBundle = new DataBundle();
+            writeSnapshotFile(dataBundle, 0);
+            firstSegment = 0;
+        }
+        List<Integer> segments = listSegments();
+        currentSegment = segments.isEmpty() ? firstSegment
+                : Math.max(firstSegment, segments.get(segments.size() - 1));
+        segmentBytes = segmentFile(currentSegment).length();
+        openSegment();
+        /* a crash may have left closed segments that were never checkpointed */
+        if (currentSegment > firstSegment) checkpointer.requestCheckpoint(currentSegment);
+    }
+
+    @Override
+    public MutationJournal getJournal() {
+        return this;
+    }
+
+    /**
+     * Appends <code>mutation</code> to the journal. The journal is forced to disk every
+     * <code>GROUP_COMMIT_SIZE</code> records, and on every <code>serialize</code>.
+     *
+     * @param mutation the change made to the <code>DataBundle</code>.
+     */
+    @Override
+    public synchronized void append(Mutation mutation) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            mutation.writeTo(new DataOutputStream(bytes));
+            byte[] record = bytes.toByteArray();
+            journalOutput.writeInt(record.length);
+            journalOutput.writeInt(checksum(record, record.length));
+            journalOutput.write(record);
+            journalOutput.flush();
+            segmentRecords++;
+            segmentBytes += 8 + record.length;
+            if (segmentRecords >= SEGMENT_MAX_RECORDS || segmentBytes >= SEGMENT_MAX_BYTES) rotate();
+            else if (++pendingRecords >= GROUP_COMMIT_SIZE) commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forces every record appended so far to disk. The snapshot is not rewritten.
+     *
+     * @throws IOException thrown when the journal can't be written
+     */
+    @Override
+    public synchronized void serialize() throws IOException {
+        commit();
+    }
+
+    /**
+     * Has every record appended so far forced to disk on the I/O thread. The journal already is a consistent view
+     * of the data bundle, so nothing is copied.
+     *
+     * @return a future completed once the records are on disk.
+     */
+    @Override
+    public CompletableFuture<Void> serializeAsync() {
+        return saveService.requestSave(this::serialize);
+    }
+
+    /**
+     * Reads the snapshot and replays the journal on top of it, discarding any change that was not journaled.
+     *
+     * @throws IOException            thrown when deserialization fails
+     * @throws ClassNotFoundException thrown when deserialization fails
+     */
+    @Override
+    public synchronized void deserialize() throws IOException, ClassNotFoundException {
+        commit();
+        load();
+    }
+
+    @Override
+    protected void readSnapshot() throws IOException, ClassNotFoundException {
+        dataBundle = readSnapshotFile().value2;
+        decodeInBackground(dataBundle);
+    }
+
+    /**
+     * Writes a snapshot covering every journal segment before <code>segment</code>, then deletes the segments that
+     * the snapshot it replaced covered as well. The snapshot is rebuilt from the files rather than from the live
+     * <code>dataBundle</code>, so it can run on the checkpointer thread while the bundle is being changed.
+     *
+     * @param segment the first journal segment not covered by the snapshot.
+     * @throws IOException            thrown when (de)serialization fails
+     * @throws ClassNotFoundException thrown when (de)serialization fails
+     */
+    void checkpoint(int segment) throws IOException, ClassNotFoundException {
+        Pair<Integer, DataBundle> snapshot;
+        synchronized (fileLock) {
+            snapshot = readSnapshotFile();
+        }
+        if (snapshot.value1 >= segment) return;
+        DataBundle bundle = snapshot.value2;
+        new StartingSystem(bundle).initializeSystem();
+        ReplaySystem replaySystem = new ReplaySystem(bundle);
+        for (int i = snapshot.value1; i < segment; i++) replaySegment(replaySystem, i, false);
+        writeSnapshotFile(bundle, segment);
+        synchronized (fileLock) {
+            /* the replaced snapshot is now the previous generation, which needs every segment from its own on */
+            for (int i : listSegments()) if (i < snapshot.value1) segmentFile(i).delete();
+        }
+    }
+
+    /* Loads the snapshot and replays every segment after it, returning the first segment replayed. */
+    private int load() throws IOException, ClassNotFoundException {
+        synchronized (fileLock) {
+            Pair<Integer, DataBundle> snapshot = readSnapshotFile();
+            dataBundle = snapshot.value2;
+            decodeInBackground(dataBundle);
+            /* changes are recorded against a bundle with the initial admin and guest(demo) user */
+            new StartingSystem(dataBundle).initializeSystem();
+            ReplaySystem replaySystem = new ReplaySystem(dataBundle);
+            /* segments before the snapshot are kept for the previous generation */
+            for (int segment : listSegments())
+                if (segment >= snapshot.value1) segmentRecords = replaySegment(replaySystem, segment, true);
+            return snapshot.value1;
+        }
+    }
+
+    private void commit() throws IOException {
+        if (journalOutput == null || pendingRecords == 0) return;
+        journalOutput.flush();
+        journalFile.getChannel().force(false);
+        pendingRecords = 0;
+    }
+
+    /* Closes the current segment and starts the next one, then has the closed segments checkpointed. */
+    private void rotate() throws IOException {
+        journalOutput.flush();
+        journalFile.getChannel().force(false);
+        pendingRecords = 0;
+        journalOutput.close();
+        currentSegment++;
+        segmentRecords = 0;
+        segmentBytes = 0;
+        openSegment();
+        checkpointer.requestCheckpoint(currentSegment);
+    }
+
+    private void openSegment() throws IOException {
+        journalFile = new FileOutputStream(segmentFile(currentSegment), true);
+        journalOutput = new DataOutputStream(new BufferedOutputStream(journalFile));
+    }
+
+    private File segmentFile(int segment) {
+        return new File(journalPath + "." + segment);
+    }
+
+    /* Gets the numbers of all existing journal segments in ascending order. */
+    private List<Integer> listSegments() {
+        File journal = new File(journalPath).getAbsoluteFile();
+        String prefix = journal.getName() + ".";
+        List<Integer> segments = new ArrayList<>();
+        File[] files = journal.getParentFile().listFiles();
+        if (files == null) return segments;
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(prefix) && name.substring(prefix.length()).matches("\\d+"))
+                segments.add(Integer.parseInt(name.substring(prefix.length())));
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /* Replays every intact record of a segment in order, returning the number replayed. A torn or corrupted tail,
+     * left by a crash mid-append, is cut off when truncate is true.
+     */
+    private int replaySegment(ReplaySystem replaySystem, int segment, boolean truncate) throws IOException {
+        File file = segmentFile(segment);
+        int records = 0;
+        long validLength = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte[] record = readRecord(input);
+                if (record == null) break;
+                replaySystem.replay(Mutation.readFrom(new DataInputStream(new ByteArrayInputStream(record))));
+                validLength += 8 + record.length;
+                records++;
+            }
+        }
+        if (truncate && validLength < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+        return records;
+    }
+
+    /* Returns null at the end of the journal, or at the first record that is incomplete or fails its checksum. */
+    private byte[] readRecord(DataInputStream input) throws IOException {
+        try {
+            int length = input.readInt();
+            int checksum = input.readInt();
+            if (length < 0 || length > MAX_RECORD_LENGTH) return null;
+            byte[] record = new byte[length];
+            input.readFully(record);
+            return checksum(record, length) == checksum ? record : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /* Maps the newest generation of the snapshot that can be replayed, along with the first segment it doesn't
+     * cover.
+     */
+    private Pair<Integer, DataBundle> readSnapshotFile() throws IOException, ClassNotFoundException {
+        return snapshotFile.read(this::readSnapshotFile);
+    }
+
+    /* A snapshot written by LocalDataSerializer has no segment number, so the whole journal is replayed on top of
+     * it. A snapshot whose segments are not all there is rejected, so the previous generation is tried instead.
+     */
+    private Pair<Integer, DataBundle> readSnapshotFile(File file) throws IOException, ClassNotFoundException {
+        ByteBuffer buffer = SnapshotConverter.map(file);
+        Pair<Integer, DataBundle> snapshot;
+        if (SnapshotConverter.isSerialized(buffer)) {
+            try (ObjectInput objectInput = new ObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(file)))) {
+                Object first = objectInput.readObject();
+                if (first instanceof DataBundle) snapshot = new Pair<>(0, (DataBundle) first);
+                else snapshot = new Pair<>((Integer) first, (DataBundle) objectInput.readObject());
+            }
+        } else if (buffer.remaining() >= 12 && buffer.getInt(0) == SNAPSHOT_MAGIC) {
+            int segment = buffer.getInt(4);
+            if (buffer.getInt(8) != ~segment) throw new IOException("Snapshot header of " + file + " is damaged");
+            buffer.position(12);
+            snapshot = new Pair<>(segment, snapshotCodec.read(buffer));
+        } else if (buffer.remaining() >= 8 && buffer.getInt(0) == UNCHECKED_SNAPSHOT_MAGIC) {
+            int segment = buffer.getInt(4);
+            buffer.position(8);
+            snapshot = new Pair<>(segment, snapshotCodec.read(buffer));
+        } else {
+            snapshot = new Pair<>(0, snapshotCodec.read(buffer));
+        }
+        int expected = snapshot.value1;
+        for (int segment : listSegments()) {
+            if (segment < snapshot.value1) continue;
+            if (segment != expected++) throw new IOException("Journal segment " + (expected - 1) + " is missing");
+        }
+        return snapshot;
+    }
+
+    private void writeSnapshotFile(DataBundle bundle, int segment) throws IOException {
+        snapshotFile.write(output -> {
+            DataOutputStream data = new DataOutputStream(output);
+            data.writeInt(SNAPSHOT_MAGIC);
+            data.writeInt(segment);
+            data.writeInt(~segment);
+            snapshotCodec.write(bundle, data);
+            data.flush();
+        });
+    }
+}
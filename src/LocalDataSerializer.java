@@ -1,15 +1,28 @@
+import client.databundle.BlockCodecs;
 import client.databundle.DataBundle;
 import client.databundle.DataSerializer;
+import client.databundle.MutationJournal;
+import client.databundle.SnapshotCodec;
 import genericdatatype.Pair;
 
 import java.io.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Class used to serialize data to local files.
+ * Class used to serialize data to local files. Files are written by a <code>SaveService</code>, so saving never
+ * blocks the Swing event thread on the disk, and replaced through a <code>SnapshotFile</code>, so a crash while
+ * saving never loses the last snapshot.
  */
 public class LocalDataSerializer implements DataSerializer {
-    private DataBundle dataBundle;
-    private final String filePath = "DataBundle.ser";
+    protected DataBundle dataBundle;
+    protected final String filePath = "DataBundle.ser";
+    protected final SnapshotFile snapshotFile = new SnapshotFile(filePath);
+    protected final SaveService saveService = new SaveService();
+    /* Compresses snapshots with the block codec named by the "snapshot.codec" system property. They are left
+     * uncompressed by default, as a compressed snapshot has every section inflated when it is loaded.
+     */
+    protected final SnapshotCodec snapshotCodec =
+            new SnapshotCodec(BlockCodecs.forName(System.getProperty("snapshot.codec", "none")));
 
     /**
      * If the .ser file exists, deserialize it.
@@ -20,7 +33,7 @@ public class LocalDataSerializer implements DataSerializer {
      */
     public void setup() throws IOException, ClassNotFoundException {
         // if ser is nonexistent, then create it.
-        if (new File(filePath).exists()) {
+        if (snapshotFile.exists()) {
             deserialize();
         } else {
             dataBundle = new DataBundle();
@@ -32,21 +45,71 @@ public class LocalDataSerializer implements DataSerializer {
         return new Pair<>(dataBundle, this);
     }
 
+    /**
+     * Changes are not journaled, since every <code>serialize</code> rewrites the whole data bundle.
+     *
+     * @return a journal that discards every change.
+     */
+    public MutationJournal getJournal() {
+        return MutationJournal.NONE;
+    }
+
     public void serialize() throws IOException {
-        OutputStream file = new FileOutputStream(filePath);
-        OutputStream buffer = new BufferedOutputStream(file);
-        ObjectOutput output = new ObjectOutputStream(buffer);
+        SaveService.await(serializeAsync());
+    }
 
-        output.writeObject(dataBundle);
-        output.close();
+    /**
+     * Encodes <code>dataBundle</code> on the calling thread, which is the thread changing it, and has the snapshot
+     * written to <code>filePath</code> on the I/O thread. The encoded snapshot is the consistent view that is
+     * saved, since entities are changed in place.
+     *
+     * @return a future completed once the snapshot, or a newer one, is on disk.
+     */
+    public CompletableFuture<Void> serializeAsync() {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try {
+            snapshotCodec.write(dataBundle, snapshot);
+        } catch (IOException e) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return saveService.requestSave(() -> snapshotFile.write(snapshot::writeTo));
     }
 
+    /**
+     * Waits for every save requested so far, then reads <code>dataBundle</code> back from <code>filePath</code>.
+     *
+     * @throws IOException            thrown when deserialization fails
+     * @throws ClassNotFoundException thrown when deserialization fails
+     */
     public void deserialize() throws IOException, ClassNotFoundException {
-        InputStream file = new FileInputStream(filePath);
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+        SaveService.await(saveService.flush());
+        readSnapshot();
+    }
 
-        this.dataBundle = (DataBundle) input.readObject();
-        input.close();
+    /**
+     * Maps the newest intact generation of <code>filePath</code> into memory as <code>dataBundle</code>, whose
+     * entities are decoded as they are first used, or in the background, whichever comes first. Files written with
+     * java serialization are still read, and are replaced by the compact format on the next <code>serialize</code>.
+     *
+     * @throws IOException            thrown when deserialization fails
+     * @throws ClassNotFoundException thrown when deserialization fails
+     */
+    protected void readSnapshot() throws IOException, ClassNotFoundException {
+        this.dataBundle = snapshotFile.read(SnapshotConverter::read);
+        decodeInBackground(dataBundle);
+    }
+
+    /**
+     * Decodes the entities of <code>dataBundle</code> not used yet on every core, while the bundle is already in use.
+     *
+     * @param dataBundle the bundle just read.
+     */
+    protected static void decodeInBackground(DataBundle dataBundle) {
+        SnapshotCodec.decodeInParallel(dataBundle).exceptionally(e -> {
+            e.printStackTrace();
+            return null;
+        });
     }
 }
@@ -1,5 +1,11 @@
+import client.databundle.DataBundle;
+import client.databundle.DataSerializer;
+import client.databundle.LogStructuredStore;
 import client.guiandpresenter.mainscreen.MainScreen;
+import client.server.TradingServer;
+import genericdatatype.Pair;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -9,14 +15,41 @@ class Main {
     /**
      * Main method of the program.
      * Creates an instance of MainProgram, and call its setup() and run()
+     * Data is kept in a snapshot and journal, or in an embedded key-value store when the "storage" system property
+     * is "kv".
+     * When the "port" system property is set, the system is served to clients connecting to that port of the local
+     * machine by a <code>TradingServer</code> instead of being shown in screens, until the process is stopped.
      *
      * @param args default parameter
      * @throws IOException            thrown when (de)serialization fails
      * @throws ClassNotFoundException thrown when (de)serialization fails
      */
     public static void main(String[] args) throws IOException, ClassNotFoundException {
-        LocalDataSerializer localDataSerializer = new LocalDataSerializer();
-        localDataSerializer.setup();
-        new MainScreen(localDataSerializer.getStartingInfo().value1, localDataSerializer.getStartingInfo().value2);
+        Pair<DataBundle, DataSerializer> startingInfo;
+        if ("kv".equalsIgnoreCase(System.getProperty("storage"))) {
+            StoreDataSerializer dataSerializer =
+                    new StoreDataSerializer(new LogStructuredStore(new File("DataBundle.kv")));
+            dataSerializer.setup();
+            startingInfo = dataSerializer.getStartingInfo();
+        } else {
+            JournaledDataSerializer dataSerializer = new JournaledDataSerializer();
+            dataSerializer.setup();
+            startingInfo = dataSerializer.getStartingInfo();
+        }
+        String port = System.getProperty("port");
+        if (port != null) {
+            TradingServer server = new TradingServer(startingInfo.value1, startingInfo.value2, Integer.parseInt(port));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+            System.out.println("Serving on port " + server.getPort());
+            server.run();
+            return;
+        }
+        new MainScreen(startingInfo.value1, startingInfo.value2);
     }
 }
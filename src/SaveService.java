@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Class that runs the saves of a serializer on a dedicated I/O thread, so that the Swing event thread never waits on
+ * the disk. Saves requested while another one is waiting to start are coalesced: only the newest is run, and every
+ * caller gets the same future.
+ */
+public class SaveService {
+    /**
+     * Writes one consistent view of the data to disk.
+     */
+    public interface Save {
+        /**
+         * Writes the view to disk.
+         *
+         * @throws IOException thrown when the view can't be written
+         */
+        void run() throws IOException;
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "data-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /* The save waiting to start and its future, and the future of the newest save requested. */
+    private Save pendingSave;
+    private CompletableFuture<Void> pendingFuture;
+    private CompletableFuture<Void> lastFuture = CompletableFuture.completedFuture(null);
+
+    /**
+     * Requests <code>save</code> to be run on the I/O thread. If an earlier save hasn't started yet, it is replaced
+     * by <code>save</code>, which writes a newer view.
+     *
+     * @param save the save to be run.
+     * @return a future completed once <code>save</code>, or a newer save replacing it, has been written.
+     */
+    public synchronized CompletableFuture<Void> requestSave(Save save) {
+        pendingSave = save;
+        if (pendingFuture == null) {
+            pendingFuture = new CompletableFuture<>();
+            lastFuture = pendingFuture;
+            executor.execute(this::runSave);
+        }
+        return pendingFuture;
+    }
+
+    /**
+     * Gets the future of the newest save requested, so that callers can wait for every save before it as well.
+     *
+     * @return a future completed once every save requested so far has been written.
+     */
+    public synchronized CompletableFuture<Void> flush() {
+        return lastFuture;
+    }
+
+    private void runSave() {
+        Save save;
+        CompletableFuture<Void> future;
+        synchronized (this) {
+            save = pendingSave;
+            future = pendingFuture;
+            pendingSave = null;
+            pendingFuture = null;
+        }
+        try {
+            save.run();
+            future.complete(null);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Waits for <code>future</code> of a save to complete.
+     *
+     * @param future the future of the save.
+     * @throws IOException thrown when the save failed, or the wait was interrupted
+     */
+    public static void await(CompletableFuture<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a save");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import client.databundle.BlockCodecs;
+import client.databundle.DataBundle;
+import client.databundle.SnapshotCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Class that reads snapshots in either format, and converts a <code>DataBundle.ser</code> written with java
+ * serialization into the format of <code>SnapshotCodec</code>.
+ */
+public class SnapshotConverter {
+    /* The first two bytes of every stream written by an ObjectOutputStream. */
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+
+    /**
+     * Converts the snapshot at <code>args[0]</code>(DataBundle.ser by default) and writes the result to
+     * <code>args[1]</code>, which defaults to replacing the original file. A replaced file is kept as the previous
+     * generation. Sections are compressed with the block codec named <code>args[2]</code>, none by default.
+     *
+     * @param args the source and target paths.
+     * @throws IOException            thrown when (de)serialization fails
+     * @throws ClassNotFoundException thrown when deserialization fails
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        File source = new File(args.length > 0 ? args[0] : "DataBundle.ser");
+        File target = new File(args.length > 1 ? args[1] : source.getPath());
+        DataBundle dataBundle = read(source);
+        SnapshotCodec codec = new SnapshotCodec(BlockCodecs.forName(args.length > 2 ? args[2] : "none"));
+        new SnapshotFile(target.getPath()).write(output -> codec.write(dataBundle, output));
+        System.out.println("Converted " + source + " (" + source.length() + " bytes) to " + target + " ("
+                + target.length() + " bytes)");
+    }
+
+    /**
+     * Reads a <code>DataBundle</code> from <code>file</code>. A snapshot written by <code>SnapshotCodec</code> is
+     * memory-mapped and decoded lazily, so the file must only be replaced by moving another file over it, never
+     * truncated or rewritten in place, while the bundle is in use.
+     *
+     * @param file the snapshot file.
+     * @return the <code>DataBundle</code> read.
+     * @throws IOException            thrown when deserialization fails
+     * @throws ClassNotFoundException thrown when deserialization fails
+     */
+    public static DataBundle read(File file) throws IOException, ClassNotFoundException {
+        ByteBuffer buffer = map(file);
+        if (!isSerialized(buffer)) return new SnapshotCodec().read(buffer);
+        try (InputStream input = new FileInputStream(file)) {
+            return read(input);
+        }
+    }
+
+    /**
+     * Maps the whole of <code>file</code> into memory, read-only. The mapping stays valid after the file is closed,
+     * and after another file is moved over it.
+     *
+     * @param file the file to map.
+     * @return the contents of the file.
+     * @throws IOException thrown when the file can't be read
+     */
+    public static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Reads a <code>DataBundle</code> from <code>input</code>, which holds either a snapshot written by
+     * <code>SnapshotCodec</code> or a bundle written with java serialization.
+     *
+     * @param input the stream to read from. It is not closed.
+     * @return the <code>DataBundle</code> read.
+     * @throws IOException            thrown when deserialization fails
+     * @throws ClassNotFoundException thrown when deserialization fails
+     */
+    public static DataBundle read(InputStream input) throws IOException, ClassNotFoundException {
+        BufferedInputStream buffer = new BufferedInputStream(input);
+        if (!isSerialized(buffer)) return new SnapshotCodec().read(buffer);
+        ObjectInputStream objectInput = new ObjectInputStream(buffer);
+        Object first = objectInput.readObject();
+        /* snapshots of JournaledDataSerializer start with the first journal segment they don't cover */
+        return first instanceof DataBundle ? (DataBundle) first : (DataBundle) objectInput.readObject();
+    }
+
+    /**
+     * Checks whether <code>input</code> starts with a stream written with java serialization, without consuming it.
+     *
+     * @param input the stream to check.
+     * @return true iff the stream was written by an <code>ObjectOutputStream</code>.
+     * @throws IOException thrown when <code>input</code> can't be read from
+     */
+    public static boolean isSerialized(BufferedInputStream input) throws IOException {
+        input.mark(2);
+        int magic = (input.read() << 8) | input.read();
+        input.reset();
+        return magic == SERIALIZATION_MAGIC;
+    }
+
+    /**
+     * Checks whether the remaining bytes of <code>buffer</code> start with a stream written with java serialization.
+     *
+     * @param buffer the bytes to check. Its position is not changed.
+     * @return true iff the bytes were written by an <code>ObjectOutputStream</code>.
+     */
+    public static boolean isSerialized(ByteBuffer buffer) {
+        return buffer.remaining() >= 2 && (buffer.getShort(buffer.position()) & 0xFFFF) == SERIALIZATION_MAGIC;
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class that keeps a snapshot file crash-safe. A new snapshot is written to a temporary file and forced to disk
+ * before it is renamed over the old one, which is kept as the previous generation. The file being replaced is
+ * therefore never truncated, and a crash at any point leaves at least one complete snapshot behind.
+ * <p>
+ * When reading, the snapshot, then a temporary file completed right before a crash, then the previous generation
+ * are tried in turn until one of them can be read. Snapshots checksum themselves, so a damaged one fails to read.
+ */
+public class SnapshotFile {
+    /**
+     * Writes a snapshot.
+     */
+    public interface Writer {
+        /**
+         * Writes the snapshot to <code>output</code>.
+         *
+         * @param output the stream to write to. It is closed by the caller.
+         * @throws IOException thrown when the snapshot can't be written
+         */
+        void write(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param <T> the type of snapshot read.
+     */
+    public interface Reader<T> {
+        /**
+         * Reads the snapshot in <code>file</code>, which may be mapped into memory and kept that way.
+         *
+         * @param file the file to read.
+         * @return the snapshot read.
+         * @throws IOException            thrown when the file isn't a complete, intact snapshot
+         * @throws ClassNotFoundException thrown when the file is a snapshot of unknown classes
+         */
+        T read(File file) throws IOException, ClassNotFoundException;
+    }
+
+    private final File file;
+    private final File temp;
+    private final File previous;
+    private final File corrupt;
+
+    /**
+     * Constructs a SnapshotFile for the snapshot at <code>path</code>. The other generations are kept next to it.
+     *
+     * @param path the path of the snapshot.
+     */
+    public SnapshotFile(String path) {
+        file = new File(path);
+        temp = new File(path + ".tmp");
+        previous = new File(path + ".prev");
+        corrupt = new File(path + ".corrupt");
+    }
+
+    /**
+     * Checks whether there is any snapshot to read.
+     *
+     * @return true iff the snapshot or one of its other generations exists.
+     */
+    public synchronized boolean exists() {
+        return file.exists() || temp.exists() || previous.exists();
+    }
+
+    /**
+     * Writes a new snapshot with <code>writer</code> and makes it the current one. The current snapshot becomes the
+     * previous generation.
+     *
+     * @param writer writes the new snapshot.
+     * @throws IOException thrown when the snapshot can't be written, in which case the current one is unchanged
+     */
+    public synchronized void write(Writer writer) throws IOException {
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            OutputStream buffer = new BufferedOutputStream(output);
+            writer.write(buffer);
+            buffer.flush();
+            output.getFD().sync();
+        }
+        if (file.exists()) move(file, previous);
+        move(temp, file);
+        syncDirectory();
+    }
+
+    /**
+     * Reads the newest generation of the snapshot that <code>reader</code> accepts. If that is not the current
+     * snapshot, the current one is set aside as <code>.corrupt</code> so it is never rotated over a good
+     * generation.
+     *
+     * @param reader reads a snapshot.
+     * @param <T>    the type of snapshot read.
+     * @return the snapshot read.
+     * @throws IOException            thrown when no generation can be read, with the reason the current one failed
+     * @throws ClassNotFoundException thrown when no generation can be read
+     */
+    public synchronized <T> T read(Reader<T> reader) throws IOException, ClassNotFoundException {
+        Exception failure = null;
+        for (File candidate : new File[]{file, temp, previous}) {
+            if (!candidate.exists()) continue;
+            try {
+                T snapshot = reader.read(candidate);
+                if (candidate != file) recover(candidate, failure);
+                return snapshot;
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        if (failure instanceof ClassNotFoundException) throw (ClassNotFoundException) failure;
+        if (failure instanceof IOException) throw (IOException) failure;
+        if (failure != null) throw new IOException("No readable snapshot at " + file, failure);
+        throw new FileNotFoundException(file.getPath());
+    }
+
+    /* Moves the generation read into place, keeping a damaged snapshot aside for inspection. A mapped file can be
+     * renamed safely, but must never be the temporary file that the next write truncates.
+     */
+    private void recover(File candidate, Exception failure) throws IOException {
+        if (failure != null)
+            System.err.println("Snapshot " + file + " could not be read (" + failure + "), recovered from "
+                    + candidate);
+        if (file.exists()) move(file, corrupt);
+        if (candidate == temp) move(temp, file);
+        syncDirectory();
+    }
+
+    private static void move(File source, File target) throws IOException {
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /* Makes the renames durable. Not every platform can open a directory, in which case the rename is left to the
+     * file system to flush.
+     */
+    private void syncDirectory() {
+        File directory = file.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            /* best effort */
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import client.databundle.DataBundle;
+import client.databundle.DataSerializer;
+import client.databundle.EntityStore;
+import client.databundle.KeyValueStore;
+import client.databundle.Mutation;
+import client.databundle.MutationJournal;
+import genericdatatype.Pair;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Class used to keep data in a <code>KeyValueStore</code>, one record per entity, through an
+ * <code>EntityStore</code>. The data bundle is a write-through cache over the store: its lists decode entities as
+ * they are used, and every change journaled by a facade is written to the store right away, by writing the entities
+ * its session used while the session holds its locks. The store is forced to disk on a <code>SaveService</code>, so
+ * neither blocks the Swing event thread on the disk. Once the registries of the bundle indexed a list, they hold on
+ * to its entities, so memory grows with the data set rather than with the entities in use.
+ * <p>
+ * The first time it is set up, the data saved by the snapshot serializers is imported into the store.
+ */
+public class StoreDataSerializer implements DataSerializer, MutationJournal {
+    private final KeyValueStore store;
+    private final EntityStore entityStore;
+    private final SaveService saveService = new SaveService();
+    private DataBundle dataBundle;
+
+    /**
+     * Constructs a StoreDataSerializer that keeps data in <code>store</code>.
+     *
+     * @param store the store of the records.
+     */
+    public StoreDataSerializer(KeyValueStore store) {
+        this.store = store;
+        entityStore = new EntityStore(store);
+    }
+
+    /**
+     * Loads the data bundle in the store. If the store is empty, imports the snapshot and journal of
+     * <code>JournaledDataSerializer</code> if there are any, or a new data bundle otherwise.
+     *
+     * @throws IOException            thrown when (de)serialization fails
+     * @throws ClassNotFoundException thrown when (de)serialization fails
+     */
+    public synchronized void setup() throws IOException, ClassNotFoundException {
+        if (!entityStore.isEmpty()) {
+            dataBundle = entityStore.load();
+            return;
+        }
+        JournaledDataSerializer journaled = new JournaledDataSerializer();
+        DataBundle source = new DataBundle();
+        if (journaled.snapshotFile.exists()) {
+            journaled.deserialize();
+            source = journaled.getStartingInfo().value1;
+        }
+        dataBundle = entityStore.importBundle(source);
+        store.sync();
+    }
+
+    public Pair<DataBundle, DataSerializer> getStartingInfo() {
+        return new Pair<>(dataBundle, this);
+    }
+
+    @Override
+    public MutationJournal getJournal() {
+        return this;
+    }
+
+    /**
+     * Writes the entities changed by <code>mutation</code> to the store, which are among those the session of the
+     * calling thread used, and has them forced to disk on the I/O thread.
+     *
+     * @param mutation the change made to the <code>DataBundle</code>.
+     */
+    @Override
+    public void append(Mutation mutation) {
+        try {
+            entityStore.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        saveService.requestSave(store::sync);
+    }
+
+    public void serialize() throws IOException {
+        SaveService.await(serializeAsync());
+    }
+
+    /**
+     * Writes every change not written yet to the store on the calling thread, which holds the bundle exclusively or
+     * is the only thread changing it, and lets go of the entities used so far. The store is forced to disk on the I/O
+     * thread.
+     *
+     * @return a future completed once the store is on disk.
+     */
+    public CompletableFuture<Void> serializeAsync() {
+        try {
+            entityStore.release();
+        } catch (IOException e) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return saveService.requestSave(store::sync);
+    }
+
+    /**
+     * Loads the data bundle in the store again, discarding every change that was not written to the store.
+     *
+     * @throws IOException thrown when deserialization fails
+     */
+    public void deserialize() throws IOException {
+        SaveService.await(saveService.flush());
+        dataBundle = entityStore.load();
+    }
+}
@@ -1,13 +1,20 @@
 package client.controllers;
 
 import client.databundle.DataBundle;
+import client.databundle.Mutation;
+import client.databundle.MutationJournal;
+import client.databundle.MutationType;
 import core.AdminFacade;
+import core.DataLocks;
+import core.account.PasswordHasher;
 import core.meeting.MeetingThresholdType;
 import core.reverter.ActionReverter;
 import core.trade.TradeThresholdType;
 import genericdatatype.Pair;
 
+import java.time.Clock;
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
 /**
  * A controller class responsible for administration needs.
@@ -17,20 +24,68 @@ public class AdminSystem {
     private final String currAdminUsername;
     private final DataBundle dataBundle;
     private final AdminFacade adminFacade;
+    private final MutationJournal journal;
+    private final DataLocks locks;
+    private final Clock clock;
 
     /**
-     * Constructs an AdminSystem with <code>dataBundle</code> and <code>currAdminUsername</code>.
+     * Constructs an AdminSystem with <code>dataBundle</code> and <code>currAdminUsername</code>. Changes made through
+     * this system are not journaled.
      *
      * @param dataBundle        the data bundle that will be used initially.
      * @param currAdminUsername the username of the current admin.
      */
     public AdminSystem(DataBundle dataBundle, String currAdminUsername) {
+        this(dataBundle, currAdminUsername, MutationJournal.NONE);
+    }
+
+    /**
+     * Constructs an AdminSystem with <code>dataBundle</code> and <code>currAdminUsername</code>, appending every
+     * change made through this system to <code>journal</code>.
+     *
+     * @param dataBundle        the data bundle that will be used initially.
+     * @param currAdminUsername the username of the current admin.
+     * @param journal           the journal changes are appended to.
+     */
+    public AdminSystem(DataBundle dataBundle, String currAdminUsername, MutationJournal journal) {
+        this(dataBundle, currAdminUsername, journal, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs an AdminSystem with <code>dataBundle</code> and <code>currAdminUsername</code>, appending every
+     * change made through this system to <code>journal</code> and evaluating time-dependent queries against
+     * <code>clock</code>.
+     *
+     * @param dataBundle        the data bundle that will be used initially.
+     * @param currAdminUsername the username of the current admin.
+     * @param journal           the journal changes are appended to.
+     * @param clock             the clock time-dependent queries are evaluated against.
+     */
+    public AdminSystem(DataBundle dataBundle, String currAdminUsername, MutationJournal journal, Clock clock) {
         this.currAdminUsername = currAdminUsername;
         this.dataBundle = dataBundle;
-        adminFacade = new AdminFacade(dataBundle.adminCreationRequests, dataBundle.admins,
-                dataBundle.getEntitiesAndReverters(),
+        this.journal = journal;
+        this.locks = dataBundle.getLocks();
+        this.clock = clock;
+        /* The facade is set up from the requests and thresholds as they are, while no user is changing them. */
+        adminFacade = locks.exclusive(() -> new AdminFacade(dataBundle.adminCreationRequests,
+                dataBundle.getAdminRegistry(), dataBundle.getEntitiesAndReverters(),
                 dataBundle.getIdCounters(), dataBundle.getRequests(),
-                dataBundle.getThresholds());
+                dataBundle.getThresholds(), clock));
+    }
+
+    /* Makes a change as the current admin and appends it to the journal if it succeeded. Returns success so it can
+     * wrap a facade call. Changes made by admins hold the data exclusively until they are journaled, which also keeps
+     * the thresholds in dataBundle in step with the ones used by the facades.
+     */
+    private boolean record(BooleanSupplier change, MutationType type, Object... args) {
+        return locks.session(() -> locks.exclusive(() -> {
+            if (!change.getAsBoolean()) return false;
+            String[] strArgs = new String[args.length];
+            for (int i = 0; i < args.length; i++) strArgs[i] = String.valueOf(args[i]);
+            locks.commit(() -> journal.append(new Mutation(type, currAdminUsername, clock.millis(), strArgs)));
+            return true;
+        }));
     }
 
     /* Input must be a positive integer. */
@@ -66,7 +121,7 @@ public class AdminSystem {
      * @return true iff this user exists and frozen successfully.
      */
     public boolean freezeUser(String username) {
-        return adminFacade.freezeUser(username);
+        return record(() -> adminFacade.freezeUser(username), MutationType.FREEZE_USER, username);
     }
 
     /**
@@ -76,7 +131,7 @@ public class AdminSystem {
      * @return true iff this user exists and frozen successfully.
      */
     public boolean unfreezeUser(String username) {
-        return adminFacade.unfreezeUser(username);
+        return record(() -> adminFacade.unfreezeUser(username), MutationType.UNFREEZE_USER, username);
     }
 
     /**
@@ -102,15 +157,6 @@ public class AdminSystem {
         return input.length() < 4;
     }
 
-    /**
-     * Get the password of this admin
-     *
-     * @return the current password of this admin
-     */
-    public String getPassword() {
-        return adminFacade.getPassword(currAdminUsername);
-    }
-
     /**
      * Set the password of this admin. Cannot set if <code>password</code> is not a valid string for passwords.
      *
@@ -120,8 +166,12 @@ public class AdminSystem {
     public boolean setPassword(String password) {
         if (isNotValidString(password))
             return false;
-        adminFacade.setPassword(currAdminUsername, password);
-        return true;
+        /* The password is journaled in the form it is stored in, which replaying sets as it is. */
+        String storedPassword = PasswordHasher.getDefault().hash(password);
+        return record(() -> {
+            adminFacade.setPassword(currAdminUsername, storedPassword);
+            return true;
+        }, MutationType.ADMIN_SET_PASSWORD, storedPassword);
     }
 
     /**
@@ -173,7 +223,15 @@ public class AdminSystem {
      * @return String message indicating whether the undo is successful or not.
      */
     public String undo(Object reverter) {
-        return adminFacade.undo((ActionReverter) reverter);
+        /* The index is taken before undoing, since a successful undo removes the reverter. Both are done in one
+         * session, so no other change can move the reverter in between.
+         */
+        return locks.session(() -> {
+            int index = locks.exclusive(() -> adminFacade.getReverterIndex((ActionReverter) reverter));
+            String result = adminFacade.undo((ActionReverter) reverter);
+            record(() -> index >= 0, MutationType.UNDO, index);
+            return result;
+        });
     }
 
     /**
@@ -197,16 +255,18 @@ public class AdminSystem {
      * @return true if the request is handled successfully.
      */
     public boolean handleRequest(RequestType type, Pair<String, String> request, boolean accepted) {
+        return record(() -> processRequest(type, request, accepted), MutationType.HANDLE_REQUEST,
+                type, request.value1, request.value2, accepted);
+    }
+
+    private boolean processRequest(RequestType type, Pair<String, String> request, boolean accepted) {
         switch (type) {
             case ITEM:
-                adminFacade.processItemRequest(request, accepted);
-                return true;
+                return adminFacade.processItemRequest(request, accepted);
             case REPORT:
-                adminFacade.processUserReport(request, accepted);
-                return true;
+                return adminFacade.processUserReport(request, accepted);
             case UNFREEZE:
-                adminFacade.processUnfreezeRequest(request, accepted);
-                return true;
+                return adminFacade.processUnfreezeRequest(request, accepted);
             default:
                 return adminFacade.processAdminCreationRequest(request, accepted, currAdminUsername);
         }
@@ -220,7 +280,9 @@ public class AdminSystem {
      * @return true iff the creation is successful.
      */
     public boolean createAdmin(String username, String password) {
-        return adminFacade.createAdmin(username, password, currAdminUsername);
+        String storedPassword = PasswordHasher.getDefault().hash(password);
+        return record(() -> adminFacade.createAdmin(username, storedPassword, currAdminUsername),
+                MutationType.CREATE_ADMIN, username, storedPassword);
     }
 
     /**
@@ -229,7 +291,10 @@ public class AdminSystem {
      * @param message the message to be sent.
      */
     public void setAnnouncement(String message) {
-        adminFacade.adminToAllUser(currAdminUsername, message);
+        record(() -> {
+            adminFacade.adminToAllUser(currAdminUsername, message);
+            return true;
+        }, MutationType.SEND_ANNOUNCEMENT, message);
     }
 
     /**
@@ -240,10 +305,12 @@ public class AdminSystem {
      */
     public boolean setBorrowLendDifference(String newDifference) {
         if (isNotValidThreshold(newDifference)) return false;
-        dataBundle.minLendBorrowDifference = Integer.parseInt(newDifference);
-        adminFacade.setTradeThreshold(TradeThresholdType.MIN_LEND_BORROW_DIFF,
-                Integer.parseInt(newDifference));
-        return true;
+        return record(() -> {
+            dataBundle.minLendBorrowDifference = Integer.parseInt(newDifference);
+            adminFacade.setTradeThreshold(TradeThresholdType.MIN_LEND_BORROW_DIFF,
+                    Integer.parseInt(newDifference));
+            return true;
+        }, MutationType.SET_THRESHOLD, "setBorrowLendDifference", newDifference);
     }
 
     /**
@@ -254,10 +321,12 @@ public class AdminSystem {
      */
     public boolean setWeeklyTransactionLimit(String newLimit) {
         if (isNotValidThreshold(newLimit)) return false;
-        dataBundle.maxWeeklyTransaction = Integer.parseInt(newLimit);
-        adminFacade.setTradeThreshold(TradeThresholdType.MAX_WEEKLY_TRANSACTIONS,
-                Integer.parseInt(newLimit));
-        return true;
+        return record(() -> {
+            dataBundle.maxWeeklyTransaction = Integer.parseInt(newLimit);
+            adminFacade.setTradeThreshold(TradeThresholdType.MAX_WEEKLY_TRANSACTIONS,
+                    Integer.parseInt(newLimit));
+            return true;
+        }, MutationType.SET_THRESHOLD, "setWeeklyTransactionLimit", newLimit);
     }
 
     /**
@@ -268,10 +337,12 @@ public class AdminSystem {
      */
     public boolean setIncompleteTradeLimit(String newLimit) {
         if (isNotValidThreshold(newLimit)) return false;
-        dataBundle.maxIncompleteTrade = Integer.parseInt(newLimit);
-        adminFacade.setTradeThreshold(TradeThresholdType.MAX_INCOMPLETE_TRADES,
-                Integer.parseInt(newLimit));
-        return true;
+        return record(() -> {
+            dataBundle.maxIncompleteTrade = Integer.parseInt(newLimit);
+            adminFacade.setTradeThreshold(TradeThresholdType.MAX_INCOMPLETE_TRADES,
+                    Integer.parseInt(newLimit));
+            return true;
+        }, MutationType.SET_THRESHOLD, "setIncompleteTradeLimit", newLimit);
     }
 
     /**
@@ -282,9 +353,11 @@ public class AdminSystem {
      */
     public boolean setMeetingEditLimit(String newLimit) {
         if (isNotValidThreshold(newLimit)) return false;
-        dataBundle.maxMeetingEdits = Integer.parseInt(newLimit);
-        adminFacade.setMeetingThreshold(MeetingThresholdType.MAX_EDITS, Integer.parseInt(newLimit));
-        return true;
+        return record(() -> {
+            dataBundle.maxMeetingEdits = Integer.parseInt(newLimit);
+            adminFacade.setMeetingThreshold(MeetingThresholdType.MAX_EDITS, Integer.parseInt(newLimit));
+            return true;
+        }, MutationType.SET_THRESHOLD, "setMeetingEditLimit", newLimit);
     }
 
     /**
@@ -295,9 +368,11 @@ public class AdminSystem {
      */
     public boolean setMeetingLateLimit(String newLimit) {
         if (isNotValidThreshold(newLimit)) return false;
-        dataBundle.maxMeetingLateTime = Integer.parseInt(newLimit);
-        adminFacade.setMeetingThreshold(MeetingThresholdType.MAX_LATE_TIMES, Integer.parseInt(newLimit));
-        return true;
+        return record(() -> {
+            dataBundle.maxMeetingLateTime = Integer.parseInt(newLimit);
+            adminFacade.setMeetingThreshold(MeetingThresholdType.MAX_LATE_TIMES, Integer.parseInt(newLimit));
+            return true;
+        }, MutationType.SET_THRESHOLD, "setMeetingLateLimit", newLimit);
     }
 
     /**
@@ -347,4 +422,64 @@ public class AdminSystem {
     public String getMeetingLateLimit() {
         return String.valueOf(adminFacade.getMeetingThreshold(MeetingThresholdType.MAX_LATE_TIMES));
     }
+
+    /**
+     * Replays <code>mutation</code>, which was recorded by an <code>AdminSystem</code> of the same admin, directly
+     * against <code>adminFacade</code>. Emails are not sent again while replaying.
+     *
+     * @param mutation a mutation with an <code>ADMIN</code> source.
+     */
+    public void apply(Mutation mutation) {
+        adminFacade.setEmailNotification(false);
+        switch (mutation.getType()) {
+            case ADMIN_SET_PASSWORD:
+                adminFacade.setPassword(currAdminUsername, mutation.getArg(0));
+                break;
+            case FREEZE_USER:
+                adminFacade.freezeUser(mutation.getArg(0));
+                break;
+            case UNFREEZE_USER:
+                adminFacade.unfreezeUser(mutation.getArg(0));
+                break;
+            case HANDLE_REQUEST:
+                processRequest(RequestType.valueOf(mutation.getArg(0)),
+                        new Pair<>(mutation.getArg(1), mutation.getArg(2)), mutation.getBooleanArg(3));
+                break;
+            case CREATE_ADMIN:
+                adminFacade.createAdmin(mutation.getArg(0), mutation.getArg(1), currAdminUsername);
+                break;
+            case SEND_ANNOUNCEMENT:
+                adminFacade.adminToAllUser(currAdminUsername, mutation.getArg(0));
+                break;
+            case UNDO:
+                ActionReverter reverter = adminFacade.getReverter(mutation.getIntArg(0));
+                if (reverter != null) adminFacade.undo(reverter);
+                break;
+            case SET_THRESHOLD:
+                applyThreshold(mutation.getArg(0), mutation.getArg(1));
+                break;
+            default:
+                throw new IllegalArgumentException("Not an admin mutation: " + mutation.getType());
+        }
+    }
+
+    /* Thresholds are journaled by the name of their setter, which also keeps dataBundle in sync. */
+    private void applyThreshold(String setter, String value) {
+        switch (setter) {
+            case "setBorrowLendDifference":
+                setBorrowLendDifference(value);
+                break;
+            case "setWeeklyTransactionLimit":
+                setWeeklyTransactionLimit(value);
+                break;
+            case "setIncompleteTradeLimit":
+                setIncompleteTradeLimit(value);
+                break;
+            case "setMeetingEditLimit":
+                setMeetingEditLimit(value);
+                break;
+            default:
+                setMeetingLateLimit(value);
+        }
+    }
 }
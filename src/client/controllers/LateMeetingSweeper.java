@@ -0,0 +1,61 @@
+package client.controllers;
+
+import client.databundle.DataBundle;
+import client.databundle.MutationJournal;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A controller class that abandons the trades whose meeting became late in the background, so that they are
+ * abandoned and their users lose credit even while no user looks at their trades.
+ * <p>
+ * Every <code>period</code> it looks at the meeting that becomes late first, which takes no lock, and only abandons
+ * trades once a meeting became late. Trades are abandoned through a <code>UserSystem</code> with no user logged in,
+ * which journals the change like the sessions of users do.
+ */
+public class LateMeetingSweeper implements Closeable {
+    private final UserSystem userSystem;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "late-meeting-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a LateMeetingSweeper of the meetings in <code>dataBundle</code>, and starts it.
+     *
+     * @param dataBundle    all the essential data of this system.
+     * @param journal       the journal the trades abandoned are recorded to.
+     * @param periodSeconds the number of seconds between two looks for late meetings.
+     */
+    public LateMeetingSweeper(DataBundle dataBundle, MutationJournal journal, long periodSeconds) {
+        userSystem = new UserSystem(dataBundle, null, journal, Clock.systemDefaultZone());
+        executor.scheduleWithFixedDelay(this::sweep, 0, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /* An exception would cancel the sweeps to come, so it is only printed. */
+    private void sweep() {
+        try {
+            userSystem.updateCreditSubtraction();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops looking for late meetings, waiting for a sweep that already started.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
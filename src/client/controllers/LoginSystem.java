@@ -1,9 +1,16 @@
 package client.controllers;
 
 import client.databundle.DataBundle;
+import client.databundle.Mutation;
+import client.databundle.MutationJournal;
+import client.databundle.MutationType;
+import core.DataLocks;
+import core.account.Account;
+import core.account.AccountRegistry;
 import core.account.LoginManager;
 import core.admin.Admin;
 import core.user.User;
+import genericdatatype.Pair;
 
 /**
  * A Controller class responsible for logging in guests/users/admins
@@ -11,16 +18,36 @@ import core.user.User;
 public class LoginSystem {
     private final LoginManager<User> userLoginManager;
     private final LoginManager<Admin> adminLoginManager;
+    private final AccountRegistry<User> users;
+    private final AccountRegistry<Admin> admins;
+    private final MutationJournal journal;
+    private final DataLocks locks;
 
     /**
      * Constructs a LoginSystem instance with input essential data of this system
      * If this program has never been run before, admins will be empty
+     * Passwords hashed again through this system are not journaled.
      *
      * @param dataBundle all the essential data of this system
      */
     public LoginSystem(DataBundle dataBundle) {
-        userLoginManager = new LoginManager<>(dataBundle.users);
-        adminLoginManager = new LoginManager<>(dataBundle.admins);
+        this(dataBundle, MutationJournal.NONE);
+    }
+
+    /**
+     * Constructs a LoginSystem instance with input essential data of this system, appending every password hashed
+     * again on login to <code>journal</code>.
+     *
+     * @param dataBundle all the essential data of this system
+     * @param journal    the journal passwords hashed again are appended to.
+     */
+    public LoginSystem(DataBundle dataBundle, MutationJournal journal) {
+        users = dataBundle.getUserRegistry();
+        admins = dataBundle.getAdminRegistry();
+        userLoginManager = new LoginManager<>(users);
+        adminLoginManager = new LoginManager<>(admins);
+        this.journal = journal;
+        locks = dataBundle.getLocks();
     }
 
     /**
@@ -31,13 +58,54 @@ public class LoginSystem {
      * @return the type of user or a failed state
      */
     public LoginType login(String username, String password) {
-        if (userLoginManager.verifyAccount(username, password))
-            return LoginType.USER;
-        else if (adminLoginManager.verifyAccount(username, password))
-            return LoginType.ADMIN;
+        if (login(userLoginManager, username, password)) return LoginType.USER;
+        if (login(adminLoginManager, username, password)) return LoginType.ADMIN;
         return LoginType.FAILED;
     }
 
+    /* The password is verified without holding the data, as hashing takes long. The data is only held to look the
+     * account up, and to store a password hashed again, which is journaled in the form it is stored in so that a
+     * bundle rebuilt from the journal has it hashed as well. If the password changed in between, it is verified
+     * again.
+     */
+    private <E extends Account> boolean login(LoginManager<E> loginManager, String username, String password) {
+        while (true) {
+            Pair<E, String> found = locks.shared(() -> {
+                E account = loginManager.getAccount(username);
+                return new Pair<>(account, account == null ? null : account.getPassword());
+            }, username);
+            if (found.value1 == null) return false;
+            String updated = loginManager.verify(found.value1, found.value2, password);
+            if (updated == null) return false;
+            boolean loggedIn = locks.session(() -> locks.shared(() -> {
+                if (!loginManager.update(found.value1, found.value2, updated, password)) return false;
+                if (!updated.equals(found.value2))
+                    journal.append(new Mutation(MutationType.REHASH_PASSWORD, null, System.currentTimeMillis(),
+                            username, updated));
+                return true;
+            }, username));
+            if (loggedIn) return true;
+        }
+    }
+
+    /**
+     * Replays <code>mutation</code>, which was recorded by a <code>LoginSystem</code>.
+     *
+     * @param mutation a mutation with a <code>LOGIN</code> source.
+     */
+    public void apply(Mutation mutation) {
+        if (mutation.getType() != MutationType.REHASH_PASSWORD)
+            throw new IllegalArgumentException("Not a login mutation: " + mutation.getType());
+        Account account = getAccount(mutation.getArg(0));
+        if (account != null) account.setPassword(mutation.getArg(1));
+    }
+
+    /* Gets the user or admin with username, or null if there is none. */
+    private Account getAccount(String username) {
+        Account account = users.get(username);
+        return account == null ? admins.get(username) : account;
+    }
+
     /**
      * Gets guest(demo) <code>User</code>'s username.
      *
@@ -1,6 +1,11 @@
 package client.controllers;
 
 import client.databundle.DataBundle;
+import client.databundle.Mutation;
+import client.databundle.MutationJournal;
+import client.databundle.MutationType;
+import core.DataLocks;
+import core.account.PasswordHasher;
 import core.admin.AdminAccountManager;
 import core.user.UserAccountManager;
 
@@ -11,15 +16,31 @@ import core.user.UserAccountManager;
 public class RegistrationSystem {
     private final UserAccountManager userAccountManager;
     private final AdminAccountManager adminAccountManager;
+    private final MutationJournal journal;
+    private final DataLocks locks;
 
     /**
      * Constructs a RegistrationSystem instance with input essential data <code>dataBundle</code> of this system.
+     * Registrations made through this system are not journaled.
      *
      * @param dataBundle all the essential data of this system.
      */
     public RegistrationSystem(DataBundle dataBundle) {
-        userAccountManager = new UserAccountManager(dataBundle.users);
-        adminAccountManager = new AdminAccountManager(dataBundle.admins, dataBundle.adminCreationRequests);
+        this(dataBundle, MutationJournal.NONE);
+    }
+
+    /**
+     * Constructs a RegistrationSystem instance with input essential data <code>dataBundle</code> of this system,
+     * appending every registration made through this system to <code>journal</code>.
+     *
+     * @param dataBundle all the essential data of this system.
+     * @param journal    the journal registrations are appended to.
+     */
+    public RegistrationSystem(DataBundle dataBundle, MutationJournal journal) {
+        userAccountManager = new UserAccountManager(dataBundle.getUserRegistry());
+        adminAccountManager = new AdminAccountManager(dataBundle.getAdminRegistry(), dataBundle.adminCreationRequests);
+        this.journal = journal;
+        locks = dataBundle.getLocks();
     }
 
     /**
@@ -51,11 +72,18 @@ public class RegistrationSystem {
      * @return whether or not the creation is successful.
      */
     public boolean createUser(String username, String password) {
-        if ((userAccountManager.usernameExists(username) || adminAccountManager.usernameExists(username))
-                || isNotInputValidString(password) || isNotInputValidString(username))
-            return false;
-        userAccountManager.createUser(username, password);
-        return true;
+        if (isNotInputValidString(password) || isNotInputValidString(username)) return false;
+        /* The password is hashed before the data is held, and journaled in the form it is stored in. */
+        String storedPassword = PasswordHasher.getDefault().hash(password);
+        /* The check and the creation are done holding the data, so two registrations can't take the same username. */
+        return locks.session(() -> locks.exclusive(() -> {
+            if (userAccountManager.usernameExists(username) || adminAccountManager.usernameExists(username))
+                return false;
+            userAccountManager.createUser(username, storedPassword);
+            journal.append(new Mutation(MutationType.CREATE_USER, null, System.currentTimeMillis(), username,
+                    storedPassword));
+            return true;
+        }));
     }
 
     /**
@@ -70,9 +98,34 @@ public class RegistrationSystem {
      * @return whether or not the creation is successful.
      */
     public boolean requestAdmin(String username, String password, String userEmail) {
-        if (userAccountManager.usernameExists(username) || adminAccountManager.usernameExists(username)
-                || isNotInputValidString(username) || isNotInputValidString(password) || !isValidEmail(userEmail))
+        if (isNotInputValidString(username) || isNotInputValidString(password) || !isValidEmail(userEmail))
             return false;
-        return adminAccountManager.requestAdminCreation(username, password, userEmail);
+        String storedPassword = PasswordHasher.getDefault().hash(password);
+        return locks.session(() -> locks.exclusive(() -> {
+            if (userAccountManager.usernameExists(username) || adminAccountManager.usernameExists(username))
+                return false;
+            if (!adminAccountManager.requestAdminCreation(username, storedPassword, userEmail)) return false;
+            journal.append(new Mutation(MutationType.REQUEST_ADMIN, null, System.currentTimeMillis(),
+                    username, storedPassword, userEmail));
+            return true;
+        }));
+    }
+
+    /**
+     * Replays <code>mutation</code>, which was recorded by a <code>RegistrationSystem</code>.
+     *
+     * @param mutation a mutation with a <code>REGISTRATION</code> source.
+     */
+    public void apply(Mutation mutation) {
+        switch (mutation.getType()) {
+            case CREATE_USER:
+                userAccountManager.createUser(mutation.getArg(0), mutation.getArg(1));
+                break;
+            case REQUEST_ADMIN:
+                adminAccountManager.requestAdminCreation(mutation.getArg(0), mutation.getArg(1), mutation.getArg(2));
+                break;
+            default:
+                throw new IllegalArgumentException("Not a registration mutation: " + mutation.getType());
+        }
     }
 }
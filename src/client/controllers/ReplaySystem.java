@@ -0,0 +1,49 @@
+package client.controllers;
+
+import client.databundle.DataBundle;
+import client.databundle.Mutation;
+import client.databundle.MutationJournal;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * A controller class that replays journaled mutations on a <code>DataBundle</code>, through the same system that
+ * recorded them.
+ */
+public class ReplaySystem {
+    private final DataBundle dataBundle;
+
+    /**
+     * Constructs a ReplaySystem that replays mutations on <code>dataBundle</code>.
+     *
+     * @param dataBundle all the essential data of this system.
+     */
+    public ReplaySystem(DataBundle dataBundle) {
+        this.dataBundle = dataBundle;
+    }
+
+    /**
+     * Replays <code>mutation</code> as if it was made at the time it was recorded. Replayed mutations are not
+     * journaled again.
+     *
+     * @param mutation the mutation to be replayed.
+     */
+    public void replay(Mutation mutation) {
+        Clock clock = Clock.fixed(Instant.ofEpochMilli(mutation.getTimestamp()), ZoneId.systemDefault());
+        switch (mutation.getType().getSource()) {
+            case USER:
+                new UserSystem(dataBundle, mutation.getUsername(), MutationJournal.NONE, clock).apply(mutation);
+                break;
+            case ADMIN:
+                new AdminSystem(dataBundle, mutation.getUsername(), MutationJournal.NONE, clock).apply(mutation);
+                break;
+            case LOGIN:
+                new LoginSystem(dataBundle).apply(mutation);
+                break;
+            default:
+                new RegistrationSystem(dataBundle).apply(mutation);
+        }
+    }
+}
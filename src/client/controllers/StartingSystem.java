@@ -18,8 +18,8 @@ public class StartingSystem {
      * @param dataBundle all the essential data of this system.
      */
     public StartingSystem(DataBundle dataBundle) {
-        userAccountManager = new UserAccountManager(dataBundle.users);
-        adminAccountManager = new AdminAccountManager(dataBundle.admins);
+        userAccountManager = new UserAccountManager(dataBundle.getUserRegistry());
+        adminAccountManager = new AdminAccountManager(dataBundle.getAdminRegistry());
         this.dataBundle = dataBundle;
     }
 
@@ -28,11 +28,13 @@ public class StartingSystem {
      * by creating new  initial <code>Admin</code> or guest(demo) <code>User</code>.
      */
     public void initializeSystem() {
-        if (dataBundle.admins.isEmpty()) {
-            adminAccountManager.createInitialAdmin("admin", "password");
-        }
-        if (userAccountManager.guestNotExist()) {
-            userAccountManager.createGuest();
-        }
+        dataBundle.getLocks().exclusive(() -> {
+            if (dataBundle.admins.isEmpty()) {
+                adminAccountManager.createInitialAdmin("admin", "password");
+            }
+            if (userAccountManager.guestNotExist()) {
+                userAccountManager.createGuest();
+            }
+        });
     }
 }
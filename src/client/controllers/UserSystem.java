@@ -1,12 +1,19 @@
 package client.controllers;
 
 import client.databundle.DataBundle;
+import client.databundle.Mutation;
+import client.databundle.MutationJournal;
+import client.databundle.MutationType;
+import core.DataLocks;
 import core.UserFacade;
+import core.account.PasswordHasher;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * A Controller class responsible for providing functionality to <code>User</code>s.
@@ -15,18 +22,78 @@ public class UserSystem {
     private final UserFacade userFacade;
     private final DataBundle dataBundle;
     private final String currUsername;
+    private final MutationJournal journal;
+    private final DataLocks locks;
+    private final Clock clock;
 
     /**
-     * Constructs UserSystem with <code>dataBundle</code>.
+     * Constructs UserSystem with <code>dataBundle</code>. Changes made through this system are not journaled, which
+     * is used by the guest(demo) account since its changes are discarded.
      *
      * @param dataBundle   all the essential data of this system.
      * @param currUsername the username of the current user.
      */
     public UserSystem(DataBundle dataBundle, String currUsername) {
-        userFacade = new UserFacade(currUsername, dataBundle.getEntitiesAndReverters(),
-                dataBundle.getIdCounters(), dataBundle.getRequests(), dataBundle.getThresholds());
+        this(dataBundle, currUsername, MutationJournal.NONE);
+    }
+
+    /**
+     * Constructs UserSystem with <code>dataBundle</code>, appending every change made through this system to
+     * <code>journal</code>.
+     *
+     * @param dataBundle   all the essential data of this system.
+     * @param currUsername the username of the current user.
+     * @param journal      the journal changes are appended to.
+     */
+    public UserSystem(DataBundle dataBundle, String currUsername, MutationJournal journal) {
+        this(dataBundle, currUsername, journal, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs UserSystem with <code>dataBundle</code>, appending every change made through this system to
+     * <code>journal</code> and evaluating time-dependent actions against <code>clock</code>.
+     *
+     * @param dataBundle   all the essential data of this system.
+     * @param currUsername the username of the current user.
+     * @param journal      the journal changes are appended to.
+     * @param clock        the clock time-dependent actions are evaluated against.
+     */
+    public UserSystem(DataBundle dataBundle, String currUsername, MutationJournal journal, Clock clock) {
+        /* The facade starts from the thresholds last set by a change holding the data exclusively. Ids are given out
+         * by the sequences of the bundle, which all sessions share.
+         */
+        userFacade = dataBundle.getLocks().shared(() -> new UserFacade(currUsername,
+                dataBundle.getEntitiesAndReverters(), dataBundle.getIdCounters(), dataBundle.getRequests(),
+                dataBundle.getThresholds(), clock));
         this.dataBundle = dataBundle;
         this.currUsername = currUsername;
+        this.journal = journal;
+        this.locks = dataBundle.getLocks();
+        this.clock = clock;
+    }
+
+    /* Makes a change as the current user and appends it to the journal if it succeeded. Returns success so it can
+     * wrap a facade call. The change and the append are one session, so the locks taken by the change are held until
+     * it is journaled, and changes that depend on each other are journaled in the order they were made.
+     */
+    private boolean record(BooleanSupplier change, MutationType type, Object... args) {
+        return locks.session(() -> {
+            if (!change.getAsBoolean()) return false;
+            String[] strArgs = new String[args.length];
+            for (int i = 0; i < args.length; i++) strArgs[i] = String.valueOf(args[i]);
+            locks.commit(() -> journal.append(new Mutation(type, currUsername, clock.millis(), strArgs)));
+            return true;
+        });
+    }
+
+    /**
+     * Abandons the trades whose meeting became late and subtracts credit from their users, as is done before trades
+     * are shown. Credit subtraction may abandon late trades, which is a change that has to be journaled as well.
+     *
+     * @return true iff at least one trade was abandoned.
+     */
+    public boolean updateCreditSubtraction() {
+        return record(userFacade::updateCreditSubtraction, MutationType.UPDATE_CREDIT_SUBTRACTION);
     }
 
     /**
@@ -85,7 +152,7 @@ public class UserSystem {
      * @return information of all <code>Trade</code> related to the <code>User</code> get from <code>userFacade</code>.
      */
     public List<String[]> getTradesInfo() {
-        userFacade.updateCreditSubtraction();
+        updateCreditSubtraction();
         return userFacade.getTradesInfo();
     }
 
@@ -115,19 +182,10 @@ public class UserSystem {
      * @return a formatted String contains all information about this User.
      */
     public String[] getUserAccountSpecifics() {
-        userFacade.updateCreditSubtraction();
+        updateCreditSubtraction();
         return userFacade.getUserAccountSpecifics();
     }
 
-    /**
-     * Gets current password of the <code>User</code> using the system currently.
-     *
-     * @return the password of this <code>User</code>.
-     */
-    public String getCurrPassword() {
-        return userFacade.getPassword(currUsername);
-    }
-
     /**
      * Change the password of the <code>User</code> currently using this system to <code>password</code>.
      *
@@ -136,8 +194,12 @@ public class UserSystem {
      */
     public boolean changeCurrUserPassword(String password) {
         if (isNotInputValidString(password)) return false;
-        userFacade.setPassword(password);
-        return true;
+        /* The password is journaled in the form it is stored in, which replaying sets as it is. */
+        String storedPassword = PasswordHasher.getDefault().hash(password);
+        return record(() -> {
+            userFacade.setPassword(storedPassword);
+            return true;
+        }, MutationType.SET_PASSWORD, storedPassword);
     }
 
     /**
@@ -148,7 +210,7 @@ public class UserSystem {
      */
     public boolean addToBlockList(String username) {
         if (!isNotInputValidString(username) && excludeGuest(username) && userFacade.usernameExits(username))
-            return userFacade.addToBlockList(username);
+            return record(() -> userFacade.addToBlockList(username), MutationType.ADD_TO_BLOCK_LIST, username);
         return false;
     }
 
@@ -160,7 +222,8 @@ public class UserSystem {
      */
     public boolean removeFromBlockList(String username) {
         if (!isNotInputValidString(username) && excludeGuest(username) && userFacade.usernameExits(username))
-            return userFacade.deletedFromBlockList(username);
+            return record(() -> userFacade.deletedFromBlockList(username), MutationType.DELETE_FROM_BLOCK_LIST,
+                    username);
         return false;
     }
 
@@ -181,7 +244,8 @@ public class UserSystem {
      * @return true iff adding successfully.
      */
     public boolean addToUserWishList(String key) {
-        return userFacade.addToWishlist(getItemIdUsingDescription(key));
+        int itemId = getItemIdUsingDescription(key);
+        return record(() -> userFacade.addToWishlist(itemId), MutationType.ADD_TO_WISHLIST, itemId);
     }
 
     /**
@@ -192,7 +256,8 @@ public class UserSystem {
      * @return true iff removing successfully.
      */
     public boolean removeFromUserWishList(String key) {
-        return userFacade.deleteFromWishlist(getWishlistItemDescriptionToIDMap(key));
+        int itemId = getWishlistItemDescriptionToIDMap(key);
+        return record(() -> userFacade.deleteFromWishlist(itemId), MutationType.DELETE_FROM_WISHLIST, itemId);
     }
 
     /**
@@ -201,7 +266,7 @@ public class UserSystem {
      * @return true iff the request is successful.
      */
     public boolean requestUnfreeze() {
-        return userFacade.requestUnfreeze();
+        return record(userFacade::requestUnfreeze, MutationType.REQUEST_UNFREEZE);
     }
 
     /**
@@ -215,17 +280,24 @@ public class UserSystem {
     public boolean reportUser(String username, String reason) {
         if (!isNotInputValidString(username) || !isNotInputValidString(reason))
             if (excludeGuest(username) && userFacade.usernameExits(username))
-                return userFacade.reportUser(username, reason);
+                return record(() -> userFacade.reportUser(username, reason), MutationType.REPORT_USER, username,
+                        reason);
         return false;
     }
 
     /**
      * Switch the <code>onVacation</code> status of the <code>User</code> currently using this system.
      *
-     * @return true if the switching is successful, false otherwise.
+     * @return true if the <code>User</code> is on vacation once switched, false otherwise.
      */
     public boolean switchVacationStatus() {
-        return userFacade.switchVacationStatus();
+        /* Every switch is journaled, whichever status it leaves the user in. */
+        boolean[] onVacation = new boolean[1];
+        record(() -> {
+            onVacation[0] = userFacade.switchVacationStatus();
+            return true;
+        }, MutationType.SWITCH_VACATION_STATUS);
+        return onVacation[0];
     }
 
     /**
@@ -235,7 +307,7 @@ public class UserSystem {
      * @return all <code>Item</code>s this <code>User</code> can lend get from <code>userFacade</code>.
      */
     public List<String> getInventoryForWishlist() {
-        userFacade.updateCreditSubtraction();
+        updateCreditSubtraction();
         List<String> temp = userFacade.getInventory();
         for (String str : getUserWishlist()) {
             for (String s : userFacade.getInventory())
@@ -251,7 +323,7 @@ public class UserSystem {
      * @return a list of String which contains item summary and the corresponding username
      */
     public List<String> getInventoryForTrade() {
-        userFacade.updateCreditSubtraction();
+        updateCreditSubtraction();
         return userFacade.getInventory();
     }
 
@@ -268,9 +340,10 @@ public class UserSystem {
     public boolean createItemAndRequest(String itemType, String itemName, String itemDescription) {
         if (isValidItem(itemType, itemName, itemDescription) && !(itemType.isEmpty() &&
                 itemDescription.isEmpty() && itemName.isEmpty())) {
-            userFacade.createItemAndRequest(itemType, itemName, itemDescription);
-            dataBundle.itemIdCounter = userFacade.getNewestItemId();
-            return true;
+            return record(() -> {
+                userFacade.createItemAndRequest(itemType, itemName, itemDescription);
+                return true;
+            }, MutationType.REQUEST_ITEM, itemType, itemName, itemDescription);
         }
         return false;
     }
@@ -295,8 +368,10 @@ public class UserSystem {
          * The first character must be upper case digit. The rest can only be letter, digits, space or period(.)
          */
         if (!city.matches("^[A-Z][a-zA-Z .]*$") && !city.equals("")) return false;
-        userFacade.setCity(city);
-        return true;
+        return record(() -> {
+            userFacade.setCity(city);
+            return true;
+        }, MutationType.SET_CITY, city);
     }
 
     /**
@@ -346,12 +421,12 @@ public class UserSystem {
             }
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
             LocalDateTime time = LocalDateTime.parse(timeStr, formatter);
-            if (!time.isAfter(LocalDateTime.now())) {
+            if (!time.isAfter(LocalDateTime.now(clock))) {
                 System.out.println(time);
                 return 3; /* fail because time not in future */
             }
-            if (userFacade.createMeeting(tradeId, location, time)) {
-                dataBundle.meetingIdCounter = userFacade.getNewestMeetingId();
+            if (record(() -> userFacade.createMeeting(tradeId, location, time), MutationType.CREATE_MEETING, tradeId,
+                    location, timeStr)) {
                 return 1; /* Successful */
             }
             return 4; /* fail because of other reason */
@@ -378,8 +453,13 @@ public class UserSystem {
                 return 2;
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
             LocalDateTime meetingTime = LocalDateTime.parse(timeStr, formatter);
-            if (userFacade.editMeeting(tradeId, meetingTime, location)) return 1;
-            return 4;
+            boolean[] edited = new boolean[1];
+            /* A failed edit may still cancel the trade, so it is journaled either way. */
+            record(() -> {
+                edited[0] = userFacade.editMeeting(tradeId, meetingTime, location);
+                return true;
+            }, MutationType.EDIT_MEETING, tradeId, location, timeStr);
+            return edited[0] ? 1 : 4;
         } catch (DateTimeParseException e) {
             return 3;
         }
@@ -392,7 +472,8 @@ public class UserSystem {
      * @return true if confirm arrangement of <code>Meeting</code> successfully, false otherwise.
      */
     public boolean confirmMeetingArrangement(int tradeId) {
-        return userFacade.confirmMeetingArrangement(tradeId);
+        return record(() -> userFacade.confirmMeetingArrangement(tradeId), MutationType.CONFIRM_MEETING_ARRANGEMENT,
+                tradeId);
     }
 
     /**
@@ -402,7 +483,8 @@ public class UserSystem {
      * @return true if confirm <code>Meeting</code> occurred successfully, false otherwise.
      */
     public boolean confirmMeetingOccurred(int tradeId) {
-        return userFacade.confirmMeetingOccurred(tradeId);
+        return record(() -> userFacade.confirmMeetingOccurred(tradeId), MutationType.CONFIRM_MEETING_OCCURRED,
+                tradeId);
     }
 
     /**
@@ -437,11 +519,10 @@ public class UserSystem {
         int item1To2;
         if (!item1To2Str.equals("")) item1To2 = Integer.parseInt(item1To2Str);
         else item1To2 = -1;
-        if (userFacade.requestTrade(item1To2, getItemIdUsingDescription(item2To1Str), isPermanentStr.equals("Permanent"))) {
-            dataBundle.tradeIdCounter = userFacade.getNewestTradeId();
-            return true;
-        }
-        return false;
+        int item2To1 = getItemIdUsingDescription(item2To1Str);
+        boolean isPermanent = isPermanentStr.equals("Permanent");
+        return record(() -> userFacade.requestTrade(item1To2, item2To1, isPermanent), MutationType.REQUEST_TRADE,
+                item1To2, item2To1, isPermanent);
     }
 
     /**
@@ -479,7 +560,12 @@ public class UserSystem {
      * 2 fail because trade is <code>NOT_STARTED</code>, other digit means unknown reason.
      */
     public int agreeToTrade(int tradeId) {
-        return userFacade.agreeToTrade(tradeId);
+        int[] result = new int[1];
+        record(() -> {
+            result[0] = userFacade.agreeToTrade(tradeId);
+            return result[0] == 0;
+        }, MutationType.AGREE_TO_TRADE, tradeId);
+        return result[0];
     }
 
     /**
@@ -489,7 +575,12 @@ public class UserSystem {
      * @return true if deny the <code>Trade</code> successfully, false otherwise.
      */
     public int denyTrade(int tradeId) {
-        return userFacade.denyTrade(tradeId);
+        int[] result = new int[1];
+        record(() -> {
+            result[0] = userFacade.denyTrade(tradeId);
+            return result[0] == 0;
+        }, MutationType.DENY_TRADE, tradeId);
+        return result[0];
     }
 
     /**
@@ -520,7 +611,8 @@ public class UserSystem {
      * @return true iff the message is sent successfully
      */
     public boolean sendPrivateMessage(String receiverUsername, String message) {
-        return userFacade.sendPrivateMessage(receiverUsername, message);
+        return record(() -> userFacade.sendPrivateMessage(receiverUsername, message), MutationType.SEND_PRIVATE_MESSAGE,
+                receiverUsername, message);
     }
 
     /**
@@ -540,4 +632,78 @@ public class UserSystem {
     public List<String> getMessageSent() {
         return userFacade.getMessageSent();
     }
+
+    /**
+     * Replays <code>mutation</code>, which was recorded by a <code>UserSystem</code> of the same user, directly
+     * against <code>userFacade</code>. Input was validated when the mutation was recorded, so it is not validated
+     * again.
+     *
+     * @param mutation a mutation with a <code>USER</code> source.
+     */
+    public void apply(Mutation mutation) {
+        switch (mutation.getType()) {
+            case SET_PASSWORD:
+                userFacade.setPassword(mutation.getArg(0));
+                break;
+            case SET_CITY:
+                userFacade.setCity(mutation.getArg(0));
+                break;
+            case ADD_TO_BLOCK_LIST:
+                userFacade.addToBlockList(mutation.getArg(0));
+                break;
+            case DELETE_FROM_BLOCK_LIST:
+                userFacade.deletedFromBlockList(mutation.getArg(0));
+                break;
+            case ADD_TO_WISHLIST:
+                userFacade.addToWishlist(mutation.getIntArg(0));
+                break;
+            case DELETE_FROM_WISHLIST:
+                userFacade.deleteFromWishlist(mutation.getIntArg(0));
+                break;
+            case REQUEST_ITEM:
+                userFacade.createItemAndRequest(mutation.getArg(0), mutation.getArg(1), mutation.getArg(2));
+                break;
+            case REQUEST_UNFREEZE:
+                userFacade.requestUnfreeze();
+                break;
+            case REPORT_USER:
+                userFacade.reportUser(mutation.getArg(0), mutation.getArg(1));
+                break;
+            case SWITCH_VACATION_STATUS:
+                userFacade.switchVacationStatus();
+                break;
+            case SEND_PRIVATE_MESSAGE:
+                userFacade.sendPrivateMessage(mutation.getArg(0), mutation.getArg(1));
+                break;
+            case REQUEST_TRADE:
+                userFacade.requestTrade(mutation.getIntArg(0), mutation.getIntArg(1), mutation.getBooleanArg(2));
+                break;
+            case AGREE_TO_TRADE:
+                userFacade.agreeToTrade(mutation.getIntArg(0));
+                break;
+            case DENY_TRADE:
+                userFacade.denyTrade(mutation.getIntArg(0));
+                break;
+            case CREATE_MEETING:
+                userFacade.createMeeting(mutation.getIntArg(0), mutation.getArg(1),
+                        LocalDateTime.parse(mutation.getArg(2), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+                break;
+            case EDIT_MEETING:
+                userFacade.editMeeting(mutation.getIntArg(0),
+                        LocalDateTime.parse(mutation.getArg(2), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
+                        mutation.getArg(1));
+                break;
+            case CONFIRM_MEETING_ARRANGEMENT:
+                userFacade.confirmMeetingArrangement(mutation.getIntArg(0));
+                break;
+            case CONFIRM_MEETING_OCCURRED:
+                userFacade.confirmMeetingOccurred(mutation.getIntArg(0));
+                break;
+            case UPDATE_CREDIT_SUBTRACTION:
+                userFacade.updateCreditSubtraction();
+                break;
+            default:
+                throw new IllegalArgumentException("Not a user mutation: " + mutation.getType());
+        }
+    }
 }
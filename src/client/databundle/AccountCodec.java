@@ -0,0 +1,69 @@
+package client.databundle;
+
+import core.account.Account;
+import core.admin.Admin;
+import core.item.Item;
+import core.user.User;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Codec of <code>User</code>s and <code>Admin</code>s, which share one table since reverters may refer to either.
+ */
+class AccountCodec implements EntityCodec<Account> {
+    private static final int USER = 0;
+    private static final int ADMIN = 1;
+
+    @Override
+    public void write(SnapshotOutput out, Account account) throws IOException {
+        out.writeVarInt(account instanceof User ? USER : ADMIN);
+        out.writeString(account.getUsername());
+        out.writeString(account.getPassword());
+        out.writeStrings(account.getMessageReceived());
+        out.writeStrings(account.getMessageSent());
+        if (account instanceof User) {
+            User user = (User) account;
+            out.writeItems(user.getWishList());
+            out.writeItems(user.getItemsAvailable());
+            out.writeUsernames(user.getBlockList());
+            out.writeString(user.getCity());
+            out.writeVarInt(user.getNumLent());
+            out.writeVarInt(user.getNumBorrowed());
+            out.writeVarInt(user.getCredit());
+            out.writeBoolean(user.isFrozen());
+            out.writeBoolean(user.onVacation());
+        } else {
+            out.writeBoolean(!((Admin) account).notInitialAdmin());
+        }
+    }
+
+    @Override
+    public Account read(SnapshotInput in) throws IOException {
+        int type = in.readVarInt();
+        String username = in.readString();
+        String password = in.readString();
+        List<String> messageReceived = in.readStrings();
+        List<String> messageSent = in.readStrings();
+        Account account;
+        if (type == USER) account = readUser(in, new User(username, password));
+        else if (type == ADMIN) account = new Admin(username, password, in.readBoolean());
+        else throw new IOException("Unknown account type " + type);
+        for (String message : messageReceived) account.addToMessageReceived(message);
+        for (String message : messageSent) account.addToMessageSent(message);
+        return account;
+    }
+
+    private User readUser(SnapshotInput in, User user) throws IOException {
+        for (Item item : in.readItems()) user.addToWishList(item);
+        for (Item item : in.readItems()) user.addToItemsAvailable(item);
+        for (String username : in.readUsernames()) user.addToBlockList(username);
+        user.setCity(in.readString());
+        user.setNumLent(in.readVarInt());
+        user.setNumBorrowed(in.readVarInt());
+        user.setCredit(in.readVarInt());
+        user.setFrozen(in.readBoolean());
+        user.setOnVacation(in.readBoolean());
+        return user;
+    }
+}
@@ -0,0 +1,51 @@
+package client.databundle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compression codec that <code>SnapshotCodec</code> compresses the blocks of a snapshot with. Blocks are
+ * compressed independently, so they can be decompressed in parallel.
+ * <p>
+ * Codecs other than the ones in <code>BlockCodecs</code> are found with <code>java.util.ServiceLoader</code>, by
+ * listing them in <code>META-INF/services/client.databundle.BlockCodec</code>.
+ */
+public interface BlockCodec {
+    /**
+     * Gets the id recorded in the header of snapshots compressed with this codec. Ids below 16 are reserved for
+     * the codecs in <code>BlockCodecs</code>.
+     *
+     * @return the id of this codec.
+     */
+    int getId();
+
+    /**
+     * Gets the name this codec is selected by.
+     *
+     * @return the name of this codec.
+     */
+    String getName();
+
+    /**
+     * Compresses <code>length</code> bytes of <code>block</code> starting at <code>offset</code>.
+     *
+     * @param block  the bytes to be compressed.
+     * @param offset the index of the first byte to be compressed.
+     * @param length the number of bytes to be compressed.
+     * @return the compressed bytes.
+     * @throws IOException if the bytes can't be compressed.
+     */
+    byte[] compress(byte[] block, int offset, int length) throws IOException;
+
+    /**
+     * Decompresses all remaining bytes of <code>compressed</code> into exactly <code>length</code> bytes of
+     * <code>target</code> starting at <code>offset</code>.
+     *
+     * @param compressed the bytes of one compressed block.
+     * @param target     the array to decompress into.
+     * @param offset     the index to decompress to.
+     * @param length     the number of bytes the block decompresses to.
+     * @throws IOException if <code>compressed</code> is not a valid block of that length.
+     */
+    void decompress(ByteBuffer compressed, byte[] target, int offset, int length) throws IOException;
+}
@@ -0,0 +1,126 @@
+package client.databundle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Class that holds the built-in <code>BlockCodec</code>s and looks codecs up by id or name.
+ */
+public class BlockCodecs {
+    /**
+     * Leaves sections uncompressed, so they can be decoded straight from a memory-mapped file.
+     */
+    public static final BlockCodec NONE = new BlockCodec() {
+        @Override
+        public int getId() {
+            return 0;
+        }
+
+        @Override
+        public String getName() {
+            return "none";
+        }
+
+        @Override
+        public byte[] compress(byte[] block, int offset, int length) {
+            return Arrays.copyOfRange(block, offset, offset + length);
+        }
+
+        @Override
+        public void decompress(ByteBuffer compressed, byte[] target, int offset, int length) throws IOException {
+            if (compressed.remaining() != length) throw new IOException("Malformed block");
+            compressed.duplicate().get(target, offset, length);
+        }
+    };
+
+    /**
+     * Compresses blocks with <code>java.util.zip.Deflater</code> at its fastest level, which already shrinks the
+     * repetitive message history a lot.
+     */
+    public static final BlockCodec DEFLATE = new BlockCodec() {
+        @Override
+        public int getId() {
+            return 1;
+        }
+
+        @Override
+        public String getName() {
+            return "deflate";
+        }
+
+        @Override
+        public byte[] compress(byte[] block, int offset, int length) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(block, offset, length);
+                deflater.finish();
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 4 + 64);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) bytes.write(buffer, 0, deflater.deflate(buffer));
+                return bytes.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public void decompress(ByteBuffer compressed, byte[] target, int offset, int length) throws IOException {
+            byte[] input = new byte[compressed.remaining()];
+            compressed.duplicate().get(input);
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(input);
+                int inflated = 0;
+                while (inflated < length && !inflater.finished()) {
+                    int n = inflater.inflate(target, offset + inflated, length - inflated);
+                    if (n == 0) break;
+                    inflated += n;
+                }
+                if (inflated != length || !inflater.finished()) throw new IOException("Malformed block");
+            } catch (DataFormatException e) {
+                throw new IOException("Malformed block", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    /* Built-in codecs, followed by the ones found by ServiceLoader. */
+    private static final List<BlockCodec> CODECS = new ArrayList<>(Arrays.asList(NONE, DEFLATE));
+
+    static {
+        for (BlockCodec codec : ServiceLoader.load(BlockCodec.class)) CODECS.add(codec);
+    }
+
+    /**
+     * Gets the codec with <code>id</code>.
+     *
+     * @param id the id of the codec.
+     * @return the codec with <code>id</code>.
+     * @throws IOException if no codec has <code>id</code>.
+     */
+    public static BlockCodec forId(int id) throws IOException {
+        for (BlockCodec codec : CODECS) if (codec.getId() == id) return codec;
+        throw new IOException("Unknown block codec " + id);
+    }
+
+    /**
+     * Gets the codec named <code>name</code>.
+     *
+     * @param name the name of the codec.
+     * @return the codec named <code>name</code>.
+     * @throws IllegalArgumentException if no codec is named <code>name</code>.
+     */
+    public static BlockCodec forName(String name) {
+        for (BlockCodec codec : CODECS) if (codec.getName().equalsIgnoreCase(name)) return codec;
+        throw new IllegalArgumentException("Unknown block codec " + name);
+    }
+}
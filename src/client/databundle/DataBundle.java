@@ -1,17 +1,26 @@
 package client.databundle;
 
+import core.DataLocks;
 import core.EntityAndReverterCollection;
 import core.IdCounterCollection;
+import core.IdSequence;
 import core.RequestCollection;
 import core.ThresholdCollection;
+import core.account.AccountRegistry;
 import core.admin.Admin;
 import core.item.Item;
 import core.meeting.Meeting;
+import core.meeting.MeetingDeadlines;
+import core.meeting.MeetingRegistry;
 import core.reverter.ActionReverter;
 import core.trade.Trade;
+import core.trade.TradeRegistry;
+import core.trade.TradeStatistics;
 import core.user.User;
 import genericdatatype.Pair;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,23 +29,27 @@ import java.util.List;
  * Class that holds all information that needs to be serialized
  */
 public class DataBundle implements Serializable {
-    /* Using ArrayList here since List does not implement Serializable */
+    private static final long serialVersionUID = -3254462218493724737L;
+
+    /* The lists of entities are LazyLists when this bundle is read from a snapshot, so they are only typed as List.
+     * They are ArrayLists in bundles written with java serialization.
+     */
     /**
      * A list containing all <code>Users</code>s in this system
      */
-    public final ArrayList<User> users;
+    public final List<User> users;
     /**
      * A list containing all <code>Admins</code> in this system
      */
-    public final ArrayList<Admin> admins;
+    public final List<Admin> admins;
     /**
      * A list containing all <code>Trade</code>s in this system
      */
-    private final ArrayList<Trade> trades;
+    private final List<Trade> trades;
     /**
      * A list containing all <code>Meeting</code>s in this system
      */
-    private final ArrayList<Meeting> meetings;
+    private final List<Meeting> meetings;
     /**
      * A list containing all string representatives of unfreezing requests from users in this system
      */
@@ -57,20 +70,39 @@ public class DataBundle implements Serializable {
      */
     private final ArrayList<String[]> reportRequests;
 
-    private final ArrayList<ActionReverter> actionReverters;
+    private final List<ActionReverter> actionReverters;
+    /* The statistics of the trades of each user, kept up to date by the trade registry and saved with this bundle
+     * so they are not counted again when it is read back. Bundles saved before there were statistics have none.
+     */
+    private TradeStatistics tradeStatistics;
+    /* Indexes of users and admins by username, of trades and meetings, and the queue of meetings by deadline. They are
+     * built again from the lists when they are needed after the bundle is deserialized.
+     */
+    private transient AccountRegistry<User> userRegistry;
+    private transient AccountRegistry<Admin> adminRegistry;
+    private transient TradeRegistry tradeRegistry;
+    private transient MeetingRegistry meetingRegistry;
+    private transient MeetingDeadlines meetingDeadlines;
+    /* The locks shared by all sessions using this bundle, made again when they are needed after it is deserialized. */
+    private transient DataLocks locks;
+    /* The sequences that give out ids to all sessions, made from the counters below when they are first needed. The
+     * counters are only brought up to date with them when this bundle is saved.
+     */
+    private transient IdSequence itemIds, meetingIds, tradeIds;
     /**
-     * A number that is larger than all ids <code>Item</code> has in the system. It ensures that the id for each
-     * <code>Item</code> is unique.
+     * A number that is at least as large as all ids <code>Item</code> has in the system. It ensures that the id for
+     * each <code>Item</code> is unique, and is brought up to date with the ids given out when this bundle is saved.
      */
     public int itemIdCounter;
     /**
-     * A number that is larger than all ids <code>Meeting</code>s has in the system. It ensures that the id for each
-     * <code>Meeting</code> is unique.
+     * A number that is at least as large as all ids <code>Meeting</code>s has in the system. It ensures that the id
+     * for each <code>Meeting</code> is unique, and is brought up to date with the ids given out when this bundle is
+     * saved.
      */
     public int meetingIdCounter;
     /**
-     * A number that is larger than all ids <code>Trade</code> has in the system. It ensures that the id for each
-     * <code>Trade</code> is unique.
+     * A number that is at least as large as all ids <code>Trade</code> has in the system. It ensures that the id for
+     * each <code>Trade</code> is unique, and is brought up to date with the ids given out when this bundle is saved.
      */
     public int tradeIdCounter;
     /**
@@ -98,15 +130,21 @@ public class DataBundle implements Serializable {
      * Create a new DataBundle. This is used when the program runs for the first time and data is missing.
      */
     public DataBundle() {
-        users = new ArrayList<>();
-        admins = new ArrayList<>();
-        trades = new ArrayList<>();
-        meetings = new ArrayList<>();
+        this(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    /* Creates a bundle with the given lists of entities, used by SnapshotCodec to load them lazily. */
+    DataBundle(List<User> users, List<Admin> admins, List<Trade> trades, List<Meeting> meetings,
+               List<ActionReverter> actionReverters) {
+        this.users = users;
+        this.admins = admins;
+        this.trades = trades;
+        this.meetings = meetings;
+        this.actionReverters = actionReverters;
         unfreezeRequests = new ArrayList<>();
         itemRequests = new ArrayList<>();
         adminCreationRequests = new ArrayList<>();
         reportRequests = new ArrayList<>();
-        actionReverters = new ArrayList<>();
         itemIdCounter = 0;
         meetingIdCounter = 0;
         tradeIdCounter = 0;
@@ -117,22 +155,149 @@ public class DataBundle implements Serializable {
         maxMeetingLateTime = 7;
     }
 
+    /* Accessors for the lists above, used by SnapshotCodec to encode and decode this bundle. */
+
+    List<Trade> getTrades() {
+        return trades;
+    }
+
+    List<Meeting> getMeetings() {
+        return meetings;
+    }
+
+    ArrayList<String> getUnfreezeRequests() {
+        return unfreezeRequests;
+    }
+
+    ArrayList<Pair<String, Item>> getItemRequests() {
+        return itemRequests;
+    }
+
+    ArrayList<String[]> getReportRequests() {
+        return reportRequests;
+    }
+
+    List<ActionReverter> getActionReverters() {
+        return actionReverters;
+    }
+
+    /* The statistics of the trades, brought up to date with them, and the statistics read along with a snapshot. */
+
+    TradeStatistics getTradeStatistics() {
+        return getTradeRegistry().getStatistics();
+    }
+
+    synchronized void setTradeStatistics(TradeStatistics tradeStatistics) {
+        this.tradeStatistics = tradeStatistics;
+    }
+
+    /**
+     * Gets the registry of all <code>User</code>s in this system, which finds them by username.
+     *
+     * @return the registry of <code>users</code>.
+     */
+    public synchronized AccountRegistry<User> getUserRegistry() {
+        if (userRegistry == null) userRegistry = new AccountRegistry<>(users);
+        return userRegistry;
+    }
+
+    /**
+     * Gets the registry of all <code>Admin</code>s in this system, which finds them by username.
+     *
+     * @return the registry of <code>admins</code>.
+     */
+    public synchronized AccountRegistry<Admin> getAdminRegistry() {
+        if (adminRegistry == null) adminRegistry = new AccountRegistry<>(admins);
+        return adminRegistry;
+    }
+
+    /**
+     * Gets the registry of all <code>Trade</code>s in this system, which finds them by id and by user and status.
+     *
+     * @return the registry of <code>trades</code>.
+     */
+    public synchronized TradeRegistry getTradeRegistry() {
+        if (tradeRegistry == null) {
+            if (tradeStatistics == null) tradeStatistics = new TradeStatistics();
+            tradeRegistry = new TradeRegistry(trades, getUserRegistry(), tradeStatistics);
+        }
+        return tradeRegistry;
+    }
+
+    /**
+     * Gets the registry of all <code>Meeting</code>s in this system, which finds them by id.
+     *
+     * @return the registry of <code>meetings</code>.
+     */
+    public synchronized MeetingRegistry getMeetingRegistry() {
+        if (meetingRegistry == null) meetingRegistry = new MeetingRegistry(meetings);
+        return meetingRegistry;
+    }
+
+    /**
+     * Gets the queue of all arranged <code>Meeting</code>s in this system in the order they become late.
+     *
+     * @return the <code>MeetingDeadlines</code> of <code>meetings</code>.
+     */
+    public synchronized MeetingDeadlines getMeetingDeadlines() {
+        if (meetingDeadlines == null) meetingDeadlines = new MeetingDeadlines(meetings);
+        return meetingDeadlines;
+    }
+
+    /**
+     * Gets the locks that sessions using this bundle at the same time hold while they use its data.
+     *
+     * @return the <code>DataLocks</code> of this bundle.
+     */
+    public synchronized DataLocks getLocks() {
+        if (locks == null) locks = new DataLocks();
+        return locks;
+    }
+
     /**
      * Get all the reverter from the DataBundle.
      *
      * @return a collection of all the entities and the reverters.
      */
     public EntityAndReverterCollection getEntitiesAndReverters() {
-        return new EntityAndReverterCollection(meetings, trades, users, actionReverters);
+        return new EntityAndReverterCollection(getMeetingRegistry(), getMeetingDeadlines(), getTradeRegistry(),
+                getUserRegistry(), actionReverters, getLocks());
     }
 
     /**
-     * Get all the ID counters from the DataBundle.
+     * Get all the ID counters from the DataBundle. The counters are <code>IdSequence</code>s shared by all sessions
+     * using this bundle, which only give out ids larger than the counter fields of this bundle.
      *
      * @return a collection of all the id counters.
      */
-    public IdCounterCollection getIdCounters() {
-        return new IdCounterCollection(meetingIdCounter, tradeIdCounter, itemIdCounter);
+    public synchronized IdCounterCollection getIdCounters() {
+        if (itemIds == null) {
+            itemIds = new IdSequence(itemIdCounter);
+            meetingIds = new IdSequence(meetingIdCounter);
+            tradeIds = new IdSequence(tradeIdCounter);
+        }
+        /* The fields are public, and ids may have been given out by setting them since the sequences were made. */
+        itemIds.advanceTo(itemIdCounter);
+        meetingIds.advanceTo(meetingIdCounter);
+        tradeIds.advanceTo(tradeIdCounter);
+        return new IdCounterCollection(meetingIds, tradeIds, itemIds);
+    }
+
+    /* Brings the counter fields up to date with the ids given out by the sequences, so the last ids given out are
+     * saved with this bundle and not given out again after it is read back.
+     */
+    synchronized void updateIdCounters() {
+        if (itemIds == null) return;
+        itemIdCounter = Math.max(itemIdCounter, itemIds.getLast());
+        meetingIdCounter = Math.max(meetingIdCounter, meetingIds.getLast());
+        tradeIdCounter = Math.max(tradeIdCounter, tradeIds.getLast());
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        updateIdCounters();
+        /* Brings the statistics up to date with the trades saved along with them. */
+        getTradeStatistics();
+        out.defaultWriteObject();
     }
 
     /**
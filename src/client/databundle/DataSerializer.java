@@ -3,6 +3,7 @@ package client.databundle;
 import genericdatatype.Pair;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * An interface for other parts of code such that they can deserialize, make changes and serialize the DataBundle.
@@ -10,7 +11,16 @@ import java.io.IOException;
 public interface DataSerializer {
     void serialize() throws IOException;
 
+    /**
+     * Saves the DataBundle without blocking the calling thread.
+     *
+     * @return a future completed once the DataBundle is saved, or completed exceptionally if saving failed.
+     */
+    CompletableFuture<Void> serializeAsync();
+
     void deserialize() throws IOException, ClassNotFoundException;
 
     Pair<DataBundle, DataSerializer> getStartingInfo();
+
+    MutationJournal getJournal();
 }
@@ -0,0 +1,28 @@
+package client.databundle;
+
+import java.io.IOException;
+
+/**
+ * Encodes and decodes one type of entity for <code>SnapshotCodec</code>.
+ *
+ * @param <T> the type of entity.
+ */
+interface EntityCodec<T> {
+    /**
+     * Writes <code>entity</code> to the current section of <code>out</code>.
+     *
+     * @param out    the output to write to.
+     * @param entity the entity to be written.
+     * @throws IOException if the entity can't be written.
+     */
+    void write(SnapshotOutput out, T entity) throws IOException;
+
+    /**
+     * Reads an entity written by <code>write</code> from the current section of <code>in</code>.
+     *
+     * @param in the input to read from.
+     * @return the entity read.
+     * @throws IOException if the input doesn't contain the entity.
+     */
+    T read(SnapshotInput in) throws IOException;
+}
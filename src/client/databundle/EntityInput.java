@@ -0,0 +1,62 @@
+package client.databundle;
+
+import core.account.Account;
+import core.item.Item;
+import core.meeting.Meeting;
+import core.trade.Trade;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Input of <code>EntityStore</code>, the counterpart of <code>EntityOutput</code>. Entities referred to are looked
+ * up in the store, so each is decoded once no matter how many records refer to it.
+ */
+class EntityInput extends SnapshotInput {
+    private final EntityStore store;
+
+    /**
+     * Creates an input that looks entities up in <code>store</code>.
+     *
+     * @param store the store the record read is from.
+     */
+    EntityInput(EntityStore store) {
+        this.store = store;
+        dataBundle = store.getDataBundle();
+        usernames = store.getUsers().getUsernames();
+    }
+
+    @Override
+    String readString() throws IOException {
+        int length = readVarInt();
+        return length == 0 ? null : new String(readBytes(length - 1), StandardCharsets.UTF_8);
+    }
+
+    private Object readReference() throws IOException {
+        String key = readString();
+        if (key == null) return null;
+        Object entity = store.get(key);
+        if (entity == null) throw new IOException("Reference to a missing record " + key);
+        return entity;
+    }
+
+    @Override
+    Item readItem() throws IOException {
+        return (Item) readReference();
+    }
+
+    @Override
+    Account readAccount() throws IOException {
+        return (Account) readReference();
+    }
+
+    @Override
+    Meeting readMeeting() throws IOException {
+        return (Meeting) readReference();
+    }
+
+    @Override
+    Trade readTrade() throws IOException {
+        return (Trade) readReference();
+    }
+}
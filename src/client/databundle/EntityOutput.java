@@ -0,0 +1,71 @@
+package client.databundle;
+
+import core.account.Account;
+import core.item.Item;
+import core.meeting.Meeting;
+import core.trade.Trade;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output of <code>EntityStore</code>, which writes each entity as a record of its own. Strings are written in
+ * place, usernames as their id in the dictionary of the store, and entities are referred to by the key of their
+ * record, so a record can be decoded without any other but the dictionary.
+ */
+class EntityOutput extends SnapshotOutput {
+    private final List<Object> references = new ArrayList<>();
+
+    /**
+     * Creates an output that writes usernames as their id in <code>users</code>.
+     *
+     * @param users the dictionary of usernames of the store.
+     */
+    EntityOutput(UserDictionary users) {
+        super(users);
+    }
+
+    /* Gets every entity referred to so far, in order. */
+    List<Object> getReferences() {
+        return references;
+    }
+
+    /* Written as the length + 1 of its UTF-8 bytes with 0 for null, then the bytes. */
+    @Override
+    void writeString(String s) throws IOException {
+        if (s == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        writeBytes(bytes);
+    }
+
+    private void writeReference(Object entity) throws IOException {
+        if (entity != null) references.add(entity);
+        writeString(entity == null ? null : EntityStore.keyOf(entity));
+    }
+
+    @Override
+    void writeItem(Item item) throws IOException {
+        writeReference(item);
+    }
+
+    @Override
+    void writeAccount(Account account) throws IOException {
+        writeReference(account);
+    }
+
+    @Override
+    void writeMeeting(Meeting meeting) throws IOException {
+        writeReference(meeting);
+    }
+
+    @Override
+    void writeTrade(Trade trade) throws IOException {
+        writeReference(trade);
+    }
+}
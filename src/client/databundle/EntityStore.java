@@ -0,0 +1,606 @@
+package client.databundle;
+
+import core.account.Account;
+import core.admin.Admin;
+import core.item.Item;
+import core.meeting.Meeting;
+import core.reverter.ActionReverter;
+import core.trade.Trade;
+import core.user.User;
+import genericdatatype.Pair;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Class that keeps a <code>DataBundle</code> in a <code>KeyValueStore</code> with one record per entity, keyed by
+ * the username of accounts and the id of items, trades and meetings. The lists of the bundle it loads hold only the
+ * keys of their elements, and entities are decoded from their record when first used. An entity nothing uses any
+ * more can be dropped from memory and decoded again later. Memory is not bounded by the entities in use, though: the
+ * registries of a bundle hold on to every entity of a list they indexed, so that the entities whose changes they are
+ * told about keep being handed out, and from then on memory grows with the data set.
+ * <p>
+ * Managers change entities in place, so the store writes through by checking entities rather than being told about
+ * changes: every entity handed out to or added to a list by a thread is kept until that thread commits, and
+ * <code>commit</code> writes the ones whose record changed, along with any new entity they refer to. A thread
+ * commits once its change is complete, when the change is journaled and as each session of the bundle loaded ends,
+ * while the session still holds its locks. So the work of a commit grows with the entities one session used, and
+ * the changes other sessions are still making are not written with it. A list holding elements another thread added
+ * is left for that thread to write once it commits. Entities must be looked up again after the thread commits rather
+ * than kept from before, or their changes may never be written.
+ * <p>
+ * Usernames kept by entities are written as ids into the user dictionary of the store, which is loaded along with
+ * the lists. Users are numbered by their position when a bundle is imported, and usernames written later are added
+ * to the end of the dictionary, whose pages are written like those of a list.
+ */
+public class EntityStore {
+    /* Key prefixes. Ids are zero padded so keys sort in order of id. */
+    private static final String ACCOUNT = "account/";
+    private static final String ITEM = "item/";
+    private static final String TRADE = "trade/";
+    private static final String MEETING = "meeting/";
+    private static final String REVERTER = "reverter/";
+    private static final String SETTINGS = "bundle/settings";
+    private static final String REQUESTS = "bundle/requests";
+    private static final String USERNAMES = "bundle/usernames";
+    /* The lists of the bundle, in the order of lists. A list is its number of pages, and each page is a record. */
+    private static final String[] LISTS = {"list/users", "list/admins", "list/trades", "list/meetings",
+            "list/reverters"};
+    private static final int REVERTER_LIST = 4;
+    /* Number of keys in a page, so that adding to a long list only rewrites its last page. */
+    private static final int LIST_PAGE_SIZE = 4096;
+
+    /* A cached entity, which is dropped once nothing else refers to it, with the checksum of its last record. */
+    private static final class Entry extends SoftReference<Object> {
+        private final String key;
+        private final int checksum;
+
+        private Entry(String key, Object entity, int checksum, ReferenceQueue<Object> queue) {
+            super(entity, queue);
+            this.key = key;
+            this.checksum = checksum;
+        }
+    }
+
+    private final KeyValueStore store;
+    private final ItemCodec itemCodec = new ItemCodec();
+    private final AccountCodec accountCodec = new AccountCodec();
+    private final MeetingCodec meetingCodec = new MeetingCodec();
+    private final TradeCodec tradeCodec = new TradeCodec();
+    private final ReverterCodec reverterCodec = new ReverterCodec();
+    private final Map<String, Entry> cache = new HashMap<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    /* The entities each thread was handed out or wrote since it last committed, with their key. The entities of a
+     * thread that ended without committing are let go with it.
+     */
+    private final Map<Thread, Map<Object, String>> touched = new WeakHashMap<>();
+    /* Checksums of the settings, requests and list records last read or written. */
+    private final Map<String, Integer> recordChecksums = new HashMap<>();
+    private DataBundle dataBundle;
+    private List<StoredList<?>> lists = Collections.emptyList();
+    private int reverterCounter;
+    private UserDictionary users = new UserDictionary();
+    /* The number of usernames of the dictionary written to the store. */
+    private int usernamesWritten;
+
+    /**
+     * Constructs an EntityStore that keeps its records in <code>store</code>.
+     *
+     * @param store the store of the records.
+     */
+    public EntityStore(KeyValueStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Checks whether no <code>DataBundle</code> has been written to the store yet.
+     *
+     * @return true iff the store holds no bundle.
+     * @throws IOException if the store can't be read.
+     */
+    public synchronized boolean isEmpty() throws IOException {
+        return store.get(SETTINGS) == null;
+    }
+
+    /**
+     * Loads the <code>DataBundle</code> in the store. Entities are decoded as the bundle is used, and entities of a
+     * bundle loaded before are never handed out again, so changes to them that were not committed are discarded.
+     *
+     * @return the bundle loaded.
+     * @throws IOException if the store holds no intact bundle.
+     */
+    public synchronized DataBundle load() throws IOException {
+        reset();
+        for (String username : readPages(USERNAMES)) users.idOf(username);
+        usernamesWritten = users.size();
+        StoredList<User> users = new StoredList<>(this, readList(0));
+        StoredList<Admin> admins = new StoredList<>(this, readList(1));
+        StoredList<Trade> trades = new StoredList<>(this, readList(2));
+        StoredList<Meeting> meetings = new StoredList<>(this, readList(3));
+        StoredList<ActionReverter> reverters = new StoredList<>(this, readList(4));
+        lists = Arrays.asList(users, admins, trades, meetings, reverters);
+        dataBundle = new DataBundle(users, admins, trades, meetings, reverters);
+        SnapshotInput in = input(SETTINGS);
+        SnapshotCodec.readSettings(in, dataBundle);
+        reverterCounter = in.readVarInt();
+        readRequests(input(REQUESTS));
+        dataBundle.getLocks().setSessionEnd(this::commitSession);
+        return dataBundle;
+    }
+
+    /* Commits the entities a session used while it still holds its locks, so that a later commit of its thread, which
+     * may hold other locks, doesn't write them while other sessions change them.
+     */
+    private synchronized void commitSession() {
+        if (!touched.containsKey(Thread.currentThread())) return;
+        try {
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replaces everything in the store with <code>source</code> as one change, then loads it back.
+     *
+     * @param source the bundle to be written, such as one read from a snapshot.
+     * @return the bundle loaded from the store.
+     * @throws IOException if the bundle can't be written or loaded.
+     */
+    public synchronized DataBundle importBundle(DataBundle source) throws IOException {
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        for (String key : store.scan("")) batch.put(key, null);
+        reset();
+        reverterCounter = 0;
+        for (User user : source.users) users.idOf(user.getUsername());
+        dataBundle = source;
+        lists = Arrays.asList(unwritten(source.users), unwritten(source.admins), unwritten(source.getTrades()),
+                unwritten(source.getMeetings()), unwritten(source.getActionReverters()));
+        batch.putAll(changes(null));
+        store.write(batch);
+        return load();
+    }
+
+    private <T> StoredList<T> unwritten(List<T> elements) {
+        StoredList<T> list = new StoredList<>(this, Collections.<String>emptyList());
+        list.addAll(elements);
+        return list;
+    }
+
+    /* Entities */
+
+    /**
+     * Gets the account with <code>username</code>.
+     *
+     * @param username the username of the account.
+     * @return the account, or null if there is none.
+     * @throws IOException if the record of the account can't be read.
+     */
+    public Account getAccount(String username) throws IOException {
+        return (Account) get(ACCOUNT + username);
+    }
+
+    /**
+     * Gets the item with <code>itemId</code>.
+     *
+     * @param itemId the id of the item.
+     * @return the item, or null if there is none.
+     * @throws IOException if the record of the item can't be read.
+     */
+    public Item getItem(int itemId) throws IOException {
+        return (Item) get(key(ITEM, itemId));
+    }
+
+    /**
+     * Gets the trade with <code>tradeId</code>.
+     *
+     * @param tradeId the id of the trade.
+     * @return the trade, or null if there is none.
+     * @throws IOException if the record of the trade can't be read.
+     */
+    public Trade getTrade(int tradeId) throws IOException {
+        return (Trade) get(key(TRADE, tradeId));
+    }
+
+    /**
+     * Gets the meeting with <code>meetingId</code>.
+     *
+     * @param meetingId the id of the meeting.
+     * @return the meeting, or null if there is none.
+     * @throws IOException if the record of the meeting can't be read.
+     */
+    public Meeting getMeeting(int meetingId) throws IOException {
+        return (Meeting) get(key(MEETING, meetingId));
+    }
+
+    /**
+     * Writes <code>entity</code> right away if its record changed, along with any new entity it refers to.
+     *
+     * @param entity an <code>Account</code>, <code>Item</code>, <code>Trade</code> or <code>Meeting</code>.
+     * @throws IOException if the record can't be written.
+     */
+    public synchronized void put(Object entity) throws IOException {
+        keyOf(entity);
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        write(Collections.singletonList(entity), batch);
+        writeUsernames(batch);
+        store.write(batch);
+    }
+
+    /**
+     * Gets the usernames of every account whose username starts with <code>prefix</code>.
+     *
+     * @param prefix the prefix of the usernames.
+     * @return the usernames in ascending order.
+     * @throws IOException if the store can't be read.
+     */
+    public List<String> scanUsernames(String prefix) throws IOException {
+        List<String> usernames = new ArrayList<>();
+        for (String key : store.scan(ACCOUNT + prefix)) usernames.add(key.substring(ACCOUNT.length()));
+        return usernames;
+    }
+
+    /**
+     * Gets the id of every item in the store.
+     *
+     * @return the ids of the items.
+     * @throws IOException if the store can't be read.
+     */
+    public List<Integer> scanItemIds() throws IOException {
+        return scanIds(ITEM);
+    }
+
+    /**
+     * Gets the id of every trade in the store.
+     *
+     * @return the ids of the trades.
+     * @throws IOException if the store can't be read.
+     */
+    public List<Integer> scanTradeIds() throws IOException {
+        return scanIds(TRADE);
+    }
+
+    /**
+     * Gets the id of every meeting in the store.
+     *
+     * @return the ids of the meetings.
+     * @throws IOException if the store can't be read.
+     */
+    public List<Integer> scanMeetingIds() throws IOException {
+        return scanIds(MEETING);
+    }
+
+    private List<Integer> scanIds(String prefix) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        for (String key : store.scan(prefix)) ids.add(Integer.parseInt(key.substring(prefix.length())));
+        return ids;
+    }
+
+    /* Writing */
+
+    /**
+     * Writes, as one change, every entity handed out to or added by the calling thread since it last committed whose
+     * record changed, every new entity they refer to, the lists of the bundle that changed, and its settings and
+     * requests if they changed, then lets go of those entities. Lists another thread added elements to that it has
+     * not committed yet are not written. Records are not forced to disk.
+     *
+     * @throws IOException if the records can't be written.
+     */
+    public synchronized void commit() throws IOException {
+        Map<String, byte[]> batch = changes(Thread.currentThread());
+        if (!batch.isEmpty()) store.write(batch);
+        touched.remove(Thread.currentThread());
+    }
+
+    /**
+     * Commits every entity handed out to or added by any thread, then lets go of them all, so they can be dropped
+     * from memory once nothing else uses them. It is only called while no thread is changing the bundle, such as
+     * while holding it exclusively.
+     *
+     * @throws IOException if the records can't be written.
+     */
+    public synchronized void release() throws IOException {
+        Map<Object, String> all = new IdentityHashMap<>();
+        for (Map<Object, String> entities : touched.values()) all.putAll(entities);
+        touched.clear();
+        touched.put(Thread.currentThread(), all);
+        Map<String, byte[]> batch = changes(null);
+        if (!batch.isEmpty()) store.write(batch);
+        touched.clear();
+    }
+
+    /* The changes of the entities of the calling thread and of the elements committer added to lists, or of every
+     * element if committer is null. Lists that other threads still add to are synchronized on, as they add to them.
+     */
+    private Map<String, byte[]> changes(Thread committer) throws IOException {
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        Map<Object, String> own = touched();
+        List<Object> roots = new ArrayList<>(own.keySet());
+        EntityOutput requests = new EntityOutput(users);
+        requests.beginSection();
+        writeRequests(requests);
+        /* Items waiting in requests don't change, so they are only checked when the requests changed. */
+        if (putIfChanged(batch, REQUESTS, requests.endSection()) || committer == null)
+            roots.addAll(requests.getReferences());
+        for (StoredList<?> list : lists) {
+            synchronized (list) {
+                list.collectUnwritten(roots, committer);
+            }
+        }
+        write(roots, batch);
+        /* A list holding elements another thread added is written once that thread commits. */
+        for (int i = 0; i < lists.size(); i++) {
+            synchronized (lists.get(i)) {
+                if (lists.get(i).replaceByKeys(own)) writeList(i, batch);
+            }
+        }
+        writeUsernames(batch);
+        SnapshotOutput settings = new EntityOutput(users);
+        settings.beginSection();
+        SnapshotCodec.writeSettings(settings, dataBundle);
+        settings.writeVarInt(reverterCounter);
+        putIfChanged(batch, SETTINGS, settings.endSection());
+        return batch;
+    }
+
+    /* Writes the records of roots and every entity they refer to that changed. */
+    private void write(Collection<Object> roots, Map<String, byte[]> batch) throws IOException {
+        Map<Object, String> own = touched();
+        Deque<Object> pending = new ArrayDeque<>(roots);
+        Set<Object> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (!pending.isEmpty()) {
+            Object entity = pending.poll();
+            if (!written.add(entity)) continue;
+            String key = key(entity);
+            EntityOutput out = new EntityOutput(users);
+            byte[] record = encode(out, entity);
+            pending.addAll(out.getReferences());
+            int checksum = checksum(record);
+            Entry entry = cache.get(key);
+            if (entry == null || entry.get() != entity || entry.checksum != checksum) {
+                batch.put(key, record);
+                cache.put(key, new Entry(key, entity, checksum, queue));
+            }
+            own.put(entity, key);
+        }
+    }
+
+    private byte[] encode(SnapshotOutput out, Object entity) throws IOException {
+        out.beginSection();
+        if (entity instanceof Account) accountCodec.write(out, (Account) entity);
+        else if (entity instanceof Item) itemCodec.write(out, (Item) entity);
+        else if (entity instanceof Trade) tradeCodec.write(out, (Trade) entity);
+        else if (entity instanceof Meeting) meetingCodec.write(out, (Meeting) entity);
+        else reverterCodec.write(out, (ActionReverter) entity);
+        return out.endSection();
+    }
+
+    /* A list that changed is rewritten page by page from the page of its first change, and only the pages that
+     * changed are written. Reverters are referred to by nothing but their list, so the records of the ones removed
+     * from it are removed as well.
+     */
+    private void writeList(int list, Map<String, byte[]> batch) throws IOException {
+        StoredList<?> stored = lists.get(list);
+        List<String> removed = stored.takeRemovedKeys();
+        int first = stored.takeFirstChanged();
+        if (first < 0) return;
+        List<String> keys = stored.keys();
+        int pages = writePages(LISTS[list], keys, first / LIST_PAGE_SIZE, batch);
+        for (int page = pages; recordChecksums.remove(pageKey(LISTS[list], page)) != null; page++)
+            batch.put(pageKey(LISTS[list], page), null);
+        if (list != REVERTER_LIST) return;
+        /* A reverter removed is still present if it was put back, which is at or after the first change. */
+        Set<String> present = new HashSet<>(keys.subList(Math.min(first, keys.size()), keys.size()));
+        for (String key : removed) {
+            if (present.contains(key)) continue;
+            batch.put(key, null);
+            Entry entry = cache.remove(key);
+            Object reverter = entry == null ? null : entry.get();
+            if (reverter != null) for (Map<Object, String> entities : touched.values()) entities.remove(reverter);
+        }
+    }
+
+    /* The dictionary only grows, so only its pages from the one holding the first username not written yet are
+     * written.
+     */
+    private void writeUsernames(Map<String, byte[]> batch) throws IOException {
+        if (usernamesWritten == users.size() && recordChecksums.containsKey(USERNAMES)) return;
+        writePages(USERNAMES, users.getUsernames(), usernamesWritten / LIST_PAGE_SIZE, batch);
+        usernamesWritten = users.size();
+    }
+
+    /* Writes the number of pages of strings under name, and the pages from page first on. Returns the number of
+     * pages.
+     */
+    private int writePages(String name, List<String> strings, int first, Map<String, byte[]> batch)
+            throws IOException {
+        int pages = (strings.size() + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE;
+        SnapshotOutput out = new EntityOutput(users);
+        out.beginSection();
+        out.writeVarInt(pages);
+        putIfChanged(batch, name, out.endSection());
+        for (int page = first; page < pages; page++) {
+            out.beginSection();
+            int from = page * LIST_PAGE_SIZE;
+            out.writeStrings(strings.subList(from, Math.min(strings.size(), from + LIST_PAGE_SIZE)));
+            putIfChanged(batch, pageKey(name, page), out.endSection());
+        }
+        return pages;
+    }
+
+    /* Puts record in batch if it is not the one last written under key. Returns true iff it was put. */
+    private boolean putIfChanged(Map<String, byte[]> batch, String key, byte[] record) {
+        int checksum = checksum(record);
+        Integer previous = recordChecksums.put(key, checksum);
+        if (previous != null && previous == checksum) return false;
+        batch.put(key, record);
+        return true;
+    }
+
+    /* Admins waiting to be created are in no list, so they are written as part of the request. */
+    /* Sessions holding the data shared add requests while synchronized on their list, so they are read the same way. */
+    private void writeRequests(SnapshotOutput out) throws IOException {
+        synchronized (dataBundle.getUnfreezeRequests()) {
+            out.writeUsernames(dataBundle.getUnfreezeRequests());
+        }
+        synchronized (dataBundle.getItemRequests()) {
+            out.writeVarInt(dataBundle.getItemRequests().size());
+            for (Pair<String, Item> request : dataBundle.getItemRequests()) {
+                out.writeUsername(request.value1);
+                out.writeItem(request.value2);
+            }
+        }
+        synchronized (dataBundle.adminCreationRequests) {
+            out.writeVarInt(dataBundle.adminCreationRequests.size());
+            for (Pair<Admin, String> request : dataBundle.adminCreationRequests) {
+                out.writeString(request.value1.getUsername());
+                out.writeString(request.value1.getPassword());
+                out.writeString(request.value2);
+            }
+        }
+        synchronized (dataBundle.getReportRequests()) {
+            out.writeVarInt(dataBundle.getReportRequests().size());
+            for (String[] request : dataBundle.getReportRequests()) SnapshotCodec.writeReportRequest(out, request);
+        }
+    }
+
+    /* Reading */
+
+    /* Looks up the entity under key, decoding its record if it is not in memory, and keeps it until the calling
+     * thread commits.
+     */
+    synchronized Object get(String key) throws IOException {
+        purge();
+        Entry entry = cache.get(key);
+        Object entity = entry == null ? null : entry.get();
+        if (entity == null) {
+            byte[] record = store.get(key);
+            if (record == null) return null;
+            SnapshotInput in = new EntityInput(this);
+            in.beginSection(ByteBuffer.wrap(record));
+            entity = codecOf(key).read(in);
+            cache.put(key, new Entry(key, entity, checksum(record), queue));
+        }
+        touched().put(entity, key);
+        return entity;
+    }
+
+    /* The entities of the calling thread. */
+    private Map<Object, String> touched() {
+        return touched.computeIfAbsent(Thread.currentThread(), thread -> new IdentityHashMap<>());
+    }
+
+    /* Gets the bundle loaded, whose lists some reverters hold on to. */
+    DataBundle getDataBundle() {
+        return dataBundle;
+    }
+
+    /* Gets the dictionary the usernames in records are ids into. */
+    UserDictionary getUsers() {
+        return users;
+    }
+
+    private EntityCodec<?> codecOf(String key) throws IOException {
+        if (key.startsWith(ACCOUNT)) return accountCodec;
+        if (key.startsWith(ITEM)) return itemCodec;
+        if (key.startsWith(TRADE)) return tradeCodec;
+        if (key.startsWith(MEETING)) return meetingCodec;
+        if (key.startsWith(REVERTER)) return reverterCodec;
+        throw new IOException("Not the key of an entity " + key);
+    }
+
+    /* Removes the entries of entities the garbage collector dropped. */
+    private void purge() {
+        for (Reference<?> reference = queue.poll(); reference != null; reference = queue.poll()) {
+            Entry entry = (Entry) reference;
+            if (cache.get(entry.key) == entry) cache.remove(entry.key);
+        }
+    }
+
+    private void reset() {
+        users = new UserDictionary();
+        usernamesWritten = 0;
+        cache.clear();
+        touched.clear();
+        recordChecksums.clear();
+        purge();
+    }
+
+    private SnapshotInput input(String key) throws IOException {
+        byte[] record = store.get(key);
+        if (record == null) throw new IOException("Missing record " + key);
+        recordChecksums.put(key, checksum(record));
+        SnapshotInput in = new EntityInput(this);
+        in.beginSection(ByteBuffer.wrap(record));
+        return in;
+    }
+
+    private List<String> readList(int list) throws IOException {
+        return readPages(LISTS[list]);
+    }
+
+    private List<String> readPages(String name) throws IOException {
+        List<String> strings = new ArrayList<>();
+        if (store.get(name) == null) return strings;
+        int pages = input(name).readVarInt();
+        for (int page = 0; page < pages; page++) strings.addAll(input(pageKey(name, page)).readStrings());
+        return strings;
+    }
+
+    private void readRequests(SnapshotInput in) throws IOException {
+        dataBundle.getUnfreezeRequests().addAll(in.readUsernames());
+        for (int i = in.readVarInt(); i > 0; i--)
+            dataBundle.getItemRequests().add(new Pair<>(in.readUsername(), in.readItem()));
+        for (int i = in.readVarInt(); i > 0; i--) {
+            Admin admin = new Admin(in.readString(), in.readString(), false);
+            dataBundle.adminCreationRequests.add(new Pair<>(admin, in.readString()));
+        }
+        for (int i = in.readVarInt(); i > 0; i--)
+            dataBundle.getReportRequests().add(SnapshotCodec.readReportRequest(in));
+    }
+
+    /* Keys */
+
+    /**
+     * Gets the key of the record of <code>entity</code>.
+     *
+     * @param entity an <code>Account</code>, <code>Item</code>, <code>Trade</code> or <code>Meeting</code>.
+     * @return the key of its record.
+     */
+    static String keyOf(Object entity) {
+        if (entity instanceof Account) return ACCOUNT + ((Account) entity).getUsername();
+        if (entity instanceof Item) return key(ITEM, ((Item) entity).getId());
+        if (entity instanceof Trade) return key(TRADE, ((Trade) entity).getTradeId());
+        if (entity instanceof Meeting) return key(MEETING, ((Meeting) entity).getMeetingId());
+        throw new IllegalArgumentException("Not a stored entity: " + entity);
+    }
+
+    /* Reverters have no id, so a new one is numbered when first written. */
+    private String key(Object entity) {
+        if (!(entity instanceof ActionReverter)) return keyOf(entity);
+        String key = touched().get(entity);
+        return key != null ? key : key(REVERTER, ++reverterCounter);
+    }
+
+    private static String key(String prefix, int id) {
+        String digits = Integer.toString(id);
+        if (id < 0 || digits.length() >= 10) return prefix + digits;
+        return prefix + "0000000000".substring(digits.length()) + digits;
+    }
+
+    private static String pageKey(String name, int page) {
+        return key(name + "/", page);
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        return (int) crc.getValue();
+    }
+}
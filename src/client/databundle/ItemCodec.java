@@ -0,0 +1,26 @@
+package client.databundle;
+
+import core.item.Item;
+
+import java.io.IOException;
+
+/**
+ * Codec of <code>Item</code>s.
+ */
+class ItemCodec implements EntityCodec<Item> {
+    @Override
+    public void write(SnapshotOutput out, Item item) throws IOException {
+        out.writeVarInt(item.getId());
+        out.writeString(item.getType());
+        out.writeString(item.getName());
+        out.writeString(item.getDescription());
+    }
+
+    @Override
+    public Item read(SnapshotInput in) throws IOException {
+        int id = in.readVarInt();
+        String type = in.readString();
+        String name = in.readString();
+        return new Item(type, name, in.readString(), id);
+    }
+}
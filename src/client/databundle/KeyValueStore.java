@@ -0,0 +1,59 @@
+package client.databundle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A store of byte records under string keys, which <code>EntityStore</code> keeps the entities of a
+ * <code>DataBundle</code> in. Implementations must be safe to use from several threads at once.
+ */
+public interface KeyValueStore extends Closeable {
+    /**
+     * Gets the record stored under <code>key</code>.
+     *
+     * @param key the key of the record.
+     * @return the record, or null if there is none under <code>key</code>.
+     * @throws IOException if the record can't be read.
+     */
+    byte[] get(String key) throws IOException;
+
+    /**
+     * Stores <code>value</code> under <code>key</code>, replacing the record already there.
+     *
+     * @param key   the key of the record.
+     * @param value the record, or null to remove the record under <code>key</code>.
+     * @throws IOException if the record can't be written.
+     */
+    default void put(String key, byte[] value) throws IOException {
+        write(Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Stores every record of <code>batch</code> as one change: after a crash, either all of them or none of them
+     * are in the store.
+     *
+     * @param batch the records to store by key, where a null record removes the record under its key.
+     * @throws IOException if the records can't be written.
+     */
+    void write(Map<String, byte[]> batch) throws IOException;
+
+    /**
+     * Gets the keys of every record whose key starts with <code>prefix</code>.
+     *
+     * @param prefix the prefix of the keys.
+     * @return the keys in ascending order.
+     * @throws IOException if the keys can't be read.
+     */
+    List<String> scan(String prefix) throws IOException;
+
+    /**
+     * Forces every record written so far to disk. Records written are only guaranteed to survive a crash once this
+     * returns.
+     *
+     * @throws IOException if the records can't be forced to disk.
+     */
+    void sync() throws IOException;
+}
@@ -0,0 +1,86 @@
+package client.databundle;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list of a <code>DataBundle</code> loaded from a snapshot. It starts out holding only the indices of its elements
+ * in a <code>LazyTable</code>, and looks each element up the first time it is read, so elements nobody touches are
+ * never decoded. It can be changed like any other list.
+ *
+ * @param <T> the type of element.
+ */
+class LazyList<T> extends AbstractList<T> implements RandomAccess {
+    /* An element that has not been looked up yet. */
+    private static final class Reference {
+        private final int index;
+
+        private Reference(int index) {
+            this.index = index;
+        }
+    }
+
+    private final List<T> table;
+    /* Each slot holds either the element or the Reference to it. */
+    private final ArrayList<Object> slots;
+
+    /**
+     * Creates a list of the elements of <code>table</code> at <code>indices</code>, in order.
+     *
+     * @param table   the table the elements are in.
+     * @param indices the indices of the elements in <code>table</code>.
+     */
+    LazyList(List<T> table, int[] indices) {
+        this.table = table;
+        slots = new ArrayList<>(indices.length);
+        for (int index : indices) slots.add(new Reference(index));
+    }
+
+    /**
+     * Gets the table the elements of this list are looked up in.
+     *
+     * @return the table of this list.
+     */
+    List<T> getTable() {
+        return table;
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Object slot = slots.get(index);
+        if (slot instanceof Reference) {
+            slot = table.get(((Reference) slot).index);
+            slots.set(index, slot);
+        }
+        return (T) slot;
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T previous = get(index);
+        slots.set(index, element);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        slots.add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T previous = get(index);
+        slots.remove(index);
+        modCount++;
+        return previous;
+    }
+}
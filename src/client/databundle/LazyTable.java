@@ -0,0 +1,102 @@
+package client.databundle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * A read-only table section of a snapshot, decoding each record the first time it is asked for. The section starts
+ * with the number of records followed by the 4-byte offset of each record, so finding a record takes constant time
+ * no matter how large the ones before it are.
+ * <p>
+ * Records can be decoded from any number of threads at once. Two threads asking for the same record may both decode
+ * it, but only the first record stored is ever returned, so every caller sees the same object.
+ *
+ * @param <T> the type of record.
+ */
+class LazyTable<T> extends AbstractList<T> implements RandomAccess {
+    /**
+     * Decodes one record of a <code>LazyTable</code>.
+     *
+     * @param <T> the type of record.
+     */
+    interface RecordDecoder<T> {
+        /**
+         * Decodes the record in <code>record</code>, which holds exactly the bytes of the record.
+         *
+         * @param record the bytes of the record.
+         * @return the record decoded.
+         * @throws IOException if the bytes are not a valid record.
+         */
+        T decode(ByteBuffer record) throws IOException;
+    }
+
+    private final ByteBuffer section;
+    private final RecordDecoder<T> decoder;
+    private final int size;
+    /* Where the offset index starts, and where the records it points into start. */
+    private final int indexStart;
+    private final int recordsStart;
+    private final AtomicReferenceArray<Object> decoded;
+
+    /**
+     * Creates a table over <code>section</code>, which must not change while the table is in use.
+     *
+     * @param section the bytes of the whole section.
+     * @param decoder decodes a record.
+     * @throws IOException if the section has no valid offset index.
+     */
+    LazyTable(ByteBuffer section, RecordDecoder<T> decoder) throws IOException {
+        this.section = section.duplicate();
+        this.decoder = decoder;
+        ByteBuffer header = section.duplicate();
+        long size = SnapshotInput.readUnsignedVarLong(header);
+        indexStart = header.position();
+        if (size > (section.limit() - indexStart) / 4) throw new IOException("Malformed table section");
+        this.size = (int) size;
+        recordsStart = indexStart + 4 * this.size;
+        decoded = new AtomicReferenceArray<>(this.size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        Object record = decoded.get(index);
+        if (record == null) {
+            record = decode(index);
+            if (!decoded.compareAndSet(index, null, record)) record = decoded.get(index);
+        }
+        return (T) record;
+    }
+
+    /**
+     * Decodes every record not decoded yet, spread over the threads of the common <code>ForkJoinPool</code>.
+     */
+    void decodeAll() {
+        IntStream.range(0, size).parallel().forEach(this::get);
+    }
+
+    private T decode(int index) {
+        int start = recordsStart + section.getInt(indexStart + 4 * index);
+        int end = index + 1 < size ? recordsStart + section.getInt(indexStart + 4 * (index + 1)) : section.limit();
+        try {
+            if (start < recordsStart || start > end || end > section.limit())
+                throw new IOException("Malformed offset of record " + index);
+            ByteBuffer record = section.duplicate();
+            record.limit(end).position(start);
+            return decoder.decode(record.slice());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package client.databundle;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * An embedded <code>KeyValueStore</code> kept in a single append-only log file. Every batch of records is appended
+ * to the end of the log followed by a commit record, and an index in memory maps each key to where its newest record
+ * is in the log, so a record is read with a single positioned read. Only the keys are kept in memory, never the
+ * records.
+ * <p>
+ * Each record carries a CRC32 checksum. When the log is opened, it is read up to the last intact commit record and
+ * cut off there, so a batch torn by a crash is discarded as a whole. Records replaced or removed are left in the
+ * log until <code>sync</code> finds that they outweigh the live ones, at which point the live records are copied to
+ * a new log that is renamed over the old one.
+ */
+public class LogStructuredStore implements KeyValueStore {
+    /* The first four bytes of the log, "TSKV", followed by the version. */
+    private static final int MAGIC = 0x54534B56;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+    /* Record types. A record is its length, the checksum of its payload, then the payload. */
+    private static final int PUT = 0;
+    private static final int DELETE = 1;
+    private static final int COMMIT = 2;
+    /* A record larger than this is treated as a torn write. */
+    private static final int MAX_RECORD_LENGTH = 1 << 28;
+    /* Number of bytes of dead records that have to pile up before the log is compacted. */
+    private static final long MIN_COMPACTION_GARBAGE = 1 << 20;
+
+    /* Where the value of a record is in the log, and how long the whole record is. */
+    private static final class Location {
+        private final long position;
+        private final int length;
+        private final int recordLength;
+
+        private Location(long position, int length, int recordLength) {
+            this.position = position;
+            this.length = length;
+            this.recordLength = recordLength;
+        }
+    }
+
+    private final File file;
+    private TreeMap<String, Location> index = new TreeMap<>();
+    private FileChannel channel;
+    private long end;
+    private long liveBytes;
+
+    /**
+     * Opens the log in <code>file</code>, creating it if it doesn't exist.
+     *
+     * @param file the file the log is kept in.
+     * @throws IOException if the file can't be opened or is not a log.
+     */
+    public LogStructuredStore(File file) throws IOException {
+        this.file = file;
+        /* left behind by a compaction that never finished, so the log it would have replaced is still whole */
+        Files.deleteIfExists(compactionFile().toPath());
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(header, 0);
+            channel.force(true);
+            end = HEADER_LENGTH;
+        } else {
+            recover();
+        }
+    }
+
+    @Override
+    public synchronized byte[] get(String key) throws IOException {
+        Location location = index.get(key);
+        return location == null ? null : read(location);
+    }
+
+    @Override
+    public synchronized void write(Map<String, byte[]> batch) throws IOException {
+        if (batch.isEmpty()) return;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Map<String, Location> locations = new HashMap<>();
+        for (Map.Entry<String, byte[]> entry : batch.entrySet()) {
+            byte[] value = entry.getValue();
+            byte[] record = record(value == null ? DELETE : PUT, entry.getKey(), value);
+            if (value != null) {
+                long position = end + bytes.size() + record.length - value.length;
+                locations.put(entry.getKey(), new Location(position, value.length, record.length));
+            }
+            bytes.write(record);
+        }
+        bytes.write(record(COMMIT, null, null));
+        writeFully(ByteBuffer.wrap(bytes.toByteArray()), end);
+        end += bytes.size();
+        for (String key : batch.keySet()) apply(key, locations.get(key));
+    }
+
+    @Override
+    public synchronized List<String> scan(String prefix) {
+        return new ArrayList<>(index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet());
+    }
+
+    /**
+     * Forces the log to disk, then compacts it if most of it is records that were replaced or removed.
+     *
+     * @throws IOException if the log can't be forced to disk or compacted.
+     */
+    @Override
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+        long garbage = end - HEADER_LENGTH - liveBytes;
+        if (garbage >= MIN_COMPACTION_GARBAGE && garbage > liveBytes) compact();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /* Log */
+
+    private void apply(String key, Location location) {
+        Location previous = location == null ? index.remove(key) : index.put(key, location);
+        if (previous != null) liveBytes -= previous.recordLength;
+        if (location != null) liveBytes += location.recordLength;
+    }
+
+    /* Rebuilds the index from the log, cutting off everything after the last intact commit record. */
+    private void recover() throws IOException {
+        long committed = HEADER_LENGTH;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC) throw new IOException(file + " is not a key-value log");
+            int version = input.readInt();
+            if (version != VERSION) throw new IOException("Unsupported key-value log version " + version);
+            Map<String, Location> batch = new HashMap<>();
+            long position = HEADER_LENGTH;
+            while (true) {
+                byte[] payload = readPayload(input);
+                if (payload == null) break;
+                int recordLength = 8 + payload.length;
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                int type = record.readByte();
+                if (type == COMMIT) {
+                    for (Map.Entry<String, Location> entry : batch.entrySet()) apply(entry.getKey(), entry.getValue());
+                    batch.clear();
+                    committed = position + recordLength;
+                } else if (type == PUT || type == DELETE) {
+                    String key = record.readUTF();
+                    int length = record.available();
+                    long valuePosition = position + recordLength - length;
+                    batch.put(key, type == PUT ? new Location(valuePosition, length, recordLength) : null);
+                } else {
+                    break;
+                }
+                position += recordLength;
+            }
+        } catch (EOFException e) {
+            throw new IOException(file + " is not a key-value log");
+        }
+        if (committed < channel.size()) {
+            channel.truncate(committed);
+            channel.force(true);
+        }
+        end = committed;
+    }
+
+    /* Returns null at the end of the log, or at the first record that is incomplete or fails its checksum. */
+    private byte[] readPayload(DataInputStream input) throws IOException {
+        try {
+            int length = input.readInt();
+            int checksum = input.readInt();
+            if (length <= 0 || length > MAX_RECORD_LENGTH) return null;
+            byte[] payload = new byte[length];
+            input.readFully(payload);
+            return checksum(payload) == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /* Copies every live record to a new log as one batch, then renames it over the current one. */
+    private void compact() throws IOException {
+        File compacted = compactionFile();
+        TreeMap<String, Location> moved = new TreeMap<>();
+        byte[] commit = record(COMMIT, null, null);
+        long position = HEADER_LENGTH;
+        try (FileOutputStream output = new FileOutputStream(compacted)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                byte[] value = read(entry.getValue());
+                byte[] record = record(PUT, entry.getKey(), value);
+                data.write(record);
+                moved.put(entry.getKey(), new Location(position + record.length - value.length, value.length,
+                        record.length));
+                position += record.length;
+            }
+            data.write(commit);
+            position += commit.length;
+            data.flush();
+            output.getFD().sync();
+        }
+        channel.close();
+        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = moved;
+        end = position;
+        liveBytes = position - HEADER_LENGTH - commit.length;
+    }
+
+    private File compactionFile() {
+        return new File(file.getPath() + ".compact");
+    }
+
+    /* Records */
+
+    private static byte[] record(int type, String key, byte[] value) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeByte(type);
+        if (key != null) data.writeUTF(key);
+        if (value != null) data.write(value);
+        byte[] bytes = payload.toByteArray();
+        ByteBuffer record = ByteBuffer.allocate(8 + bytes.length);
+        record.putInt(bytes.length).putInt(checksum(bytes)).put(bytes);
+        return record.array();
+    }
+
+    private byte[] read(Location location) throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(location.length);
+        while (value.hasRemaining()) {
+            if (channel.read(value, location.position + value.position()) < 0)
+                throw new IOException("Unexpected end of " + file);
+        }
+        return value.array();
+    }
+
+    private void writeFully(ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) channel.write(bytes, position + bytes.position());
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return (int) crc.getValue();
+    }
+}
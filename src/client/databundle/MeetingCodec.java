@@ -0,0 +1,35 @@
+package client.databundle;
+
+import core.meeting.Meeting;
+
+import java.io.IOException;
+
+/**
+ * Codec of <code>Meeting</code>s.
+ */
+class MeetingCodec implements EntityCodec<Meeting> {
+    @Override
+    public void write(SnapshotOutput out, Meeting meeting) throws IOException {
+        out.writeVarInt(meeting.getMeetingId());
+        out.writeString(meeting.getLocation());
+        out.writeDateTime(meeting.getMeetingTime());
+        for (int userOrder = 0; userOrder < 2; userOrder++) {
+            out.writeVarInt(meeting.getTimesEdited(userOrder));
+            out.writeBoolean(meeting.getMeetingConfirmed(userOrder));
+            out.writeBoolean(meeting.getMeetingOccurred(userOrder));
+        }
+    }
+
+    @Override
+    public Meeting read(SnapshotInput in) throws IOException {
+        int meetingId = in.readVarInt();
+        String location = in.readString();
+        Meeting meeting = new Meeting(location, in.readDateTime(), meetingId);
+        for (int userOrder = 0; userOrder < 2; userOrder++) {
+            meeting.setTimesEdited(userOrder, in.readVarInt());
+            meeting.setMeetingConfirmed(userOrder, in.readBoolean());
+            meeting.setMeetingOccurred(userOrder, in.readBoolean());
+        }
+        return meeting;
+    }
+}
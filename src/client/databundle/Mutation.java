@@ -0,0 +1,140 @@
+package client.databundle;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single change made to the <code>DataBundle</code>, recorded as the facade call that made it so it can be
+ * replayed in order on top of a snapshot.
+ */
+public class Mutation {
+    private final MutationType type;
+    private final String username;
+    private final long timestamp;
+    private final String[] args;
+
+    /**
+     * Creates a <code>Mutation</code> of <code>type</code>, made by <code>username</code> at <code>timestamp</code>.
+     *
+     * @param type      the type of this mutation.
+     * @param username  the username of the user or admin that made this mutation, or null if none is logged in.
+     * @param timestamp the time this mutation was made, in milliseconds since the epoch.
+     * @param args      the arguments of the facade call that made this mutation.
+     */
+    public Mutation(MutationType type, String username, long timestamp, String... args) {
+        this.type = type;
+        this.username = username;
+        this.timestamp = timestamp;
+        this.args = args;
+    }
+
+    /**
+     * Gets the type of this mutation.
+     *
+     * @return the <code>MutationType</code> of this mutation.
+     */
+    public MutationType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the username of the user or admin that made this mutation.
+     *
+     * @return the username, or null if the mutation was not made by a logged in user or admin.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the time this mutation was made.
+     *
+     * @return the time in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the argument at <code>index</code>.
+     *
+     * @param index the index of the argument.
+     * @return the argument at <code>index</code>.
+     */
+    public String getArg(int index) {
+        return args[index];
+    }
+
+    /**
+     * Gets the argument at <code>index</code> as an int.
+     *
+     * @param index the index of the argument.
+     * @return the argument at <code>index</code> parsed as an int.
+     */
+    public int getIntArg(int index) {
+        return Integer.parseInt(args[index]);
+    }
+
+    /**
+     * Gets the argument at <code>index</code> as a boolean.
+     *
+     * @param index the index of the argument.
+     * @return the argument at <code>index</code> parsed as a boolean.
+     */
+    public boolean getBooleanArg(int index) {
+        return Boolean.parseBoolean(args[index]);
+    }
+
+    /**
+     * Writes this mutation to <code>out</code>.
+     *
+     * @param out the output to write to.
+     * @throws IOException if <code>out</code> can't be written to.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(type.ordinal());
+        writeString(out, username);
+        out.writeLong(timestamp);
+        out.writeShort(args.length);
+        for (String arg : args) writeString(out, arg);
+    }
+
+    /**
+     * Reads a mutation written by <code>writeTo</code> from <code>in</code>.
+     *
+     * @param in the input to read from.
+     * @return the <code>Mutation</code> read.
+     * @throws IOException if <code>in</code> can't be read from, or doesn't contain a mutation.
+     */
+    public static Mutation readFrom(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= MutationType.values().length) throw new IOException("Unknown mutation type " + ordinal);
+        MutationType type = MutationType.values()[ordinal];
+        String username = readString(in);
+        long timestamp = in.readLong();
+        String[] args = new String[in.readUnsignedShort()];
+        for (int i = 0; i < args.length; i++) args[i] = readString(in);
+        return new Mutation(type, username, timestamp, args);
+    }
+
+    /* Strings are written as a length(-1 for null) followed by UTF-8 bytes, since writeUTF is limited to 64KB. */
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,20 @@
+package client.databundle;
+
+/**
+ * A journal that every change made to the <code>DataBundle</code> through a facade is appended to, so that the
+ * change can be replayed on top of the last snapshot.
+ */
+public interface MutationJournal {
+    /**
+     * A journal that discards everything appended to it. Used by guest(demo) sessions and while replaying.
+     */
+    MutationJournal NONE = mutation -> {
+    };
+
+    /**
+     * Appends <code>mutation</code> to this journal.
+     *
+     * @param mutation the change made to the <code>DataBundle</code>.
+     */
+    void append(Mutation mutation);
+}
@@ -0,0 +1,62 @@
+package client.databundle;
+
+/**
+ * Types of mutations that can be recorded in a <code>MutationJournal</code>. Each type is a call to a facade that
+ * changes the <code>DataBundle</code>, and is replayed by the system it was recorded from.
+ */
+public enum MutationType {
+    /* Recorded by UserSystem */
+    SET_PASSWORD(Source.USER),
+    SET_CITY(Source.USER),
+    ADD_TO_BLOCK_LIST(Source.USER),
+    DELETE_FROM_BLOCK_LIST(Source.USER),
+    ADD_TO_WISHLIST(Source.USER),
+    DELETE_FROM_WISHLIST(Source.USER),
+    REQUEST_ITEM(Source.USER),
+    REQUEST_UNFREEZE(Source.USER),
+    REPORT_USER(Source.USER),
+    SWITCH_VACATION_STATUS(Source.USER),
+    SEND_PRIVATE_MESSAGE(Source.USER),
+    REQUEST_TRADE(Source.USER),
+    AGREE_TO_TRADE(Source.USER),
+    DENY_TRADE(Source.USER),
+    CREATE_MEETING(Source.USER),
+    EDIT_MEETING(Source.USER),
+    CONFIRM_MEETING_ARRANGEMENT(Source.USER),
+    CONFIRM_MEETING_OCCURRED(Source.USER),
+    UPDATE_CREDIT_SUBTRACTION(Source.USER),
+    /* Recorded by AdminSystem */
+    ADMIN_SET_PASSWORD(Source.ADMIN),
+    FREEZE_USER(Source.ADMIN),
+    UNFREEZE_USER(Source.ADMIN),
+    HANDLE_REQUEST(Source.ADMIN),
+    CREATE_ADMIN(Source.ADMIN),
+    SEND_ANNOUNCEMENT(Source.ADMIN),
+    SET_THRESHOLD(Source.ADMIN),
+    UNDO(Source.ADMIN),
+    /* Recorded by RegistrationSystem */
+    CREATE_USER(Source.REGISTRATION),
+    REQUEST_ADMIN(Source.REGISTRATION),
+    /* Recorded by LoginSystem */
+    REHASH_PASSWORD(Source.LOGIN);
+
+    /**
+     * The system that records, and therefore replays, a type of mutation.
+     */
+    public enum Source {USER, ADMIN, REGISTRATION, LOGIN}
+
+    private final Source source;
+
+    MutationType(Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Gets the system that records and replays this type of mutation.
+     *
+     * @return the <code>Source</code> of this type.
+     */
+    public Source getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,191 @@
+package client.databundle;
+
+import core.account.reverter.PrivateMessageReverter;
+import core.account.reverter.SetPasswordReverter;
+import core.meeting.reverter.ConfirmMeetingArrangementReverter;
+import core.meeting.reverter.ConfirmMeetingOccurrenceReverter;
+import core.meeting.reverter.EditMeetingReverter;
+import core.reverter.ActionReverter;
+import core.trade.reverter.DenyTradeReverter;
+import core.trade.reverter.RequestTradeReverter;
+import core.user.User;
+import core.user.reverter.AddToBlockListReverter;
+import core.user.reverter.DeleteFromBlockListReverter;
+import core.user.reverter.SetCityReverter;
+import core.user.reverter.SwitchOnVacationReverter;
+import core.useritem.reverter.AddToWishListReverter;
+import core.useritem.reverter.DeleteFromWishListReverter;
+import core.useritem.reverter.ItemRequestReverter;
+import genericdatatype.Pair;
+
+import java.io.IOException;
+
+/**
+ * Codec of every <code>ActionReverter</code> subclass. Entities a reverter holds are written as references, so
+ * undoing after a reload still changes the entities in the <code>DataBundle</code>.
+ */
+class ReverterCodec implements EntityCodec<ActionReverter> {
+    /* Tags are part of the format, so new reverters must only be added at the end. */
+    private static final int SET_CITY = 0;
+    private static final int ADD_TO_BLOCK_LIST = 1;
+    private static final int DELETE_FROM_BLOCK_LIST = 2;
+    private static final int SWITCH_ON_VACATION = 3;
+    private static final int PRIVATE_MESSAGE = 4;
+    private static final int SET_PASSWORD = 5;
+    private static final int ITEM_REQUEST = 6;
+    private static final int ADD_TO_WISHLIST = 7;
+    private static final int DELETE_FROM_WISHLIST = 8;
+    private static final int CONFIRM_MEETING_ARRANGEMENT = 9;
+    private static final int CONFIRM_MEETING_OCCURRENCE = 10;
+    private static final int EDIT_MEETING = 11;
+    private static final int REQUEST_TRADE = 12;
+    private static final int DENY_TRADE = 13;
+    /* Facades add the result of a failed action as is, so reverter lists may hold nulls. */
+    private static final int NONE = 14;
+
+    @Override
+    public void write(SnapshotOutput out, ActionReverter reverter) throws IOException {
+        if (reverter == null) {
+            out.writeVarInt(NONE);
+        } else if (reverter instanceof SetCityReverter) {
+            SetCityReverter r = (SetCityReverter) reverter;
+            out.writeVarInt(SET_CITY);
+            out.writeAccount(r.getUser());
+            out.writeString(r.getPrevCity());
+            out.writeString(r.getCurrCity());
+        } else if (reverter instanceof AddToBlockListReverter) {
+            AddToBlockListReverter r = (AddToBlockListReverter) reverter;
+            out.writeVarInt(ADD_TO_BLOCK_LIST);
+            out.writeAccount(r.getUser());
+            out.writeUsername(r.getUsernameToDelete());
+        } else if (reverter instanceof DeleteFromBlockListReverter) {
+            DeleteFromBlockListReverter r = (DeleteFromBlockListReverter) reverter;
+            out.writeVarInt(DELETE_FROM_BLOCK_LIST);
+            out.writeAccount(r.getUser());
+            out.writeUsername(r.getUsernameToAdd());
+        } else if (reverter instanceof SwitchOnVacationReverter) {
+            SwitchOnVacationReverter r = (SwitchOnVacationReverter) reverter;
+            out.writeVarInt(SWITCH_ON_VACATION);
+            out.writeAccount(r.getUser());
+            out.writeBoolean(r.getStatus());
+        } else if (reverter instanceof PrivateMessageReverter) {
+            PrivateMessageReverter r = (PrivateMessageReverter) reverter;
+            out.writeVarInt(PRIVATE_MESSAGE);
+            out.writeAccount(r.getSender());
+            out.writeAccount(r.getReceiver());
+            out.writeString(r.getMessage());
+        } else if (reverter instanceof SetPasswordReverter) {
+            SetPasswordReverter r = (SetPasswordReverter) reverter;
+            out.writeVarInt(SET_PASSWORD);
+            out.writeAccount(r.getUser());
+            out.writeString(r.getOldPassword());
+            out.writeString(r.getNewPassword());
+        } else if (reverter instanceof ItemRequestReverter) {
+            ItemRequestReverter r = (ItemRequestReverter) reverter;
+            out.writeVarInt(ITEM_REQUEST);
+            out.writeUsername(r.getRequest().value1);
+            out.writeItem(r.getRequest().value2);
+        } else if (reverter instanceof AddToWishListReverter) {
+            AddToWishListReverter r = (AddToWishListReverter) reverter;
+            out.writeVarInt(ADD_TO_WISHLIST);
+            out.writeAccount(r.getUser());
+            out.writeItem(r.getItemToRemove());
+        } else if (reverter instanceof DeleteFromWishListReverter) {
+            DeleteFromWishListReverter r = (DeleteFromWishListReverter) reverter;
+            out.writeVarInt(DELETE_FROM_WISHLIST);
+            out.writeAccount(r.getUser());
+            out.writeItem(r.getItemToAdd());
+        } else if (reverter instanceof ConfirmMeetingArrangementReverter) {
+            ConfirmMeetingArrangementReverter r = (ConfirmMeetingArrangementReverter) reverter;
+            out.writeVarInt(CONFIRM_MEETING_ARRANGEMENT);
+            out.writeUsername(r.getAssociatedUsername());
+            out.writeMeeting(r.getMeeting());
+            out.writeVarInt(r.getUserOrder());
+        } else if (reverter instanceof ConfirmMeetingOccurrenceReverter) {
+            ConfirmMeetingOccurrenceReverter r = (ConfirmMeetingOccurrenceReverter) reverter;
+            out.writeVarInt(CONFIRM_MEETING_OCCURRENCE);
+            out.writeUsername(r.getAssociatedUsername());
+            out.writeMeeting(r.getMeeting());
+            out.writeVarInt(r.getUserOrder());
+        } else if (reverter instanceof EditMeetingReverter) {
+            EditMeetingReverter r = (EditMeetingReverter) reverter;
+            out.writeVarInt(EDIT_MEETING);
+            out.writeUsername(r.getAssociatedUsername());
+            out.writeMeeting(r.getMeeting());
+            out.writeString(r.getLocation());
+            out.writeDateTime(r.getTime());
+            out.writeVarInt(r.getTimeEditedOtherUser());
+            out.writeVarInt(r.getUserOrder());
+        } else if (reverter instanceof RequestTradeReverter) {
+            RequestTradeReverter r = (RequestTradeReverter) reverter;
+            out.writeVarInt(REQUEST_TRADE);
+            out.writeUsername(r.getAssociatedUsername());
+            out.writeTrade(r.getTrade());
+        } else if (reverter instanceof DenyTradeReverter) {
+            DenyTradeReverter r = (DenyTradeReverter) reverter;
+            out.writeVarInt(DENY_TRADE);
+            out.writeUsername(r.getAssociatedUsername());
+            out.writeTrade(r.getTrade());
+        } else {
+            throw new IOException("No codec for " + reverter.getClass().getName());
+        }
+    }
+
+    @Override
+    public ActionReverter read(SnapshotInput in) throws IOException {
+        int tag = in.readVarInt();
+        switch (tag) {
+            case SET_CITY:
+                return new SetCityReverter((User) in.readAccount(), in.readString(), in.readString());
+            case ADD_TO_BLOCK_LIST:
+                return new AddToBlockListReverter((User) in.readAccount(), in.readUsername());
+            case DELETE_FROM_BLOCK_LIST:
+                return new DeleteFromBlockListReverter((User) in.readAccount(), in.readUsername());
+            case SWITCH_ON_VACATION:
+                return new SwitchOnVacationReverter((User) in.readAccount(), in.readBoolean());
+            case PRIVATE_MESSAGE:
+                return new PrivateMessageReverter(in.readAccount(), in.readAccount(), in.readString());
+            case SET_PASSWORD:
+                return new SetPasswordReverter(in.readAccount(), in.readString(), in.readString());
+            case ITEM_REQUEST:
+                return readItemRequestReverter(in);
+            case ADD_TO_WISHLIST:
+                return new AddToWishListReverter((User) in.readAccount(), in.readItem());
+            case DELETE_FROM_WISHLIST:
+                return new DeleteFromWishListReverter((User) in.readAccount(), in.readItem());
+            case CONFIRM_MEETING_ARRANGEMENT: {
+                String username = in.readUsername();
+                return new ConfirmMeetingArrangementReverter(in.readMeeting(), username, in.readVarInt());
+            }
+            case CONFIRM_MEETING_OCCURRENCE: {
+                String username = in.readUsername();
+                return new ConfirmMeetingOccurrenceReverter(in.readMeeting(), username, in.readVarInt());
+            }
+            case EDIT_MEETING: {
+                String username = in.readUsername();
+                return new EditMeetingReverter(in.readMeeting(), in.readString(), in.readDateTime(),
+                        in.readVarInt(), username, in.readVarInt());
+            }
+            case REQUEST_TRADE: {
+                String username = in.readUsername();
+                return new RequestTradeReverter(in.readTrade(), username, in.getDataBundle().getTrades());
+            }
+            case DENY_TRADE: {
+                String username = in.readUsername();
+                return new DenyTradeReverter(in.readTrade(), username);
+            }
+            case NONE:
+                return null;
+            default:
+                throw new IOException("Unknown reverter type " + tag);
+        }
+    }
+
+    /* The reverter finds its request in the item request list by equality, so the list isn't searched here, where
+     * reverters may be decoded on another thread while it is being changed.
+     */
+    private ActionReverter readItemRequestReverter(SnapshotInput in) throws IOException {
+        return new ItemRequestReverter(in.getDataBundle().getItemRequests(),
+                new Pair<>(in.readUsername(), in.readItem()));
+    }
+}
@@ -0,0 +1,520 @@
+package client.databundle;
+
+import core.admin.Admin;
+import core.item.Item;
+import core.meeting.Meeting;
+import core.reverter.ActionReverter;
+import core.trade.Trade;
+import core.user.User;
+import genericdatatype.Pair;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Class that encodes a <code>DataBundle</code> into a compact, versioned binary snapshot and decodes it back.
+ * <p>
+ * A snapshot starts with <code>MAGIC</code> and <code>VERSION</code>, followed by a list of sections. Every string
+ * in the bundle is written once to the string table, and entities shared between lists (items, accounts, meetings
+ * and trades) are written once to their table and referred to by index, so object identity survives the round trip
+ * just like it does with java serialization. Usernames kept by entities are written as ids into the user dictionary,
+ * in which the users are numbered by their position in the list of users. Ints are written as varints.
+ * <p>
+ * Sections may be compressed with a <code>BlockCodec</code>, recorded in the header. A compressed section is split
+ * into blocks that are compressed independently and decompressed in parallel on load. Each section carries a CRC32
+ * checksum of its bytes on disk, and the snapshot ends with a trailer, so a snapshot cut short or
+ * corrupted on disk is rejected when read instead of being decoded.
+ * <p>
+ * Each table starts with the offset of every entry in it. Snapshots are decoded lazily: the lists of the
+ * <code>DataBundle</code> read hold only the indices of their elements until they are first read, and an entry of a
+ * table is only decoded once something refers to it. Decoding from a memory-mapped file therefore takes time in
+ * proportion to the data actually used, not to the size of the snapshot. The rest can then be decoded in the
+ * background with <code>decodeInParallel</code>, which spreads the tables over every core.
+ */
+public class SnapshotCodec {
+    /**
+     * The first four bytes of every snapshot, "TSDB".
+     */
+    public static final int MAGIC = 0x54534442;
+    /**
+     * The version of the format written by this codec, the only one read.
+     */
+    public static final int VERSION = 6;
+    /**
+     * The first four bytes of the trailer ending every snapshot, "TSDE".
+     */
+    public static final int END_MAGIC = 0x54534445;
+    /* The trailer is END_MAGIC, the length of the snapshot before it, and the checksum of every byte before it
+     * that is not in a section.
+     */
+    private static final int TRAILER_LENGTH = 12;
+
+    /* Section ids, in the order sections are decoded. */
+    private static final int SETTINGS = 0;
+    private static final int ITEMS = 1;
+    private static final int MEETINGS = 2;
+    private static final int ACCOUNTS = 3;
+    private static final int TRADES = 4;
+    private static final int LISTS = 5;
+    private static final int REQUESTS = 6;
+    private static final int REVERTERS = 7;
+    private static final int STRINGS = 8;
+    private static final int STATISTICS = 9;
+    private static final int USERNAMES = 10;
+    private static final int SECTION_COUNT = 11;
+    /* Number of bytes of a section compressed as one block. */
+    private static final int BLOCK_SIZE = 1 << 18;
+
+    private final ItemCodec itemCodec = new ItemCodec();
+    private final AccountCodec accountCodec = new AccountCodec();
+    private final MeetingCodec meetingCodec = new MeetingCodec();
+    private final TradeCodec tradeCodec = new TradeCodec();
+    private final ReverterCodec reverterCodec = new ReverterCodec();
+    private final TradeStatisticsCodec statisticsCodec = new TradeStatisticsCodec();
+    private final BlockCodec blockCodec;
+
+    /**
+     * Constructs a SnapshotCodec that writes uncompressed snapshots, which are decoded straight from a
+     * memory-mapped file.
+     */
+    public SnapshotCodec() {
+        this(BlockCodecs.NONE);
+    }
+
+    /**
+     * Constructs a SnapshotCodec that compresses the snapshots it writes with <code>blockCodec</code>. Snapshots
+     * are always read with the codec recorded in their header.
+     *
+     * @param blockCodec the codec to compress sections with.
+     */
+    public SnapshotCodec(BlockCodec blockCodec) {
+        this.blockCodec = blockCodec;
+    }
+
+    /**
+     * Writes <code>dataBundle</code> to <code>output</code> as a snapshot. Every section is encoded before anything
+     * is written, so a bundle read lazily from the file being replaced is fully decoded by then.
+     *
+     * @param dataBundle the bundle to be written.
+     * @param output     the stream to write to. It is not closed.
+     * @throws IOException if <code>output</code> can't be written to.
+     */
+    public void write(DataBundle dataBundle, OutputStream output) throws IOException {
+        SnapshotOutput out = new SnapshotOutput();
+        byte[][] sections = new byte[SECTION_COUNT][];
+        /* Sections referring to a table are encoded before the table, since referring to an entity adds it. */
+        sections[LISTS] = encode(out, () -> writeLists(out, dataBundle));
+        sections[REQUESTS] = encode(out, () -> writeRequests(out, dataBundle));
+        sections[STATISTICS] = encode(out, () -> statisticsCodec.write(out, dataBundle.getTradeStatistics()));
+        sections[REVERTERS] = encodeTable(out, reverterCodec, dataBundle.getActionReverters());
+        sections[TRADES] = encodeTable(out, tradeCodec, out.trades());
+        sections[ACCOUNTS] = encodeTable(out, accountCodec, out.accounts());
+        sections[MEETINGS] = encodeTable(out, meetingCodec, out.meetings());
+        sections[ITEMS] = encodeTable(out, itemCodec, out.items());
+        sections[SETTINGS] = encode(out, () -> writeSettings(out, dataBundle));
+        sections[USERNAMES] = encode(out, () -> out.writeStrings(out.getUsers().getUsernames()));
+        sections[STRINGS] = encodeStrings(out.getStrings());
+        if (blockCodec != BlockCodecs.NONE) compressAll(sections);
+
+        /* Everything but the section bodies is written through header, so the trailer can check it. */
+        CRC32 headerChecksum = new CRC32();
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        header.writeInt(MAGIC);
+        SnapshotOutput.writeUnsignedVarLong(header, VERSION);
+        SnapshotOutput.writeUnsignedVarLong(header, blockCodec.getId());
+        SnapshotOutput.writeUnsignedVarLong(header, SECTION_COUNT);
+        for (int id = 0; id < SECTION_COUNT; id++) {
+            header.writeByte(id);
+            SnapshotOutput.writeUnsignedVarLong(header, sections[id].length);
+            header.writeInt(checksum(ByteBuffer.wrap(sections[id])));
+            headerChecksum.update(headerBytes.toByteArray());
+            headerBytes.writeTo(data);
+            headerBytes.reset();
+            data.write(sections[id]);
+        }
+        int length = data.size();
+        data.writeInt(END_MAGIC);
+        data.writeInt(length);
+        data.writeInt((int) headerChecksum.getValue());
+        data.flush();
+    }
+
+    /**
+     * Reads a snapshot written by <code>write</code> from <code>input</code>.
+     *
+     * @param input the stream to read from. It is not closed.
+     * @return the <code>DataBundle</code> read.
+     * @throws IOException if <code>input</code> can't be read from, or doesn't contain a snapshot of a supported
+     *                     version.
+     */
+    public DataBundle read(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n = input.read(buffer); n != -1; n = input.read(buffer)) bytes.write(buffer, 0, n);
+        return read(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * Reads a snapshot written by <code>write</code> from the remaining bytes of <code>buffer</code>, which is
+     * usually a memory-mapped snapshot file. Entities are decoded from <code>buffer</code> when first used, so it
+     * must not change for as long as the bundle read is in use.
+     *
+     * @param buffer the bytes to read from. Its position is not changed.
+     * @return the <code>DataBundle</code> read.
+     * @throws IOException if <code>buffer</code> doesn't contain a snapshot of <code>VERSION</code>.
+     */
+    public DataBundle read(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.slice();
+        if (data.remaining() < 4 || data.getInt() != MAGIC) throw new IOException("Not a DataBundle snapshot");
+        long version = SnapshotInput.readUnsignedVarLong(data);
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+        int expectedHeaderChecksum = readTrailer(data);
+        BlockCodec codec = BlockCodecs.forId(readLength(data));
+        CRC32 headerChecksum = new CRC32();
+        int headerStart = 0;
+        Map<Integer, ByteBuffer> sections = new HashMap<>();
+        int sectionCount = readLength(data);
+        for (int i = 0; i < sectionCount; i++) {
+            if (!data.hasRemaining()) throw new IOException("Malformed snapshot");
+            int id = data.get() & 0xFF;
+            int length = readLength(data);
+            if (data.remaining() < 4) throw new IOException("Malformed snapshot");
+            int checksum = data.getInt();
+            update(headerChecksum, data, headerStart, data.position());
+            ByteBuffer section = slice(data, length);
+            if (checksum(section) != checksum)
+                throw new IOException("Checksum of snapshot section " + id + " doesn't match");
+            sections.put(id, section);
+            headerStart = data.position();
+        }
+        if (expectedHeaderChecksum != (int) headerChecksum.getValue())
+            throw new IOException("Checksum of snapshot header doesn't match");
+        for (int id = 0; id < SECTION_COUNT; id++)
+            if (!sections.containsKey(id)) throw new IOException("Snapshot is missing section " + id);
+        if (codec != BlockCodecs.NONE) decompressAll(codec, sections);
+        return readLazily(sections);
+    }
+
+    /**
+     * Decodes every entity of <code>dataBundle</code> that <code>read</code> left in its snapshot, so later reads
+     * don't decode them one at a time on the thread using the bundle. The tables of accounts, meetings, trades and
+     * reverters are decoded at the same time on the common <code>ForkJoinPool</code>, each split over its threads,
+     * and the items and strings they refer to are decoded along with them. References between entities are
+     * indices into these tables, so they link up to the same objects whichever thread decodes them first.
+     * <p>
+     * Only the tables are touched, never the lists of the bundle, so the bundle can be used and changed as usual
+     * while this runs.
+     *
+     * @param dataBundle the bundle to be decoded.
+     * @return a future completed once every entity is decoded, right away if the bundle wasn't read lazily.
+     */
+    public static CompletableFuture<Void> decodeInParallel(DataBundle dataBundle) {
+        Set<LazyTable<?>> tables = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<?> list : Arrays.asList(dataBundle.users, dataBundle.admins, dataBundle.getMeetings(),
+                dataBundle.getTrades(), dataBundle.getActionReverters()))
+            if (list instanceof LazyList && ((LazyList<?>) list).getTable() instanceof LazyTable)
+                tables.add((LazyTable<?>) ((LazyList<?>) list).getTable());
+        return CompletableFuture.allOf(tables.stream()
+                .map(table -> CompletableFuture.runAsync(table::decodeAll, ForkJoinPool.commonPool()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /* Encoding */
+
+    private interface SectionWriter {
+        void write() throws IOException;
+    }
+
+    private byte[] encode(SnapshotOutput out, SectionWriter writer) throws IOException {
+        out.beginSection();
+        writer.write();
+        return out.endSection();
+    }
+
+    /* A table is its size, the offset of each entry from the end of the offsets, then the entries. */
+    private <T> byte[] encodeTable(SnapshotOutput out, EntityCodec<T> codec, List<? extends T> entities)
+            throws IOException {
+        int[] offsets = new int[entities.size()];
+        out.beginSection();
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = out.position();
+            codec.write(out, entities.get(i));
+        }
+        return table(offsets, out.endSection());
+    }
+
+    private byte[] encodeStrings(List<String> strings) throws IOException {
+        int[] offsets = new int[strings.size()];
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = entries.size();
+            byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            entries.write(bytes, 0, bytes.length);
+        }
+        return table(offsets, entries.toByteArray());
+    }
+
+    private byte[] table(int[] offsets, byte[] entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(5 + 4 * offsets.length + entries.length);
+        DataOutputStream data = new DataOutputStream(bytes);
+        SnapshotOutput.writeUnsignedVarLong(data, offsets.length);
+        for (int offset : offsets) data.writeInt(offset);
+        data.write(entries);
+        return bytes.toByteArray();
+    }
+
+    /* A compressed section is its length, the number of blocks and the compressed length of each, then the blocks.
+     * Every block but the last holds BLOCK_SIZE bytes.
+     */
+    private void compressAll(byte[][] sections) throws IOException {
+        byte[][][] blocks = new byte[sections.length][][];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int id = 0; id < sections.length; id++) {
+            byte[] section = sections[id];
+            byte[][] sectionBlocks = blocks[id] = new byte[(section.length + BLOCK_SIZE - 1) / BLOCK_SIZE][];
+            for (int i = 0; i < sectionBlocks.length; i++) {
+                int block = i;
+                tasks.add(() -> {
+                    int offset = block * BLOCK_SIZE;
+                    sectionBlocks[block] = blockCodec.compress(section, offset,
+                            Math.min(BLOCK_SIZE, section.length - offset));
+                    return null;
+                });
+            }
+        }
+        runAll(tasks);
+        for (int id = 0; id < sections.length; id++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            SnapshotOutput.writeUnsignedVarLong(data, sections[id].length);
+            SnapshotOutput.writeUnsignedVarLong(data, blocks[id].length);
+            for (byte[] block : blocks[id]) SnapshotOutput.writeUnsignedVarLong(data, block.length);
+            for (byte[] block : blocks[id]) data.write(block);
+            sections[id] = bytes.toByteArray();
+        }
+    }
+
+    /* Settings are shared with EntityStore, which stores them as one record. */
+    static void writeSettings(SnapshotOutput out, DataBundle dataBundle) throws IOException {
+        dataBundle.updateIdCounters();
+        out.writeVarInt(dataBundle.itemIdCounter);
+        out.writeVarInt(dataBundle.meetingIdCounter);
+        out.writeVarInt(dataBundle.tradeIdCounter);
+        out.writeVarInt(dataBundle.minLendBorrowDifference);
+        out.writeVarInt(dataBundle.maxMeetingEdits);
+        out.writeVarInt(dataBundle.maxIncompleteTrade);
+        out.writeVarInt(dataBundle.maxWeeklyTransaction);
+        out.writeVarInt(dataBundle.maxMeetingLateTime);
+    }
+
+    /* Users are given their ids here, before anything refers to them, so the id of a user is its position. */
+    private void writeLists(SnapshotOutput out, DataBundle dataBundle) throws IOException {
+        out.writeVarInt(dataBundle.users.size());
+        for (User user : dataBundle.users) {
+            out.writeAccount(user);
+            out.getUsers().idOf(user.getUsername());
+        }
+        out.writeVarInt(dataBundle.admins.size());
+        for (Admin admin : dataBundle.admins) out.writeAccount(admin);
+        out.writeVarInt(dataBundle.getMeetings().size());
+        for (Meeting meeting : dataBundle.getMeetings()) out.writeMeeting(meeting);
+        out.writeVarInt(dataBundle.getTrades().size());
+        for (Trade trade : dataBundle.getTrades()) out.writeTrade(trade);
+    }
+
+    private void writeRequests(SnapshotOutput out, DataBundle dataBundle) throws IOException {
+        out.writeUsernames(dataBundle.getUnfreezeRequests());
+        out.writeVarInt(dataBundle.getItemRequests().size());
+        for (Pair<String, Item> request : dataBundle.getItemRequests()) {
+            out.writeUsername(request.value1);
+            out.writeItem(request.value2);
+        }
+        out.writeVarInt(dataBundle.adminCreationRequests.size());
+        for (Pair<Admin, String> request : dataBundle.adminCreationRequests) {
+            out.writeAccount(request.value1);
+            out.writeString(request.value2);
+        }
+        out.writeVarInt(dataBundle.getReportRequests().size());
+        for (String[] request : dataBundle.getReportRequests()) writeReportRequest(out, request);
+    }
+
+    /* A report request is the usernames of the reporter and the user reported, then the reason. Requests are written
+     * as a list so that any other strings they hold are kept.
+     */
+    static void writeReportRequest(SnapshotOutput out, String[] request) throws IOException {
+        out.writeVarInt(request.length);
+        for (int i = 0; i < request.length; i++) {
+            if (i < 2) out.writeUsername(request[i]);
+            else out.writeString(request[i]);
+        }
+    }
+
+    static String[] readReportRequest(SnapshotInput in) throws IOException {
+        String[] request = new String[in.readVarInt()];
+        for (int i = 0; i < request.length; i++) request[i] = i < 2 ? in.readUsername() : in.readString();
+        return request;
+    }
+
+    /* Decoding */
+
+    private int readLength(ByteBuffer data) throws IOException {
+        long length = SnapshotInput.readUnsignedVarLong(data);
+        if (length > Integer.MAX_VALUE) throw new IOException("Malformed snapshot");
+        return (int) length;
+    }
+
+    /* Checks the trailer before anything else, so a snapshot cut short is rejected right away. The trailer is then
+     * cut off data, leaving only the sections to be read, and the checksum of the header it holds is returned.
+     */
+    private int readTrailer(ByteBuffer data) throws IOException {
+        int end = data.limit() - TRAILER_LENGTH;
+        if (end < data.position() || data.getInt(end) != END_MAGIC || data.getInt(end + 4) != end)
+            throw new IOException("Snapshot is incomplete");
+        int headerChecksum = data.getInt(end + 8);
+        data.limit(end);
+        return headerChecksum;
+    }
+
+    private static int checksum(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void update(CRC32 crc, ByteBuffer data, int start, int end) {
+        ByteBuffer bytes = data.duplicate();
+        bytes.limit(end).position(start);
+        crc.update(bytes);
+    }
+
+    /* Decompresses the blocks of every section in parallel, replacing each section by its decompressed bytes. */
+    private void decompressAll(BlockCodec codec, Map<Integer, ByteBuffer> sections) throws IOException {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Map.Entry<Integer, ByteBuffer> entry : sections.entrySet()) {
+            ByteBuffer data = entry.getValue().duplicate();
+            int length = readLength(data);
+            int blockCount = readLength(data);
+            if (blockCount != (length + (long) BLOCK_SIZE - 1) / BLOCK_SIZE)
+                throw new IOException("Malformed compressed section " + entry.getKey());
+            int[] compressedLengths = new int[blockCount];
+            for (int i = 0; i < blockCount; i++) compressedLengths[i] = readLength(data);
+            byte[] section = new byte[length];
+            for (int i = 0; i < blockCount; i++) {
+                ByteBuffer block = slice(data, compressedLengths[i]);
+                int offset = i * BLOCK_SIZE;
+                tasks.add(() -> {
+                    codec.decompress(block, section, offset, Math.min(BLOCK_SIZE, length - offset));
+                    return null;
+                });
+            }
+            if (data.hasRemaining()) throw new IOException("Malformed compressed section " + entry.getKey());
+            entry.setValue(ByteBuffer.wrap(section));
+        }
+        runAll(tasks);
+    }
+
+    /* Runs tasks on the common ForkJoinPool, waiting for all of them. */
+    private static void runAll(List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (Future<Void> future : ForkJoinPool.commonPool().invokeAll(tasks)) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while (de)compressing a snapshot");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /* Takes the next length bytes of data as a buffer of their own. */
+    private static ByteBuffer slice(ByteBuffer data, int length) throws IOException {
+        if (length > data.remaining()) throw new IOException("Unexpected end of snapshot");
+        ByteBuffer slice = data.slice();
+        slice.limit(length);
+        data.position(data.position() + length);
+        return slice;
+    }
+
+    private static String decodeString(ByteBuffer bytes) {
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    private DataBundle readLazily(Map<Integer, ByteBuffer> sections) throws IOException {
+        SnapshotInput in = new SnapshotInput();
+        in.strings = new LazyTable<>(sections.get(STRINGS), SnapshotCodec::decodeString);
+        in.beginSection(sections.get(USERNAMES));
+        in.usernames = new LazyList<>(in.strings, in.readIndices());
+        in.items = lazyTable(in, sections.get(ITEMS), itemCodec);
+        in.accounts = lazyTable(in, sections.get(ACCOUNTS), accountCodec);
+        in.meetings = lazyTable(in, sections.get(MEETINGS), meetingCodec);
+        in.trades = lazyTable(in, sections.get(TRADES), tradeCodec);
+        LazyTable<ActionReverter> reverters = lazyTable(in, sections.get(REVERTERS), reverterCodec);
+        int[] reverterIndices = new int[reverters.size()];
+        for (int i = 0; i < reverterIndices.length; i++) reverterIndices[i] = i;
+
+        in.beginSection(sections.get(LISTS));
+        List<User> users = new LazyList<>(SnapshotCodec.<User>cast(in.accounts), in.readIndices());
+        List<Admin> admins = new LazyList<>(SnapshotCodec.<Admin>cast(in.accounts), in.readIndices());
+        List<Meeting> meetings = new LazyList<>(in.meetings, in.readIndices());
+        List<Trade> trades = new LazyList<>(in.trades, in.readIndices());
+        DataBundle dataBundle = new DataBundle(users, admins, trades, meetings,
+                new LazyList<>(reverters, reverterIndices));
+        in.dataBundle = dataBundle;
+        in.beginSection(sections.get(SETTINGS));
+        readSettings(in, dataBundle);
+        in.beginSection(sections.get(REQUESTS));
+        readRequests(in, dataBundle);
+        in.beginSection(sections.get(STATISTICS));
+        dataBundle.setTradeStatistics(statisticsCodec.read(in));
+        return dataBundle;
+    }
+
+    private <T> LazyTable<T> lazyTable(SnapshotInput in, ByteBuffer section, EntityCodec<T> codec)
+            throws IOException {
+        return new LazyTable<>(section, record -> codec.read(in.fork(record)));
+    }
+
+    /* Users and admins share the account table, which each of their lists refers into. */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cast(List<?> table) {
+        return (List<T>) table;
+    }
+
+    static void readSettings(SnapshotInput in, DataBundle dataBundle) throws IOException {
+        dataBundle.itemIdCounter = in.readVarInt();
+        dataBundle.meetingIdCounter = in.readVarInt();
+        dataBundle.tradeIdCounter = in.readVarInt();
+        dataBundle.minLendBorrowDifference = in.readVarInt();
+        dataBundle.maxMeetingEdits = in.readVarInt();
+        dataBundle.maxIncompleteTrade = in.readVarInt();
+        dataBundle.maxWeeklyTransaction = in.readVarInt();
+        dataBundle.maxMeetingLateTime = in.readVarInt();
+    }
+
+    private void readRequests(SnapshotInput in, DataBundle dataBundle) throws IOException {
+        dataBundle.getUnfreezeRequests().addAll(in.readUsernames());
+        for (int i = in.readVarInt(); i > 0; i--)
+            dataBundle.getItemRequests().add(new Pair<>(in.readUsername(), in.readItem()));
+        for (int i = in.readVarInt(); i > 0; i--)
+            dataBundle.adminCreationRequests.add(new Pair<>((Admin) in.readAccount(), in.readString()));
+        for (int i = in.readVarInt(); i > 0; i--) dataBundle.getReportRequests().add(readReportRequest(in));
+    }
+}
@@ -0,0 +1,178 @@
+package client.databundle;
+
+import core.account.Account;
+import core.item.Item;
+import core.meeting.Meeting;
+import core.trade.Trade;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Input of <code>SnapshotCodec</code>, the counterpart of <code>SnapshotOutput</code>. The string and entity tables
+ * are either filled section by section, or are <code>LazyTable</code>s that decode an entry when it is first
+ * referred to.
+ */
+class SnapshotInput {
+    List<String> strings;
+    /* The usernames by id. */
+    List<String> usernames;
+    List<Item> items;
+    List<Account> accounts;
+    List<Meeting> meetings;
+    List<Trade> trades;
+    DataBundle dataBundle;
+    private ByteBuffer section;
+
+    /* Gets the bundle being decoded, whose lists some reverters hold on to. */
+    DataBundle getDataBundle() {
+        return dataBundle;
+    }
+
+    void beginSection(ByteBuffer bytes) {
+        section = bytes;
+    }
+
+    /**
+     * Creates an input sharing the tables of this one, that reads from <code>record</code>. Used to decode a record
+     * of a <code>LazyTable</code> while another one may be half way through.
+     *
+     * @param record the bytes to read from.
+     * @return the new input.
+     */
+    SnapshotInput fork(ByteBuffer record) {
+        SnapshotInput input = new SnapshotInput();
+        input.strings = strings;
+        input.usernames = usernames;
+        input.items = items;
+        input.accounts = accounts;
+        input.meetings = meetings;
+        input.trades = trades;
+        input.dataBundle = dataBundle;
+        input.section = record;
+        return input;
+    }
+
+    /* Primitives */
+
+    int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    long readVarLong() throws IOException {
+        long value = readUnsignedVarLong(section);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long readUnsignedVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readByte(ByteBuffer in) throws IOException {
+        try {
+            return in.get() & 0xFF;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Unexpected end of section");
+        }
+    }
+
+    byte[] readBytes(int length) throws IOException {
+        if (length < 0 || length > section.remaining()) throw new IOException("Unexpected end of section");
+        byte[] bytes = new byte[length];
+        section.get(bytes);
+        return bytes;
+    }
+
+    boolean readBoolean() throws IOException {
+        return readByte(section) != 0;
+    }
+
+    String readString() throws IOException {
+        return lookup(strings);
+    }
+
+    List<String> readStrings() throws IOException {
+        int size = readVarInt();
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(readString());
+        return list;
+    }
+
+    String readUsername() throws IOException {
+        return lookup(usernames);
+    }
+
+    List<String> readUsernames() throws IOException {
+        int size = readVarInt();
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(readUsername());
+        return list;
+    }
+
+    LocalDateTime readDateTime() throws IOException {
+        if (!readBoolean()) return null;
+        long epochSecond = readVarLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(), ZoneOffset.UTC);
+    }
+
+    /* References */
+
+    private <T> T lookup(List<T> table) throws IOException {
+        int index = readVarInt();
+        if (index == 0) return null;
+        if (index < 0 || index > table.size()) throw new IOException("Reference to a missing entry " + index);
+        return table.get(index - 1);
+    }
+
+    /**
+     * Reads a list of references, written as its size followed by each reference, as indices into their table
+     * without looking them up.
+     *
+     * @return the indices read.
+     * @throws IOException if the section doesn't contain the references.
+     */
+    int[] readIndices() throws IOException {
+        int size = readVarInt();
+        if (size < 0) throw new IOException("Malformed reference list");
+        int[] indices = new int[size];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = readVarInt() - 1;
+            if (indices[i] < 0) throw new IOException("Malformed reference list");
+        }
+        return indices;
+    }
+
+    Item readItem() throws IOException {
+        return lookup(items);
+    }
+
+    List<Item> readItems() throws IOException {
+        int size = readVarInt();
+        List<Item> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(readItem());
+        return list;
+    }
+
+    Account readAccount() throws IOException {
+        return lookup(accounts);
+    }
+
+    Meeting readMeeting() throws IOException {
+        return lookup(meetings);
+    }
+
+    Trade readTrade() throws IOException {
+        return lookup(trades);
+    }
+}
@@ -0,0 +1,197 @@
+package client.databundle;
+
+import core.account.Account;
+import core.item.Item;
+import core.meeting.Meeting;
+import core.trade.Trade;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Output of <code>SnapshotCodec</code>. Strings are written as indices into a string table, usernames as their id
+ * in a <code>UserDictionary</code>, and entities that are shared between lists are written once to their table
+ * section and referred to by index everywhere else.
+ */
+class SnapshotOutput {
+    private final UserDictionary users;
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<Item, Integer> itemIndices = new IdentityHashMap<>();
+    private final Map<Account, Integer> accountIndices = new IdentityHashMap<>();
+    private final Map<Meeting, Integer> meetingIndices = new IdentityHashMap<>();
+    private final Map<Trade, Integer> tradeIndices = new IdentityHashMap<>();
+    private ByteArrayOutputStream bytes;
+    private DataOutputStream section;
+
+    /**
+     * Creates an output with a dictionary of its own.
+     */
+    SnapshotOutput() {
+        this(new UserDictionary());
+    }
+
+    /**
+     * Creates an output that writes usernames as their id in <code>users</code>.
+     *
+     * @param users the dictionary of usernames, which gives ids to the usernames written.
+     */
+    SnapshotOutput(UserDictionary users) {
+        this.users = users;
+    }
+
+    /* Gets the entities of a table in index order. */
+    private <T> List<T> entities(Map<T, Integer> indices) {
+        List<T> result = new ArrayList<>(Collections.nCopies(indices.size(), (T) null));
+        indices.forEach((entity, index) -> result.set(index, entity));
+        return result;
+    }
+
+    List<Item> items() {
+        return entities(itemIndices);
+    }
+
+    List<Account> accounts() {
+        return entities(accountIndices);
+    }
+
+    List<Meeting> meetings() {
+        return entities(meetingIndices);
+    }
+
+    List<Trade> trades() {
+        return entities(tradeIndices);
+    }
+
+    /* Sections */
+
+    void beginSection() {
+        bytes = new ByteArrayOutputStream();
+        section = new DataOutputStream(bytes);
+    }
+
+    byte[] endSection() {
+        byte[] result = bytes.toByteArray();
+        bytes = null;
+        section = null;
+        return result;
+    }
+
+    /* Gets the number of bytes written to the current section so far. */
+    int position() {
+        return section.size();
+    }
+
+    List<String> getStrings() {
+        return strings;
+    }
+
+    UserDictionary getUsers() {
+        return users;
+    }
+
+    /* Primitives */
+
+    void writeVarInt(int value) throws IOException {
+        writeVarLong(value);
+    }
+
+    /* Zig-zag encoded so that -1, which is used for missing ids, stays one byte. */
+    void writeVarLong(long value) throws IOException {
+        writeUnsignedVarLong(section, (value << 1) ^ (value >> 63));
+    }
+
+    static void writeUnsignedVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        section.write(bytes);
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        section.writeBoolean(value);
+    }
+
+    void writeString(String s) throws IOException {
+        if (s == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = stringIndices.get(s);
+        if (index == null) {
+            index = strings.size();
+            stringIndices.put(s, index);
+            strings.add(s);
+        }
+        writeVarInt(index + 1);
+    }
+
+    void writeStrings(List<String> list) throws IOException {
+        writeVarInt(list.size());
+        for (String s : list) writeString(s);
+    }
+
+    /* Written as the id + 1 of the username with 0 for null. */
+    void writeUsername(String username) throws IOException {
+        writeVarInt(username == null ? 0 : users.idOf(username) + 1);
+    }
+
+    void writeUsernames(List<String> list) throws IOException {
+        writeVarInt(list.size());
+        for (String username : list) writeUsername(username);
+    }
+
+    void writeDateTime(LocalDateTime time) throws IOException {
+        writeBoolean(time != null);
+        if (time == null) return;
+        writeVarLong(time.toEpochSecond(ZoneOffset.UTC));
+        writeVarInt(time.getNano());
+    }
+
+    /* References, written as index + 1 with 0 for null. An entity gets an index the first time it is referred to, so
+     * a table has to be written after every section that refers to it.
+     */
+
+    private <T> void writeReference(Map<T, Integer> indices, T entity) throws IOException {
+        if (entity == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = indices.get(entity);
+        if (index == null) {
+            index = indices.size();
+            indices.put(entity, index);
+        }
+        writeVarInt(index + 1);
+    }
+
+    void writeItem(Item item) throws IOException {
+        writeReference(itemIndices, item);
+    }
+
+    void writeItems(List<Item> list) throws IOException {
+        writeVarInt(list.size());
+        for (Item item : list) writeItem(item);
+    }
+
+    void writeAccount(Account account) throws IOException {
+        writeReference(accountIndices, account);
+    }
+
+    void writeMeeting(Meeting meeting) throws IOException {
+        writeReference(meetingIndices, meeting);
+    }
+
+    void writeTrade(Trade trade) throws IOException {
+        writeReference(tradeIndices, trade);
+    }
+}
@@ -0,0 +1,184 @@
+package client.databundle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A list of a <code>DataBundle</code> kept in an <code>EntityStore</code>. It holds only the keys of its elements,
+ * and looks an element up in the store every time it is read, so elements are only kept in memory while something
+ * else uses them. Elements added are held as they are until the store writes them and gives them a key, and are
+ * written by the store when the thread that added them commits.
+ *
+ * @param <T> the type of element.
+ */
+class StoredList<T> extends AbstractList<T> implements RandomAccess {
+    private final EntityStore store;
+    /* Each slot holds either the key of the element, or the element itself until it is written. */
+    private final ArrayList<Object> slots;
+    /* Keys of the elements removed since the last write. */
+    private final List<String> removedKeys = new ArrayList<>();
+    /* The position of the first element added, replaced or removed since the last write, or -1. */
+    private int firstChanged = -1;
+    /* The thread that added each element not written yet, which writes it once it commits. */
+    private final Map<Object, Thread> adders = new IdentityHashMap<>();
+
+    /**
+     * Creates a list of the entities under <code>keys</code> in <code>store</code>, in order.
+     *
+     * @param store the store the elements are in.
+     * @param keys  the keys of the elements, where null stands for a null element.
+     */
+    StoredList(EntityStore store, List<String> keys) {
+        this.store = store;
+        slots = new ArrayList<Object>(keys);
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Object slot = slots.get(index);
+        if (!(slot instanceof String)) return (T) slot;
+        try {
+            Object element = store.get((String) slot);
+            if (element == null) throw new IOException("Missing record " + slot);
+            return (T) element;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T previous = get(index);
+        removed(slots.set(index, element));
+        added(element);
+        changed(index);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        slots.add(index, element);
+        added(element);
+        changed(index);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T previous = get(index);
+        removed(slots.remove(index));
+        changed(index);
+        modCount++;
+        return previous;
+    }
+
+    private void changed(int index) {
+        if (firstChanged < 0 || index < firstChanged) firstChanged = index;
+    }
+
+    private void added(Object element) {
+        if (element != null) adders.put(element, Thread.currentThread());
+    }
+
+    private void removed(Object slot) {
+        if (slot instanceof String) removedKeys.add((String) slot);
+        else adders.remove(slot);
+    }
+
+    /* Writing */
+
+    /**
+     * Adds every element that has no key yet to <code>elements</code>, if <code>committer</code> added it or the
+     * thread that did has ended.
+     *
+     * @param elements  the collection to add to.
+     * @param committer the thread that commits, or null to add every element.
+     */
+    void collectUnwritten(Collection<Object> elements, Thread committer) {
+        if (firstChanged < 0) return;
+        /* An element is added at or after the first change, and so stays there. */
+        for (Object slot : slots.subList(firstChanged, slots.size())) {
+            if (slot == null || slot instanceof String) continue;
+            Thread adder = adders.get(slot);
+            if (committer == null || adder == null || adder == committer || !adder.isAlive()) elements.add(slot);
+        }
+    }
+
+    /**
+     * Gets the keys of the elements, once every element has one.
+     *
+     * @return the keys of every element, in order, which follow the changes of this list.
+     */
+    List<String> keys() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return (String) slots.get(index);
+            }
+
+            @Override
+            public int size() {
+                return slots.size();
+            }
+        };
+    }
+
+    /**
+     * Replaces every element that has no key yet by its key in <code>keys</code>, if it has one there.
+     *
+     * @param keys the keys of the elements written.
+     * @return true iff every element has a key.
+     */
+    boolean replaceByKeys(Map<Object, String> keys) {
+        if (firstChanged < 0) return true;
+        boolean result = true;
+        for (int i = firstChanged; i < slots.size(); i++) {
+            Object slot = slots.get(i);
+            if (slot == null || slot instanceof String) continue;
+            String key = keys.get(slot);
+            if (key == null) {
+                result = false;
+            } else {
+                slots.set(i, key);
+                adders.remove(slot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the position of the first element added, replaced or removed since the last call, and forgets about the
+     * changes. Elements before it are where they were at the last call.
+     *
+     * @return the position, or -1 if the list didn't change.
+     */
+    int takeFirstChanged() {
+        int result = firstChanged;
+        firstChanged = -1;
+        return result;
+    }
+
+    /**
+     * Gets the keys of the elements removed since the last call, and forgets about them.
+     *
+     * @return the keys removed.
+     */
+    List<String> takeRemovedKeys() {
+        List<String> result = new ArrayList<>(removedKeys);
+        removedKeys.clear();
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+package client.databundle;
+
+import core.item.Item;
+import core.trade.Trade;
+import core.trade.TradeStatus;
+
+import java.io.IOException;
+
+/**
+ * Codec of <code>Trade</code>s.
+ */
+class TradeCodec implements EntityCodec<Trade> {
+    @Override
+    public void write(SnapshotOutput out, Trade trade) throws IOException {
+        out.writeVarInt(trade.getTradeId());
+        out.writeUsername(trade.getUsername(0));
+        out.writeUsername(trade.getUsername(1));
+        Item[] items = trade.getItemsInvolved();
+        out.writeItem(items[0]);
+        out.writeItem(items[1]);
+        out.writeBoolean(trade.isPermanent());
+        out.writeVarInt(trade.getStatus().ordinal());
+        out.writeDateTime(trade.getTradeCompletionTime());
+        int[] meetings = trade.getRelatedMeetings();
+        out.writeVarInt(meetings.length);
+        for (int i = 0; i < meetings.length; i++) {
+            out.writeVarInt(meetings[i]);
+            out.writeBoolean(trade.getMeetingOccurred(i));
+        }
+    }
+
+    @Override
+    public Trade read(SnapshotInput in) throws IOException {
+        int tradeId = in.readVarInt();
+        String username1 = in.readUsername();
+        String username2 = in.readUsername();
+        Item[] items = {in.readItem(), in.readItem()};
+        Trade trade = new Trade(username1, username2, items, in.readBoolean(), tradeId);
+        int status = in.readVarInt();
+        if (status >= TradeStatus.values().length) throw new IOException("Unknown trade status " + status);
+        trade.setStatus(TradeStatus.values()[status]);
+        trade.setTradeCompletionTime(in.readDateTime());
+        int meetings = in.readVarInt();
+        for (int i = 0; i < meetings; i++) {
+            trade.addMeetingRelated(in.readVarInt());
+            if (in.readBoolean()) trade.setCurrentMeetingOccurred();
+        }
+        return trade;
+    }
+}
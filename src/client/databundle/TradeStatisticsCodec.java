@@ -0,0 +1,65 @@
+package client.databundle;
+
+import core.item.Item;
+import core.trade.TradeStatistics;
+import core.trade.UserTradeStatistics;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec of the <code>TradeStatistics</code> of a bundle, written as one section of a snapshot.
+ */
+class TradeStatisticsCodec implements EntityCodec<TradeStatistics> {
+    @Override
+    public void write(SnapshotOutput out, TradeStatistics statistics) throws IOException {
+        out.writeVarInt(statistics.getTradesCounted());
+        out.writeVarInt(statistics.getUsernames().size());
+        for (String username : statistics.getUsernames()) {
+            UserTradeStatistics userStatistics = statistics.get(username);
+            out.writeUsername(username);
+            writeCounts(out, userStatistics.getPartnerCounts(), true);
+            writeCounts(out, userStatistics.getItemTypeCounts(), false);
+            out.writeItems(userStatistics.getRecentItems());
+            for (LocalDateTime time : userStatistics.getRecentTimes()) out.writeDateTime(time);
+        }
+    }
+
+    @Override
+    public TradeStatistics read(SnapshotInput in) throws IOException {
+        int tradesCounted = in.readVarInt();
+        Map<String, UserTradeStatistics> users = new HashMap<>();
+        for (int i = in.readVarInt(); i > 0; i--) {
+            String username = in.readUsername();
+            Map<String, Integer> partnerCounts = readCounts(in, true);
+            Map<String, Integer> itemTypeCounts = readCounts(in, false);
+            List<Item> recentItems = in.readItems();
+            List<LocalDateTime> recentTimes = new ArrayList<>(recentItems.size());
+            for (int j = 0; j < recentItems.size(); j++) recentTimes.add(in.readDateTime());
+            users.put(username, new UserTradeStatistics(partnerCounts, itemTypeCounts, recentItems, recentTimes));
+        }
+        return new TradeStatistics(tradesCounted, users);
+    }
+
+    /* Counts are keyed by usernames, which are written as ids, or by other strings. */
+    private void writeCounts(SnapshotOutput out, Map<String, Integer> counts, boolean byUsername)
+            throws IOException {
+        out.writeVarInt(counts.size());
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            if (byUsername) out.writeUsername(count.getKey());
+            else out.writeString(count.getKey());
+            out.writeVarInt(count.getValue());
+        }
+    }
+
+    private Map<String, Integer> readCounts(SnapshotInput in, boolean byUsername) throws IOException {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = in.readVarInt(); i > 0; i--)
+            counts.put(byUsername ? in.readUsername() : in.readString(), in.readVarInt());
+        return counts;
+    }
+}
@@ -0,0 +1,53 @@
+package client.databundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dictionary of usernames of a snapshot or an <code>EntityStore</code>. Each username is given a dense int id
+ * the first time it is written, and usernames kept in trades, block lists, requests, reverters and statistics are
+ * written as their id, so each username is stored once however many entities refer to its user.
+ * <p>
+ * An id is never given to another username, so records written with it keep their meaning as usernames are added.
+ */
+class UserDictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> usernames = new ArrayList<>();
+
+    /**
+     * Gets the id of <code>username</code>, giving it the next id if it has none yet.
+     *
+     * @param username the username.
+     * @return the id of <code>username</code>.
+     */
+    int idOf(String username) {
+        Integer id = ids.get(username);
+        if (id == null) {
+            id = usernames.size();
+            ids.put(username, id);
+            usernames.add(username);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the number of usernames given an id, which is the id the next username will be given.
+     *
+     * @return the number of usernames.
+     */
+    int size() {
+        return usernames.size();
+    }
+
+    /**
+     * Gets every username given an id, in order of id.
+     *
+     * @return an unmodifiable view of the usernames.
+     */
+    List<String> getUsernames() {
+        return Collections.unmodifiableList(usernames);
+    }
+}
@@ -6,7 +6,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.IOException;
+import java.util.concurrent.CompletionException;
 
 /**
  * A gui class <code>Screen</code>, all other screens extend from this class
@@ -61,24 +61,25 @@ public abstract class Screen {
         frame.setLayout(new GridBagLayout());
         frame.addWindowListener(new WindowAdapter() {
 
-            /* When screen is closed by a call to screen.dispose() */
+            /* When screen is closed by a call to screen.dispose(). The next screen doesn't wait for the save. */
             @Override
             public void windowClosed(WindowEvent e) {
-                try {
-                    if (shouldSerialize)
-                        serializer.serialize();
-                } catch (IOException | RuntimeException e1) {
-                    e1.printStackTrace();
-                }
+                if (shouldSerialize)
+                    serializer.serializeAsync().exceptionally(e1 -> {
+                        e1.printStackTrace();
+                        return null;
+                    });
             }
 
-            /* When the screen is closed by the default "X" on top right */
+            /* When the screen is closed by the default "X" on top right. The program exits right after, so wait for
+             * the save to finish.
+             */
             @Override
             public void windowClosing(WindowEvent e) {
                 try {
                     if (shouldSerialize)
-                        serializer.serialize();
-                } catch (IOException | RuntimeException e1) {
+                        serializer.serializeAsync().join();
+                } catch (CompletionException e1) {
                     e1.printStackTrace();
                 }
             }
@@ -26,13 +26,12 @@ public class AdminChangePasswordPresenter extends SystemPresenter {
     }
 
     /**
-     * Displaying the current password
+     * Displaying the current password, which is stored hashed and can't be shown
      *
-     * @param password the current password
-     * @return a message indicating what the current password is
+     * @return a message indicating the current password is hidden
      */
-    String currentPasswordLblMsg(String password) {
-        return "Current Password: " + password;
+    String currentPasswordLblMsg() {
+        return "Current Password: [hidden]";
     }
 
     /**
@@ -34,7 +34,7 @@ public class AdminChangePasswordScreen extends Screen implements ActionListener
 
 
         passwordInputField = new JTextField(stringTextFieldSize);
-        oldPasswordLbl = new JLabel(presenter.currentPasswordLblMsg(adminSystem.getPassword()));
+        oldPasswordLbl = new JLabel(presenter.currentPasswordLblMsg());
 
         passwordLbl = new JLabel(presenter.getPwLblMsg());
 
@@ -87,7 +87,6 @@ public class AdminChangePasswordScreen extends Screen implements ActionListener
             JOptionPane.showMessageDialog(frame, presenter.getPasswordChangedMsg(
                     adminSystem.setPassword(passwordInputField.getText())));
             passwordInputField.setText("");
-            oldPasswordLbl.setText(presenter.currentPasswordLblMsg(adminSystem.getPassword()));
         } else if (e.getSource() == returnItem) {
             new AdminMenuScreen(serializer, adminSystem);
             frame.dispose();
@@ -43,7 +43,7 @@ public class LoginScreen extends Screen implements ActionListener, WindowListene
     public LoginScreen(DataBundle dataBundle, DataSerializer serializer, boolean isLastUserGuest) {
         super(serializer);
 
-        loginSystem = new LoginSystem(dataBundle);
+        loginSystem = new LoginSystem(dataBundle, serializer.getJournal());
         presenter = new LoginPresenter();
         frame.setTitle(presenter.getTitle());
         this.isLastUserGuest = isLastUserGuest;
@@ -138,13 +138,15 @@ public class LoginScreen extends Screen implements ActionListener, WindowListene
                     break;
                 case USER:
                     JOptionPane.showMessageDialog(frame, presenter.userLogin());
-                    UserSystem userSystem = new UserSystem(dataBundle, usernameInput.getText());
+                    UserSystem userSystem = new UserSystem(dataBundle, usernameInput.getText(),
+                            serializer.getJournal());
                     new UserMenuScreen(serializer, userSystem);
                     frame.dispose();
                     break;
                 case ADMIN:
                     JOptionPane.showMessageDialog(frame, presenter.adminLogin());
-                    AdminSystem adminSystem = new AdminSystem(dataBundle, usernameInput.getText());
+                    AdminSystem adminSystem = new AdminSystem(dataBundle, usernameInput.getText(),
+                            serializer.getJournal());
                     new AdminMenuScreen(serializer, adminSystem);
                     frame.dispose();
                     break;
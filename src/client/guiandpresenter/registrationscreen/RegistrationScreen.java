@@ -37,7 +37,7 @@ public class RegistrationScreen extends Screen implements ActionListener {
 
         this.dataBundle = dataBundle;
 
-        registrationSystem = new RegistrationSystem(dataBundle);
+        registrationSystem = new RegistrationSystem(dataBundle, serializer.getJournal());
         presenter = new RegistrationPresenter();
         frame.setTitle(presenter.getTitle());
 
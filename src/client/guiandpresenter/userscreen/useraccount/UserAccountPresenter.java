@@ -124,11 +124,10 @@ class UserAccountPresenter extends InventoryPresenter {
     }
 
     /**
-     * @param password a string of the current password
-     * @return a string displaying the current password with description
+     * @return a string displaying that the current password, which is stored hashed, is hidden
      */
-    String currentPasswordLblMsg(String password) {
-        return "Current Password: " + password;
+    String currentPasswordLblMsg() {
+        return "Current Password: [hidden]";
     }
 
     /**
@@ -36,7 +36,7 @@ public class UserChangePwScreen extends Screen implements ActionListener {
         confirmBtn = new JButton(presenter.getConfirmBtnMsg());
 
         passwordInputField = new JTextField(20);
-        oldPasswordLbl = new JLabel(presenter.currentPasswordLblMsg(userSystem.getCurrPassword()));
+        oldPasswordLbl = new JLabel(presenter.currentPasswordLblMsg());
 
         passwordLbl = new JLabel(presenter.getPwLblMsg());
 
@@ -96,7 +96,6 @@ public class UserChangePwScreen extends Screen implements ActionListener {
             JOptionPane.showMessageDialog(frame, presenter.getPasswordChangedMsg(
                     userSystem.changeCurrUserPassword(passwordInputField.getText())));
             passwordInputField.setText("");
-            oldPasswordLbl.setText(presenter.currentPasswordLblMsg(userSystem.getCurrPassword()));
         } else if (e.getSource() == returnItem) {
             new UserAccountMenuScreen(serializer, userSystem);
             frame.dispose();
@@ -0,0 +1,294 @@
+package client.server;
+
+import client.controllers.AdminSystem;
+import client.controllers.LoginSystem;
+import client.controllers.LoginType;
+import client.controllers.RegistrationSystem;
+import client.controllers.RequestType;
+import client.controllers.UserSystem;
+import client.databundle.DataBundle;
+import client.databundle.MutationJournal;
+import genericdatatype.Pair;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that serves one client connected to a <code>TradingServer</code>, from when it connects until it quits.
+ * <p>
+ * A client sends one request per line, made of the name of the request followed by its arguments, separated by tabs.
+ * Tabs, line breaks and backslashes in the name and arguments are written as <code>\t</code>, <code>\n</code>,
+ * <code>\r</code> and <code>\\</code>. The requests are:
+ * <ul>
+ * <li><code>login</code>, <code>guest</code>, <code>register</code>, <code>requestAdmin</code>, <code>logout</code>
+ * and <code>quit</code>, which can be sent at any time.</li>
+ * <li>the actions of <code>UserSystem</code>, named as its methods, once logged in as a user or a guest. A guest
+ * changes a copy of the data, made from a snapshot shared by the guests of the server, which is discarded once it
+ * logs out.</li>
+ * <li>the actions of <code>AdminSystem</code>, named as its methods, once logged in as an admin.</li>
+ * </ul>
+ * Each request is answered with a line <code>OK</code> followed by the number of rows of the result, and then those
+ * rows, each made of fields separated by tabs and escaped as above. A list is one row per element, an array is one
+ * row, a map is one row per entry starting with its key, and anything else is one row of one field. A request that
+ * fails is answered with a single line <code>ERROR</code> followed by why.
+ */
+class ClientSession implements Runnable {
+    private interface Command<S> {
+        Object run(S system, String[] args);
+    }
+
+    private static final Map<String, Pair<Integer, Command<UserSystem>>> USER_COMMANDS = new HashMap<>();
+    private static final Map<String, Pair<Integer, Command<AdminSystem>>> ADMIN_COMMANDS = new HashMap<>();
+
+    static {
+        user("getUserWishlist", 0, (s, a) -> s.getUserWishlist());
+        user("getUserItemsAvailable", 0, (s, a) -> s.getUserItemsAvailable());
+        user("getTradesInfo", 0, (s, a) -> s.getTradesInfo());
+        user("isCurrUserGuest", 0, (s, a) -> s.isCurrUserGuest());
+        user("getUserAccountSpecifics", 0, (s, a) -> s.getUserAccountSpecifics());
+        user("changeCurrUserPassword", 1, (s, a) -> s.changeCurrUserPassword(a[0]));
+        user("addToBlockList", 1, (s, a) -> s.addToBlockList(a[0]));
+        user("removeFromBlockList", 1, (s, a) -> s.removeFromBlockList(a[0]));
+        user("getBlockList", 0, (s, a) -> s.getBlockList());
+        user("addToUserWishList", 1, (s, a) -> s.addToUserWishList(a[0]));
+        user("removeFromUserWishList", 1, (s, a) -> s.removeFromUserWishList(a[0]));
+        user("requestUnfreeze", 0, (s, a) -> s.requestUnfreeze());
+        user("reportUser", 2, (s, a) -> s.reportUser(a[0], a[1]));
+        user("switchVacationStatus", 0, (s, a) -> s.switchVacationStatus());
+        user("getInventoryForWishlist", 0, (s, a) -> s.getInventoryForWishlist());
+        user("getInventoryForTrade", 0, (s, a) -> s.getInventoryForTrade());
+        user("createItemAndRequest", 3, (s, a) -> s.createItemAndRequest(a[0], a[1], a[2]));
+        user("getCity", 0, (s, a) -> s.getCity());
+        user("setCity", 1, (s, a) -> s.setCity(a[0]));
+        user("getOnVacation", 0, (s, a) -> s.getOnVacation());
+        user("createLendingSuggestion", 1, (s, a) -> s.createLendingSuggestion(a[0]));
+        user("createMeeting", 3, (s, a) -> s.createMeeting(Integer.parseInt(a[0]), a[1], a[2]));
+        user("editMeeting", 3, (s, a) -> s.editMeeting(Integer.parseInt(a[0]), a[1], a[2]));
+        user("confirmMeetingArrangement", 1, (s, a) -> s.confirmMeetingArrangement(Integer.parseInt(a[0])));
+        user("confirmMeetingOccurred", 1, (s, a) -> s.confirmMeetingOccurred(Integer.parseInt(a[0])));
+        user("getMeetingInfo", 1, (s, a) -> s.getMeetingInfo(a[0]));
+        user("getMeetingThreshold", 0, (s, a) -> s.getMeetingThreshold());
+        user("requestTrade", 3, (s, a) -> s.requestTrade(a[0], a[1], a[2]));
+        user("getTradeThresholds", 0, (s, a) -> s.getTradeThresholds());
+        user("getThreeRecentTradeItem", 0, (s, a) -> s.getThreeRecentTradeItem());
+        user("getTopThreeTradePartner", 0, (s, a) -> s.getTopThreeTradePartner());
+        user("agreeToTrade", 1, (s, a) -> s.agreeToTrade(Integer.parseInt(a[0])));
+        user("denyTrade", 1, (s, a) -> s.denyTrade(Integer.parseInt(a[0])));
+        user("tradeNotStarted", 1, (s, a) -> s.tradeNotStarted(Integer.parseInt(a[0])));
+        user("createBorrowingSuggestion", 0, (s, a) -> s.createBorrowingSuggestion());
+        user("sendPrivateMessage", 2, (s, a) -> s.sendPrivateMessage(a[0], a[1]));
+        user("getMessageReceived", 0, (s, a) -> s.getMessageReceived());
+        user("getMessageSent", 0, (s, a) -> s.getMessageSent());
+
+        admin("getUserViolateLimit", 1, (s, a) -> s.getUserViolateLimit(a[0]));
+        admin("freezeUser", 1, (s, a) -> s.freezeUser(a[0]));
+        admin("unfreezeUser", 1, (s, a) -> s.unfreezeUser(a[0]));
+        admin("getRequests", 0, (s, a) -> {
+            /* One row per request: its type, then its short and long descriptions, which identify it. */
+            List<String[]> rows = new ArrayList<>();
+            for (Map.Entry<RequestType, Collection<Pair<String, String>>> requests : s.getRequests().entrySet()) {
+                for (Pair<String, String> request : requests.getValue())
+                    rows.add(new String[]{requests.getKey().name(), request.value1, request.value2});
+            }
+            return rows;
+        });
+        admin("handleRequest", 4, (s, a) -> s.handleRequest(RequestType.valueOf(a[0]), new Pair<>(a[1], a[2]),
+                Boolean.parseBoolean(a[3])));
+        admin("setPassword", 1, (s, a) -> s.setPassword(a[0]));
+        admin("searchByUsername", 1, (s, a) -> s.searchByUsername(a[0]));
+        admin("createAdmin", 2, (s, a) -> s.createAdmin(a[0], a[1]));
+        admin("setAnnouncement", 1, (s, a) -> {
+            s.setAnnouncement(a[0]);
+            return null;
+        });
+        admin("setBorrowLendDifference", 1, (s, a) -> s.setBorrowLendDifference(a[0]));
+        admin("setWeeklyTransactionLimit", 1, (s, a) -> s.setWeeklyTransactionLimit(a[0]));
+        admin("setIncompleteTradeLimit", 1, (s, a) -> s.setIncompleteTradeLimit(a[0]));
+        admin("setMeetingEditLimit", 1, (s, a) -> s.setMeetingEditLimit(a[0]));
+        admin("setMeetingLateLimit", 1, (s, a) -> s.setMeetingLateLimit(a[0]));
+        admin("getWeeklyTransactionLimit", 0, (s, a) -> s.getWeeklyTransactionLimit());
+        admin("getBorrowLendDifference", 0, (s, a) -> s.getBorrowLendDifference());
+        admin("getIncompleteTrade", 0, (s, a) -> s.getIncompleteTrade());
+        admin("getMeetingEditLimit", 0, (s, a) -> s.getMeetingEditLimit());
+        admin("getMeetingLateLimit", 0, (s, a) -> s.getMeetingLateLimit());
+    }
+
+    private final DataBundle dataBundle;
+    private final MutationJournal journal;
+    private final GuestSnapshot guestSnapshot;
+    private final Socket socket;
+    private final LoginSystem loginSystem;
+    private final RegistrationSystem registrationSystem;
+    /* The system of the user or admin logged in, or null if no one is. */
+    private UserSystem userSystem;
+    private AdminSystem adminSystem;
+
+    /**
+     * Constructs a <code>ClientSession</code> serving the client connected to <code>socket</code>.
+     *
+     * @param dataBundle    the data bundle shared by all sessions.
+     * @param journal       the journal changes are appended to.
+     * @param guestSnapshot the snapshot of <code>dataBundle</code> guests get a copy of.
+     * @param socket        the connection of the client.
+     */
+    ClientSession(DataBundle dataBundle, MutationJournal journal, GuestSnapshot guestSnapshot, Socket socket) {
+        this.dataBundle = dataBundle;
+        this.journal = journal;
+        this.guestSnapshot = guestSnapshot;
+        this.socket = socket;
+        loginSystem = new LoginSystem(dataBundle, journal);
+        registrationSystem = new RegistrationSystem(dataBundle, journal);
+    }
+
+    /**
+     * Answers the requests of the client until it quits or disconnects, then closes the connection.
+     */
+    @Override
+    public void run() {
+        try (Socket socket = this.socket;
+             BufferedReader input = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer output = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = input.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                for (int i = 0; i < fields.length; i++) fields[i] = unescape(fields[i]);
+                String name = fields[0];
+                String[] args = new String[fields.length - 1];
+                System.arraycopy(fields, 1, args, 0, args.length);
+                if (name.equals("quit")) {
+                    write(output, null);
+                    break;
+                }
+                try {
+                    write(output, handle(name, args));
+                } catch (RuntimeException e) {
+                    output.write("ERROR\t" + escape(String.valueOf(e.getMessage())) + "\n");
+                    output.flush();
+                }
+            }
+        } catch (IOException e) {
+            /* The client disconnected, or the server is closing. */
+        }
+    }
+
+    /* Runs the request name with args and returns its result. */
+    private Object handle(String name, String[] args) {
+        switch (name) {
+            case "login":
+                checkArgs(name, args, 2);
+                LoginType type = loginSystem.login(args[0], args[1]);
+                logout();
+                if (type == LoginType.USER) userSystem = new UserSystem(dataBundle, args[0], journal);
+                else if (type == LoginType.ADMIN) adminSystem = new AdminSystem(dataBundle, args[0], journal);
+                return type;
+            case "guest":
+                checkArgs(name, args, 0);
+                logout();
+                /* A guest changes a copy of the data of its own, which is neither seen by other clients nor saved, and
+                 * takes no ids from the shared data, as the guest screens read the data again once a guest leaves. */
+                userSystem = new UserSystem(guestSnapshot.copy(), loginSystem.getGuestUsername());
+                return LoginType.USER;
+            case "register":
+                checkArgs(name, args, 2);
+                return registrationSystem.createUser(args[0], args[1]);
+            case "requestAdmin":
+                checkArgs(name, args, 3);
+                return registrationSystem.requestAdmin(args[0], args[1], args[2]);
+            case "logout":
+                checkArgs(name, args, 0);
+                logout();
+                return null;
+        }
+        if (userSystem != null) return run(USER_COMMANDS, userSystem, name, args);
+        if (adminSystem != null) return run(ADMIN_COMMANDS, adminSystem, name, args);
+        throw new IllegalStateException("Not logged in");
+    }
+
+    private void logout() {
+        userSystem = null;
+        adminSystem = null;
+    }
+
+    private static <S> Object run(Map<String, Pair<Integer, Command<S>>> commands, S system, String name,
+                                  String[] args) {
+        Pair<Integer, Command<S>> command = commands.get(name);
+        if (command == null) throw new IllegalArgumentException("Unknown request " + name);
+        checkArgs(name, args, command.value1);
+        return command.value2.run(system, args);
+    }
+
+    private static void checkArgs(String name, String[] args, int count) {
+        if (args.length != count)
+            throw new IllegalArgumentException(name + " takes " + count + " arguments, not " + args.length);
+    }
+
+    private static void user(String name, int argCount, Command<UserSystem> command) {
+        USER_COMMANDS.put(name, new Pair<>(argCount, command));
+    }
+
+    private static void admin(String name, int argCount, Command<AdminSystem> command) {
+        ADMIN_COMMANDS.put(name, new Pair<>(argCount, command));
+    }
+
+    /* Writes result as the rows described in the class comment. */
+    private static void write(Writer output, Object result) throws IOException {
+        List<String> rows = new ArrayList<>();
+        if (result instanceof Collection) {
+            for (Object element : (Collection<?>) result) rows.add(row(element));
+        } else if (result instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) result).entrySet())
+                rows.add(escape(String.valueOf(entry.getKey())) + "\t" + row(entry.getValue()));
+        } else if (result != null) {
+            rows.add(row(result));
+        }
+        output.write("OK\t" + rows.size() + "\n");
+        for (String row : rows) output.write(row + "\n");
+        output.flush();
+    }
+
+    /* An array or collection as one row of fields, anything else as one field. */
+    private static String row(Object value) {
+        List<String> fields = new ArrayList<>();
+        if (value != null && value.getClass().isArray()) {
+            for (int i = 0; i < Array.getLength(value); i++) fields.add(escape(String.valueOf(Array.get(value, i))));
+        } else if (value instanceof Collection) {
+            for (Object field : (Collection<?>) value) fields.add(escape(String.valueOf(field)));
+        } else {
+            fields.add(escape(String.valueOf(value)));
+        }
+        return String.join("\t", fields);
+    }
+
+    private static String escape(String field) {
+        return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String field) {
+        if (field.indexOf('\\') < 0) return field;
+        StringBuilder result = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                char next = field.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package client.server;
+
+import client.databundle.BlockCodecs;
+import client.databundle.DataBundle;
+import client.databundle.SnapshotCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+
+/**
+ * Class that keeps a snapshot of the data shared by the sessions of a <code>TradingServer</code>, which every guest
+ * gets a copy of the data of its own from.
+ * <p>
+ * The snapshot is taken holding the data exclusively, so that it is consistent, which stops every other session.
+ * It is therefore only taken again once it is older than <code>maxAgeMillis</code>, rather than for every guest, and
+ * a guest may see the data as it was up to that long ago. Each copy is decoded from the snapshot without holding the
+ * data, and mostly as the guest uses it, since the snapshot is not compressed.
+ */
+class GuestSnapshot {
+    private final DataBundle dataBundle;
+    private final long maxAgeMillis;
+    private final Clock clock;
+    private byte[] snapshot;
+    private long takenMillis;
+
+    /**
+     * Constructs a <code>GuestSnapshot</code> of <code>dataBundle</code>, which is taken when a copy is first made.
+     *
+     * @param dataBundle   the data bundle shared by all sessions.
+     * @param maxAgeMillis the age after which the snapshot is taken again.
+     * @param clock        the clock the age of the snapshot is measured with.
+     */
+    GuestSnapshot(DataBundle dataBundle, long maxAgeMillis, Clock clock) {
+        this.dataBundle = dataBundle;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Makes a copy of the data for one guest, which changes to it leave the shared data and other copies alone.
+     *
+     * @return a data bundle of its own, as the shared one was when the snapshot was taken.
+     */
+    DataBundle copy() {
+        try {
+            return new SnapshotCodec().read(ByteBuffer.wrap(get()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Guests waiting for a snapshot being taken get that one rather than taking another. */
+    private synchronized byte[] get() {
+        long now = clock.millis();
+        if (snapshot != null && now - takenMillis < maxAgeMillis) return snapshot;
+        snapshot = dataBundle.getLocks().exclusive(() -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try {
+                new SnapshotCodec(BlockCodecs.NONE).write(dataBundle, bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        });
+        takenMillis = now;
+        return snapshot;
+    }
+}
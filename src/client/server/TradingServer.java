@@ -0,0 +1,145 @@
+package client.server;
+
+import client.controllers.LateMeetingSweeper;
+import client.controllers.StartingSystem;
+import client.databundle.DataBundle;
+import client.databundle.DataSerializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Clock;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that serves the system to many clients at once without a GUI, so one process holds the data of all users
+ * and can be driven by scripts and load generators.
+ * <p>
+ * Clients connect to a socket on the local machine, and each connection is served as one <code>ClientSession</code>
+ * on a thread of its own, a virtual thread where the JVM has them. All sessions share the same
+ * <code>DataBundle</code> and journal their changes to the same <code>DataSerializer</code>, as the screens do. Trades
+ * whose meeting became late are abandoned in the background by a <code>LateMeetingSweeper</code>.
+ */
+public class TradingServer implements Closeable {
+    private static final int BACKLOG = 256;
+    private static final long SHUTDOWN_SECONDS = 10;
+    private static final long SWEEP_SECONDS = 60;
+    private static final long GUEST_SNAPSHOT_MILLIS = 30000;
+
+    private final DataBundle dataBundle;
+    private final DataSerializer serializer;
+    private final ServerSocket serverSocket;
+    private final LateMeetingSweeper sweeper;
+    private final GuestSnapshot guestSnapshot;
+    private final ExecutorService sessions = newSessionExecutor();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a <code>TradingServer</code> serving <code>dataBundle</code> on <code>port</code> of the local
+     * machine, initializes the system as <code>MainScreen</code> does, and starts looking for late meetings.
+     *
+     * @param dataBundle the data bundle shared by all sessions.
+     * @param serializer the serializer changes are journaled and saved to.
+     * @param port       the port clients connect to, or 0 for any free port.
+     * @throws IOException thrown when the port can't be listened on
+     */
+    public TradingServer(DataBundle dataBundle, DataSerializer serializer, int port) throws IOException {
+        this.dataBundle = dataBundle;
+        this.serializer = serializer;
+        new StartingSystem(dataBundle).initializeSystem();
+        serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        sweeper = new LateMeetingSweeper(dataBundle, serializer.getJournal(), SWEEP_SECONDS);
+        guestSnapshot = new GuestSnapshot(dataBundle, GUEST_SNAPSHOT_MILLIS, Clock.systemUTC());
+    }
+
+    /**
+     * Gets the port clients connect to.
+     *
+     * @return the port this server listens on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections and serves each of them in a session of its own, until this server is closed.
+     *
+     * @throws IOException thrown when a connection can't be accepted
+     */
+    public void run() throws IOException {
+        while (!closed) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (SocketException e) {
+                if (closed) return;
+                throw e;
+            }
+            clients.add(client);
+            sessions.execute(() -> {
+                try {
+                    new ClientSession(dataBundle, serializer.getJournal(), guestSnapshot, client).run();
+                } finally {
+                    clients.remove(client);
+                    save();
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops accepting connections, ends every session and saves the data.
+     *
+     * @throws IOException thrown when the data can't be saved
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        serverSocket.close();
+        sweeper.close();
+        for (Socket client : clients) client.close();
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        save().join();
+    }
+
+    /* Has the data saved, as a screen does when it is closed. The save reads the data, so it is started while no
+     * session changes it; the writing to disk goes on after the data is let go.
+     */
+    private CompletableFuture<Void> save() {
+        CompletableFuture<Void> saved = dataBundle.getLocks().exclusive(serializer::serializeAsync);
+        return saved.exceptionally(e -> {
+            e.printStackTrace();
+            return null;
+        });
+    }
+
+    /* Each session blocks on its connection, so it runs on a thread of its own. Virtual threads are used where the
+     * JVM has them, which lets many more clients connect than there could be platform threads.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "client-session");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
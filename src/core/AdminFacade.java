@@ -1,5 +1,6 @@
 package core;
 
+import core.account.AccountRegistry;
 import core.admin.Admin;
 import core.admin.AdminAccountManager;
 import core.item.Item;
@@ -17,6 +18,7 @@ import core.user.UserStatusManager;
 import core.useritem.UserItemManager;
 import genericdatatype.Pair;
 
+import java.time.Clock;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +33,7 @@ public class AdminFacade {
     private final UserItemManager userItemManager;
     private final MeetingManager meetingManager;
     private final ReverterManager reverterManager;
+    private final DataLocks locks;
 
     /* data that assists request handling */
     private final Map<Pair<String, String>, Pair<Admin, String>> creationRequestMap;
@@ -42,36 +45,43 @@ public class AdminFacade {
      * Constructor of AdminFacade
      *
      * @param adminCreationRequest        a list of requests to create new admins
-     * @param admins                      a list of existing admins
+     * @param admins                      a registry of existing admins
      * @param entityAndReverterCollection an instance of <code>entityAndReverterCollection</code>
      * @param idCounterCollection         an instance of <code>entityAndReverterCollection</code>
      * @param requestCollection           an instance of <code>requestCollection</code>
      * @param thresholdCollection         an instance of <code>thresholdCollection</code>
+     * @param clock                       the <code>Clock</code> that time-dependent queries are evaluated against
      */
-    public AdminFacade(List<Pair<Admin, String>> adminCreationRequest, List<Admin> admins,
+    public AdminFacade(List<Pair<Admin, String>> adminCreationRequest, AccountRegistry<Admin> admins,
                        EntityAndReverterCollection entityAndReverterCollection,
                        IdCounterCollection idCounterCollection,
                        RequestCollection requestCollection,
-                       ThresholdCollection thresholdCollection) {
+                       ThresholdCollection thresholdCollection,
+                       Clock clock) {
         /* Initialize managers */
-        reverterManager = new ReverterManager(entityAndReverterCollection.actionReverters);
+        locks = entityAndReverterCollection.locks;
+        reverterManager = new ReverterManager(entityAndReverterCollection.actionReverters, locks);
         tradeThresholdManager = new TradeThresholdManager(
                 thresholdCollection.maxIncompleteTrade,
                 thresholdCollection.maxWeeklyTransaction,
-                thresholdCollection.minLendBorrowDifference);
+                thresholdCollection.minLendBorrowDifference,
+                clock);
         tradeInfoManager = new TradeInfoManager(entityAndReverterCollection.trades);
         userStatusManager = new UserStatusManager(
                 requestCollection.reportRequests,
-                requestCollection.unfreezeRequests);
+                requestCollection.unfreezeRequests,
+                locks);
         adminAccountManager = new AdminAccountManager(admins, adminCreationRequest);
         userAccountManager = new UserAccountManager(
                 entityAndReverterCollection.users);
         userItemManager = new UserItemManager(requestCollection.itemRequests, idCounterCollection.itemIDCounter);
         meetingManager = new MeetingManager(
                 entityAndReverterCollection.meetings,
+                entityAndReverterCollection.meetingDeadlines,
                 thresholdCollection.maxMeetingEdits,
                 idCounterCollection.meetingIDCounter,
-                thresholdCollection.maxMeetingLateTime);
+                thresholdCollection.maxMeetingLateTime,
+                clock);
 
         /* set up data assisting request handling */
         creationRequestMap = adminAccountManager.getFormattedAdminCreationRequests();
@@ -80,25 +90,18 @@ public class AdminFacade {
         itemRequestMap = userItemManager.getFormattedItemRequests();
     }
 
-    /**
-     * Get the current password of this admin
-     *
-     * @param currAdminUsername the username for this admin
-     * @return the current password of this admin
-     */
-    public String getPassword(String currAdminUsername) {
-        return adminAccountManager.getPassword(adminAccountManager.getAccount(currAdminUsername));
-    }
-
     /**
      * Set the current password of this admin
      *
      * @param currAdminUsername the username for this admin
-     * @param password          the password to set
+     * @param storedPassword    the stored form of the password to set, made by <code>PasswordHasher</code>
      */
-    public void setPassword(String currAdminUsername, String password) {
-        ActionReverter a = adminAccountManager.setPassword(adminAccountManager.getAccount(currAdminUsername), password);
-        reverterManager.addReverter(a);
+    public void setPassword(String currAdminUsername, String storedPassword) {
+        locks.exclusive(() -> {
+            ActionReverter a =
+                    adminAccountManager.setPassword(adminAccountManager.getAccount(currAdminUsername), storedPassword);
+            reverterManager.addReverter(a);
+        });
     }
 
     /**
@@ -144,7 +147,8 @@ public class AdminFacade {
      * @param message           the <code>message</code> that needs to be sent.
      */
     public void adminToAllUser(String currAdminUsername, String message) {
-        adminAccountManager.oneToAllMessage(adminAccountManager.getAccount(currAdminUsername), message);
+        locks.exclusive(() -> adminAccountManager.oneToAllMessage(adminAccountManager.getAccount(currAdminUsername),
+                message));
     }
 
     /**
@@ -155,22 +159,24 @@ public class AdminFacade {
      * @return Map of short descriptions to long descriptions of the result entries.
      */
     public Map<String, String> searchByUsername(String username) {
-        Map<String, String> result = new HashMap<>();
-        User user = userAccountManager.getAccount(username);
-        if (user != null)
-            result.put(username, user.toString());
-        Admin admin = adminAccountManager.getAccount(username);
-        if (admin != null)
-            result.put(username, admin.toString());
-        tradeInfoManager.getTrades(username, TradeStatus.NONE).forEach(trade -> {
-            result.put("Trade #" + trade.getTradeId(), trade.toString());
-            Map<String, String> meetings = new HashMap<>();
-            for (int relatedMeeting : trade.getRelatedMeetings()) {
-                meetings.put("Meeting #" + relatedMeeting, meetingManager.getMeetingInfo(relatedMeeting));
-            }
-            result.putAll(meetings);
+        return locks.exclusive(() -> {
+            Map<String, String> result = new HashMap<>();
+            User user = userAccountManager.getAccount(username);
+            if (user != null)
+                result.put(username, user.toString());
+            Admin admin = adminAccountManager.getAccount(username);
+            if (admin != null)
+                result.put(username, admin.toString());
+            tradeInfoManager.getTrades(username, TradeStatus.NONE).forEach(trade -> {
+                result.put("Trade #" + trade.getTradeId(), trade.toString());
+                Map<String, String> meetings = new HashMap<>();
+                for (int relatedMeeting : trade.getRelatedMeetings()) {
+                    meetings.put("Meeting #" + relatedMeeting, meetingManager.getMeetingInfo(relatedMeeting));
+                }
+                result.putAll(meetings);
+            });
+            return result;
         });
-        return result;
     }
 
     /**
@@ -229,16 +235,18 @@ public class AdminFacade {
      * <code>users</code> have been found
      */
     public Map<String, Integer> getUserViolateLimit(String type) {
-        switch (type) {
-            case "Incomplete Trade":
-                return tradeThresholdManager.getUserOverMaxIncompleteTrade(userAccountManager, tradeInfoManager);
-            case "Weekly Transaction":
-                return tradeThresholdManager.getUserOverWeeklyTransMaxMap(tradeInfoManager.getTrades());
-            case "Lend-Borrow Difference":
-                return tradeThresholdManager.getUsersNotUpToMinLentBorrowDifference(userAccountManager);
-            default:
-                return userStatusManager.getFrozenUsers(userAccountManager);
-        }
+        return locks.exclusive(() -> {
+            switch (type) {
+                case "Incomplete Trade":
+                    return tradeThresholdManager.getUserOverMaxIncompleteTrade(userAccountManager, tradeInfoManager);
+                case "Weekly Transaction":
+                    return tradeThresholdManager.getUserOverWeeklyTransMaxMap(tradeInfoManager);
+                case "Lend-Borrow Difference":
+                    return tradeThresholdManager.getUsersNotUpToMinLentBorrowDifference(userAccountManager);
+                default:
+                    return userStatusManager.getFrozenUsers(userAccountManager);
+            }
+        });
     }
 
     /**
@@ -248,7 +256,7 @@ public class AdminFacade {
      * @return true iff this user exists and frozen successfully.
      */
     public boolean freezeUser(String username) {
-        return userStatusManager.freeze(userAccountManager.getAccount(username));
+        return locks.exclusive(() -> userStatusManager.freeze(userAccountManager.getAccount(username)));
     }
 
     /**
@@ -258,7 +266,7 @@ public class AdminFacade {
      * @return true iff this user exists and frozen successfully.
      */
     public boolean unfreezeUser(String username) {
-        return userStatusManager.unfreeze(userAccountManager.getAccount(username));
+        return locks.exclusive(() -> userStatusManager.unfreeze(userAccountManager.getAccount(username)));
     }
 
     /**
@@ -268,49 +276,83 @@ public class AdminFacade {
      * @return true iff the request is processed successfully
      */
     public boolean processAdminCreationRequest(Pair<String, String> key, boolean accept, String currAdminUsername) {
-        boolean successful;
-        if (accept)
-            successful = adminAccountManager.acceptAdminCreationRequest(currAdminUsername, creationRequestMap.get(key));
-        else
-            successful = adminAccountManager.denyAdminCreationRequest(currAdminUsername, creationRequestMap.get(key));
-        if (successful) {
-            creationRequestMap.remove(key);
-        }
-        return successful;
+        return locks.exclusive(() -> {
+            Pair<Admin, String> request = pending(creationRequestMap, key,
+                    adminAccountManager.getFormattedAdminCreationRequests());
+            if (request == null) return false;
+            boolean successful;
+            if (accept)
+                successful = adminAccountManager.acceptAdminCreationRequest(currAdminUsername, request);
+            else
+                successful = adminAccountManager.denyAdminCreationRequest(currAdminUsername, request);
+            if (successful) {
+                creationRequestMap.remove(key);
+            }
+            return successful;
+        });
     }
 
 
     /**
      * @param key    a pair representing a request from a user to report another user
      * @param accept admin's decision to accept the report user request or not
+     * @return true iff the request was still waiting and is processed
      */
-    public void processUserReport(Pair<String, String> key, boolean accept) {
-        if (accept)
-            userStatusManager.acceptUserReport(reportRequestMap.get(key), userAccountManager.getAccount(reportRequestMap.get(key)[0]));
-        else
-            userStatusManager.denyUserReport(reportRequestMap.get(key));
-        reportRequestMap.remove(key);
+    public boolean processUserReport(Pair<String, String> key, boolean accept) {
+        return locks.exclusive(() -> {
+            String[] report = pending(reportRequestMap, key, userStatusManager.getFormattedReportRequests());
+            if (report == null) return false;
+            if (accept)
+                userStatusManager.acceptUserReport(report, userAccountManager.getAccount(report[0]));
+            else
+                userStatusManager.denyUserReport(report);
+            reportRequestMap.remove(key);
+            return true;
+        });
     }
 
     /**
      * @param key    a pair representing a user's request to unfreeze themselves
      * @param accept admin's decision to accept the item request or not
+     * @return true iff the request was still waiting and is processed
      */
-    public void processUnfreezeRequest(Pair<String, String> key, boolean accept) {
-        if (accept)
-            userStatusManager.acceptUserUnfreezeRequest(userAccountManager.getAccount(unfreezeRequestMap.get(key)));
-        else userStatusManager.denyUserUnfreezeRequest(unfreezeRequestMap.get(key));
-        unfreezeRequestMap.remove(key);
+    public boolean processUnfreezeRequest(Pair<String, String> key, boolean accept) {
+        return locks.exclusive(() -> {
+            String username = pending(unfreezeRequestMap, key, userStatusManager.getFormattedUnfreezeRequests());
+            if (username == null) return false;
+            if (accept)
+                userStatusManager.acceptUserUnfreezeRequest(userAccountManager.getAccount(username));
+            else userStatusManager.denyUserUnfreezeRequest(username);
+            unfreezeRequestMap.remove(key);
+            return true;
+        });
     }
 
     /**
      * @param key    a pair representing a request from a user to add an item to their item available list
      * @param accept admin's decision to accept the item request or not
+     * @return true iff the request was still waiting and is processed
+     */
+    public boolean processItemRequest(Pair<String, String> key, boolean accept) {
+        return locks.exclusive(() -> {
+            Pair<String, Item> request = pending(itemRequestMap, key, userItemManager.getFormattedItemRequests());
+            if (request == null) return false;
+            if (accept) userItemManager.acceptUserItemRequest(request, userAccountManager);
+            else userItemManager.denyUserItemRequest(request);
+            itemRequestMap.remove(key);
+            return true;
+        });
+    }
+
+    /* The request of key if it is still waiting in current, the requests made of the data now. The requests of this
+     * facade were read when it was constructed, so a request another session handled since is taken out of them, and
+     * one made since is found in current.
      */
-    public void processItemRequest(Pair<String, String> key, boolean accept) {
-        if (accept) userItemManager.acceptUserItemRequest(itemRequestMap.get(key), userAccountManager);
-        else userItemManager.denyUserItemRequest(itemRequestMap.get(key));
-        itemRequestMap.remove(key);
+    private static <T> T pending(Map<Pair<String, String>, T> requests, Pair<String, String> key,
+                                 Map<Pair<String, String>, T> current) {
+        T request = current.get(key);
+        if (request == null) requests.remove(key);
+        return request;
     }
 
     /**
@@ -320,9 +362,41 @@ public class AdminFacade {
      * @return message indicating whether the reversion process is successful or not
      */
     public String undo(ActionReverter r) {
-        String s = r.execute();
-        reverterManager.removeRevert(r);
-        return s;
+        return locks.exclusive(() -> {
+            String s = r.execute();
+            reverterManager.removeRevert(r);
+            return s;
+        });
+    }
+
+    /**
+     * Gets the position of <code>r</code> among all the <code>ActionReverter</code>s in the system.
+     *
+     * @param r an instance of <code>ActionReverter</code>
+     * @return the index of <code>r</code>, or -1 if it does not exist.
+     */
+    public int getReverterIndex(ActionReverter r) {
+        return locks.exclusive(() -> reverterManager.indexOf(r));
+    }
+
+    /**
+     * Gets the <code>ActionReverter</code> at <code>index</code> among all the <code>ActionReverter</code>s in the
+     * system.
+     *
+     * @param index the position of the <code>ActionReverter</code>
+     * @return the <code>ActionReverter</code>, or null if it does not exist.
+     */
+    public ActionReverter getReverter(int index) {
+        return locks.exclusive(() -> reverterManager.getReverter(index));
+    }
+
+    /**
+     * Sets whether the results of admin creation requests are sent to the requesters by email.
+     *
+     * @param emailNotification true iff emails should be sent.
+     */
+    public void setEmailNotification(boolean emailNotification) {
+        adminAccountManager.setEmailNotification(emailNotification);
     }
 
     /**
@@ -332,7 +406,7 @@ public class AdminFacade {
      * username as values.
      */
     public Map<String, List<ActionReverter>> getRevertersByUsername() {
-        return reverterManager.getRevertersByUsername();
+        return locks.exclusive(reverterManager::getRevertersByUsername);
     }
 
     /**
@@ -341,21 +415,24 @@ public class AdminFacade {
      * @return a <code>Map</code> of type as keys and a list of <code>ActionReverter</code> with that type as values.
      */
     public Map<String, List<ActionReverter>> getRevertersByType() {
-        return reverterManager.getRevertersByType();
+        return locks.exclusive(reverterManager::getRevertersByType);
     }
 
     /**
      * Creates an Admin
      *
      * @param username          the <code>username</code> of the new <code>Admin</code>
-     * @param password          the <code>password</code> of the new <code>Admin</code>
+     * @param storedPassword    the stored form of the <code>password</code> of the new <code>Admin</code>, made by
+     *                          <code>PasswordHasher</code>
      * @param currAdminUsername the <code>username</code> of the current <code>Admin</code>
      * @return true if successful
      */
-    public boolean createAdmin(String username, String password, String currAdminUsername) {
-        if (adminAccountManager.getAccount(currAdminUsername).notInitialAdmin() ||
-                userAccountManager.usernameExists(username))
-            return false;
-        return adminAccountManager.createAdmin(username, password);
+    public boolean createAdmin(String username, String storedPassword, String currAdminUsername) {
+        return locks.exclusive(() -> {
+            if (adminAccountManager.getAccount(currAdminUsername).notInitialAdmin() ||
+                    userAccountManager.usernameExists(username))
+                return false;
+            return adminAccountManager.createAdmin(username, storedPassword);
+        });
     }
 }
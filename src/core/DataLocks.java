@@ -0,0 +1,224 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Class that lets many sessions, each with its own <code>UserFacade</code> or <code>AdminFacade</code>, use the same
+ * data at once.
+ * <p>
+ * The data as a whole is guarded by a read-write lock. An action that only reads and changes entities it knows in
+ * advance holds the lock shared, together with the stripes of those entities. The state of a <code>User</code> is
+ * guarded by the stripe of its username, and a trade and its meetings by the stripes of both of its users, so
+ * sessions of different users run side by side. An action that adds entities to or removes them from the lists of
+ * the data, or that goes through entities it doesn't know in advance, holds the lock exclusively. The stripes of
+ * an action are taken in one order, so sessions never wait for each other in a cycle.
+ * <p>
+ * Lists that actions holding the lock shared still add to, such as the list of reverters and the lists of requests,
+ * are only read by actions holding the lock exclusively, and are added to while synchronized on the list. Inside a
+ * session they are added to as the session commits, so they are in the order the sessions were journaled, which is
+ * the order replaying the journal adds to them in.
+ * <p>
+ * An action run inside <code>session</code> keeps its locks until the session ends, so that a session can record
+ * the change it made, such as in a journal, before another session can make a change that depends on it.
+ */
+public class DataLocks {
+    private static final int STRIPES = 64;
+
+    private final ReentrantReadWriteLock data = new ReentrantReadWriteLock();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    /* The locks the thread took since its session started, if it is in one. */
+    private final ThreadLocal<List<Lock>> session = new ThreadLocal<>();
+    /* The additions to lists the thread made since its session started, which are made as it commits. */
+    private final ThreadLocal<List<Runnable>> additions = new ThreadLocal<>();
+    /* Held while a session commits, so that no other session commits in between. */
+    private final Object commitOrder = new Object();
+    /* Run by a thread as each of its sessions ends, before the locks of the session are released. */
+    private volatile Runnable sessionEnd = () -> {
+    };
+
+    /**
+     * Constructs the locks of one set of data, which no thread holds.
+     */
+    public DataLocks() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    /**
+     * Runs <code>action</code> as one session: the locks taken by actions run inside it are only released once it
+     * ends. Sessions run inside a session are part of it.
+     *
+     * @param action the action to be run.
+     * @param <T>    the type of result.
+     * @return the result of <code>action</code>.
+     */
+    public <T> T session(Supplier<T> action) {
+        if (session.get() != null) return action.get();
+        List<Lock> held = new ArrayList<>();
+        session.set(held);
+        additions.set(new ArrayList<>());
+        try {
+            return action.get();
+        } finally {
+            try {
+                if (!additions.get().isEmpty()) commit(() -> {
+                });
+            } finally {
+                session.remove();
+                additions.remove();
+                try {
+                    sessionEnd.run();
+                } finally {
+                    release(held);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds <code>element</code> to <code>list</code>, which actions holding the data shared add to at once. Inside a
+     * session it is added as the session commits.
+     *
+     * @param list    the list added to.
+     * @param element the element to be added.
+     * @param <T>     the type of element.
+     */
+    public <T> void add(List<T> list, T element) {
+        Runnable addition = () -> {
+            synchronized (list) {
+                list.add(element);
+            }
+        };
+        List<Runnable> pending = additions.get();
+        if (pending != null) pending.add(addition);
+        else addition.run();
+    }
+
+    /**
+     * Makes the additions to lists of the session of the thread, then runs <code>action</code>, such as appending
+     * the change of the session to a journal, with no other session committing in between.
+     *
+     * @param action the action to be run once the additions are made.
+     */
+    public void commit(Runnable action) {
+        synchronized (commitOrder) {
+            List<Runnable> pending = additions.get();
+            if (pending != null) {
+                for (Runnable addition : pending) addition.run();
+                pending.clear();
+            }
+            action.run();
+        }
+    }
+
+    /**
+     * Sets the action a thread runs as each of its sessions ends, while it still holds the locks of the session,
+     * such as writing the entities the session changed.
+     *
+     * @param action the action to be run.
+     */
+    public void setSessionEnd(Runnable action) {
+        sessionEnd = action;
+    }
+
+    /**
+     * Runs <code>action</code> holding the data shared, together with the stripes of <code>keys</code>.
+     *
+     * @param action the action to be run, which only changes the entities of <code>keys</code>.
+     * @param keys   the keys of the entities used, such as usernames.
+     * @param <T>    the type of result.
+     * @return the result of <code>action</code>.
+     */
+    public <T> T shared(Supplier<T> action, Object... keys) {
+        List<Lock> held = new ArrayList<>();
+        try {
+            acquire(data.readLock(), held);
+            for (int stripe : stripesOf(keys)) acquire(stripes[stripe], held);
+            return action.get();
+        } finally {
+            end(held);
+        }
+    }
+
+    /**
+     * Runs <code>action</code> holding the data shared, together with the stripes of <code>keys</code>.
+     *
+     * @param action the action to be run, which only changes the entities of <code>keys</code>.
+     * @param keys   the keys of the entities used, such as usernames.
+     */
+    public void shared(Runnable action, Object... keys) {
+        shared(() -> {
+            action.run();
+            return null;
+        }, keys);
+    }
+
+    /**
+     * Runs <code>action</code> holding the data exclusively.
+     *
+     * @param action the action to be run.
+     * @param <T>    the type of result.
+     * @return the result of <code>action</code>.
+     * @throws IllegalStateException if the thread holds the data shared, which can't be made exclusive.
+     */
+    public <T> T exclusive(Supplier<T> action) {
+        if (data.getReadHoldCount() > 0 && !data.isWriteLockedByCurrentThread())
+            throw new IllegalStateException("The data is held shared and can't be held exclusively");
+        List<Lock> held = new ArrayList<>();
+        try {
+            acquire(data.writeLock(), held);
+            return action.get();
+        } finally {
+            end(held);
+        }
+    }
+
+    /**
+     * Runs <code>action</code> holding the data exclusively.
+     *
+     * @param action the action to be run.
+     * @throws IllegalStateException if the thread holds the data shared, which can't be made exclusive.
+     */
+    public void exclusive(Runnable action) {
+        exclusive(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /* The stripes of keys in the order they are taken. A stripe the thread doesn't hold can't come before one it
+     * holds, or two threads could each wait for a stripe the other holds.
+     */
+    private Iterable<Integer> stripesOf(Object[] keys) {
+        TreeSet<Integer> result = new TreeSet<>();
+        for (Object key : keys) if (key != null) result.add((key.hashCode() & Integer.MAX_VALUE) % STRIPES);
+        int highestHeld = -1;
+        for (int i = 0; i < STRIPES; i++) if (stripes[i].isHeldByCurrentThread()) highestHeld = i;
+        for (int stripe : result) {
+            if (stripe < highestHeld && !stripes[stripe].isHeldByCurrentThread())
+                throw new IllegalStateException("Stripe " + stripe + " taken after stripe " + highestHeld);
+        }
+        return result;
+    }
+
+    private static void acquire(Lock lock, List<Lock> held) {
+        lock.lock();
+        held.add(lock);
+    }
+
+    /* Releases the locks an action took, or leaves them to the session of the thread. */
+    private void end(List<Lock> held) {
+        List<Lock> sessionLocks = session.get();
+        if (sessionLocks != null) sessionLocks.addAll(held);
+        else release(held);
+    }
+
+    private static void release(List<Lock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) held.get(i).unlock();
+    }
+}
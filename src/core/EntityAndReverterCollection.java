@@ -1,8 +1,10 @@
 package core;
 
-import core.meeting.Meeting;
+import core.account.AccountRegistry;
+import core.meeting.MeetingDeadlines;
+import core.meeting.MeetingRegistry;
 import core.reverter.ActionReverter;
-import core.trade.Trade;
+import core.trade.TradeRegistry;
 import core.user.User;
 
 import java.util.List;
@@ -13,40 +15,55 @@ import java.util.List;
 public class EntityAndReverterCollection {
 
     /**
-     * a list of <code>Meeting</code>s in the system.
+     * a registry of <code>Meeting</code>s in the system.
      */
-    final List<Meeting> meetings;
+    final MeetingRegistry meetings;
 
     /**
-     * a list of <code>Trade</code>s in the system.
+     * the queue of arranged <code>Meeting</code>s in the order they become late.
      */
-    final List<Trade> trades;
+    final MeetingDeadlines meetingDeadlines;
 
     /**
-     * a list of <code>User</code>s in the system.
+     * a registry of <code>Trade</code>s in the system.
      */
-    final List<User> users;
+    final TradeRegistry trades;
+
+    /**
+     * a registry of <code>User</code>s in the system.
+     */
+    final AccountRegistry<User> users;
 
     /**
      * a list of <code>ActionReverter</code>s in the system.
      */
     final List<ActionReverter> actionReverters;
 
+    /**
+     * the locks that sessions hold while they use the entities.
+     */
+    final DataLocks locks;
+
     /**
      * Construct a entities and reverters collection. Contains collections of each entity and collection of
      * <code>ActionReverter</code>.
      *
-     * @param meetings        a list of <code>Meeting</code>s in the system.
-     * @param trades          a list of <code>Trade</code>s in the system.
-     * @param users           a list of <code>User</code>s in the system.
+     * @param meetings        a registry of <code>Meeting</code>s in the system.
+     * @param deadlines       the queue of arranged <code>Meeting</code>s in the order they become late.
+     * @param trades          a registry of <code>Trade</code>s in the system.
+     * @param users           a registry of <code>User</code>s in the system.
      * @param actionReverters a list of <code>ActionReverter</code>s in the system.
+     * @param locks           the locks that sessions hold while they use the entities.
      */
-    public EntityAndReverterCollection(List<Meeting> meetings, List<Trade> trades,
-                                       List<User> users,
-                                       List<ActionReverter> actionReverters) {
+    public EntityAndReverterCollection(MeetingRegistry meetings, MeetingDeadlines deadlines, TradeRegistry trades,
+                                       AccountRegistry<User> users,
+                                       List<ActionReverter> actionReverters,
+                                       DataLocks locks) {
         this.meetings = meetings;
+        this.meetingDeadlines = deadlines;
         this.trades = trades;
         this.users = users;
         this.actionReverters = actionReverters;
+        this.locks = locks;
     }
 }
@@ -5,30 +5,33 @@ package core;
  */
 public class IdCounterCollection {
     /**
-     * A number that is larger than all ids <code>Meeting</code>s has in the system. It ensures that the id for each
+     * The <code>IdSequence</code> that gives out the ids of <code>Meeting</code>s. It ensures that the id for each
      * <code>Meeting</code> is unique.
      */
-    final int meetingIDCounter;
+    final IdSequence meetingIDCounter;
     /**
-     * A number that is larger than all ids <code>Trade</code> has in the system. It ensures that the id for each
+     * The <code>IdSequence</code> that gives out the ids of <code>Trade</code>s. It ensures that the id for each
      * <code>Trade</code> is unique.
      */
-    final int tradeIDCounter;
+    final IdSequence tradeIDCounter;
     /**
-     * A number that is larger than all ids <code>Item</code> has in the system. It ensures that the id for each
+     * The <code>IdSequence</code> that gives out the ids of <code>Item</code>s. It ensures that the id for each
      * <code>Item</code> is unique.
      */
-    final int itemIDCounter;
+    final IdSequence itemIDCounter;
 
     /**
      * Constructs an <code>IdCounterCollection</code> that collects id counters for entities.
      *
-     * @param meetingIDCounter A number that is larger than all ids <code>Meeting</code>s has in the system.
-     * @param tradeIDCounter   A number that is larger than all ids <code>Trade</code> has in the system.
-     * @param itemIDCounter    A number that is larger than all ids <code>Item</code> has in the system.
+     * @param meetingIDCounter the <code>IdSequence</code> shared by all sessions that gives out <code>Meeting</code>
+     *                         ids.
+     * @param tradeIDCounter   the <code>IdSequence</code> shared by all sessions that gives out <code>Trade</code>
+     *                         ids.
+     * @param itemIDCounter    the <code>IdSequence</code> shared by all sessions that gives out <code>Item</code>
+     *                         ids.
      */
-    public IdCounterCollection(int meetingIDCounter, int tradeIDCounter,
-                               int itemIDCounter) {
+    public IdCounterCollection(IdSequence meetingIDCounter, IdSequence tradeIDCounter,
+                               IdSequence itemIDCounter) {
         this.meetingIDCounter = meetingIDCounter;
         this.tradeIDCounter = tradeIDCounter;
         this.itemIDCounter = itemIDCounter;
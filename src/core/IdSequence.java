@@ -0,0 +1,51 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class that hands out the ids of one kind of entity, such as <code>Trade</code>s, to all sessions using the same
+ * data, so no id is given out twice.
+ * <p>
+ * Ids are given out in increasing order, starting after the last id given out, which is kept with the data so that
+ * ids given out before it was saved are never given out again.
+ */
+public final class IdSequence {
+    private final AtomicInteger last;
+
+    /**
+     * Constructs an <code>IdSequence</code> that gives out the ids after <code>last</code>.
+     *
+     * @param last the last id given out, or 0 if none was.
+     */
+    public IdSequence(int last) {
+        this.last = new AtomicInteger(last);
+    }
+
+    /**
+     * Gives out a new id.
+     *
+     * @return an id larger than all ids given out before.
+     */
+    public int next() {
+        return last.incrementAndGet();
+    }
+
+    /**
+     * Gets the last id given out.
+     *
+     * @return the last id given out, or the id this <code>IdSequence</code> was constructed with if none was.
+     */
+    public int getLast() {
+        return last.get();
+    }
+
+    /**
+     * Makes sure the ids given out from now on are larger than <code>id</code>, such as an id given out by another
+     * means.
+     *
+     * @param id an id that is never to be given out.
+     */
+    public void advanceTo(int id) {
+        last.accumulateAndGet(id, Math::max);
+    }
+}
@@ -10,12 +10,20 @@ import core.user.UserStatusManager;
 import core.useritem.UserItemManager;
 import genericdatatype.Pair;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * A user facade class that pass all operations a <code>User</code> can do to corresponding manager class.
+ * <p>
+ * Facades of different users use the same data at once, each operation holding the <code>DataLocks</code> it needs:
+ * the stripe of the current user for its own state, the stripes of both users of a trade for the trade and its
+ * meetings, and the data exclusively for operations that add trades, meetings or items, or that go through the
+ * items of other users.
  */
 public class UserFacade {
     private final UserAccountManager userAccountManager;
@@ -27,6 +35,7 @@ public class UserFacade {
     private final TradeThresholdManager tradeThresholdManager;
     private final ReverterManager reverterManager;
     private final String currUsername;
+    private final DataLocks locks;
 
     /**
      * Construct a <code>core.UserFacade</code> with <code>username</code>, <code>allUser</code>,
@@ -43,26 +52,34 @@ public class UserFacade {
      *                                    <code>UserStatusManager</code>
      * @param thresholdCollection         a <code>ThresholdCollection</code> for constructing a
      *                                    <code>TradeThresholdManager</code>
+     * @param clock                       the <code>Clock</code> that time-dependent actions are evaluated against
      */
     public UserFacade(String currUsername, EntityAndReverterCollection entityAndReverterCollection,
                       IdCounterCollection idCounterCollection,
                       RequestCollection requestCollection,
-                      ThresholdCollection thresholdCollection) {
-        this.currUsername = currUsername;
-        reverterManager = new ReverterManager(entityAndReverterCollection.actionReverters);
+                      ThresholdCollection thresholdCollection,
+                      Clock clock) {
+        this.locks = entityAndReverterCollection.locks;
+        reverterManager = new ReverterManager(entityAndReverterCollection.actionReverters, locks);
         this.userAccountManager = new UserAccountManager(entityAndReverterCollection.users);
+        /* The username of the user is kept in trades, requests and reverters, which then share the same String. */
+        this.currUsername = userAccountManager.intern(currUsername);
         this.userItemManager = new UserItemManager(requestCollection.itemRequests, idCounterCollection.itemIDCounter);
         this.meetingManager = new MeetingManager(
                 entityAndReverterCollection.meetings,
+                entityAndReverterCollection.meetingDeadlines,
                 thresholdCollection.maxMeetingEdits,
                 idCounterCollection.meetingIDCounter,
-                thresholdCollection.maxMeetingLateTime);
-        this.userStatusManager = new UserStatusManager(requestCollection.reportRequests, requestCollection.unfreezeRequests);
-        this.tradeFunctionManager = new TradeFunctionManager(idCounterCollection.tradeIDCounter);
+                thresholdCollection.maxMeetingLateTime,
+                clock);
+        this.userStatusManager = new UserStatusManager(requestCollection.reportRequests,
+                requestCollection.unfreezeRequests, locks);
+        this.tradeFunctionManager = new TradeFunctionManager(idCounterCollection.tradeIDCounter, clock);
         this.tradeThresholdManager = new TradeThresholdManager(
                 thresholdCollection.maxIncompleteTrade,
                 thresholdCollection.maxWeeklyTransaction,
-                thresholdCollection.minLendBorrowDifference);
+                thresholdCollection.minLendBorrowDifference,
+                clock);
         this.tradeInfoManager = new TradeInfoManager(entityAndReverterCollection.trades);
     }
 
@@ -77,23 +94,14 @@ public class UserFacade {
     }
 
     /**
-     * Changes <code>user</code> password to the given <code>password</code>.
+     * Changes <code>user</code> password to the one stored as <code>storedPassword</code>.
      *
-     * @param password a String of password <code>user</code> want to change to.
+     * @param storedPassword the stored form of the password <code>user</code> want to change to, made by
+     *                       <code>PasswordHasher</code>.
      */
-    public void setPassword(String password) {
-        ActionReverter a = userAccountManager.setPassword(userAccountManager.getAccount(currUsername), password);
-        reverterManager.addReverter(a);
-    }
-
-    /**
-     * Gets <code>user</code>'s password.
-     *
-     * @param currUsername the current <code>User</code>s username
-     * @return a String of password.
-     */
-    public String getPassword(String currUsername) {
-        return userAccountManager.getPassword(userAccountManager.getAccount(currUsername));
+    public void setPassword(String storedPassword) {
+        own(() -> reverterManager.addReverter(
+                userAccountManager.setPassword(userAccountManager.getAccount(currUsername), storedPassword)));
     }
 
     /**
@@ -102,7 +110,7 @@ public class UserFacade {
      * @param city a String of city <code>user</code> want to change to.
      */
     public void setCity(String city) {
-        reverterManager.addReverter(userAccountManager.setCity(currUsername, city));
+        own(() -> reverterManager.addReverter(userAccountManager.setCity(currUsername, city)));
     }
 
     /**
@@ -111,7 +119,7 @@ public class UserFacade {
      * @return city of <code>user</code>
      */
     public String getCity() {
-        return userAccountManager.getCity(currUsername);
+        return own(() -> userAccountManager.getCity(currUsername));
     }
 
     /**
@@ -121,10 +129,7 @@ public class UserFacade {
      * @return true if deleted <code>blockUsername</code> successfully.
      */
     public boolean deletedFromBlockList(String blockUsername) {
-        ActionReverter a = userAccountManager.deletedFromBlockList(currUsername, blockUsername);
-        if (a == null) return false;
-        reverterManager.addReverter(a);
-        return true;
+        return own(() -> addReverter(userAccountManager.deletedFromBlockList(currUsername, blockUsername)));
     }
 
     /**
@@ -134,10 +139,7 @@ public class UserFacade {
      * @return true if added <code>blockUsername</code> successfully.
      */
     public boolean addToBlockList(String blockUsername) {
-        ActionReverter a = userAccountManager.addToBlockList(currUsername, blockUsername);
-        if (a == null) return false;
-        reverterManager.addReverter(a);
-        return true;
+        return own(() -> addReverter(userAccountManager.addToBlockList(currUsername, blockUsername)));
     }
 
     /**
@@ -146,12 +148,12 @@ public class UserFacade {
      * @return <code>blockList</code> of <code>user</code>.
      */
     public List<String> getBlockList() {
-        return userAccountManager.getBlockList(currUsername);
+        return own(() -> new ArrayList<>(userAccountManager.getBlockList(currUsername)));
     }
 
     public String getUsernameFromItemID(Integer item) {
-        return userItemManager.getUsernameFromItem(userItemManager.getItemFromId(
-                item, userAccountManager.getFilteredUsers(currUsername)), userAccountManager);
+        return locks.exclusive(() -> userItemManager.getUsernameFromItem(userItemManager.getItemFromId(
+                item, userAccountManager.getFilteredUsers(currUsername)), userAccountManager));
     }
 
     /**
@@ -160,7 +162,7 @@ public class UserFacade {
      * @return true if the status is turned on.
      */
     public boolean getOnVacation() {
-        return userStatusManager.onVacation(userAccountManager.getAccount(currUsername));
+        return own(() -> userStatusManager.onVacation(userAccountManager.getAccount(currUsername)));
     }
 
     /**
@@ -170,15 +172,24 @@ public class UserFacade {
      * <code>user</code> does not exist in the system.
      */
     public String[] getUserAccountSpecifics() {
-        return userAccountManager.getUserAccountSpecifics(currUsername);
+        return own(() -> userAccountManager.getUserAccountSpecifics(currUsername));
     }
 
     /**
      * Subtract credit of a list of <code>User</code>s' if they has new <code>Trade</code>s abandoned.
+     *
+     * @return true iff at least one <code>Trade</code> has been abandoned by this call.
      */
-    public void updateCreditSubtraction() {
-        userAccountManager.creditSubtraction(tradeFunctionManager.updateTradesAbandoned(
-                meetingManager.getLateMeetingIds(), tradeInfoManager.getTrades()));
+    public boolean updateCreditSubtraction() {
+        /* Meetings seldom become late, so the data is only held exclusively once one might have. */
+        if (!meetingManager.mayHaveLateMeetings()) return false;
+        return locks.exclusive(() -> {
+            List<Integer> lateMeetingIds = meetingManager.getLateMeetingIds();
+            List<String> usernames = tradeFunctionManager.updateTradesAbandoned(
+                    lateMeetingIds, tradeInfoManager.getTradesOfMeetings(lateMeetingIds));
+            userAccountManager.creditSubtraction(usernames);
+            return !usernames.isEmpty();
+        });
     }
 
     /**
@@ -189,12 +200,9 @@ public class UserFacade {
      * @return true iff the message is sent successfully
      */
     public boolean sendPrivateMessage(String receiverUsername, String message) {
-        ActionReverter actionReverter = userAccountManager.oneToOneMessage(userAccountManager.getAccount(currUsername),
-                userAccountManager.getAccount(receiverUsername), message);
-        if(actionReverter == null)
-            return false;
-        reverterManager.addReverter(actionReverter);
-        return true;
+        return locks.shared(() -> addReverter(userAccountManager.oneToOneMessage(
+                userAccountManager.getAccount(currUsername), userAccountManager.getAccount(receiverUsername), message)),
+                currUsername, receiverUsername);
     }
 
     /**
@@ -203,7 +211,8 @@ public class UserFacade {
      * @return <code>messageReceived</code> of <code>user</code>.
      */
     public List<String> getMessageReceived() {
-        return userAccountManager.getMessageReceived(userAccountManager.getAccount(currUsername));
+        return own(() -> new ArrayList<>(userAccountManager.getMessageReceived(
+                userAccountManager.getAccount(currUsername))));
     }
 
     /**
@@ -212,27 +221,19 @@ public class UserFacade {
      * @return <code>messageSent</code> of <code>user</code>.
      */
     public List<String> getMessageSent() {
-        return userAccountManager.getMessageSent(userAccountManager.getAccount(currUsername));
+        return own(() -> new ArrayList<>(userAccountManager.getMessageSent(
+                userAccountManager.getAccount(currUsername))));
     }
 
     /* The following methods are passed to userItemManager */
 
-    /**
-     * Get the newest Id for an Item.
-     *
-     * @return a int of the newest Id of the given Item
-     */
-    public int getNewestItemId() {
-        return userItemManager.getNewestItemId();
-    }
-
     /**
      * Gets information of all items that <code>user</code> can borrow.
      *
      * @return a list of String which contains item summary and the corresponding username.
      */
     public List<String> getInventory() {
-        return userItemManager.getInventory(userAccountManager.getFilteredUsers(currUsername));
+        return locks.exclusive(() -> userItemManager.getInventory(userAccountManager.getFilteredUsers(currUsername)));
     }
 
     /**
@@ -243,7 +244,7 @@ public class UserFacade {
      * <code>itemAvailable</code>
      */
     public List<String> getUserItemsAvailable() {
-        return userItemManager.getUserItemsAvailable(userAccountManager.getAccount(currUsername));
+        return own(() -> userItemManager.getUserItemsAvailable(userAccountManager.getAccount(currUsername)));
     }
 
     /**
@@ -276,8 +277,8 @@ public class UserFacade {
      * @param itemDescription the description of the item that is requested.
      */
     public void createItemAndRequest(String itemType, String itemName, String itemDescription) {
-        reverterManager.addReverter(userItemManager.createItemAndRequest(
-                currUsername, itemType, itemName, itemDescription));
+        locks.exclusive(() -> reverterManager.addReverter(userItemManager.createItemAndRequest(
+                currUsername, itemType, itemName, itemDescription)));
     }
 
     /**
@@ -287,11 +288,9 @@ public class UserFacade {
      * @return true iff the deletion is successful.
      */
     public boolean deleteFromWishlist(int itemId) {
-        ActionReverter a = userItemManager.deleteFromWishlist(userAccountManager.getAccount(currUsername),
-                userItemManager.getItemFromId(itemId, userAccountManager.getFilteredUsers(currUsername)));
-        if (a == null) return false;
-        reverterManager.addReverter(a);
-        return true;
+        return locks.exclusive(() -> addReverter(userItemManager.deleteFromWishlist(
+                userAccountManager.getAccount(currUsername),
+                userItemManager.getItemFromId(itemId, userAccountManager.getFilteredUsers(currUsername)))));
     }
 
     /**
@@ -301,11 +300,9 @@ public class UserFacade {
      * @return true iff the addition is successful
      */
     public boolean addToWishlist(int itemId) {
-        ActionReverter a = userItemManager.addToWishlist(userAccountManager.getAccount(currUsername),
-                userItemManager.getItemFromId(itemId, userAccountManager.getFilteredUsers(currUsername)));
-        if (a == null) return false;
-        reverterManager.addReverter(a);
-        return true;
+        return locks.exclusive(() -> addReverter(userItemManager.addToWishlist(
+                userAccountManager.getAccount(currUsername),
+                userItemManager.getItemFromId(itemId, userAccountManager.getFilteredUsers(currUsername)))));
     }
 
     /**
@@ -314,7 +311,7 @@ public class UserFacade {
      * @return a list of string representations of items in this user's wishlist
      */
     public List<String> getUserWishlist() {
-        return userItemManager.getUserWishlist(userAccountManager.getAccount(currUsername));
+        return own(() -> userItemManager.getUserWishlist(userAccountManager.getAccount(currUsername)));
     }
 
     /**
@@ -325,9 +322,8 @@ public class UserFacade {
      * @return a list of item that are both in lender's available list and borrower's wish list.
      */
     public List<String> createLendingSuggestion(String borrowerId) {
-
-        return userItemManager.createLendingSuggestion(userAccountManager.getAccount(currUsername),
-                userAccountManager.getAccount(borrowerId));
+        return locks.shared(() -> userItemManager.createLendingSuggestion(userAccountManager.getAccount(currUsername),
+                userAccountManager.getAccount(borrowerId)), currUsername, borrowerId);
     }
 
     /**
@@ -336,7 +332,7 @@ public class UserFacade {
      * @return whether the action was done or not.
      */
     public boolean requestUnfreeze() {
-        return userStatusManager.requestUnfreeze(userAccountManager.getAccount(currUsername));
+        return own(() -> userStatusManager.requestUnfreeze(userAccountManager.getAccount(currUsername)));
     }
 
     /**
@@ -348,7 +344,8 @@ public class UserFacade {
      * @return true if the report is successful
      */
     public boolean reportUser(String reportedUsername, String reason) {
-        return userStatusManager.reportUser(userAccountManager.getAccount(currUsername), userAccountManager.getAccount(reportedUsername), reason);
+        return locks.shared(() -> userStatusManager.reportUser(userAccountManager.getAccount(currUsername),
+                userAccountManager.getAccount(reportedUsername), reason), currUsername, reportedUsername);
     }
 
     /**
@@ -358,21 +355,15 @@ public class UserFacade {
      * @return true if the user on vacation.
      */
     public boolean switchVacationStatus() {
-        reverterManager.addReverter(userStatusManager.switchVacationStatus(userAccountManager.getAccount(currUsername)));
-        return userAccountManager.getAccount(currUsername).onVacation();
+        return own(() -> {
+            reverterManager.addReverter(userStatusManager.switchVacationStatus(
+                    userAccountManager.getAccount(currUsername)));
+            return userAccountManager.getAccount(currUsername).onVacation();
+        });
     }
 
     /* The following methods are passed to userTradeManager */
 
-    /**
-     * Return the newest trade id
-     *
-     * @return the newest trade id
-     */
-    public int getNewestTradeId() {
-        return tradeFunctionManager.getNewestTradeId();
-    }
-
     /**
      * Gets three recent trade item information of <code>User</code>.
      *
@@ -380,7 +371,7 @@ public class UserFacade {
      * trade happened.
      */
     public List<String> getThreeRecentTradeItem() {
-        return tradeInfoManager.getThreeRecentTradeItem(currUsername);
+        return own(() -> tradeInfoManager.getThreeRecentTradeItem(currUsername));
     }
 
     /**
@@ -390,7 +381,7 @@ public class UserFacade {
      * trade happened.
      */
     public List<String> getTopThreeTradePartner() {
-        return tradeInfoManager.getTopThreeTradePartner(currUsername);
+        return own(() -> tradeInfoManager.getTopThreeTradePartner(currUsername));
     }
 
     /**
@@ -402,22 +393,24 @@ public class UserFacade {
      * other digit means unknown reason.
      */
     public int agreeToTrade(int tradeId) {
-        int userOrder = tradeInfoManager.findUserOrder(tradeId, currUsername);
-        /* item is not null, not in available of one of the user */
-        if ((tradeInfoManager.getItemsInvolved(tradeId)[userOrder] != null &&
-                userItemManager.itemCanNotLend(userAccountManager.getAccount(currUsername),
-                        tradeInfoManager.getItemsInvolved(tradeId)[userOrder].getId())) ||
-                (tradeInfoManager.getItemsInvolved(tradeId)[Math.abs(userOrder - 1)] != null &&
-                        userItemManager.itemCanNotLend(userAccountManager.getAccount(
-                                tradeInfoManager.getUsername(tradeId, Math.abs(userOrder - 1))),
-                                tradeInfoManager.getItemsInvolved(tradeId)[Math.abs(userOrder - 1)].getId()))) {
-            return 3;
-        }
-        int result = tradeFunctionManager.agreeToTrade(tradeInfoManager.getTrade(tradeId), currUsername);
-        if (result == 0) userItemManager.updateUserItems(userAccountManager.getAccount(
-                tradeInfoManager.getUsername(tradeId, 0)), userAccountManager.getAccount(currUsername),
-                tradeInfoManager.getItemsInvolved(tradeId)[0], tradeInfoManager.getItemsInvolved(tradeId)[1]);
-        return result;
+        return onTrade(tradeId, -1, () -> {
+            int userOrder = tradeInfoManager.findUserOrder(tradeId, currUsername);
+            /* item is not null, not in available of one of the user */
+            if ((tradeInfoManager.getItemsInvolved(tradeId)[userOrder] != null &&
+                    userItemManager.itemCanNotLend(userAccountManager.getAccount(currUsername),
+                            tradeInfoManager.getItemsInvolved(tradeId)[userOrder].getId())) ||
+                    (tradeInfoManager.getItemsInvolved(tradeId)[Math.abs(userOrder - 1)] != null &&
+                            userItemManager.itemCanNotLend(userAccountManager.getAccount(
+                                    tradeInfoManager.getUsername(tradeId, Math.abs(userOrder - 1))),
+                                    tradeInfoManager.getItemsInvolved(tradeId)[Math.abs(userOrder - 1)].getId()))) {
+                return 3;
+            }
+            int result = tradeFunctionManager.agreeToTrade(tradeInfoManager.getTrade(tradeId), currUsername);
+            if (result == 0) userItemManager.updateUserItems(userAccountManager.getAccount(
+                    tradeInfoManager.getUsername(tradeId, 0)), userAccountManager.getAccount(currUsername),
+                    tradeInfoManager.getItemsInvolved(tradeId)[0], tradeInfoManager.getItemsInvolved(tradeId)[1]);
+            return result;
+        });
     }
 
     /**
@@ -429,9 +422,12 @@ public class UserFacade {
      * 2 fail because trade is <code>NOT_STARTED</code>, other digit means unknown reason.
      */
     public int denyTrade(int tradeId) {
-        Pair<ActionReverter, Integer> pair = tradeFunctionManager.denyTrade(tradeInfoManager.getTrade(tradeId), currUsername);
-        if (pair.value2 == 0) reverterManager.addReverter(pair.value1);
-        return pair.value2;
+        return onTrade(tradeId, -1, () -> {
+            Pair<ActionReverter, Integer> pair =
+                    tradeFunctionManager.denyTrade(tradeInfoManager.getTrade(tradeId), currUsername);
+            if (pair.value2 == 0) reverterManager.addReverter(pair.value1);
+            return pair.value2;
+        });
     }
 
     /**
@@ -441,9 +437,10 @@ public class UserFacade {
      * items the user may like as Strings.
      */
     public List<String> createBorrowingSuggestion() {
-        return userItemManager.createBorrowingSuggestion(userAccountManager.getAccount(currUsername),
+        return locks.exclusive(() -> userItemManager.createBorrowingSuggestion(
+                userAccountManager.getAccount(currUsername),
                 userAccountManager.getFilteredUsers(currUsername),
-                tradeInfoManager.getTopThreeTradeItemType(currUsername));
+                tradeInfoManager.getTopThreeTradeItemType(currUsername)));
     }
 
     /* If itemId1To2 is -1, meaning that username1 do not lend anything to username2, result in getItemFromId returning
@@ -461,24 +458,28 @@ public class UserFacade {
      * @return true if the trade is requested successfully.
      */
     public boolean requestTrade(int itemId1To2, int itemId2To1, boolean isPermanent) {
-        if (userItemManager.itemCanNotLend(userAccountManager.getAccount(currUsername), itemId1To2) && itemId1To2 != -1) {
+        return locks.exclusive(() -> {
+            if (userItemManager.itemCanNotLend(userAccountManager.getAccount(currUsername), itemId1To2) &&
+                    itemId1To2 != -1) {
+                return false;
+            }
+            if (userItemManager.itemCanBorrow(userAccountManager.getFilteredUsers(currUsername), itemId2To1)) {
+                ActionReverter a = tradeFunctionManager.requestTrade(
+                        userAccountManager.getAccount(currUsername).getUsername(),
+                        userItemManager.getUsernameFromItem(
+                                userItemManager.getItemFromId(itemId2To1,
+                                        userAccountManager.getFilteredUsers(currUsername)),
+                                userAccountManager),
+                        userItemManager.getItemFromId(itemId1To2, userAccountManager.getAccount(currUsername)),
+                        userItemManager.getItemFromId(itemId2To1,
+                                userAccountManager.getAccount(getUsernameFromItemID(itemId2To1))),
+                        isPermanent, tradeInfoManager.getTrades());
+                if (a == null) return false;
+                reverterManager.addReverter(a);
+                return true;
+            }
             return false;
-        }
-        if (userItemManager.itemCanBorrow(userAccountManager.getFilteredUsers(currUsername), itemId2To1)) {
-            ActionReverter a = tradeFunctionManager.requestTrade(
-                    userAccountManager.getAccount(currUsername).getUsername(),
-                    userItemManager.getUsernameFromItem(
-                            userItemManager.getItemFromId(itemId2To1, userAccountManager.getFilteredUsers(currUsername)),
-                            userAccountManager),
-                    userItemManager.getItemFromId(itemId1To2, userAccountManager.getAccount(currUsername)),
-                    userItemManager.getItemFromId(itemId2To1,
-                            userAccountManager.getAccount(getUsernameFromItemID(itemId2To1))),
-                    isPermanent, tradeInfoManager.getTrades());
-            if (a == null) return false;
-            reverterManager.addReverter(a);
-            return true;
-        }
-        return false;
+        });
     }
 
     /**
@@ -487,7 +488,7 @@ public class UserFacade {
      * @return a List of String which contain the information of Trades.
      */
     public List<String[]> getTradesInfo() {
-        return tradeInfoManager.getTradesInfo(currUsername);
+        return own(() -> tradeInfoManager.getTradesInfo(currUsername));
     }
 
     /**
@@ -498,7 +499,7 @@ public class UserFacade {
      * this trade. If no meeting is ongoing, return -1.
      */
     public int getCurrentMeetingRelated(int tradeId) {
-        return tradeInfoManager.getCurrentMeetingRelated(tradeId);
+        return own(() -> tradeInfoManager.getCurrentMeetingRelated(tradeId));
     }
 
     /**
@@ -521,20 +522,11 @@ public class UserFacade {
      * @return true iff the trade is <code>NOT_STARTED</code>.
      */
     public boolean tradeNotStarted(int tradeId) {
-        return tradeInfoManager.tradeNotStarted(tradeId);
+        return own(() -> tradeInfoManager.tradeNotStarted(tradeId));
     }
 
     /* The following methods are passed to userMeetingManager */
 
-    /**
-     * Return the newest meeting id
-     *
-     * @return the newest meeting id
-     */
-    public int getNewestMeetingId() {
-        return meetingManager.getNewestMeetingId();
-    }
-
     /**
      * Find the information of Trade of given meeting ID
      *
@@ -542,7 +534,7 @@ public class UserFacade {
      * @return String of information of meeting, otherwise, empty string
      */
     public String getMeetingInfo(int meetingId) {
-        return meetingManager.getMeetingInfo(meetingId);
+        return own(() -> meetingManager.getMeetingInfo(meetingId));
     }
 
     /**
@@ -556,13 +548,21 @@ public class UserFacade {
      * @return true if the meeting is created and added successfully
      */
     public boolean createMeeting(int tradeId, String location, LocalDateTime time) {
-        int meetingId = tradeInfoManager.getCurrentMeetingRelated(tradeId);
-        /* check if the last meeting is done. */
-        if (meetingId < 0 || meetingManager.meetingOccurred(meetingId)) {
-            return tradeFunctionManager.addMeetingRelated(tradeInfoManager.getTrade(tradeId),
-                    meetingManager.createMeeting(location, time, tradeInfoManager.findUserOrder(tradeId, currUsername)));
-        }
-        return false;
+        return locks.exclusive(() -> {
+            if (tradeInfoManager.findUserOrder(tradeId, currUsername) < 0) return false;
+            int meetingId = tradeInfoManager.getCurrentMeetingRelated(tradeId);
+            /* check if the last meeting is done. */
+            if (meetingId < 0 || meetingManager.meetingOccurred(meetingId)) {
+                /* The trade is checked before the meeting is made, so a meeting the trade can't take is never added
+                 * and doesn't use up an id.
+                 */
+                Trade trade = tradeInfoManager.getTrade(tradeId);
+                if (!tradeFunctionManager.canAddMeeting(trade)) return false;
+                return tradeFunctionManager.addMeetingRelated(trade, meetingManager.createMeeting(location, time,
+                        tradeInfoManager.findUserOrder(tradeId, currUsername)));
+            }
+            return false;
+        });
     }
 
     /**
@@ -573,11 +573,9 @@ public class UserFacade {
      * @return true if the confirmation is made, false otherwise.
      */
     public boolean confirmMeetingArrangement(int tradeId) {
-        ActionReverter a = meetingManager.confirmMeetingArrangement(tradeInfoManager.getCurrentMeetingRelated(tradeId),
-                tradeInfoManager.findUserOrder(tradeId, currUsername), currUsername);
-        if (a == null) return false;
-        reverterManager.addReverter(a);
-        return true;
+        return onTrade(tradeId, false, () -> addReverter(meetingManager.confirmMeetingArrangement(
+                tradeInfoManager.getCurrentMeetingRelated(tradeId),
+                tradeInfoManager.findUserOrder(tradeId, currUsername), currUsername)));
     }
 
     /**
@@ -588,18 +586,20 @@ public class UserFacade {
      * @return true iff confirmation is successful.
      */
     public boolean confirmMeetingOccurred(int tradeId) {
-        //A meeting's occurrence can only be confirmed if the trade is ongoing
-        if (tradeInfoManager.getTrade(tradeId).getStatus() != TradeStatus.ONGOING)
-            return false;
-        int meetingId = tradeInfoManager.getCurrentMeetingRelated(tradeId);
-        ActionReverter a = meetingManager.confirmMeetingOccurred(meetingId, tradeInfoManager.findUserOrder(
-                tradeId, currUsername), currUsername);
-        if (a == null) return false;
-        reverterManager.addReverter(a);
-        if (meetingManager.meetingOccurred(meetingId) &&
-                tradeFunctionManager.updateTradeOneMeeting(tradeInfoManager.getTrade(tradeId)))
-            userAccountManager.creditAddition(currUsername);
-        return true;
+        return onTrade(tradeId, false, () -> {
+            //A meeting's occurrence can only be confirmed if the trade is ongoing
+            if (tradeInfoManager.getTrade(tradeId).getStatus() != TradeStatus.ONGOING)
+                return false;
+            int meetingId = tradeInfoManager.getCurrentMeetingRelated(tradeId);
+            ActionReverter a = meetingManager.confirmMeetingOccurred(meetingId, tradeInfoManager.findUserOrder(
+                    tradeId, currUsername), currUsername);
+            if (a == null) return false;
+            reverterManager.addReverter(a);
+            if (meetingManager.meetingOccurred(meetingId) &&
+                    tradeFunctionManager.updateTradeOneMeeting(tradeInfoManager.getTrade(tradeId)))
+                userAccountManager.creditAddition(currUsername);
+            return true;
+        });
     }
 
     /**
@@ -611,22 +611,25 @@ public class UserFacade {
      * @return true if edited meeting successfully. false if the user is exceeding his edit limit.
      */
     public boolean editMeeting(int tradeId, LocalDateTime meetingTime, String location) {
-        int meetingId = tradeInfoManager.getCurrentMeetingRelated(tradeId);
-        int userOrder = tradeInfoManager.findUserOrder(tradeId, currUsername);
-        if (meetingManager.canEditMeeting(meetingId, userOrder)) {
-            ActionReverter a = meetingManager.editMeeting(meetingId, meetingTime, location, userOrder, currUsername);
-            if (a == null) {
-                tradeFunctionManager.cancelTrade(tradeInfoManager.getTrade(tradeId));
-                String msg = "Your trade" + tradeId + "is cancelled due to exceeding edit times.";
-                /* Function like a system message */
-                userAccountManager.oneToOneMessage(userAccountManager.getAccount(currUsername),
-                        userAccountManager.getAccount(currUsername), msg);
-                return false;
+        return onTrade(tradeId, false, () -> {
+            int meetingId = tradeInfoManager.getCurrentMeetingRelated(tradeId);
+            int userOrder = tradeInfoManager.findUserOrder(tradeId, currUsername);
+            if (meetingManager.canEditMeeting(meetingId, userOrder)) {
+                ActionReverter a =
+                        meetingManager.editMeeting(meetingId, meetingTime, location, userOrder, currUsername);
+                if (a == null) {
+                    tradeFunctionManager.cancelTrade(tradeInfoManager.getTrade(tradeId));
+                    String msg = "Your trade" + tradeId + "is cancelled due to exceeding edit times.";
+                    /* Function like a system message */
+                    userAccountManager.oneToOneMessage(userAccountManager.getAccount(currUsername),
+                            userAccountManager.getAccount(currUsername), msg);
+                    return false;
+                }
+                reverterManager.addReverter(a);
+                return true;
             }
-            reverterManager.addReverter(a);
-            return true;
-        }
-        return false;
+            return false;
+        });
     }
 
     /**
@@ -638,4 +641,36 @@ public class UserFacade {
         return new int[]{meetingManager.getThreshold(MeetingThresholdType.MAX_EDITS),
                 meetingManager.getThreshold(MeetingThresholdType.MAX_LATE_TIMES)};
     }
+
+    /* Adds reverter, the result of an action that failed if it is null. Returns whether the action succeeded. */
+    private boolean addReverter(ActionReverter reverter) {
+        if (reverter == null) return false;
+        reverterManager.addReverter(reverter);
+        return true;
+    }
+
+    /* Runs action holding the stripe of the current user, whose own state it reads or changes. */
+    private <T> T own(Supplier<T> action) {
+        return locks.shared(action, currUsername);
+    }
+
+    private void own(Runnable action) {
+        locks.shared(action, currUsername);
+    }
+
+    /* Runs action on the trade with tradeId holding the stripes of both of its users, which guard the trade and its
+     * meetings. The users of a trade never change, so they are read before the stripes are taken. Another session
+     * may undo the request of the trade in between, so missing is returned if it is no longer a trade of the user.
+     */
+    private <T> T onTrade(int tradeId, T missing, Supplier<T> action) {
+        Object[] usernames = locks.shared(() -> {
+            Trade trade = tradeInfoManager.getTrade(tradeId);
+            if (trade == null) return new Object[]{currUsername};
+            return new Object[]{currUsername, trade.getUsername(0), trade.getUsername(1)};
+        });
+        return locks.shared(() -> {
+            if (tradeInfoManager.findUserOrder(tradeId, currUsername) < 0) return missing;
+            return action.get();
+        }, usernames);
+    }
 }
@@ -2,30 +2,38 @@ package core.account;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Represents an account that has username and password.
  */
 public abstract class Account implements Serializable {
+    private static final long serialVersionUID = 1000718601689093465L;
+
     private final String username;
+    /* The stored form of the password, see PasswordHasher. */
     private String password;
     /* Message received by the Account */
-    private final List<String> messageReceived;
+    private List<String> messageReceived;
     /* Message sent by the Account */
-    private final List<String> messageSent;
+    private List<String> messageSent;
+    /* Told when an attribute that may be indexed changes, by the AccountRegistry indexing this account. */
+    private transient Consumer<Account> changeListener;
 
     /**
      * Creates an account with <code>username</code> and <code>password</code>.
      *
      * @param username username of the account.
-     * @param password password of the account.
+     * @param password password of the account, in the form it is stored in, such as hashed by
+     *                 <code>PasswordHasher</code>.
      */
     protected Account(String username, String password) {
         this.username = username;
         this.password = password;
-        this.messageReceived = new ArrayList<>();
-        this.messageSent = new ArrayList<>();
+        this.messageReceived = Collections.emptyList();
+        this.messageSent = Collections.emptyList();
     }
 
     /**
@@ -38,18 +46,18 @@ public abstract class Account implements Serializable {
     }
 
     /**
-     * Gets the <code>password</code> of the account.
+     * Gets the <code>password</code> of the account, in the form it is stored in.
      *
-     * @return the <code>password</code> of the account.
+     * @return the stored <code>password</code> of the account.
      */
     public String getPassword() {
         return password;
     }
 
     /**
-     * Sets the <code>password</code> of the account.
+     * Sets the <code>password</code> of the account, in the form it is stored in.
      *
-     * @param password the new <code>password</code> the account.
+     * @param password the new stored <code>password</code> the account.
      */
     public void setPassword(String password) {
         this.password = password;
@@ -61,6 +69,7 @@ public abstract class Account implements Serializable {
      * @param msg the message that will be added.
      */
     public void addToMessageReceived(String msg) {
+        messageReceived = growable(messageReceived);
         messageReceived.add(msg);
     }
 
@@ -79,7 +88,7 @@ public abstract class Account implements Serializable {
      *
      * @return the <code>messageReceived</code> of the account.
      */
-    List<String> getMessageReceived() {
+    public List<String> getMessageReceived() {
         return messageReceived;
     }
 
@@ -89,6 +98,7 @@ public abstract class Account implements Serializable {
      * @param msg the message that will be added.
      */
     public void addToMessageSent(String msg) {
+        messageSent = growable(messageSent);
         messageSent.add(msg);
     }
 
@@ -110,4 +120,30 @@ public abstract class Account implements Serializable {
     public List<String> getMessageSent() {
         return messageSent;
     }
+
+    /**
+     * Gets a list that elements can be added to in place of <code>list</code>. Lists of an account start out as the
+     * shared empty list, so that the many accounts that never use a list don't each keep an empty one, and get their
+     * own list when the first element is added.
+     *
+     * @param list a list of the account.
+     * @param <T>  the type of elements.
+     * @return <code>list</code>, or a new list if <code>list</code> is the shared empty list.
+     */
+    protected static <T> List<T> growable(List<T> list) {
+        return list == Collections.<T>emptyList() ? new ArrayList<>() : list;
+    }
+
+    /**
+     * Reports that a value of this account kept by an <code>AccountIndex</code>, such as the value of an
+     * <code>AccountAttribute</code>, may have changed, so that the indexes are kept up to date.
+     */
+    protected void changed() {
+        if (changeListener != null) changeListener.accept(this);
+    }
+
+    /* Sets the listener told about changes by changed(), used by AccountRegistry. */
+    void setChangeListener(Consumer<Account> changeListener) {
+        this.changeListener = changeListener;
+    }
 }
@@ -0,0 +1,92 @@
+package core.account;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.function.Function;
+
+/**
+ * An attribute of accounts that <code>AccountRegistry</code> can index. Criteria built from an attribute are
+ * answered from the index of the attribute, instead of going through every <code>Account</code>.
+ * <p>
+ * Accounts must report changes to the value of the attribute through <code>Account.changed()</code>.
+ *
+ * @param <E> the type of account.
+ * @param <K> the type of value of the attribute.
+ */
+public class AccountAttribute<E extends Account, K extends Comparable<? super K>> {
+    private final String name;
+    private final Function<? super E, ? extends K> getter;
+    private final Comparator<K> order = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    /**
+     * Constructs an <code>AccountAttribute</code> named <code>name</code>, whose value is given by
+     * <code>getter</code>.
+     *
+     * @param name   the name of the attribute.
+     * @param getter gives the value of the attribute of an <code>Account</code>.
+     */
+    public AccountAttribute(String name, Function<? super E, ? extends K> getter) {
+        this.name = name;
+        this.getter = getter;
+    }
+
+    /**
+     * Gets the value of this attribute of <code>account</code>.
+     *
+     * @param account the <code>Account</code> whose value is needed.
+     * @return the value of this attribute.
+     */
+    public K valueOf(E account) {
+        return getter.apply(account);
+    }
+
+    /**
+     * Gets a criterion that accepts the accounts whose value of this attribute is <code>value</code>.
+     *
+     * @param value the value accepted.
+     * @return the criterion.
+     */
+    public IndexedCriterion<E> is(K value) {
+        return new IndexedCriterion<>(this, false, buckets -> union(buckets.subMap(value, true, value, true)),
+                account -> order.compare(valueOf(account), value) == 0);
+    }
+
+    /**
+     * Gets a criterion that accepts the accounts whose value of this attribute isn't <code>value</code>.
+     *
+     * @param value the value not accepted.
+     * @return the criterion.
+     */
+    public IndexedCriterion<E> isNot(K value) {
+        return new IndexedCriterion<>(this, true, buckets -> union(buckets.subMap(value, true, value, true)),
+                account -> order.compare(valueOf(account), value) != 0);
+    }
+
+    /**
+     * Gets a criterion that accepts the accounts whose value of this attribute is less than <code>value</code>.
+     *
+     * @param value the smallest value not accepted.
+     * @return the criterion.
+     */
+    public IndexedCriterion<E> lessThan(K value) {
+        return new IndexedCriterion<>(this, false, buckets -> union(buckets.headMap(value, false)),
+                account -> order.compare(valueOf(account), value) < 0);
+    }
+
+    /* The order of values in an index of this attribute, where null comes first. */
+    Comparator<K> getOrder() {
+        return order;
+    }
+
+    private static BitSet union(NavigableMap<?, BitSet> buckets) {
+        BitSet result = new BitSet();
+        for (BitSet bucket : buckets.values()) result.or(bucket);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
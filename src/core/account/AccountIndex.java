@@ -0,0 +1,27 @@
+package core.account;
+
+/**
+ * An index kept by an <code>AccountRegistry</code>, which is told about every <code>Account</code> in the registry
+ * and about every change an <code>Account</code> reports through <code>Account.changed()</code>.
+ * <p>
+ * Accounts are identified by their id in the registry, which is their position in the list of accounts.
+ *
+ * @param <E> the type of account.
+ */
+public interface AccountIndex<E extends Account> {
+    /**
+     * Indexes <code>account</code>. Accounts are added in the order of their ids.
+     *
+     * @param id      the id of <code>account</code>.
+     * @param account the <code>Account</code> to be indexed.
+     */
+    void add(int id, E account);
+
+    /**
+     * Indexes <code>account</code> again, after it reported a change.
+     *
+     * @param id      the id of <code>account</code>.
+     * @param account the <code>Account</code> that changed.
+     */
+    void update(int id, E account);
+}
@@ -4,22 +4,20 @@ import core.account.reverter.PrivateMessageReverter;
 import core.account.reverter.SetPasswordReverter;
 import core.reverter.ActionReverter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Class that manages all kinds of accounts in this system.
  */
 public abstract class AccountManager<E extends Account> {
-    private final List<E> accounts;
+    private final AccountRegistry<E> accounts;
 
     /**
-     * Constructs an <code>AccountManager</code> with a list of <code>accounts</code> and a list of
-     * <code>actionReverters</code>.
+     * Constructs an <code>AccountManager</code> with a registry of <code>accounts</code>.
      *
-     * @param accounts a list of <code>Account</code> that contains one type of accounts.
+     * @param accounts an <code>AccountRegistry</code> that contains one type of accounts.
      */
-    protected AccountManager(List<E> accounts) {
+    protected AccountManager(AccountRegistry<E> accounts) {
         this.accounts = accounts;
     }
 
@@ -31,49 +29,41 @@ public abstract class AccountManager<E extends Account> {
      * <code>Account</code> found in <code>accounts</code>.
      */
     public E getAccount(String username) {
-        for (E account : accounts) {
-            if (account.getUsername().equals(username))
-                return account;
-        }
-        return null;
+        return accounts.get(username);
     }
 
     /**
-     * Get all accounts that satisfy some criterion
+     * Get all accounts that satisfy some criterion. An <code>IndexedCriterion</code> is answered from indexes
+     * instead of checking every account.
      *
      * @param criterion the <code>criterion</code> that will be used to filter <code>users</code>
      * @return a collection of all satisfied <code>users</code>
      */
     public List<E> getAccounts(Criterion<E> criterion) {
-        List<E> result = new ArrayList<>();
-        for (E account : accounts) {
-            if (criterion.accepts(account))
-                result.add(account);
-        }
-        return result;
+        return accounts.query(criterion);
     }
 
     /**
-     * Gets the <code>password</code> of this <code>Account</code>.
+     * Sets the password of this <code>Account</code> to the one stored as <code>storedPassword</code>.
      *
-     * @param account the <code>Account</code> that wants to access <code>password</code>.
-     * @return the <code>password</code> of this <code>Account</code>.
+     * @param account        the <code>Account</code> that wants to change <code>password</code>.
+     * @param storedPassword the stored form of the new password, made by <code>PasswordHasher</code>.
+     * @return <code>ActionReverter</code> of the setting password.
      */
-    public String getPassword(E account) {
-        return account.getPassword();
+    public ActionReverter setPassword(E account, String storedPassword) {
+        ActionReverter a = new SetPasswordReverter(account, account.getPassword(), storedPassword);
+        account.setPassword(storedPassword);
+        return a;
     }
 
     /**
-     * Sets the <code>password</code> of this <code>Account</code>.
+     * Hashes <code>password</code> into the form passwords of new accounts are stored in.
      *
-     * @param account  the <code>Account</code> that wants to change <code>password</code>.
-     * @param password the new <code>password</code> to be set for this <code>Account</code>.
-     * @return <code>ActionReverter</code> of the setting password.
+     * @param password the password to be hashed.
+     * @return the stored form of <code>password</code>.
      */
-    public ActionReverter setPassword(E account, String password) {
-        ActionReverter a = new SetPasswordReverter(account, account.getPassword(), password);
-        account.setPassword(password);
-        return a;
+    protected String hashPassword(String password) {
+        return PasswordHasher.getDefault().hash(password);
     }
 
     /**
@@ -96,6 +86,18 @@ public abstract class AccountManager<E extends Account> {
         return account.getMessageSent();
     }
 
+    /**
+     * Gets the one <code>String</code> kept for <code>username</code>, which is the username of the
+     * <code>Account</code>, so that usernames stored by the system are shared rather than copied.
+     *
+     * @param username the username to be interned.
+     * @return the username of the <code>Account</code>, or <code>username</code> if there is no such
+     * <code>Account</code>.
+     */
+    public String intern(String username) {
+        return accounts.intern(username);
+    }
+
     /**
      * Checks if the <code>username</code> already exists in the system.
      *
@@ -103,10 +105,7 @@ public abstract class AccountManager<E extends Account> {
      * @return true iff the input <code>username</code> already exists in the system
      */
     public boolean usernameExists(String username) {
-        for (E account : accounts) {
-            if (account.getUsername().contentEquals(username)) return true;
-        }
-        return false;
+        return accounts.contains(username);
     }
 
     /* Send the message from sender Account to receiver Account. */
@@ -124,7 +123,7 @@ public abstract class AccountManager<E extends Account> {
      * @param msg    the message <code>sender</code> wants to send.
      */
     public void oneToAllMessage(Account sender, String msg) {
-        for (E e : accounts)
+        for (E e : accounts.getAccounts())
             if (e != sender)
                 oneToOneMessage(sender, e, msg);
     }
@@ -135,6 +134,24 @@ public abstract class AccountManager<E extends Account> {
      * @return <code>accounts</code> stored in this <code>AccountManager</code>.
      */
     protected List<E> getAccounts() {
+        return accounts.getAccounts();
+    }
+
+    /**
+     * The registry of the accounts managed by this <code>AccountManager</code>.
+     *
+     * @return the <code>AccountRegistry</code> of <code>accounts</code>.
+     */
+    protected AccountRegistry<E> getRegistry() {
         return accounts;
     }
+
+    /**
+     * Adds <code>account</code> to the accounts managed by this <code>AccountManager</code>.
+     *
+     * @param account the <code>Account</code> to be added.
+     */
+    protected void addAccount(E account) {
+        accounts.add(account);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package core.account;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Class that keeps a list of one type of accounts together with an index of them by username, so that an
+ * <code>Account</code> is found without going through the whole list.
+ * <p>
+ * The index holds the position of each <code>Account</code> in the list rather than the <code>Account</code>, so
+ * that accounts of a lazily decoded list are only decoded when they are looked up. It is built from the list as it
+ * is used: accounts added to the list, through this registry or not, are indexed at the next lookup. Accounts are
+ * never removed from the system, so the position of an <code>Account</code> is also its id. A list changed in any
+ * other way is noticed as soon as a position found in the index holds a different <code>Account</code>, and the
+ * index is then built again.
+ * <p>
+ * The ids serve as the dictionary of usernames: indexes, including the index of the trades of each user kept by
+ * <code>TradeRegistry</code>, refer to accounts by id, and usernames are only looked up from ids when they are shown.
+ * Usernames kept elsewhere, such as in trades and block lists, can be replaced by the username of the
+ * <code>Account</code> through <code>intern</code>, so that every copy of a username is the same <code>String</code>,
+ * kept once and compared by reference first.
+ * <p>
+ * The registry also keeps <code>AccountIndex</code>es, such as the indexes used to answer queries with an
+ * <code>IndexedCriterion</code>, which are built the first time they are needed. From then on, this registry holds
+ * on to every <code>Account</code> and is told by each of them when it changes. Criteria that aren't indexed are
+ * checked against every <code>Account</code>.
+ * <p>
+ * Passwords verified recently for the accounts are remembered here too, for <code>LoginManager</code>.
+ * <p>
+ * Lookups, changes reported by accounts and the indexes go through this registry one at a time, so sessions of
+ * different users can use it at once. The indexes handed out are changed only while this registry is locked.
+ *
+ * @param <E> the type of account.
+ */
+public class AccountRegistry<E extends Account> {
+    /**
+     * The index of one attribute: the positions of the accounts with each value.
+     *
+     * @param <E> the type of account.
+     * @param <K> the type of value of the attribute.
+     */
+    private static final class AttributeIndex<E extends Account, K extends Comparable<? super K>>
+            implements AccountIndex<E> {
+        private final AccountAttribute<E, K> attribute;
+        private final NavigableMap<K, BitSet> buckets;
+        /* The value of the attribute indexed for the account at each position. */
+        private final List<K> values = new ArrayList<>();
+
+        private AttributeIndex(AccountAttribute<E, K> attribute) {
+            this.attribute = attribute;
+            buckets = new TreeMap<>(attribute.getOrder());
+        }
+
+        @Override
+        public void add(int id, E account) {
+            K value = attribute.valueOf(account);
+            buckets.computeIfAbsent(value, k -> new BitSet()).set(id);
+            values.add(value);
+        }
+
+        @Override
+        public void update(int id, E account) {
+            K previous = values.get(id);
+            K value = attribute.valueOf(account);
+            if (attribute.getOrder().compare(previous, value) == 0) return;
+            BitSet bucket = buckets.get(previous);
+            bucket.clear(id);
+            if (bucket.isEmpty()) buckets.remove(previous);
+            buckets.computeIfAbsent(value, k -> new BitSet()).set(id);
+            values.set(id, value);
+        }
+    }
+
+    private final List<E> accounts;
+    /* The position of the first account with each username, for the accounts before indexed. */
+    private final Map<String, Integer> positions = new HashMap<>();
+    private int indexed;
+    /* The indexes kept, by the key they were asked for with. */
+    private final Map<Object, AccountIndex<E>> indexes = new HashMap<>();
+    /* The accounts before indexed while there are indexes. Holding them makes sure a list that decodes its accounts
+     * keeps giving out the ones whose changes are reported to this registry.
+     */
+    private final List<E> watched = new ArrayList<>();
+    private final Consumer<Account> changeListener = this::accountChanged;
+    private final VerifiedCredentials verifiedCredentials = new VerifiedCredentials();
+
+    /**
+     * Constructs an <code>AccountRegistry</code> of <code>accounts</code>.
+     *
+     * @param accounts a list of <code>Account</code> that contains one type of accounts.
+     */
+    public AccountRegistry(List<E> accounts) {
+        this.accounts = accounts;
+    }
+
+    /**
+     * Gets the <code>Account</code> with the specified <code>username</code>.
+     *
+     * @param username the <code>username</code> of the <code>Account</code> to be searched.
+     * @return the <code>Account</code> with the specified <code>username</code>, or null if there is no such
+     * <code>Account</code>.
+     */
+    public synchronized E get(String username) {
+        E account = find(username);
+        if (account != null || indexed == accounts.size()) return account;
+        indexNewAccounts();
+        return find(username);
+    }
+
+    /**
+     * Checks if an <code>Account</code> with the <code>username</code> exists.
+     *
+     * @param username the <code>username</code> to be checked.
+     * @return true iff an <code>Account</code> has the input <code>username</code>.
+     */
+    public boolean contains(String username) {
+        return get(username) != null;
+    }
+
+    /**
+     * Gets the id of the <code>Account</code> with the specified <code>username</code>, among the accounts indexed
+     * so far. Every <code>Account</code> has been indexed once an <code>AccountIndex</code> is handed out by
+     * <code>getIndex</code>, and the ones added since are indexed before they are given to the indexes.
+     *
+     * @param username the <code>username</code> of the <code>Account</code>.
+     * @return the id of the <code>Account</code>, or -1 if no <code>Account</code> indexed has that username.
+     */
+    public synchronized int idOf(String username) {
+        Integer position = positions.get(username);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Gets the id of the <code>Account</code> with the specified <code>username</code>, indexing the accounts added
+     * to the list if it is not among the ones indexed so far.
+     *
+     * @param username the <code>username</code> of the <code>Account</code>.
+     * @return the id of the <code>Account</code>, or -1 if there is no such <code>Account</code>.
+     */
+    public synchronized int getId(String username) {
+        return get(username) == null ? -1 : idOf(username);
+    }
+
+    /**
+     * Gets the username of the <code>Account</code> with the specified id.
+     *
+     * @param id the id of the <code>Account</code>.
+     * @return the username of the <code>Account</code>.
+     */
+    public synchronized String usernameOf(int id) {
+        return (id < watched.size() ? watched.get(id) : accounts.get(id)).getUsername();
+    }
+
+    /**
+     * Gets the username of the <code>Account</code> with <code>username</code>, which is equal to
+     * <code>username</code> but is the one <code>String</code> kept for it.
+     *
+     * @param username the username to be interned.
+     * @return the username of the <code>Account</code>, or <code>username</code> if there is no such
+     * <code>Account</code>.
+     */
+    public synchronized String intern(String username) {
+        E account = get(username);
+        return account == null ? username : account.getUsername();
+    }
+
+    /* The passwords verified recently for the accounts, kept here so they outlive a LoginManager. */
+    VerifiedCredentials getVerifiedCredentials() {
+        return verifiedCredentials;
+    }
+
+    /**
+     * Adds <code>account</code> to the end of the list.
+     *
+     * @param account the <code>Account</code> to be added.
+     */
+    public synchronized void add(E account) {
+        accounts.add(account);
+        if (indexed == accounts.size() - 1) index(account);
+    }
+
+    /**
+     * Gets the list of accounts in this registry.
+     *
+     * @return the list of accounts.
+     */
+    public List<E> getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Gets all accounts that satisfy <code>criterion</code>, in the order of the list. An
+     * <code>IndexedCriterion</code> is answered from the indexes of its attributes.
+     *
+     * @param criterion the <code>criterion</code> that will be used to filter accounts.
+     * @return a list of all satisfied accounts.
+     */
+    public synchronized List<E> query(Criterion<E> criterion) {
+        List<E> result = new ArrayList<>();
+        if (!(criterion instanceof IndexedCriterion)) {
+            for (E account : accounts) {
+                if (criterion.accepts(account))
+                    result.add(account);
+            }
+            return result;
+        }
+        IndexedCriterion<E> indexedCriterion = (IndexedCriterion<E>) criterion;
+        BitSet selected = null;
+        for (IndexedCriterion.Term<E, ?> term : indexedCriterion.getTerms()) {
+            BitSet matches = select(term);
+            if (selected == null && term.excluding) {
+                selected = new BitSet();
+                selected.set(0, watched.size());
+            }
+            if (selected == null) selected = matches;
+            else if (term.excluding) selected.andNot(matches);
+            else selected.and(matches);
+        }
+        Criterion<E> rest = indexedCriterion.getRest();
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            E account = accounts.get(i);
+            if (rest == null || rest.accepts(account))
+                result.add(account);
+        }
+        return result;
+    }
+
+    private <K extends Comparable<? super K>> BitSet select(IndexedCriterion.Term<E, K> term) {
+        AttributeIndex<E, K> attributeIndex = getIndex(term.attribute, AttributeIndex::new);
+        return term.select.apply(attributeIndex.buckets);
+    }
+
+    /**
+     * Gets the index kept for <code>key</code>, after indexing every <code>Account</code> added since the last
+     * call. If there is no such index yet, it is created by <code>factory</code> and given every
+     * <code>Account</code>.
+     *
+     * @param key     the key of the index, such as its class.
+     * @param factory creates the index.
+     * @param <K>     the type of key.
+     * @param <I>     the type of index.
+     * @return the index kept for <code>key</code>.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <K, I extends AccountIndex<E>> I getIndex(K key, Function<? super K, ? extends I> factory) {
+        indexNewAccounts();
+        I index = (I) indexes.get(key);
+        if (index != null) return index;
+        if (indexes.isEmpty()) {
+            for (int i = 0; i < indexed; i++) watch(accounts.get(i));
+        }
+        index = factory.apply(key);
+        indexes.put(key, index);
+        for (int i = 0; i < watched.size(); i++) index.add(i, watched.get(i));
+        return index;
+    }
+
+    private void watch(E account) {
+        account.setChangeListener(changeListener);
+        watched.add(account);
+    }
+
+    /* Updates the indexes of account, which reported a change. */
+    private synchronized void accountChanged(Account account) {
+        Integer position = positions.get(account.getUsername());
+        int id = position != null && position < watched.size() && watched.get(position) == account ? position :
+                idOfWatched(account);
+        if (id < 0) return;
+        for (AccountIndex<E> index : new ArrayList<>(indexes.values())) index.update(id, watched.get(id));
+    }
+
+    private int idOfWatched(Account account) {
+        for (int i = 0; i < watched.size(); i++) if (watched.get(i) == account) return i;
+        return -1;
+    }
+
+    /* Looks username up in the index, building the index again if it no longer matches the list. */
+    private E find(String username) {
+        Integer position = positions.get(username);
+        if (position == null) return null;
+        if (position < accounts.size()) {
+            E account = accounts.get(position);
+            if (account.getUsername().equals(username)) return account;
+        }
+        clear();
+        indexNewAccounts();
+        position = positions.get(username);
+        return position == null ? null : accounts.get(position);
+    }
+
+    /* Indexes the accounts added to the list since it was last indexed, or all of them if the list got shorter. */
+    private void indexNewAccounts() {
+        if (accounts.size() < indexed) clear();
+        while (indexed < accounts.size()) index(accounts.get(indexed));
+    }
+
+    /* Indexes account, which is at position indexed. */
+    private void index(E account) {
+        int id = indexed++;
+        positions.putIfAbsent(account.getUsername(), id);
+        if (indexes.isEmpty()) return;
+        watch(account);
+        for (AccountIndex<E> index : indexes.values()) index.add(id, account);
+    }
+
+    private void clear() {
+        positions.clear();
+        indexed = 0;
+        for (E account : watched) account.setChangeListener(null);
+        watched.clear();
+        indexes.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package core.account;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.function.Function;
+
+/**
+ * A <code>Criterion</code> made of conditions on <code>AccountAttribute</code>s, and possibly of another criterion
+ * that isn't indexed. <code>AccountRegistry</code> finds the accounts that meet the conditions on attributes from
+ * their indexes, and only checks those accounts against the rest of the criterion.
+ *
+ * @param <E> the type of account.
+ */
+public class IndexedCriterion<E extends Account> implements Criterion<E> {
+    /**
+     * A condition on one attribute, which accepts either the accounts selected from the index of the attribute, or
+     * the accounts not selected if it is excluding.
+     *
+     * @param <E> the type of account.
+     * @param <K> the type of value of the attribute.
+     */
+    static final class Term<E extends Account, K extends Comparable<? super K>> {
+        final AccountAttribute<E, K> attribute;
+        final boolean excluding;
+        /* Gives the positions of the accounts accepted, from the positions of the accounts with each value. */
+        final Function<NavigableMap<K, BitSet>, BitSet> select;
+        final Criterion<E> test;
+
+        private Term(AccountAttribute<E, K> attribute, boolean excluding,
+                     Function<NavigableMap<K, BitSet>, BitSet> select, Criterion<E> test) {
+            this.attribute = attribute;
+            this.excluding = excluding;
+            this.select = select;
+            this.test = test;
+        }
+    }
+
+    private final List<Term<E, ?>> terms;
+    /* The part of the criterion that isn't indexed, or null if there is none. */
+    private final Criterion<E> rest;
+
+    /* Creates a criterion with a single condition, used by AccountAttribute. */
+    <K extends Comparable<? super K>> IndexedCriterion(AccountAttribute<E, K> attribute, boolean excluding,
+                                                      Function<NavigableMap<K, BitSet>, BitSet> select,
+                                                      Criterion<E> test) {
+        this(Collections.singletonList(new Term<>(attribute, excluding, select, test)), null);
+    }
+
+    private IndexedCriterion(List<Term<E, ?>> terms, Criterion<E> rest) {
+        this.terms = terms;
+        this.rest = rest;
+    }
+
+    /**
+     * Gets a criterion that accepts the accounts accepted by both this criterion and <code>other</code>. If
+     * <code>other</code> is an <code>IndexedCriterion</code>, its conditions are answered from the indexes too.
+     *
+     * @param other the other criterion.
+     * @return the criterion.
+     */
+    public IndexedCriterion<E> and(Criterion<E> other) {
+        List<Term<E, ?>> combinedTerms = new ArrayList<>(terms);
+        if (other instanceof IndexedCriterion) combinedTerms.addAll(((IndexedCriterion<E>) other).terms);
+        Criterion<E> otherRest = other instanceof IndexedCriterion ? ((IndexedCriterion<E>) other).rest : other;
+        Criterion<E> thisRest = rest;
+        Criterion<E> combinedRest = thisRest == null ? otherRest : otherRest == null ? thisRest :
+                account -> thisRest.accepts(account) && otherRest.accepts(account);
+        return new IndexedCriterion<>(combinedTerms, combinedRest);
+    }
+
+    @Override
+    public boolean accepts(E account) {
+        for (Term<E, ?> term : terms) if (!term.test.accepts(account)) return false;
+        return rest == null || rest.accepts(account);
+    }
+
+    /* Accessors used by AccountRegistry to answer this criterion. */
+
+    List<Term<E, ?>> getTerms() {
+        return terms;
+    }
+
+    Criterion<E> getRest() {
+        return rest;
+    }
+}
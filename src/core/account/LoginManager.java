@@ -1,20 +1,40 @@
 package core.account;
 
-import java.util.List;
-
 /**
  * Class that logs <code>Account</code>s in.
+ * <p>
+ * Accounts are found by username through their <code>AccountRegistry</code>, and passwords are checked against
+ * their stored form with <code>PasswordHasher</code>. A password not hashed with the current cost is hashed again
+ * once it is verified. Passwords verified recently are remembered by the registry, so logging in again doesn't
+ * hash the password again.
+ * <p>
+ * A login is checked in two steps, so that sessions sharing the data only need to hold it for the second:
+ * <code>verify</code> checks the password against the stored form read beforehand, and <code>update</code> stores
+ * the password hashed again, if the stored form is still the one verified.
  */
 public class LoginManager<E extends Account> {
-    private final List<E> accounts;
+    private final AccountRegistry<E> accounts;
+    private final PasswordHasher hasher;
+
+    /**
+     * Creates a <code>LoginManager</code> with a registry of <code>Account</code> <code>accounts</code>.
+     *
+     * @param accounts A registry of one type of <code>Account</code>s using this system
+     */
+    public LoginManager(AccountRegistry<E> accounts) {
+        this(accounts, PasswordHasher.getDefault());
+    }
 
     /**
-     * Creates a <code>LoginManager</code> with a list of <code>Account</code> <code>accounts</code>.
+     * Creates a <code>LoginManager</code> with a registry of <code>Account</code> <code>accounts</code>, which hashes
+     * passwords again with <code>hasher</code>.
      *
-     * @param accounts A list of one type of <code>Account</code>s using this system
+     * @param accounts A registry of one type of <code>Account</code>s using this system
+     * @param hasher   the <code>PasswordHasher</code> passwords are hashed again with.
      */
-    public LoginManager(List<E> accounts) {
+    public LoginManager(AccountRegistry<E> accounts, PasswordHasher hasher) {
         this.accounts = accounts;
+        this.hasher = hasher;
     }
 
     /**
@@ -27,9 +47,55 @@ public class LoginManager<E extends Account> {
      * in <code>accounts</code>.
      */
     public boolean verifyAccount(String username, String password) {
-        for (Account a : accounts) {
-            if (a.getUsername().equals(username) && a.getPassword().equals(password)) return true;
-        }
-        return false;
+        E account = getAccount(username);
+        if (account == null) return false;
+        String stored = account.getPassword();
+        String updated = verify(account, stored, password);
+        return updated != null && update(account, stored, updated, password);
+    }
+
+    /**
+     * Gets the <code>Account</code> with <code>username</code>.
+     *
+     * @param username the <code>username</code> of a possible <code>Account</code>.
+     * @return the <code>Account</code>, or null if there is none.
+     */
+    public E getAccount(String username) {
+        return accounts.get(username);
+    }
+
+    /**
+     * Checks <code>password</code> against <code>stored</code>, the password <code>account</code> had when it was
+     * looked up, without changing <code>account</code>. Hashing takes long, so it is meant to be called without
+     * holding the data.
+     *
+     * @param account  the <code>Account</code> logging in.
+     * @param stored   the stored form of the password of <code>account</code>.
+     * @param password the password given.
+     * @return the form the password is to be stored in once verified, which is <code>stored</code> unless it is hashed
+     * again, or null if <code>password</code> is not the password stored.
+     */
+    public String verify(Account account, String stored, String password) {
+        if (password == null) return null;
+        if (accounts.getVerifiedCredentials().contains(account, stored, password)) return stored;
+        if (!PasswordHasher.verify(stored, password)) return null;
+        return hasher.needsRehash(stored) ? hasher.hash(password) : stored;
+    }
+
+    /**
+     * Completes the login of <code>account</code> with a password verified against <code>stored</code>: stores it as
+     * <code>updated</code> and remembers it as verified, unless the password of <code>account</code> changed since.
+     *
+     * @param account  the <code>Account</code> logging in.
+     * @param stored   the stored form the password was verified against.
+     * @param updated  the form the password is to be stored in, as given by <code>verify</code>.
+     * @param password the password verified.
+     * @return true iff <code>account</code> still had the password verified.
+     */
+    public boolean update(Account account, String stored, String updated, String password) {
+        if (!stored.equals(account.getPassword())) return false;
+        if (!updated.equals(stored)) account.setPassword(updated);
+        accounts.getVerifiedCredentials().add(account, password);
+        return true;
     }
 }
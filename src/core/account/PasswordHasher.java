@@ -0,0 +1,139 @@
+package core.account;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Class that turns passwords into the form they are stored in, and checks passwords against a stored form.
+ * <p>
+ * A password is stored as a salted PBKDF2 hash together with its salt and its number of iterations, so the cost can
+ * be raised without making passwords stored before unusable: they are still checked with the iterations they were
+ * hashed with, and hashed again with the current cost the next time their <code>Account</code> logs in. Accounts
+ * saved before passwords were hashed store them as they are, and are checked and hashed again the same way.
+ * <p>
+ * The number of iterations used is set by the <code>password.iterations</code> system property.
+ */
+public final class PasswordHasher {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final int DEFAULT_ITERATIONS = 100000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final PasswordHasher DEFAULT =
+            new PasswordHasher(Integer.getInteger("password.iterations", DEFAULT_ITERATIONS));
+
+    private final int iterations;
+
+    /**
+     * Constructs a <code>PasswordHasher</code> that hashes passwords with <code>iterations</code> iterations.
+     *
+     * @param iterations the cost of hashing a password, at least 1.
+     */
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) throw new IllegalArgumentException("Iterations must be positive: " + iterations);
+        this.iterations = iterations;
+    }
+
+    /**
+     * Gets the <code>PasswordHasher</code> used by the system.
+     *
+     * @return the <code>PasswordHasher</code> with the number of iterations set for the system.
+     */
+    public static PasswordHasher getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the number of iterations passwords are hashed with.
+     *
+     * @return the cost of hashing a password.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Hashes <code>password</code> with a new random salt.
+     *
+     * @param password the password to be hashed.
+     * @return the stored form of <code>password</code>.
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" +
+                encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * Checks if <code>password</code> is the password stored as <code>stored</code>.
+     *
+     * @param stored   the stored form of a password, hashed or not.
+     * @param password the password to be checked.
+     * @return true iff <code>password</code> is the password stored.
+     */
+    public static boolean verify(String stored, String password) {
+        if (stored == null || password == null) return false;
+        if (!isHashed(stored))
+            return MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                    password.getBytes(StandardCharsets.UTF_8));
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) return false;
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[2]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, decoder.decode(parts[1]),
+                    Integer.parseInt(parts[0])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if a password stored as <code>stored</code> should be hashed again, because it isn't hashed or was
+     * hashed at a lower cost than this <code>PasswordHasher</code> uses.
+     *
+     * @param stored the stored form of a password.
+     * @return true iff the password should be hashed again once it is known.
+     */
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) return true;
+        String cost = stored.substring(PREFIX.length(), stored.indexOf('$', PREFIX.length()));
+        try {
+            return Integer.parseInt(cost) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Checks if <code>stored</code> is a hashed password rather than a password stored as it is.
+     *
+     * @param stored the stored form of a password.
+     * @return true iff <code>stored</code> is a hash made by a <code>PasswordHasher</code>.
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX) && stored.indexOf('$', PREFIX.length()) > 0;
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        char[] chars = password.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+}
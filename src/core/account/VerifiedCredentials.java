@@ -0,0 +1,92 @@
+package core.account;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the passwords recently verified for accounts, so that logging in again, such as after every
+ * guest session, doesn't pay the cost of hashing the password each time. The least recently verified entries are
+ * dropped first.
+ * <p>
+ * Passwords are not kept: an entry holds a SHA-256 digest of the password together with the stored form it was
+ * verified against, and only counts for the same <code>Account</code> while its stored password is unchanged.
+ */
+class VerifiedCredentials {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final class Verification {
+        private final Account account;
+        private final String stored;
+        private final byte[] digest;
+
+        private Verification(Account account, String stored, byte[] digest) {
+            this.account = account;
+            this.stored = stored;
+            this.digest = digest;
+        }
+    }
+
+    private final Map<String, Verification> entries;
+
+    /**
+     * Constructs an empty cache that keeps the default number of entries.
+     */
+    VerifiedCredentials() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty cache that keeps at most <code>capacity</code> entries.
+     *
+     * @param capacity the number of entries kept.
+     */
+    VerifiedCredentials(int capacity) {
+        entries = new LinkedHashMap<String, Verification>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verification> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Checks if <code>password</code> was verified for <code>account</code> while it had the password stored as
+     * <code>stored</code>.
+     *
+     * @param account  the <code>Account</code> logging in.
+     * @param stored   the stored form of the password of <code>account</code>.
+     * @param password the password given.
+     * @return true iff <code>password</code> is known to be the password stored as <code>stored</code>.
+     */
+    synchronized boolean contains(Account account, String stored, String password) {
+        Verification v = entries.get(account.getUsername());
+        return v != null && v.account == account && v.stored.equals(stored) &&
+                MessageDigest.isEqual(v.digest, digest(v.stored, password));
+    }
+
+    /**
+     * Remembers that <code>password</code> is the password of <code>account</code>.
+     *
+     * @param account  the <code>Account</code> that logged in.
+     * @param password the password verified.
+     */
+    synchronized void add(Account account, String password) {
+        String stored = account.getPassword();
+        entries.put(account.getUsername(), new Verification(account, stored, digest(stored, password)));
+    }
+
+    /* Digest of password salted with the stored form it was verified against. */
+    private static byte[] digest(String stored, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(stored.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
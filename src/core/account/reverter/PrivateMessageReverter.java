@@ -7,6 +7,8 @@ import core.reverter.ActionReverter;
  * A reverter responsible for reverting private message send by an <code>Account</code>.
  */
 public class PrivateMessageReverter extends ActionReverter {
+    private static final long serialVersionUID = -7007982403457625144L;
+
     private final Account sender, receiver;
     private final String message;
 
@@ -24,6 +26,33 @@ public class PrivateMessageReverter extends ActionReverter {
         this.message = message;
     }
 
+    /**
+     * Gets <code>sender</code> stored in this reverter.
+     *
+     * @return <code>sender</code> of this reverter.
+     */
+    public Account getSender() {
+        return sender;
+    }
+
+    /**
+     * Gets <code>receiver</code> stored in this reverter.
+     *
+     * @return <code>receiver</code> of this reverter.
+     */
+    public Account getReceiver() {
+        return receiver;
+    }
+
+    /**
+     * Gets <code>message</code> stored in this reverter.
+     *
+     * @return <code>message</code> of this reverter.
+     */
+    public String getMessage() {
+        return message;
+    }
+
     /**
      * Reverts the action of an <code>Account</code> sending message to another <code>Account</code>. Action undo will
      * only be successful if the string message sent is in the sender's list of <code>massageSent</code>.
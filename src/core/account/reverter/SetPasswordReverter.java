@@ -1,12 +1,18 @@
 package core.account.reverter;
 
 import core.account.Account;
+import core.account.PasswordHasher;
 import core.reverter.ActionReverter;
 
 /**
  * A reverter responsible for reverting set password by an <code>Account</code>.
+ * <p>
+ * The passwords are kept in the form they are stored in by the <code>Account</code>, so they are hashed unless the
+ * reverter was made before passwords were hashed.
  */
 public class SetPasswordReverter extends ActionReverter {
+    private static final long serialVersionUID = -5415758537743186789L;
+
     private final Account user;
     private final String oldPassword, newPassword;
 
@@ -14,8 +20,8 @@ public class SetPasswordReverter extends ActionReverter {
      * Construct a Action with a list of <code>meetings</code> and <code>reportedUsers</code>
      *
      * @param user        the user who changed password
-     * @param oldPassword the old password changed
-     * @param newPassword the new password changed to.
+     * @param oldPassword the stored form of the old password changed
+     * @param newPassword the stored form of the new password changed to.
      */
     public SetPasswordReverter(Account user, String oldPassword, String newPassword) {
         super(user.getUsername());
@@ -24,6 +30,33 @@ public class SetPasswordReverter extends ActionReverter {
         this.newPassword = newPassword;
     }
 
+    /**
+     * Gets <code>user</code> stored in this reverter.
+     *
+     * @return <code>user</code> of this reverter.
+     */
+    public Account getUser() {
+        return user;
+    }
+
+    /**
+     * Gets <code>oldPassword</code> stored in this reverter.
+     *
+     * @return <code>oldPassword</code> of this reverter.
+     */
+    public String getOldPassword() {
+        return oldPassword;
+    }
+
+    /**
+     * Gets <code>newPassword</code> stored in this reverter.
+     *
+     * @return <code>newPassword</code> of this reverter.
+     */
+    public String getNewPassword() {
+        return newPassword;
+    }
+
     /**
      * Reverts the action of an <code>Account</code> sending message to another <code>Account</code>. Action undo will
      * only be successful if the string message sent is in the sender's list of <code>massageSent</code>.
@@ -32,10 +65,17 @@ public class SetPasswordReverter extends ActionReverter {
      */
     @Override
     public String execute() {
-        if (!user.getPassword().equals(newPassword))
+        if (!isNewPasswordStored())
             return "Action undo failed! User Changed Password Again.";
         user.setPassword(oldPassword);
-        return "Password has been set back to " + oldPassword + " from " + newPassword;
+        return "Password has been set back.";
+    }
+
+    /* A new password kept as it is may have been hashed since, when the user logged in. */
+    private boolean isNewPasswordStored() {
+        String stored = user.getPassword();
+        return stored.equals(newPassword) ||
+                !PasswordHasher.isHashed(newPassword) && PasswordHasher.verify(stored, newPassword);
     }
 
     /**
@@ -55,7 +95,7 @@ public class SetPasswordReverter extends ActionReverter {
      */
     @Override
     public String getActionDescriptionReverted() {
-        return "Password set to " + oldPassword + " from " + newPassword;
+        return "Password of " + user.getUsername() + " changed";
     }
 
 }
@@ -8,6 +8,8 @@ import java.io.Serializable;
  * Represents an administrator in this system.
  */
 public class Admin extends Account implements Serializable {
+    private static final long serialVersionUID = -1399794849829958548L;
+
     private final boolean isInitialAdmin;
 
     /**
@@ -1,6 +1,7 @@
 package core.admin;
 
 import core.account.AccountManager;
+import core.account.AccountRegistry;
 import genericdatatype.Pair;
 
 import java.text.MessageFormat;
@@ -14,14 +15,15 @@ import java.util.Objects;
  */
 public class AdminAccountManager extends AccountManager<Admin> {
     private List<Pair<Admin, String>> adminCreationRequest;
+    private boolean emailNotification = true;
 
     /**
      * Construct an <code>AdminInfoManager</code>
      *
-     * @param admins               the list of all <code>admin</code>s
+     * @param admins               the registry of all <code>admin</code>s
      * @param adminCreationRequest adminCreationRequest the request of creating new <code>Admin</code>
      */
-    public AdminAccountManager(List<Admin> admins, List<Pair<Admin, String>> adminCreationRequest) {
+    public AdminAccountManager(AccountRegistry<Admin> admins, List<Pair<Admin, String>> adminCreationRequest) {
         super(admins);
         this.adminCreationRequest = adminCreationRequest;
     }
@@ -29,43 +31,53 @@ public class AdminAccountManager extends AccountManager<Admin> {
     /**
      * Construct an <code>AdminInfoManager</code>
      *
-     * @param admins the list of all <code>admin</code>s
+     * @param admins the registry of all <code>admin</code>s
      */
-    public AdminAccountManager(List<Admin> admins) {
+    public AdminAccountManager(AccountRegistry<Admin> admins) {
         super(admins);
     }
 
+    /**
+     * Sets whether the result of an admin creation request is sent to the requester by email.
+     *
+     * @param emailNotification true iff emails should be sent.
+     */
+    public void setEmailNotification(boolean emailNotification) {
+        this.emailNotification = emailNotification;
+    }
+
     /**
      * Requests to create an <code>Admin</code> with input <code>username</code> and <code>password</code>, and an
      * <code>Email</code> address is also needed for this <code>Admin</code> to receive any notification about the result
      * of this <code>Admin</code> account creation
      *
-     * @param username The <code>username</code> that the <code>Admin</code> wants to use
-     * @param password The <code>password</code> that the <code>Admin</code> wants to use
-     * @param email    The <code>email</code> that the <code>Admin</code> wants to use to receive any notification of
-     *                 the result
+     * @param username       The <code>username</code> that the <code>Admin</code> wants to use
+     * @param storedPassword The stored form of the <code>password</code> that the <code>Admin</code> wants to use,
+     *                       made by <code>PasswordHasher</code>
+     * @param email          The <code>email</code> that the <code>Admin</code> wants to use to receive any
+     *                       notification of the result
      * @return a boolean, true if and only if the request is successfully created by <code>admin</code>
      */
-    public boolean requestAdminCreation(String username, String password, String email) {
+    public boolean requestAdminCreation(String username, String storedPassword, String email) {
         for (Pair<Admin, String> pair : adminCreationRequest) {
             if (pair.value1.getUsername().equals(username) || pair.value2.equals(email))
                 return false;
         }
-        adminCreationRequest.add(new Pair<>(new Admin(username, password, false), email));
+        adminCreationRequest.add(new Pair<>(new Admin(username, storedPassword, false), email));
         return true;
     }
 
     /**
      * Creates an <code>Admin</code>
      *
-     * @param username the username of the admin
-     * @param password the password of the admin
+     * @param username       the username of the admin
+     * @param storedPassword the stored form of the password of the admin, made by <code>PasswordHasher</code>
      * @return true if successful
      */
-    public boolean createAdmin(String username, String password) {
+    public boolean createAdmin(String username, String storedPassword) {
         if (usernameExists(username))
             return false;
-        getAccounts().add(new Admin(username, password, false));
+        addAccount(new Admin(username, storedPassword, false));
         return true;
     }
 
@@ -76,8 +88,8 @@ public class AdminAccountManager extends AccountManager<Admin> {
      * @param password the password of the new admin
      */
     public void createInitialAdmin(String username, String password) {
-        Admin admin = new Admin(username, password, true);
-        getAccounts().add(admin);
+        Admin admin = new Admin(username, hashPassword(password), true);
+        addAccount(admin);
     }
 
     /**
@@ -107,11 +119,10 @@ public class AdminAccountManager extends AccountManager<Admin> {
         if (Objects.requireNonNull(getAccount(currAdminUsername)).notInitialAdmin())
             return false;
         adminCreationRequest.remove(request);
-        getAccounts().add(request.value1);
+        addAccount(request.value1);
         EmailSender emailSender = new EmailSender(request.value2, MessageFormat.format("Your admin " +
-                        "creation request of username {0} and password {1} has been accepted! ",
-                request.value1.getUsername(), request.value1.getPassword()));
-        emailSender.sendEmail();
+                        "creation request of username {0} has been accepted! ", request.value1.getUsername()));
+        if (emailNotification) emailSender.sendEmail();
         return true;
     }
 
@@ -130,9 +141,8 @@ public class AdminAccountManager extends AccountManager<Admin> {
 
         adminCreationRequest.remove(request);
         EmailSender emailSender = new EmailSender(request.value2, MessageFormat.format("Your admin " +
-                        "creation request of username {0} and password {1} has been denied. ",
-                request.value1.getUsername(), request.value1.getPassword()));
-        emailSender.sendEmail();
+                        "creation request of username {0} has been denied. ", request.value1.getUsername()));
+        if (emailNotification) emailSender.sendEmail();
         return true;
     }
 }
@@ -6,6 +6,8 @@ import java.io.Serializable;
  * Represents an item that can be traded in the system.
  */
 public class Item implements Serializable {
+    private static final long serialVersionUID = 6793706050759862182L;
+
     private final String type;
     private final String name;
     private final String description;
@@ -54,6 +56,15 @@ public class Item implements Serializable {
         return type;
     }
 
+    /**
+     * Gets the <code>description</code> of this item.
+     *
+     * @return the <code>description</code> of this item.
+     */
+    public String getDescription() {
+        return description;
+    }
+
     /**
      * Gives a string representation of this item.
      *
@@ -2,17 +2,22 @@ package core.meeting;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.function.Consumer;
 
 /**
  * Represent a meeting between two users using this system.
  */
 public class Meeting implements Serializable {
+    private static final long serialVersionUID = 788161952524058922L;
+
     private String location;
     private LocalDateTime meetingTime;
     private final int[] timesEdited;
     private final Boolean[] meetingConfirmed;
     private final Boolean[] meetingOccurred;
     private final int meetingId;
+    /* Told when the time, confirmation or occurrence changes, by the MeetingDeadlines scheduling this meeting. */
+    private transient Consumer<Meeting> changeListener;
 
     /**
      * Creates a meeting with its <code>location</code>, <code>meetingTime</code>, and unique <code>meetingId</code> as
@@ -93,6 +98,7 @@ public class Meeting implements Serializable {
      */
     public void setMeetingTime(LocalDateTime meetingTime) {
         this.meetingTime = meetingTime;
+        changed();
     }
 
     /**
@@ -117,6 +123,7 @@ public class Meeting implements Serializable {
      */
     public void setMeetingConfirmed(int userOrder, boolean confirmed) {
         meetingConfirmed[userOrder] = confirmed;
+        changed();
     }
 
     /**
@@ -147,6 +154,16 @@ public class Meeting implements Serializable {
      */
     public void setMeetingOccurred(int userOrder, boolean occurred) {
         meetingOccurred[userOrder] = occurred;
+        changed();
+    }
+
+    /* Sets the listener told about changes of time, confirmation and occurrence, used by MeetingDeadlines. */
+    void setChangeListener(Consumer<Meeting> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void changed() {
+        if (changeListener != null) changeListener.accept(this);
     }
 
     /**
@@ -0,0 +1,119 @@
+package core.meeting;
+
+import genericdatatype.Pair;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Class that keeps the <code>Meeting</code>s that are arranged but have not occurred in a queue ordered by their
+ * time, so that the meetings that became late are found without going through all meetings.
+ * <p>
+ * A <code>Meeting</code> is late once its time has past for <code>maxMeetingLateTime</code> days. Every meeting
+ * has the same number of days, so the order of the time of meetings is the order in which they become late, and the
+ * queue doesn't change when the number of days does. The queue is built from the list of meetings the first time
+ * meetings are polled. Meetings created later are added to it by <code>MeetingManager</code>, and each
+ * <code>Meeting</code> tells this queue when it changes, which schedules it again once it is arranged.
+ * <p>
+ * Entries of meetings that changed since they were scheduled are only dropped when they reach the head of the
+ * queue, so polling takes time in proportion to the meetings that became late, not to all meetings.
+ * <p>
+ * Polls and changes reported by meetings go through this queue one at a time, so sessions of different users can
+ * use it at once.
+ */
+public class MeetingDeadlines {
+    private final List<Meeting> meetings;
+    private final PriorityQueue<Pair<LocalDateTime, Meeting>> queue =
+            new PriorityQueue<>((a, b) -> a.value1.compareTo(b.value1));
+    /* The time each meeting in the queue is scheduled at, so changes that leave it the same don't add entries. */
+    private final Map<Meeting, LocalDateTime> scheduled = new IdentityHashMap<>();
+    private final Consumer<Meeting> changeListener = this::schedule;
+    private boolean built;
+
+    /**
+     * Constructs the <code>MeetingDeadlines</code> of <code>meetings</code>.
+     *
+     * @param meetings a list of all <code>Meeting</code>s in the system.
+     */
+    public MeetingDeadlines(List<Meeting> meetings) {
+        this.meetings = meetings;
+    }
+
+    /**
+     * Checks whether a poll at <code>now</code> might find late meetings, without going through the list of
+     * meetings, so that callers can skip polling without holding the data.
+     *
+     * @param now                the current time.
+     * @param maxMeetingLateTime the number of days after its time a <code>Meeting</code> is late.
+     * @return false if no <code>Meeting</code> is late at <code>now</code>.
+     */
+    public synchronized boolean mayHaveLate(LocalDateTime now, int maxMeetingLateTime) {
+        return !built || !queue.isEmpty() && isLate(queue.peek().value1, now, maxMeetingLateTime);
+    }
+
+    /**
+     * Takes every <code>Meeting</code> that is late at <code>now</code> out of the queue. A <code>Meeting</code>
+     * is not found again unless it is arranged again, or its time is changed, so unlike going through every meeting,
+     * a late meeting whose trade is set going again after it was abandoned is not found again until then.
+     *
+     * @param now                the current time.
+     * @param maxMeetingLateTime the number of days after its time a <code>Meeting</code> is late.
+     * @return the meetings that became late since the last poll, in the order they became late.
+     */
+    public synchronized List<Meeting> pollLate(LocalDateTime now, int maxMeetingLateTime) {
+        if (!built) build();
+        List<Meeting> late = new ArrayList<>();
+        while (!queue.isEmpty() && isLate(queue.peek().value1, now, maxMeetingLateTime)) {
+            Pair<LocalDateTime, Meeting> entry = queue.poll();
+            Meeting meeting = entry.value2;
+            if (scheduled.get(meeting) != entry.value1) continue;
+            scheduled.remove(meeting);
+            if (isPending(meeting) && entry.value1.equals(meeting.getMeetingTime())) late.add(meeting);
+        }
+        return late;
+    }
+
+    /**
+     * Adds a <code>Meeting</code> newly added to the list of meetings, which is scheduled once it is arranged.
+     *
+     * @param meeting the <code>Meeting</code> added.
+     */
+    public synchronized void add(Meeting meeting) {
+        /* Until the queue is built, meetings are found in the list. */
+        if (!built) return;
+        meeting.setChangeListener(changeListener);
+        schedule(meeting);
+    }
+
+    /* Schedules meeting at its time if it is arranged and has not occurred. */
+    private synchronized void schedule(Meeting meeting) {
+        if (!isPending(meeting) || meeting.getMeetingTime() == null) return;
+        LocalDateTime time = meeting.getMeetingTime();
+        if (time.equals(scheduled.get(meeting))) return;
+        scheduled.put(meeting, time);
+        queue.add(new Pair<>(time, meeting));
+    }
+
+    private void build() {
+        for (Meeting meeting : meetings) {
+            if (meeting == null) continue;
+            meeting.setChangeListener(changeListener);
+            schedule(meeting);
+        }
+        built = true;
+    }
+
+    private static boolean isPending(Meeting meeting) {
+        return meeting.getMeetingConfirmed(0) && meeting.getMeetingConfirmed(1)
+                && !(meeting.getMeetingOccurred(0) && meeting.getMeetingOccurred(1));
+    }
+
+    private static boolean isLate(LocalDateTime time, LocalDateTime now, int maxMeetingLateTime) {
+        return now.isAfter(time.plusDays(maxMeetingLateTime));
+    }
+}
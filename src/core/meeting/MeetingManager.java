@@ -1,10 +1,12 @@
 package core.meeting;
 
+import core.IdSequence;
 import core.meeting.reverter.ConfirmMeetingArrangementReverter;
 import core.meeting.reverter.ConfirmMeetingOccurrenceReverter;
 import core.meeting.reverter.EditMeetingReverter;
 import core.reverter.ActionReverter;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,41 +15,38 @@ import java.util.List;
  * Class that manage actions and information stored in <code>Meeting</code> and meeting-related thresholds.
  */
 public class MeetingManager {
-    private final List<Meeting> meetings;
+    private final MeetingRegistry meetings;
+    private final MeetingDeadlines deadlines;
     private int maxMeetingEdits;
-    private int newestMeetingId;
+    private final IdSequence meetingIds;
     private int maxMeetingLateTime;
+    private final Clock clock;
 
     /**
      * Construct a <code>UserMeetingManager</code> with a collection of <code>meetings</code>,
-     * <code>maxMeetingEdits</code>, <code>newestMeetingID</code>. <code>maxMeetingLateTime</code>.
+     * <code>maxMeetingEdits</code>, <code>meetingIds</code>. <code>maxMeetingLateTime</code>.
      *
-     * @param meetings           a collection of <code>meeting</code>s in the system.
+     * @param meetings           a registry of the <code>meeting</code>s in the system.
+     * @param deadlines          the <code>MeetingDeadlines</code> of <code>meetings</code>, shared by all sessions.
      * @param maxMeetingEdits    maximum number of editing time and place an user can do to a <code>meeting</code>.
-     * @param newestMeetingId    a new ID that has not been assigned to any <code>meeting</code> in the system.
+     * @param meetingIds         the <code>IdSequence</code> that gives out the ids of <code>meeting</code>s.
      * @param maxMeetingLateTime the maximum number of day user have to confirm meeting occurred.
+     * @param clock              the <code>Clock</code> used to decide whether a <code>meeting</code> is late.
      */
-    public MeetingManager(List<Meeting> meetings, int maxMeetingEdits, int newestMeetingId, int maxMeetingLateTime) {
+    public MeetingManager(MeetingRegistry meetings, MeetingDeadlines deadlines, int maxMeetingEdits,
+                          IdSequence meetingIds, int maxMeetingLateTime, Clock clock) {
         this.meetings = meetings;
+        this.deadlines = deadlines;
         this.maxMeetingEdits = maxMeetingEdits;
-        this.newestMeetingId = newestMeetingId;
+        this.meetingIds = meetingIds;
         this.maxMeetingLateTime = maxMeetingLateTime;
-    }
-
-    /**
-     * Return the newest meeting id
-     *
-     * @return the newest meeting id
-     */
-    public int getNewestMeetingId() {
-        return newestMeetingId;
+        this.clock = clock;
     }
 
     /* A helper function that get meeting from meetingID,take in a meetingId, return the corresponding
      meeting of this meetingId */
     private Meeting getMeeting(int meetingId) {
-        for (Meeting meeting : meetings) if (meeting.getMeetingId().equals(meetingId)) return meeting;
-        return null;
+        return meetings.get(meetingId);
     }
 
     /**
@@ -73,10 +72,11 @@ public class MeetingManager {
      * @return The meetingId generated for the meeting.
      */
     public int createMeeting(String location, LocalDateTime time, int userOrder) {
-        Meeting meeting = new Meeting(location, time, ++newestMeetingId);
+        Meeting meeting = new Meeting(location, time, meetingIds.next());
         meeting.setMeetingConfirmed(userOrder, true);
         meeting.setTimesEdited(userOrder, meeting.getTimesEdited(userOrder) + 1);
-        meetings.add(meeting);
+        meetings.getMeetings().add(meeting);
+        deadlines.add(meeting);
         return meeting.getMeetingId();
     }
 
@@ -104,7 +104,7 @@ public class MeetingManager {
         return !meeting.getMeetingConfirmed(userOrder) && meeting.getMeetingConfirmed(Math.abs(userOrder - 1));
     }
 
-    /* Called by canConfirmMeetingOccurred and getLateMeetingIds to check whether a meeting can be arranged */
+    /* Called by canConfirmMeetingOccurred to check whether a meeting can be arranged */
     private boolean meetingArranged(int meetingId) {
         Meeting meeting = getMeeting(meetingId);
         if (meeting != null) return meeting.getMeetingConfirmed(0) && meeting.getMeetingConfirmed(1);
@@ -197,23 +197,30 @@ public class MeetingManager {
     }
 
     /**
-     * Gets a list of id from meetings that is late. A <code>Meeting</code> is late if <code>time</code> arranged and
-     * confirmed has past for <code>maxMeetingLateTime</code> days.
+     * Gets a list of id from meetings that became late since the last time they were looked for. A
+     * <code>Meeting</code> is late if <code>time</code> arranged and confirmed has past for
+     * <code>maxMeetingLateTime</code> days. A late <code>Meeting</code> is only found once, unless it is arranged
+     * again.
      *
-     * @return a list of id from meetings that is late.
+     * @return a list of id from meetings that became late.
      */
     public List<Integer> getLateMeetingIds() {
         List<Integer> lateMeetingIds = new ArrayList<>();
-        for (Meeting meeting : meetings) {
-            if (meeting != null && meetingArranged(meeting.getMeetingId()) && !meetingOccurred(meeting.getMeetingId()) &&
-                    LocalDateTime.now().isAfter(meeting.getMeetingTime().withDayOfMonth(
-                            meeting.getMeetingTime().getDayOfMonth() + maxMeetingLateTime))) {
-                lateMeetingIds.add(meeting.getMeetingId());
-            }
-        }
+        for (Meeting meeting : deadlines.pollLate(LocalDateTime.now(clock), maxMeetingLateTime))
+            lateMeetingIds.add(meeting.getMeetingId());
         return lateMeetingIds;
     }
 
+    /**
+     * Checks whether <code>getLateMeetingIds</code> might find meetings that became late, without going through
+     * the meetings, so it can be skipped without holding the data.
+     *
+     * @return false if no <code>Meeting</code> became late.
+     */
+    public boolean mayHaveLateMeetings() {
+        return deadlines.mayHaveLate(LocalDateTime.now(clock), maxMeetingLateTime);
+    }
+
     /**
      * Set the given threshold type to the threshold value
      *
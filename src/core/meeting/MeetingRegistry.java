@@ -0,0 +1,70 @@
+package core.meeting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that keeps the list of all <code>Meeting</code>s together with an index of them by id, so that a
+ * <code>Meeting</code> is found without going through the whole list.
+ * <p>
+ * The index is built from the list the first time it is needed. Meetings added to the end of the list are indexed at
+ * the next lookup. Should a <code>Meeting</code> indexed be taken out of the list, which is noticed as soon as the
+ * last position indexed holds a different <code>Meeting</code>, the index is built again. A <code>Meeting</code> found
+ * is got from the list again, so that a list that writes the elements it hands out through to storage knows it may
+ * be changed.
+ * <p>
+ * Lookups go through this registry one at a time, so sessions of different users can use it at once.
+ */
+public class MeetingRegistry {
+    private final List<Meeting> meetings;
+    /* The meetings indexed, by position. */
+    private final List<Meeting> indexed = new ArrayList<>();
+    /* The position of the first meeting with each id. */
+    private final Map<Integer, Integer> positions = new HashMap<>();
+
+    /**
+     * Constructs a <code>MeetingRegistry</code> of <code>meetings</code>.
+     *
+     * @param meetings a list of all <code>Meeting</code>s in the system.
+     */
+    public MeetingRegistry(List<Meeting> meetings) {
+        this.meetings = meetings;
+    }
+
+    /**
+     * Gets the list of meetings in this registry.
+     *
+     * @return the list of all <code>Meeting</code>s.
+     */
+    public List<Meeting> getMeetings() {
+        return meetings;
+    }
+
+    /**
+     * Finds the <code>Meeting</code> with id <code>meetingId</code>.
+     *
+     * @param meetingId id of the <code>Meeting</code>.
+     * @return the first <code>Meeting</code> in the list with <code>meetingId</code>, or null if there is none.
+     */
+    public synchronized Meeting get(int meetingId) {
+        update();
+        Integer position = positions.get(meetingId);
+        return position == null ? null : meetings.get(position);
+    }
+
+    /* Indexes the meetings added since the last lookup, or all of them if a meeting indexed was removed. */
+    private void update() {
+        int count = indexed.size();
+        if (meetings.size() < count || count > 0 && meetings.get(count - 1) != indexed.get(count - 1)) {
+            indexed.clear();
+            positions.clear();
+        }
+        while (indexed.size() < meetings.size()) {
+            Meeting meeting = meetings.get(indexed.size());
+            if (meeting != null) positions.putIfAbsent(meeting.getMeetingId(), indexed.size());
+            indexed.add(meeting);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import core.reverter.ActionReverter;
  * Reverts the action of a <code>User</code> confirm the arrangement of a <code>Meeting</code>.
  */
 public class ConfirmMeetingArrangementReverter extends ActionReverter {
+    private static final long serialVersionUID = 1209084499285644357L;
+
     private final Meeting meeting;
     private final int userOrder;
 
@@ -26,6 +28,24 @@ public class ConfirmMeetingArrangementReverter extends ActionReverter {
         this.userOrder = userOrder;
     }
 
+    /**
+     * Gets <code>meeting</code> stored in this reverter.
+     *
+     * @return <code>meeting</code> of this reverter.
+     */
+    public Meeting getMeeting() {
+        return meeting;
+    }
+
+    /**
+     * Gets <code>userOrder</code> stored in this reverter.
+     *
+     * @return <code>userOrder</code> of this reverter.
+     */
+    public int getUserOrder() {
+        return userOrder;
+    }
+
     /**
      * Undo the action of <code>User</code> with <code>username</code> confirm the arrangement of <code>meeting</code>.
      * Cannot undo if one of the <code>User</code> involved in <code>meeting</code> has confirmed the occurrence
@@ -9,6 +9,8 @@ import java.time.LocalDateTime;
  * Reverts the action of a <code>User</code> editing time and place of a <code>Meeting</code>.
  */
 public class EditMeetingReverter extends ActionReverter {
+    private static final long serialVersionUID = -2106088335177332319L;
+
     private final Meeting meeting;
     private final String location;
     private final LocalDateTime time;
@@ -39,6 +41,51 @@ public class EditMeetingReverter extends ActionReverter {
         this.userOrder = userOrder;
     }
 
+    /**
+     * Gets <code>meeting</code> stored in this reverter.
+     *
+     * @return <code>meeting</code> of this reverter.
+     */
+    public Meeting getMeeting() {
+        return meeting;
+    }
+
+    /**
+     * Gets <code>location</code> stored in this reverter.
+     *
+     * @return <code>location</code> of this reverter.
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets <code>time</code> stored in this reverter.
+     *
+     * @return <code>time</code> of this reverter.
+     */
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    /**
+     * Gets <code>timeEditedOtherUser</code> stored in this reverter.
+     *
+     * @return <code>timeEditedOtherUser</code> of this reverter.
+     */
+    public int getTimeEditedOtherUser() {
+        return timeEditedOtherUser;
+    }
+
+    /**
+     * Gets <code>userOrder</code> stored in this reverter.
+     *
+     * @return <code>userOrder</code> of this reverter.
+     */
+    public int getUserOrder() {
+        return userOrder;
+    }
+
     /**
      * Undo the action of <code>User</code> with <code>username</code> edit time and place of <code>meeting</code>.
      * Cannot undo if the other <code>User</code> involved in <code>meeting</code> has edited or confirmed the
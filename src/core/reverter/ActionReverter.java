@@ -8,6 +8,8 @@ import java.io.Serializable;
  * This means, upon creation, the ActionReverter should have all the data required to undo.
  */
 public abstract class ActionReverter implements Serializable {
+    private static final long serialVersionUID = 2044327966835558451L;
+
     private final String username;
 
     /**
@@ -1,5 +1,7 @@
 package core.reverter;
 
+import core.DataLocks;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -13,14 +15,17 @@ public class ReverterManager {
      * A list of <code>ActionReverters</code>. <code>ActionReverters</code>  are used to undo <code>User</code> actions.
      */
     private final List<ActionReverter> actionReverters;
+    private final DataLocks locks;
 
     /**
      * Construct an AdminReverterManager with <code>actionReverters</code>.
      *
      * @param actionReverters A list of <code>ActionReverters</code> that are used to undo <code>User</code> actions.
+     * @param locks           the locks of the data, which <code>actionReverters</code> is added to through.
      */
-    public ReverterManager(List<ActionReverter> actionReverters) {
+    public ReverterManager(List<ActionReverter> actionReverters, DataLocks locks) {
         this.actionReverters = actionReverters;
+        this.locks = locks;
     }
 
     /**
@@ -65,7 +70,29 @@ public class ReverterManager {
      * @param reverter the <code>reverter</code> that will be added to <code>actionReverters</code>
      */
     public void addReverter(ActionReverter reverter) {
-        actionReverters.add(reverter);
+        /* Sessions of different users add reverters at the same time, and undo them by their position. */
+        locks.add(actionReverters, reverter);
+    }
+
+    /**
+     * Gets the position of <code>reverter</code> in <code>actionReverters</code>.
+     *
+     * @param reverter the <code>reverter</code> to be searched.
+     * @return the index of <code>reverter</code>, or -1 if it is not stored in <code>actionReverters</code>.
+     */
+    public int indexOf(ActionReverter reverter) {
+        return actionReverters.indexOf(reverter);
+    }
+
+    /**
+     * Gets the <code>reverter</code> stored at <code>index</code> of <code>actionReverters</code>.
+     *
+     * @param index the position of the <code>reverter</code>.
+     * @return the <code>reverter</code> at <code>index</code>, or null if <code>index</code> is out of range.
+     */
+    public ActionReverter getReverter(int index) {
+        if (index < 0 || index >= actionReverters.size()) return null;
+        return actionReverters.get(index);
     }
 
     /**
@@ -0,0 +1,77 @@
+package core.trade;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that counts the trades each user completed on each of the last <code>DAYS</code> days, in a ring of one
+ * bucket per day, so that the trades completed in a week are counted without going through all trades.
+ * <p>
+ * The bucket of a day is reused for the day <code>DAYS</code> days later, which drops the counts it held. Counts for
+ * a day older than the one its bucket holds are ignored, as no week counted from then on can include that day.
+ */
+class DailyCompletions {
+    /**
+     * The number of days counted, which is the longest range of days that can be counted at once.
+     */
+    static final int DAYS = 7;
+
+    /* The epoch day each bucket counts, and the trades completed by each user on that day. */
+    private final long[] days = new long[DAYS];
+    private final List<Map<String, Integer>> counts = new ArrayList<>(DAYS);
+
+    /**
+     * Constructs <code>DailyCompletions</code> that count no trades.
+     */
+    DailyCompletions() {
+        for (int i = 0; i < DAYS; i++) counts.add(new HashMap<>());
+        clear();
+    }
+
+    /**
+     * Counts a trade completed by the user with <code>username</code> on <code>date</code>, or takes it back out if
+     * <code>change</code> is -1.
+     *
+     * @param username the username of the <code>User</code>.
+     * @param date     the date the trade was completed.
+     * @param change   1 to count the trade, -1 to take it out.
+     */
+    void add(String username, LocalDate date, int change) {
+        long day = date.toEpochDay();
+        int slot = (int) Math.floorMod(day, (long) DAYS);
+        if (days[slot] != day) {
+            if (days[slot] > day || change < 0) return;
+            days[slot] = day;
+            counts.get(slot).clear();
+        }
+        Map<String, Integer> count = counts.get(slot);
+        if (count.merge(username, change, Integer::sum) <= 0) count.remove(username);
+    }
+
+    /**
+     * Counts the trades each user completed from <code>from</code> to <code>to</code>, both inclusive.
+     * <p>
+     * Precondition: the range is at most <code>DAYS</code> days long.
+     *
+     * @param from the first day counted.
+     * @param to   the last day counted.
+     * @return a new map from the username of each user who completed trades in the range to their number.
+     */
+    Map<String, Integer> count(LocalDate from, LocalDate to) {
+        Map<String, Integer> result = new HashMap<>();
+        for (int slot = 0; slot < DAYS; slot++)
+            if (days[slot] >= from.toEpochDay() && days[slot] <= to.toEpochDay())
+                for (Map.Entry<String, Integer> count : counts.get(slot).entrySet())
+                    result.merge(count.getKey(), count.getValue(), Integer::sum);
+        return result;
+    }
+
+    void clear() {
+        Arrays.fill(days, Long.MIN_VALUE);
+        for (Map<String, Integer> count : counts) count.clear();
+    }
+}
@@ -5,11 +5,14 @@ import genericdatatype.Pair;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.function.Consumer;
 
 /**
  * An abstract class that represents a trade between two users
  */
 public class Trade implements Serializable {
+    private static final long serialVersionUID = 8024587210044059602L;
+
     private final Pair<String, String> usernames;
     private final Pair<Item, Item> itemsInvolved;
     /* value1 of the pair are an array of meetingId, value2 of the pair are whether or not meeting occurred. */
@@ -19,6 +22,8 @@ public class Trade implements Serializable {
     private TradeStatus status;
     private LocalDateTime tradeCompletionTime;
     private final int tradeId;
+    /* Told when the status changes or a meeting is added, by the TradeRegistry indexing this trade. */
+    private transient Consumer<Trade> changeListener;
 
     /**
      * Creates a Trade instance with initiator <code>username1</code>, responder <code>username2</code>,
@@ -90,6 +95,16 @@ public class Trade implements Serializable {
      */
     public void setStatus(TradeStatus newStatus) {
         status = newStatus;
+        changed();
+    }
+
+    /* Sets the listener told about changes of status and meetings, used by TradeRegistry. */
+    void setChangeListener(Consumer<Trade> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void changed() {
+        if (changeListener != null) changeListener.accept(this);
     }
 
     /**
@@ -132,6 +147,7 @@ public class Trade implements Serializable {
     public void addMeetingRelated(Integer meetingId) {
         if (meetingRelated.value1.value1 >= 0) meetingRelated.value1.value2 = meetingId;
         else meetingRelated.value1.value1 = meetingId;
+        changed();
     }
 
     /**
@@ -142,6 +158,19 @@ public class Trade implements Serializable {
         else meetingRelated.value2.value1 = true;
     }
 
+    /**
+     * Gets whether the meeting related to this trade at <code>meetingOrder</code> has occurred.
+     * <p>
+     * Precondition: <code>meetingOrder</code> must be 0 or 1.
+     *
+     * @param meetingOrder 0 for the first meeting of this trade, 1 for the second.
+     * @return true iff the meeting has been confirmed occurred.
+     */
+    public boolean getMeetingOccurred(int meetingOrder) {
+        if (meetingOrder == 0) return meetingRelated.value2.value1;
+        return meetingRelated.value2.value2;
+    }
+
     /**
      * Gets the <code>tradeCompletionTime</code>, which is the time that all the transactions have been confirmed by
      * both users.
@@ -1,30 +1,37 @@
 package core.trade;
 
+import core.IdSequence;
 import core.item.Item;
 import core.reverter.ActionReverter;
 import core.trade.reverter.DenyTradeReverter;
 import core.trade.reverter.RequestTradeReverter;
 import genericdatatype.Pair;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Class that manage actions and information stored in <code>Trade</code>, extends from <code>TradeManager</code>. Note
  * that this class does not mutate any <code>Item</code>.
  */
 public class TradeFunctionManager {
-    private int newestTradeId;
+    private final IdSequence tradeIds;
+    private final Clock clock;
 
     /**
      * Construct a UserTradeManager with a list of <code>trades</code>, <code>maxIncompleteTrade</code>,
-     * <code>maxWeeklyTransaction</code>, <code>newestTradeId</code>
+     * <code>maxWeeklyTransaction</code>, <code>tradeIds</code>
      *
-     * @param newestTradeId the id of the most recent <code>Trade</code> id.
+     * @param tradeIds      the <code>IdSequence</code> that gives out the ids of <code>Trade</code>s.
+     * @param clock         the <code>Clock</code> used to stamp the completion time of <code>Trade</code>s.
      */
-    public TradeFunctionManager(int newestTradeId) {
-        this.newestTradeId = newestTradeId;
+    public TradeFunctionManager(IdSequence tradeIds, Clock clock) {
+        this.tradeIds = tradeIds;
+        this.clock = clock;
     }
 
     /**
@@ -46,7 +53,7 @@ public class TradeFunctionManager {
      */
     public ActionReverter requestTrade(String username1, String username2, Item item1To2, Item item2To1,
                                        boolean isPermanent, List<Trade> trades) {
-        Trade trade = new Trade(username1, username2, new Item[]{item1To2, item2To1}, isPermanent, ++newestTradeId);
+        Trade trade = new Trade(username1, username2, new Item[]{item1To2, item2To1}, isPermanent, tradeIds.next());
         trades.add(trade);
         return new RequestTradeReverter(trade, username1, trades);
     }
@@ -106,16 +113,21 @@ public class TradeFunctionManager {
      * @return true iff the meeting is added
      */
     public boolean addMeetingRelated(Trade trade, Integer meetingNumber) {
-        if (trade != null && canAddMeeting(trade)) {
+        if (canAddMeeting(trade)) {
             trade.addMeetingRelated(meetingNumber);
             return true;
         }
         return false;
     }
 
-    /* Called by addMeetingRelated, check whether or not can add meeting */
-    private boolean canAddMeeting(Trade trade) {
-        if (trade.getStatus() == TradeStatus.ONGOING) {
+    /**
+     * Checks whether or not a <code>meeting</code> can be added to given <code>Trade</code>.
+     *
+     * @param trade the <code>Trade</code> to be checked.
+     * @return true iff <code>addMeetingRelated</code> would add a meeting to <code>trade</code>.
+     */
+    public boolean canAddMeeting(Trade trade) {
+        if (trade != null && trade.getStatus() == TradeStatus.ONGOING) {
             if (trade.getRelatedMeetings().length == 0) {
                 return true;
             } else return trade.getRelatedMeetings().length == 1 && !trade.isPermanent();
@@ -133,8 +145,9 @@ public class TradeFunctionManager {
         if (trade != null) {
             trade.setCurrentMeetingOccurred();
             if (trade.isPermanent() || trade.getRelatedMeetings().length == 2) {
+                /* The time is set first, so it is known to those told about the change of status. */
+                trade.setTradeCompletionTime(LocalDateTime.now(clock));
                 trade.setStatus(TradeStatus.COMPLETED);
-                trade.setTradeCompletionTime(LocalDateTime.now());
                 return true;
             }
         }
@@ -142,19 +155,21 @@ public class TradeFunctionManager {
     }
 
     /**
-     * Checks all trades and change status of trades that has late meeting to "abandoned".
+     * Checks trades and change status of trades that has late meeting to "abandoned".
      * A trade is abandoned when the meeting is arranged by the two users but at least one of them does not confirm the
      * meeting has occurred <code>maxMeetingLateTime</code> days after the proposed meeting time.
      *
      * @param meetingIds a list of ids of meetings that are late.
-     * @param trades     all <code>trades</code> that will be checked
+     * @param trades     the <code>trades</code> that will be checked, such as the trades of the late meetings
      * @return list of username of Users involved in abandoned trade.
      */
     public List<String> updateTradesAbandoned(List<Integer> meetingIds, List<Trade> trades) {
         List<String> usernames = new ArrayList<>();
+        if (meetingIds.isEmpty()) return usernames;
+        Set<Integer> lateMeetingIds = new HashSet<>(meetingIds);
         for (Trade trade : trades) {
             int meetingId = trade.getCurrentMeetingRelated();
-            if (meetingId >= 0 && trade.getStatus() == TradeStatus.ONGOING && meetingIds.contains(meetingId)) {
+            if (meetingId >= 0 && trade.getStatus() == TradeStatus.ONGOING && lateMeetingIds.contains(meetingId)) {
                 trade.setStatus(TradeStatus.ABANDONED);
                 usernames.add(trade.getUsername(0));
                 usernames.add(trade.getUsername(1));
@@ -162,13 +177,4 @@ public class TradeFunctionManager {
         }
         return usernames;
     }
-
-    /**
-     * Return the newest trade id
-     *
-     * @return the newest trade id
-     */
-    public int getNewestTradeId() {
-        return newestTradeId;
-    }
 }
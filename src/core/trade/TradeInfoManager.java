@@ -2,21 +2,21 @@ package core.trade;
 
 import core.item.Item;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
  * Class that manages <code>Trade</code>s.
  */
 public class TradeInfoManager {
-    private final List<Trade> trades;
+    private final TradeRegistry trades;
 
     /**
      * Construct an instance of <code>TradeManager</code>.
      *
-     * @param trades a list containing all the <code>Trade</code>s in the system
+     * @param trades a registry containing all the <code>Trade</code>s in the system
      */
-    public TradeInfoManager(List<Trade> trades) {
+    public TradeInfoManager(TradeRegistry trades) {
         this.trades = trades;
     }
 
@@ -27,8 +27,35 @@ public class TradeInfoManager {
      * @return the <code>Trade</code> or null if <code>Trade</code> not exists.
      */
     public Trade getTrade(int tradeId) {
-        for (Trade trade : trades) if (trade.getTradeId() == tradeId) return trade;
-        return null;
+        return trades.get(tradeId);
+    }
+
+    /**
+     * Counts the <code>Trade</code>s each user completed from <code>from</code> to <code>to</code>, both inclusive.
+     * <p>
+     * Precondition: the range is at most a week long, and ends on or after the last day a trade was completed.
+     *
+     * @param from the first day counted.
+     * @param to   the last day counted.
+     * @return a map from the username of each user who completed trades in the range to their number.
+     */
+    public Map<String, Integer> countCompletedTrades(LocalDate from, LocalDate to) {
+        return trades.countCompleted(from, to);
+    }
+
+    /**
+     * Finds the trades the meetings with <code>meetingIds</code> are related to.
+     *
+     * @param meetingIds ids of meetings.
+     * @return a list of the <code>Trade</code>s found, one for each meeting that is related to a trade.
+     */
+    public List<Trade> getTradesOfMeetings(List<Integer> meetingIds) {
+        List<Trade> result = new ArrayList<>();
+        for (int meetingId : meetingIds) {
+            Trade trade = trades.getTradeOfMeeting(meetingId);
+            if (trade != null) result.add(trade);
+        }
+        return result;
     }
 
     /**
@@ -56,19 +83,6 @@ public class TradeInfoManager {
         return true;
     }
 
-    /*Called by getThreeRecentTradeItem and getTopThreeTradePartner. Get best three qualified object from given map.*/
-    private <T, S> List<T> extractTWithBestThreeS(Map<T, S> map, Comparator<S> comparator) {
-        List<Map.Entry<T, S>> list = new ArrayList<>(map.entrySet());
-        Comparator<Map.Entry<T, S>> entryComp =
-                (Map.Entry<T, S> a, Map.Entry<T, S> b) -> comparator.compare(a.getValue(), b.getValue());
-        list.sort(entryComp);
-        List<T> returnList = new ArrayList<>();
-        list.forEach((e) -> returnList.add(e.getKey()));
-        if (returnList.size() > 3)
-            return returnList.subList(0, 3);
-        return returnList;
-    }
-
     /**
      * Gets three recent <code>trade</code> <code>item</code> information of a <code>User</code>.
      *
@@ -77,15 +91,22 @@ public class TradeInfoManager {
      * an empty list if no trade happened.
      */
     public List<String> getThreeRecentTradeItem(String username) {
-        HashMap<Item, LocalDateTime> itemDate = new HashMap<>();
-        for (Trade trade : getTrades(username, TradeStatus.COMPLETED)) {
-            for (Item item : trade.getItemsInvolved())
-                if (item != null) itemDate.put(item, trade.getTradeCompletionTime());
-        }
+        return getRecentTradeItems(username, 3);
+    }
+
+    /**
+     * Gets information about the <code>Item</code>s of the <code>k</code> most recently completed trades of a
+     * <code>User</code>.
+     *
+     * @param username the username of this <code>User</code>.
+     * @param k        the number of <code>Item</code>s wanted, of which at most
+     *                 <code>UserTradeStatistics.RECENT_ITEMS</code> are kept.
+     * @return a list of information about at most <code>k</code> recently traded <code>Item</code>s, newest first.
+     * an empty list if no trade happened.
+     */
+    public List<String> getRecentTradeItems(String username, int k) {
         List<String> itemInfoList = new ArrayList<>();
-        for (Item item : extractTWithBestThreeS(itemDate, (a, b) -> -a.compareTo(b))) {
-            itemInfoList.add(item.toString());
-        }
+        for (Item item : trades.getRecentItems(username, k)) itemInfoList.add(item.toString());
         return itemInfoList;
     }
 
@@ -97,13 +118,19 @@ public class TradeInfoManager {
      * an empty list if no trade happened.
      */
     public List<String> getTopThreeTradePartner(String username) {
-        HashMap<String, Integer> tradeUserMap = new HashMap<>();
-        for (Trade trade : getTrades(username, TradeStatus.COMPLETED)) {
-            String tradePartnerUsername = trade.getUsername(Math.abs(findUserOrder(trade.getTradeId(), username) - 1));
-            tradeUserMap.put(tradePartnerUsername,
-                    !tradeUserMap.containsKey(tradePartnerUsername) ? 1 : tradeUserMap.get(tradePartnerUsername) + 1);
-        }
-        return extractTWithBestThreeS(tradeUserMap, (a, b) -> -Integer.compare(a, b));
+        return getTopTradePartners(username, 3);
+    }
+
+    /**
+     * Gets the usernames of the <code>k</code> most frequent trade partners of a <code>User</code>, counting
+     * completed trades.
+     *
+     * @param username the username of this <code>User</code>.
+     * @param k        the number of trade partners wanted.
+     * @return a list of at most <code>k</code> usernames, most frequent first. an empty list if no trade happened.
+     */
+    public List<String> getTopTradePartners(String username, int k) {
+        return trades.getTopPartners(username, k);
     }
 
     /**
@@ -114,18 +141,19 @@ public class TradeInfoManager {
      * an empty list if no trade happened.
      */
     public List<String> getTopThreeTradeItemType(String username) {
-        HashMap<String, Integer> tradeItemTypeMap = new HashMap<>();
-        for (Trade trade : getTrades(username, TradeStatus.NONE)) {
-            if (trade.getItemsInvolved()[0] != null) {
-                tradeItemTypeMap.put(trade.getItemsInvolved()[0].getType(),
-                        !tradeItemTypeMap.containsKey(trade.getItemsInvolved()[0].getType()) ?
-                                1 : tradeItemTypeMap.get(trade.getItemsInvolved()[0].getType()) + 1);
-            }
-            tradeItemTypeMap.put(trade.getItemsInvolved()[1].getType(),
-                    !tradeItemTypeMap.containsKey(trade.getItemsInvolved()[1].getType()) ?
-                            1 : tradeItemTypeMap.get(trade.getItemsInvolved()[1].getType()) + 1);
-        }
-        return extractTWithBestThreeS(tradeItemTypeMap, (a, b) -> -Integer.compare(a, b));
+        return getTopTradeItemTypes(username, 3);
+    }
+
+    /**
+     * Gets the <code>k</code> most frequent types of <code>Item</code> in the trades of a <code>User</code>, in any
+     * status.
+     *
+     * @param username the username of this <code>User</code>.
+     * @param k        the number of types wanted.
+     * @return a list of at most <code>k</code> types, most frequent first. an empty list if no trade happened.
+     */
+    public List<String> getTopTradeItemTypes(String username, int k) {
+        return trades.getTopItemTypes(username, k);
     }
 
     /**
@@ -165,12 +193,18 @@ public class TradeInfoManager {
      * the <code>User</code>.
      */
     public List<Trade> getTrades(String username, TradeStatus tradeStatus) {
-        ArrayList<Trade> lst = new ArrayList<>();
-        trades.forEach((Trade t) -> {
-            if ((t.getUsername(0).equals(username) || t.getUsername(1).equals(username)) &&
-                    (t.getStatus().equals(tradeStatus) || tradeStatus == TradeStatus.NONE)) lst.add(t);
-        });
-        return lst;
+        return trades.getTrades(username, tradeStatus);
+    }
+
+    /**
+     * Counts the <code>Trade</code>s of this <code>username</code> in given <code>Trade</code> status.
+     *
+     * @param username    the name of the <code>User</code>.
+     * @param tradeStatus the status of <code>Trade</code>.
+     * @return the number of <code>Trade</code>s of the <code>User</code> in the required status.
+     */
+    public int countTrades(String username, TradeStatus tradeStatus) {
+        return trades.count(username, tradeStatus);
     }
 
     /**
@@ -179,7 +213,7 @@ public class TradeInfoManager {
      * @return a list of <code>trades</code>, which is all the all the <code>trades</code> currently stored
      */
     public List<Trade> getTrades() {
-        return trades;
+        return trades.getTrades();
     }
 
     /**
@@ -190,10 +224,10 @@ public class TradeInfoManager {
      */
     public List<String[]> getTradesInfo(String username) {
         ArrayList<String[]> lst = new ArrayList<>();
-        int size = getTrades(username, TradeStatus.NONE).size();
-        for (int i = 0; i < 3; i++) lst.add(new String[size]);
+        List<Trade> userTrades = getTrades(username, TradeStatus.NONE);
+        for (int i = 0; i < 3; i++) lst.add(new String[userTrades.size()]);
         int counter = 0;
-        for (Trade trade : getTrades(username, TradeStatus.NONE)) {
+        for (Trade trade : userTrades) {
             lst.get(0)[counter] = Integer.toString(trade.getTradeId());
             lst.get(1)[counter] = trade.simplifiedInfo();
             lst.get(2)[counter] = trade.toString();
@@ -0,0 +1,72 @@
+package core.trade;
+
+import java.util.Arrays;
+
+/**
+ * Class that keeps a set of positions of trades in the list of trades, in ascending order, in an array as large as
+ * the number of positions kept, so that a set holding the trades of one user takes room for those trades only.
+ * <p>
+ * A position added after every position kept, as a trade added to the end of the list is, is appended. Other
+ * positions are found and moved by binary search, which is cheap for the trades of one user.
+ */
+class TradePositions {
+    private int[] positions = new int[4];
+    private int size;
+
+    /**
+     * Adds <code>position</code>, unless it is kept already.
+     *
+     * @param position the position of a trade.
+     */
+    void add(int position) {
+        int index = -size - 1;
+        if (size > 0 && positions[size - 1] >= position) index = Arrays.binarySearch(positions, 0, size, position);
+        if (index >= 0) return;
+        index = -index - 1;
+        if (size == positions.length) positions = Arrays.copyOf(positions, size + (size >> 1));
+        System.arraycopy(positions, index, positions, index + 1, size - index);
+        positions[index] = position;
+        size++;
+    }
+
+    /**
+     * Removes <code>position</code>, if it is kept.
+     *
+     * @param position the position of a trade.
+     */
+    void remove(int position) {
+        int index = Arrays.binarySearch(positions, 0, size, position);
+        if (index < 0) return;
+        System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Checks if <code>position</code> is kept.
+     *
+     * @param position the position of a trade.
+     * @return true iff <code>position</code> is kept.
+     */
+    boolean contains(int position) {
+        return Arrays.binarySearch(positions, 0, size, position) >= 0;
+    }
+
+    /**
+     * Gets the number of positions kept.
+     *
+     * @return the number of positions.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the position at <code>index</code> in ascending order.
+     *
+     * @param index the index of the position, from 0 to <code>size() - 1</code>.
+     * @return the position.
+     */
+    int get(int index) {
+        return positions[index];
+    }
+}
@@ -0,0 +1,319 @@
+package core.trade;
+
+import core.account.AccountRegistry;
+import core.item.Item;
+import core.user.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Class that keeps the list of all <code>Trade</code>s together with an index of them by id and by the meetings
+ * related to them, and an index of the trades of each user by status, so that a <code>Trade</code> or the trades of
+ * a user are found without going through the whole list. Users are indexed by their id in the registry of users,
+ * and a <code>Trade</code> with a username that is no user's is only found by its id.
+ * <p>
+ * The indexes are built from the list the first time they are needed, and from then on hold the position of each
+ * <code>Trade</code> in the list. Trades added to the end of the list are indexed at the next lookup, and each
+ * indexed <code>Trade</code> tells this registry when its status changes, which moves it to the index of its new
+ * status, and when a meeting is added to it. Trades are only removed from the list when their request is undone,
+ * which is noticed as soon as the last position indexed holds a different <code>Trade</code>, and the indexes are
+ * then built again. The trades found are got from the list again, so that a list that writes the elements it hands
+ * out through to storage knows they may be changed.
+ * <p>
+ * The <code>TradeStatistics</code> of each user are counted along with the indexes: the types of the
+ * <code>Item</code>s of a <code>Trade</code> when it is indexed, and its partners and <code>Item</code>s once it is
+ * completed. Statistics that were saved already count the trades at the start of the list, which are then only
+ * indexed. The completed trades of each user are also counted by the day they were completed, for the last
+ * <code>DailyCompletions.DAYS</code> days.
+ * <p>
+ * Lookups and changes reported by trades go through this registry one at a time, so sessions of different users can
+ * use it at once.
+ */
+public class TradeRegistry {
+    private final List<Trade> trades;
+    /* The trades indexed, by position, and the status each of them was indexed with. */
+    private final List<Trade> indexed = new ArrayList<>();
+    private final List<TradeStatus> statuses = new ArrayList<>();
+    /* The position of the first trade with each id. */
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    /* The position of the first trade each meeting is related to, by the id of the meeting. */
+    private final Map<Integer, Integer> meetingPositions = new HashMap<>();
+    /* The positions of the trades of each user, by the ordinal of their status, by the id of the user. The slot of
+     * NONE holds all of them. Each set only holds the trades of its user, so the indexes grow with the trades.
+     */
+    private final List<TradePositions[]> byUser = new ArrayList<>();
+    private final AccountRegistry<User> users;
+    private final Consumer<Trade> changeListener = this::changed;
+    private final TradeStatistics statistics;
+    private final DailyCompletions completions = new DailyCompletions();
+
+    /**
+     * Constructs a <code>TradeRegistry</code> of <code>trades</code>.
+     *
+     * @param trades     a list of all <code>Trade</code>s in the system.
+     * @param users      the registry of all <code>User</code>s in the system, which gives the ids of users.
+     * @param statistics the statistics of the trades of each user, which may already count the trades at the start
+     *                   of <code>trades</code>.
+     */
+    public TradeRegistry(List<Trade> trades, AccountRegistry<User> users, TradeStatistics statistics) {
+        this.trades = trades;
+        this.users = users;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Gets the list of trades in this registry.
+     *
+     * @return the list of all <code>Trade</code>s.
+     */
+    public List<Trade> getTrades() {
+        return trades;
+    }
+
+    /**
+     * Finds the <code>Trade</code> with id <code>tradeId</code>.
+     *
+     * @param tradeId id of the <code>Trade</code>.
+     * @return the first <code>Trade</code> in the list with <code>tradeId</code>, or null if there is none.
+     */
+    public synchronized Trade get(int tradeId) {
+        update();
+        Integer position = positions.get(tradeId);
+        return position == null ? null : trades.get(position);
+    }
+
+    /**
+     * Finds the <code>Trade</code> the meeting with id <code>meetingId</code> is related to.
+     *
+     * @param meetingId id of the meeting.
+     * @return the first <code>Trade</code> in the list related to the meeting, or null if there is none.
+     */
+    public synchronized Trade getTradeOfMeeting(int meetingId) {
+        update();
+        Integer position = meetingPositions.get(meetingId);
+        return position == null ? null : trades.get(position);
+    }
+
+    /**
+     * Gets all trades of the user with <code>username</code> in status <code>tradeStatus</code>, in the order of
+     * the list.
+     *
+     * @param username    the username of the <code>User</code>, as initiator or responder.
+     * @param tradeStatus the status of the trades, or <code>NONE</code> for trades in any status.
+     * @return a new list of the trades found.
+     */
+    public synchronized List<Trade> getTrades(String username, TradeStatus tradeStatus) {
+        update();
+        return find(username, tradeStatus);
+    }
+
+    /**
+     * Counts the trades of the user with <code>username</code> in status <code>tradeStatus</code>.
+     *
+     * @param username    the username of the <code>User</code>, as initiator or responder.
+     * @param tradeStatus the status of the trades, or <code>NONE</code> for trades in any status.
+     * @return the number of trades found.
+     */
+    public synchronized int count(String username, TradeStatus tradeStatus) {
+        update();
+        TradePositions[] buckets = bucketsOf(username);
+        if (buckets == null || buckets[tradeStatus.ordinal()] == null) return 0;
+        return buckets[tradeStatus.ordinal()].size();
+    }
+
+    /**
+     * Gets the statistics of the trades of each user, brought up to date with the list of trades.
+     *
+     * @return the <code>TradeStatistics</code> of this registry.
+     */
+    public synchronized TradeStatistics getStatistics() {
+        update();
+        return statistics;
+    }
+
+    /**
+     * Counts the trades each user completed from <code>from</code> to <code>to</code>, both inclusive, without
+     * going through the trades.
+     * <p>
+     * Precondition: the range is at most a week long, and ends on or after the last day a trade was completed.
+     *
+     * @param from the first day counted.
+     * @param to   the last day counted.
+     * @return a new map from the username of each user who completed trades in the range to their number.
+     */
+    public synchronized Map<String, Integer> countCompleted(LocalDate from, LocalDate to) {
+        update();
+        return completions.count(from, to);
+    }
+
+    /**
+     * Gets the usernames of the <code>k</code> users the user with <code>username</code> completed most trades with.
+     *
+     * @param username the username of the <code>User</code>.
+     * @param k        the number of trade partners wanted.
+     * @return at most <code>k</code> usernames, most frequent first.
+     */
+    public synchronized List<String> getTopPartners(String username, int k) {
+        UserTradeStatistics userStatistics = getStatistics().get(username);
+        return userStatistics == null ? new ArrayList<>() : userStatistics.getTopPartners(k);
+    }
+
+    /**
+     * Gets the <code>k</code> types of <code>Item</code> most frequently involved in the trades of the user with
+     * <code>username</code>, in any status.
+     *
+     * @param username the username of the <code>User</code>.
+     * @param k        the number of types wanted.
+     * @return at most <code>k</code> types, most frequent first.
+     */
+    public synchronized List<String> getTopItemTypes(String username, int k) {
+        UserTradeStatistics userStatistics = getStatistics().get(username);
+        return userStatistics == null ? new ArrayList<>() : userStatistics.getTopItemTypes(k);
+    }
+
+    /**
+     * Gets the <code>k</code> <code>Item</code>s of the trades the user with <code>username</code> completed most
+     * recently.
+     *
+     * @param username the username of the <code>User</code>.
+     * @param k        the number of <code>Item</code>s wanted, of which at most
+     *                 <code>UserTradeStatistics.RECENT_ITEMS</code> are kept.
+     * @return at most <code>k</code> <code>Item</code>s, newest first.
+     */
+    public synchronized List<Item> getRecentItems(String username, int k) {
+        UserTradeStatistics userStatistics = getStatistics().get(username);
+        return userStatistics == null ? new ArrayList<>() : userStatistics.getRecentItems(k);
+    }
+
+    /* Indexes the meetings added to trade, moves it to the index of its new status, and counts it by the day it is
+     * completed and in the statistics once it is completed.
+     */
+    private synchronized void changed(Trade trade) {
+        Integer position = positions.get(trade.getTradeId());
+        if (position == null || indexed.get(position) != trade) position = indexed.indexOf(trade);
+        if (position < 0) return;
+        indexMeetings(trade, position);
+        TradeStatus previous = statuses.get(position);
+        if (previous == trade.getStatus()) return;
+        for (int userOrder = 0; userOrder < 2; userOrder++) {
+            TradePositions[] buckets = bucketsOf(trade.getUsername(userOrder));
+            if (buckets == null || !buckets[TradeStatus.NONE.ordinal()].contains(position)) continue;
+            buckets[previous.ordinal()].remove(position);
+            bucket(buckets, trade.getStatus()).add(position);
+        }
+        statuses.set(position, trade.getStatus());
+        if (trade.getStatus() == TradeStatus.COMPLETED) countDay(trade, 1);
+        else if (previous == TradeStatus.COMPLETED) countDay(trade, -1);
+        if (position >= statistics.getTradesCounted()) return;
+        if (trade.getStatus() == TradeStatus.COMPLETED) countCompleted(trade, 1);
+        else if (previous == TradeStatus.COMPLETED) countCompleted(trade, -1);
+    }
+
+    /* Indexes the trades added since the last lookup, or all of them if a trade indexed was removed from the list. */
+    private void update() {
+        int count = indexed.size();
+        if (trades.size() < count || count > 0 && trades.get(count - 1) != indexed.get(count - 1)) clear();
+        if (statistics.getTradesCounted() > trades.size()) statistics.clear();
+        while (indexed.size() < trades.size()) index(trades.get(indexed.size()));
+    }
+
+    private void index(Trade trade) {
+        int position = indexed.size();
+        indexed.add(trade);
+        statuses.add(trade.getStatus());
+        positions.putIfAbsent(trade.getTradeId(), position);
+        for (int userOrder = 0; userOrder < 2; userOrder++) {
+            int id = users.getId(trade.getUsername(userOrder));
+            if (id < 0) continue;
+            while (byUser.size() <= id) byUser.add(null);
+            if (byUser.get(id) == null) byUser.set(id, new TradePositions[TradeStatus.values().length]);
+            TradePositions[] buckets = byUser.get(id);
+            bucket(buckets, TradeStatus.NONE).add(position);
+            bucket(buckets, trade.getStatus()).add(position);
+        }
+        indexMeetings(trade, position);
+        trade.setChangeListener(changeListener);
+        if (trade.getStatus() == TradeStatus.COMPLETED) countDay(trade, 1);
+        if (position == statistics.getTradesCounted()) count(trade);
+    }
+
+    private void countDay(Trade trade, int change) {
+        if (trade.getTradeCompletionTime() == null) return;
+        LocalDate date = trade.getTradeCompletionTime().toLocalDate();
+        for (int userOrder = 0; userOrder < 2; userOrder++) completions.add(trade.getUsername(userOrder), date, change);
+    }
+
+    private void indexMeetings(Trade trade, int position) {
+        for (int meetingId : trade.getRelatedMeetings()) meetingPositions.putIfAbsent(meetingId, position);
+    }
+
+    /* Counts a trade newly added to the list in the statistics of both its users. */
+    private void count(Trade trade) {
+        for (int userOrder = 0; userOrder < 2; userOrder++) {
+            UserTradeStatistics userStatistics = statistics.getOrCreate(trade.getUsername(userOrder));
+            for (Item item : trade.getItemsInvolved())
+                if (item != null) userStatistics.countItemType(item.getType(), 1);
+        }
+        statistics.countTrade();
+        if (trade.getStatus() == TradeStatus.COMPLETED) countCompleted(trade, 1);
+    }
+
+    /* Counts a trade that was completed, or takes it back out if change is -1. The recent items of a trade that is
+     * no longer completed are found again from the completed trades left, since older items were let go.
+     */
+    private void countCompleted(Trade trade, int change) {
+        for (int userOrder = 0; userOrder < 2; userOrder++) {
+            String username = trade.getUsername(userOrder);
+            UserTradeStatistics userStatistics = statistics.getOrCreate(username);
+            userStatistics.countPartner(trade.getUsername(1 - userOrder), change);
+            if (change > 0) {
+                addRecentItems(userStatistics, trade);
+            } else {
+                userStatistics.clearRecentItems();
+                for (Trade completed : find(username, TradeStatus.COMPLETED))
+                    addRecentItems(userStatistics, completed);
+            }
+        }
+    }
+
+    private List<Trade> find(String username, TradeStatus tradeStatus) {
+        List<Trade> result = new ArrayList<>();
+        TradePositions[] buckets = bucketsOf(username);
+        if (buckets == null || buckets[tradeStatus.ordinal()] == null) return result;
+        TradePositions bucket = buckets[tradeStatus.ordinal()];
+        for (int i = 0; i < bucket.size(); i++) result.add(trades.get(bucket.get(i)));
+        return result;
+    }
+
+    private static void addRecentItems(UserTradeStatistics userStatistics, Trade trade) {
+        for (Item item : trade.getItemsInvolved())
+            if (item != null) userStatistics.addRecentItem(item, trade.getTradeCompletionTime());
+    }
+
+    /* Gets the buckets of the user with username, or null if no trade of the user is indexed. */
+    private TradePositions[] bucketsOf(String username) {
+        int id = users.getId(username);
+        return id < 0 || id >= byUser.size() ? null : byUser.get(id);
+    }
+
+    private static TradePositions bucket(TradePositions[] buckets, TradeStatus status) {
+        if (buckets[status.ordinal()] == null) buckets[status.ordinal()] = new TradePositions();
+        return buckets[status.ordinal()];
+    }
+
+    private void clear() {
+        for (Trade trade : indexed) trade.setChangeListener(null);
+        indexed.clear();
+        statuses.clear();
+        positions.clear();
+        meetingPositions.clear();
+        byUser.clear();
+        completions.clear();
+        statistics.clear();
+    }
+}
@@ -0,0 +1,81 @@
+package core.trade;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class that holds the <code>UserTradeStatistics</code> of every user with trades, along with the number of trades
+ * at the start of the list of all <code>Trade</code>s they count.
+ * <p>
+ * It is kept up to date by <code>TradeRegistry</code> and saved with the data, so the statistics are not counted
+ * again from the trades when the data is read back.
+ */
+public class TradeStatistics implements Serializable {
+    private static final long serialVersionUID = -4209317745583390226L;
+
+    private final Map<String, UserTradeStatistics> users;
+    private int tradesCounted;
+
+    /**
+     * Constructs <code>TradeStatistics</code> that count no trades.
+     */
+    public TradeStatistics() {
+        this(0, new HashMap<>());
+    }
+
+    /**
+     * Constructs <code>TradeStatistics</code> with the statistics of <code>users</code>, such as ones that were
+     * saved.
+     *
+     * @param tradesCounted the number of trades at the start of the list of all <code>Trade</code>s counted.
+     * @param users         the statistics of each user, by username.
+     */
+    public TradeStatistics(int tradesCounted, Map<String, UserTradeStatistics> users) {
+        this.tradesCounted = tradesCounted;
+        this.users = users;
+    }
+
+    /**
+     * Gets the number of trades counted.
+     *
+     * @return the number of trades at the start of the list of all <code>Trade</code>s counted.
+     */
+    public int getTradesCounted() {
+        return tradesCounted;
+    }
+
+    /**
+     * Gets the usernames of every user with statistics.
+     *
+     * @return an unmodifiable set of usernames.
+     */
+    public Set<String> getUsernames() {
+        return Collections.unmodifiableSet(users.keySet());
+    }
+
+    /**
+     * Gets the statistics of the user with <code>username</code>.
+     *
+     * @param username the username of the <code>User</code>.
+     * @return the statistics of the user, or null if the user has no trades counted.
+     */
+    public UserTradeStatistics get(String username) {
+        return users.get(username);
+    }
+
+    UserTradeStatistics getOrCreate(String username) {
+        return users.computeIfAbsent(username, key -> new UserTradeStatistics());
+    }
+
+    void countTrade() {
+        tradesCounted++;
+    }
+
+    void clear() {
+        users.clear();
+        tradesCounted = 0;
+    }
+}
@@ -2,12 +2,14 @@ package core.trade;
 
 import core.user.User;
 import core.user.UserAccountManager;
+import core.user.UserColumns;
 
+import java.time.Clock;
 import java.time.DayOfWeek;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,8 +19,7 @@ public class TradeThresholdManager {
     private int maxIncompleteTrades;
     private int maxWeeklyTransactions;
     private int minLendBorrowDifference;
-    private LocalDateTime time1;
-    private LocalDateTime time2;
+    private final Clock clock;
 
     /**
      * Constructs an instance of <code>AdminTradeManager</code>.
@@ -26,21 +27,14 @@ public class TradeThresholdManager {
      * @param maxIncompleteTrades     the max num of incomplete trades a <code>user</code> can have.
      * @param maxWeeklyTransactions   the max num of <code>transaction</code>s a user can have per week.
      * @param minLendBorrowDifference the max number the user can borrow more than lend.
+     * @param clock                   the <code>Clock</code> that decides which week is the current one.
      */
-    public TradeThresholdManager(int maxIncompleteTrades, int maxWeeklyTransactions, int minLendBorrowDifference) {
+    public TradeThresholdManager(int maxIncompleteTrades, int maxWeeklyTransactions, int minLendBorrowDifference,
+                                 Clock clock) {
         this.maxIncompleteTrades = maxIncompleteTrades;
         this.maxWeeklyTransactions = maxWeeklyTransactions;
         this.minLendBorrowDifference = minLendBorrowDifference;
-        time1 = LocalDateTime.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
-        time2 = LocalDateTime.now().with(TemporalAdjusters.next(DayOfWeek.SUNDAY));
-        LocalDateTime now = LocalDateTime.now();
-        /* if today is Sunday */
-        if (now.getDayOfWeek().equals(DayOfWeek.SUNDAY)) {
-            /* time1 becomes sunday */
-            time1 = now;
-            /* time2 becomes next sunday */
-            time2 = now.with(TemporalAdjusters.next(DayOfWeek.SUNDAY));
-        }
+        this.clock = clock;
     }
 
     /**
@@ -54,9 +48,9 @@ public class TradeThresholdManager {
     public Map<String, Integer> getUserOverMaxIncompleteTrade(UserAccountManager ua, TradeInfoManager tradeManager) {
         Map<String, Integer> temp = new HashMap<>();
         for (User user : ua.getAccounts((User u) -> true)) {
-            int incompleteCount = tradeManager.getTrades(user.getUsername(), TradeStatus.ONGOING).size();
-            incompleteCount += tradeManager.getTrades(user.getUsername(), TradeStatus.ABANDONED).size();
-            incompleteCount += tradeManager.getTrades(user.getUsername(), TradeStatus.CANCELLED).size();
+            int incompleteCount = tradeManager.countTrades(user.getUsername(), TradeStatus.ONGOING);
+            incompleteCount += tradeManager.countTrades(user.getUsername(), TradeStatus.ABANDONED);
+            incompleteCount += tradeManager.countTrades(user.getUsername(), TradeStatus.CANCELLED);
             if (incompleteCount > maxIncompleteTrades)
                 temp.put(user.getUsername(), incompleteCount - maxIncompleteTrades);
         }
@@ -74,45 +68,36 @@ public class TradeThresholdManager {
      */
     public Map<String, Integer> getUsersNotUpToMinLentBorrowDifference(UserAccountManager ua) {
         Map<String, Integer> map = new HashMap<>();
-        for (User user : ua.getAccounts((User u) ->
-                (u.getNumLent() - u.getNumBorrowed() < minLendBorrowDifference && !u.getUsername().equals("GUEST"))))
-            map.put(user.getUsername(), Math.abs(user.getNumLent() - user.getNumBorrowed()));
+        UserColumns columns = ua.getColumns();
+        BitSet selected = columns.lendBorrowBalanceBelow(minLendBorrowDifference);
+        for (int id = selected.nextSetBit(0); id >= 0; id = selected.nextSetBit(id + 1)) {
+            String username = ua.getUsername(id);
+            if (!username.equals("GUEST"))
+                map.put(username, Math.abs(columns.getNumLent(id) - columns.getNumBorrowed(id)));
+        }
         return map;
     }
 
     /**
-     * Gets all number of completed <code>Trade</code> of <code>User</code>s which over <code>maxWeeklyTransaction</code>.
+     * Gets all number of completed <code>Trade</code> of <code>User</code>s which over
+     * <code>maxWeeklyTransaction</code> in the current week, which starts on Sunday.
      *
-     * @param trades a collection of all <code>trades</code> that will be checked
+     * @param tradeManager a <code>TradeManager</code> for counting the trades completed by <code>users</code>
      * @return a Map of <code>username</code> and their number of completed <code>Trade</code> over
      * <code>maxWeeklyTransaction</code> which key is username,
      * value is number of completed <code>trade</code>.
      */
-    public HashMap<String, Integer> getUserOverWeeklyTransMaxMap(List<Trade> trades) {
+    public HashMap<String, Integer> getUserOverWeeklyTransMaxMap(TradeInfoManager tradeManager) {
         HashMap<String, Integer> userOverWeeklyTransMax = new HashMap<>();
-        for (Trade trade : trades)
-            /*
-             * Trade's time should be between time1 exclusive and time2 inclusive.
-             * time1.compareTo(time2) return 0 if same, positive is time1 is after time2, negative otherwise.
-             */
-            if (trade.getStatus() == TradeStatus.COMPLETED && time1.compareTo(trade.getTradeCompletionTime()) < 0 &&
-                    time2.compareTo(trade.getTradeCompletionTime()) >= 0) {
-                updateUserOverWeeklyTransMaxMap(userOverWeeklyTransMax, trade.getUsername(0));
-                updateUserOverWeeklyTransMaxMap(userOverWeeklyTransMax, trade.getUsername(1));
-            }
-        for (Map.Entry<String, Integer> entry : userOverWeeklyTransMax.entrySet())
-            if (entry.getValue() <= maxWeeklyTransactions)
-                userOverWeeklyTransMax.remove(entry.getKey());
-            else
-                entry.setValue(entry.getValue() - maxWeeklyTransactions);
+        /* The week is found at every call, so it moves on while the system keeps running. */
+        LocalDate weekStart = LocalDate.now(clock).with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        Map<String, Integer> completed = tradeManager.countCompletedTrades(weekStart, weekStart.plusDays(6));
+        for (Map.Entry<String, Integer> entry : completed.entrySet())
+            if (entry.getValue() > maxWeeklyTransactions)
+                userOverWeeklyTransMax.put(entry.getKey(), entry.getValue() - maxWeeklyTransactions);
         return userOverWeeklyTransMax;
     }
 
-    /* Called by getUserOverWeeklyTransMaxMap to update user's information of over weekly trans */
-    private void updateUserOverWeeklyTransMaxMap(HashMap<String, Integer> input, String username) {
-        input.put(username, !input.containsKey(username) ? 1 : input.get(username) + 1);
-    }
-
     /**
      * Gets the trade related threshold of <code>type</code>.
      * <p>
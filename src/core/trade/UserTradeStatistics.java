@@ -0,0 +1,192 @@
+package core.trade;
+
+import core.item.Item;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Statistics of the trades of one <code>User</code>: how many trades were completed with each trade partner, how
+ * many <code>Item</code>s of each type were involved in the trades of the user, and the <code>Item</code>s of the
+ * trades completed most recently.
+ * <p>
+ * The statistics are counted by <code>TradeRegistry</code> as trades are requested and completed, so the most
+ * frequent partners and item types are found without going through the trades of the user.
+ */
+public class UserTradeStatistics implements Serializable {
+    private static final long serialVersionUID = 2618402355124893806L;
+
+    /**
+     * The number of recently traded <code>Item</code>s kept.
+     */
+    public static final int RECENT_ITEMS = 10;
+
+    private final Map<String, Integer> partnerCounts;
+    private final Map<String, Integer> itemTypeCounts;
+    /* The most recently traded items, newest first, with the completion time of the trade of each. */
+    private final List<Item> recentItems;
+    private final List<LocalDateTime> recentTimes;
+
+    /**
+     * Constructs the <code>UserTradeStatistics</code> of a user with no trades.
+     */
+    public UserTradeStatistics() {
+        this(new HashMap<>(), new HashMap<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * Constructs <code>UserTradeStatistics</code> with the given counts, such as ones that were saved.
+     *
+     * @param partnerCounts  the number of trades completed with each trade partner, by username.
+     * @param itemTypeCounts the number of <code>Item</code>s of each type involved in trades.
+     * @param recentItems    the most recently traded <code>Item</code>s, newest first.
+     * @param recentTimes    the completion time of the trade of each of <code>recentItems</code>.
+     */
+    public UserTradeStatistics(Map<String, Integer> partnerCounts, Map<String, Integer> itemTypeCounts,
+                               List<Item> recentItems, List<LocalDateTime> recentTimes) {
+        this.partnerCounts = partnerCounts;
+        this.itemTypeCounts = itemTypeCounts;
+        this.recentItems = recentItems;
+        this.recentTimes = recentTimes;
+    }
+
+    /**
+     * Gets the number of trades completed with each trade partner.
+     *
+     * @return an unmodifiable map from the username of each trade partner to the number of trades.
+     */
+    public Map<String, Integer> getPartnerCounts() {
+        return Collections.unmodifiableMap(partnerCounts);
+    }
+
+    /**
+     * Gets the number of <code>Item</code>s of each type involved in trades, in any status.
+     *
+     * @return an unmodifiable map from each type of <code>Item</code> to the number of <code>Item</code>s.
+     */
+    public Map<String, Integer> getItemTypeCounts() {
+        return Collections.unmodifiableMap(itemTypeCounts);
+    }
+
+    /**
+     * Gets the most recently traded <code>Item</code>s, kept up to <code>RECENT_ITEMS</code> of them.
+     *
+     * @return an unmodifiable list of <code>Item</code>s of completed trades, newest first.
+     */
+    public List<Item> getRecentItems() {
+        return Collections.unmodifiableList(recentItems);
+    }
+
+    /**
+     * Gets the completion time of the trade of each of the most recently traded <code>Item</code>s.
+     *
+     * @return an unmodifiable list of times, in the order of <code>getRecentItems</code>.
+     */
+    public List<LocalDateTime> getRecentTimes() {
+        return Collections.unmodifiableList(recentTimes);
+    }
+
+    /**
+     * Gets the usernames of the <code>k</code> most frequent trade partners.
+     *
+     * @param k the number of trade partners wanted.
+     * @return at most <code>k</code> usernames, most frequent first.
+     */
+    public List<String> getTopPartners(int k) {
+        return top(partnerCounts, k);
+    }
+
+    /**
+     * Gets the <code>k</code> most frequently traded types of <code>Item</code>.
+     *
+     * @param k the number of types wanted.
+     * @return at most <code>k</code> types, most frequent first.
+     */
+    public List<String> getTopItemTypes(int k) {
+        return top(itemTypeCounts, k);
+    }
+
+    /**
+     * Gets the <code>k</code> most recently traded <code>Item</code>s.
+     *
+     * @param k the number of <code>Item</code>s wanted, of which at most <code>RECENT_ITEMS</code> are kept.
+     * @return at most <code>k</code> <code>Item</code>s, newest first.
+     */
+    public List<Item> getRecentItems(int k) {
+        return new ArrayList<>(recentItems.subList(0, Math.max(0, Math.min(k, recentItems.size()))));
+    }
+
+    /* Finds the k keys with the largest counts with a heap of k entries, without sorting all of them. Keys with
+     * equal counts are in the order of the keys.
+     */
+    private static List<String> top(Map<String, Integer> counts, int k) {
+        Comparator<Map.Entry<String, Integer>> order = (a, b) -> {
+            int compare = Integer.compare(a.getValue(), b.getValue());
+            return compare != 0 ? compare : b.getKey().compareTo(a.getKey());
+        };
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(order);
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (heap.size() < k) heap.add(entry);
+            else if (k > 0 && order.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        LinkedList<String> result = new LinkedList<>();
+        while (!heap.isEmpty()) result.addFirst(heap.poll().getKey());
+        return result;
+    }
+
+    void countPartner(String username, int change) {
+        count(partnerCounts, username, change);
+    }
+
+    void countItemType(String type, int change) {
+        count(itemTypeCounts, type, change);
+    }
+
+    private static void count(Map<String, Integer> counts, String key, int change) {
+        int count = counts.getOrDefault(key, 0) + change;
+        if (count > 0) counts.put(key, count);
+        else counts.remove(key);
+    }
+
+    /* Adds item, traded at time, to the recent items if it is among the newest. An item traded again is moved to
+     * the time of its latest trade. Trades without a completion time are older than all others.
+     */
+    void addRecentItem(Item item, LocalDateTime time) {
+        int existing = recentItems.indexOf(item);
+        if (existing >= 0) {
+            if (isBefore(time, recentTimes.get(existing))) return;
+            recentItems.remove(existing);
+            recentTimes.remove(existing);
+        }
+        int position = 0;
+        while (position < recentTimes.size() && !isBefore(recentTimes.get(position), time)) position++;
+        if (position >= RECENT_ITEMS) return;
+        recentItems.add(position, item);
+        recentTimes.add(position, time);
+        if (recentItems.size() > RECENT_ITEMS) {
+            recentItems.remove(RECENT_ITEMS);
+            recentTimes.remove(RECENT_ITEMS);
+        }
+    }
+
+    void clearRecentItems() {
+        recentItems.clear();
+        recentTimes.clear();
+    }
+
+    private static boolean isBefore(LocalDateTime time, LocalDateTime other) {
+        if (time == null) return other != null;
+        return other != null && time.isBefore(other);
+    }
+}
@@ -8,6 +8,8 @@ import core.trade.TradeStatus;
  * Reverts the action of a <code>User</code> deny a <code>Trade</code>.
  */
 public class DenyTradeReverter extends ActionReverter {
+    private static final long serialVersionUID = 3978241105219019711L;
+
     private final Trade trade;
 
     /**
@@ -21,6 +23,15 @@ public class DenyTradeReverter extends ActionReverter {
         this.trade = trade;
     }
 
+    /**
+     * Gets <code>trade</code> stored in this reverter.
+     *
+     * @return <code>trade</code> of this reverter.
+     */
+    public Trade getTrade() {
+        return trade;
+    }
+
     /**
      * Undo the action of <code>User</code> with <code>username</code> deny the <code>trade</code>.
      *
@@ -9,6 +9,8 @@ import java.util.List;
  * Reverts the action of a <code>User</code> requests a <code>Trade</code>.
  */
 public class RequestTradeReverter extends ActionReverter {
+    private static final long serialVersionUID = -1824311799724777027L;
+
     private final Trade trade;
     private final List<Trade> trades;
 
@@ -25,6 +27,15 @@ public class RequestTradeReverter extends ActionReverter {
         this.trades = trades;
     }
 
+    /**
+     * Gets <code>trade</code> stored in this reverter.
+     *
+     * @return <code>trade</code> of this reverter.
+     */
+    public Trade getTrade() {
+        return trade;
+    }
+
     /**
      * Undo the action of <code>User</code> with <code>username</code> requesting <code>trade</code>.
      *
@@ -0,0 +1,116 @@
+package core.user;
+
+import core.account.AccountIndex;
+import core.account.AccountRegistry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that keeps the block relations between all <code>User</code>s, so that whether a user blocked another, or
+ * either of two users blocked the other, is found in constant time however long the block lists are.
+ * <p>
+ * Users are identified by their id in the <code>AccountRegistry</code> of users. The relation between two users is
+ * kept once for both of them, whichever of them blocked the other. The block lists of the users stay the record of
+ * who blocked whom, so they are what is saved, and reverters of blocking keep working on them as before. This index
+ * is built from them and follows their changes.
+ * <p>
+ * The index is changed by the <code>AccountRegistry</code> while it is locked, but read by sessions without it, so
+ * the relations are kept in concurrent maps and sets, and the set of usernames blocked by a user is replaced rather
+ * than changed.
+ */
+public class BlockIndex implements AccountIndex<User> {
+    private final AccountRegistry<User> users;
+    /* The usernames blocked by each user who blocked anyone, as a set. */
+    private final Map<Integer, Set<String>> blocking = new ConcurrentHashMap<>();
+    /* The ids of the users each user blocked or was blocked by. */
+    private final Map<Integer, Set<Integer>> related = new ConcurrentHashMap<>();
+    /* The ids of the users who blocked each username that no user has yet. */
+    private final Map<String, Set<Integer>> pending = new HashMap<>();
+
+    /**
+     * Constructs an empty <code>BlockIndex</code> of the users in <code>users</code>.
+     *
+     * @param users the registry of all <code>User</code>s in this system.
+     */
+    public BlockIndex(AccountRegistry<User> users) {
+        this.users = users;
+    }
+
+    /**
+     * Checks if the <code>User</code> with <code>username</code> blocked <code>blockedUsername</code>.
+     *
+     * @param username        the username of the user who may have blocked the other.
+     * @param blockedUsername the username that may be blocked.
+     * @return true iff <code>blockedUsername</code> is in the block list of the user.
+     */
+    public boolean isBlocking(String username, String blockedUsername) {
+        return blocking.getOrDefault(users.idOf(username), Collections.emptySet()).contains(blockedUsername);
+    }
+
+    /**
+     * Checks if either of two <code>User</code>s blocked the other.
+     *
+     * @param username1 the username of a user.
+     * @param username2 the username of the other user.
+     * @return true iff either user has the other in the block list.
+     */
+    public boolean eitherBlocked(String username1, String username2) {
+        int id1 = users.idOf(username1);
+        int id2 = users.idOf(username2);
+        return id1 >= 0 && id2 >= 0 && related.getOrDefault(id1, Collections.emptySet()).contains(id2);
+    }
+
+    @Override
+    public void add(int id, User user) {
+        Set<Integer> blockers = pending.remove(user.getUsername());
+        if (blockers != null) for (int blocker : blockers) relate(blocker, id);
+        if (user.getBlockList().isEmpty()) return;
+        Set<String> blocked = new HashSet<>(user.getBlockList());
+        blocking.put(id, blocked);
+        for (String username : blocked) block(id, username);
+    }
+
+    @Override
+    public void update(int id, User user) {
+        Set<String> previous = blocking.getOrDefault(id, Collections.emptySet());
+        Set<String> blocked = new HashSet<>(user.getBlockList());
+        if (previous.equals(blocked)) return;
+        if (blocked.isEmpty()) blocking.remove(id);
+        else blocking.put(id, blocked);
+        for (String username : previous) if (!blocked.contains(username)) unblock(id, user.getUsername(), username);
+        for (String username : blocked) if (!previous.contains(username)) block(id, username);
+    }
+
+    private void block(int id, String blockedUsername) {
+        int blockedId = users.idOf(blockedUsername);
+        if (blockedId >= 0) relate(id, blockedId);
+        else pending.computeIfAbsent(blockedUsername, k -> new HashSet<>()).add(id);
+    }
+
+    /* Removes the relation between the users, unless the blocked user also blocked the other. */
+    private void unblock(int id, String username, String blockedUsername) {
+        int blockedId = users.idOf(blockedUsername);
+        if (blockedId < 0) {
+            Set<Integer> blockers = pending.get(blockedUsername);
+            if (blockers != null && blockers.remove(id) && blockers.isEmpty()) pending.remove(blockedUsername);
+        } else if (!blocking.getOrDefault(blockedId, Collections.emptySet()).contains(username)) {
+            unrelate(id, blockedId);
+            unrelate(blockedId, id);
+        }
+    }
+
+    private void relate(int id1, int id2) {
+        related.computeIfAbsent(id1, k -> ConcurrentHashMap.newKeySet()).add(id2);
+        related.computeIfAbsent(id2, k -> ConcurrentHashMap.newKeySet()).add(id1);
+    }
+
+    private void unrelate(int id, int otherId) {
+        Set<Integer> ids = related.get(id);
+        if (ids != null && ids.remove(otherId) && ids.isEmpty()) related.remove(id);
+    }
+}
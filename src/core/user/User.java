@@ -1,19 +1,36 @@
 package core.user;
 
 import core.account.Account;
+import core.account.AccountAttribute;
 import core.item.Item;
 
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents a registered user using this program.
  */
 public class User extends Account implements Serializable {
-    private final List<Item> wishList;
-    private final List<Item> itemsAvailable; // items available for lend
-    private final List<String> blockList;
+    private static final long serialVersionUID = 8965549738194603150L;
+
+    /**
+     * The <code>city</code> of a user, as an attribute that can be indexed.
+     */
+    public static final AccountAttribute<User, String> CITY = new AccountAttribute<>("city", User::getCity);
+    /**
+     * Whether a user is frozen, as an attribute that can be indexed.
+     */
+    public static final AccountAttribute<User, Boolean> FROZEN = new AccountAttribute<>("frozen", User::isFrozen);
+    /**
+     * Whether a user is on vacation, as an attribute that can be indexed.
+     */
+    public static final AccountAttribute<User, Boolean> ON_VACATION =
+            new AccountAttribute<>("onVacation", User::onVacation);
+
+    private List<Item> wishList;
+    private List<Item> itemsAvailable; // items available for lend
+    private List<String> blockList;
     private String city;
     private int numLent;
     private int numBorrowed;
@@ -33,9 +50,9 @@ public class User extends Account implements Serializable {
         super(username, password);
         isFrozen = false;
         onVacation = false;
-        wishList = new ArrayList<>();
-        itemsAvailable = new ArrayList<>();
-        blockList = new ArrayList<>();
+        wishList = Collections.emptyList();
+        itemsAvailable = Collections.emptyList();
+        blockList = Collections.emptyList();
         city = "";
         credit = 60;
     }
@@ -48,6 +65,7 @@ public class User extends Account implements Serializable {
      * @param item the item to be added.
      */
     public void addToItemsAvailable(Item item) {
+        itemsAvailable = growable(itemsAvailable);
         this.itemsAvailable.add(item);
     }
 
@@ -77,6 +95,7 @@ public class User extends Account implements Serializable {
      * @param item the item to be added.
      */
     public void addToWishList(Item item) {
+        wishList = growable(wishList);
         this.wishList.add(item);
     }
 
@@ -106,7 +125,9 @@ public class User extends Account implements Serializable {
      * @param username the username of the other user that this user want to block.
      */
     public void addToBlockList(String username) {
+        blockList = growable(blockList);
         this.blockList.add(username);
+        changed();
     }
 
     /**
@@ -116,6 +137,7 @@ public class User extends Account implements Serializable {
      */
     public void deleteFromBlockList(String username) {
         this.blockList.remove(username);
+        changed();
     }
 
     /**
@@ -134,6 +156,7 @@ public class User extends Account implements Serializable {
      */
     public void setCity(String city) {
         this.city = city;
+        changed();
     }
 
     /**
@@ -152,6 +175,7 @@ public class User extends Account implements Serializable {
      */
     public void setFrozen(boolean frozen) {
         isFrozen = frozen;
+        changed();
     }
 
     /**
@@ -170,6 +194,7 @@ public class User extends Account implements Serializable {
      */
     public void setOnVacation(boolean onVacation) {
         this.onVacation = onVacation;
+        changed();
     }
 
     /**
@@ -208,11 +233,41 @@ public class User extends Account implements Serializable {
         return credit;
     }
 
+    /**
+     * Sets the number of items the user has lent.
+     *
+     * @param numLent the new <code>numLent</code>.
+     */
+    public void setNumLent(int numLent) {
+        this.numLent = numLent;
+        changed();
+    }
+
+    /**
+     * Sets the number of items the user has borrowed.
+     *
+     * @param numBorrowed the new <code>numBorrowed</code>.
+     */
+    public void setNumBorrowed(int numBorrowed) {
+        this.numBorrowed = numBorrowed;
+        changed();
+    }
+
+    /**
+     * Sets user's current <code>credit</code>.
+     *
+     * @param credit the new <code>credit</code>.
+     */
+    public void setCredit(int credit) {
+        this.credit = credit;
+    }
+
     /**
      * Adds 1 to the number of items lent <code>numLent</code>.
      */
     public void addNumLent() {
         numLent += 1;
+        changed();
     }
 
     /**
@@ -220,6 +275,7 @@ public class User extends Account implements Serializable {
      */
     public void addNumBorrowed() {
         numBorrowed += 1;
+        changed();
     }
 
     /**
@@ -270,7 +326,7 @@ public class User extends Account implements Serializable {
 
     /* Basic Info that does not involve lists */
     private String giveBasicInfo() {
-        StringBuilder str = new StringBuilder("<html>Username: " + getUsername() + "<br>Password: " + getPassword());
+        StringBuilder str = new StringBuilder("<html>Username: " + getUsername());
         str.append("<br>City: ");
         if (city.equals("")) str.append("[None]");
         else str.append(city);
@@ -2,6 +2,8 @@ package core.user;
 
 import core.account.Account;
 import core.account.AccountManager;
+import core.account.AccountRegistry;
+import core.account.IndexedCriterion;
 import core.account.reverter.PrivateMessageReverter;
 import core.reverter.ActionReverter;
 import core.user.reverter.AddToBlockListReverter;
@@ -19,22 +21,24 @@ public class UserAccountManager extends AccountManager<User> {
     private final String GUEST_USERNAME = "GUEST";
 
     /**
-     * Creates a <code>UserInfoManager</code> with list of <code>users</code>.
+     * Creates a <code>UserInfoManager</code> with registry of <code>users</code>.
      *
-     * @param users A list of all <code>User</code>s in this system.
+     * @param users A registry of all <code>User</code>s in this system.
      */
-    public UserAccountManager(List<User> users) {
+    public UserAccountManager(AccountRegistry<User> users) {
         super(users);
     }
 
     /**
-     * Creates a <code>User</code> with input <code>username</code> and <code>password</code>.
+     * Creates a <code>User</code> with input <code>username</code> and the password stored as
+     * <code>storedPassword</code>.
      *
-     * @param username The <code>username</code> that the <code>User</code> wants to use.
-     * @param password The <code>password</code> that the <code>User</code> wants to use.
+     * @param username       The <code>username</code> that the <code>User</code> wants to use.
+     * @param storedPassword The stored form of the password that the <code>User</code> wants to use, made by
+     *                       <code>PasswordHasher</code>.
      */
-    public void createUser(String username, String password) {
-        getAccounts().add(new User(username, password));
+    public void createUser(String username, String storedPassword) {
+        addAccount(new User(username, storedPassword));
     }
 
     /* Called by initializeSystem to create guest.*/
@@ -43,7 +47,7 @@ public class UserAccountManager extends AccountManager<User> {
      * Creates and adds a guest(demo) <code>User</code> to <code>accounts</code>.
      */
     public void createGuest() {
-        getAccounts().add(new User(GUEST_USERNAME, "GUEST"));
+        addAccount(new User(GUEST_USERNAME, hashPassword("GUEST")));
     }
 
     /**
@@ -93,7 +97,7 @@ public class UserAccountManager extends AccountManager<User> {
      */
     public ActionReverter deletedFromBlockList(String username, String blockUsername) {
         User user = getAccount(username);
-        if (user != null && user.getBlockList().contains(blockUsername)) {
+        if (user != null && getBlockIndex().isBlocking(username, blockUsername)) {
             user.deleteFromBlockList(blockUsername);
             return new DeleteFromBlockListReverter(user, blockUsername);
         }
@@ -110,7 +114,8 @@ public class UserAccountManager extends AccountManager<User> {
      */
     public ActionReverter addToBlockList(String username, String blockUsername) {
         User user = getAccount(username);
-        if (user != null && !user.getBlockList().contains(blockUsername)) {
+        if (user != null && !getBlockIndex().isBlocking(username, blockUsername)) {
+            blockUsername = intern(blockUsername);
             user.addToBlockList(blockUsername);
             return new AddToBlockListReverter(user, blockUsername);
         }
@@ -153,10 +158,15 @@ public class UserAccountManager extends AccountManager<User> {
     public List<User> getFilteredUsers(String username) {
         User user = getAccount(username);
         if (user == null || user.onVacation() || user.isFrozen()) return new ArrayList<>();
-        return getAccounts((otherUser) -> !(otherUser == user || otherUser.getUsername().equals("GUEST") ||
-                user.getBlockList().contains(otherUser.getUsername()) ||
-                otherUser.getBlockList().contains(user.getUsername()) ||
-                otherUser.onVacation() || (!otherUser.getCity().equals(user.getCity()) && !user.getCity().isEmpty())
+        /* Available users are found from the indexes, by city unless user's city isn't set, and each of them is
+         * checked against the block relations in constant time.
+         */
+        IndexedCriterion<User> available = User.ON_VACATION.is(false);
+        if (!user.getCity().isEmpty()) available = User.CITY.is(user.getCity()).and(available);
+        BlockIndex blockIndex = getBlockIndex();
+        return getAccounts(available.and((otherUser) -> !(otherUser == user ||
+                otherUser.getUsername().equals("GUEST") ||
+                blockIndex.eitherBlocked(username, otherUser.getUsername()))
         ));
     }
 
@@ -199,9 +209,34 @@ public class UserAccountManager extends AccountManager<User> {
         String messageFormatted = "To [User " + receiver.getUsername() + "]:<br>" + message +
                 "<br>Send from [User " + sender.getUsername() + "]<br>";
         sender.addToMessageSent(messageFormatted);
-        if (!getAccount(receiver.getUsername()).getBlockList().contains(sender.getUsername())) {
+        if (!getBlockIndex().isBlocking(receiver.getUsername(), sender.getUsername())) {
             receiver.addToMessageReceived(messageFormatted);
         }
         return new PrivateMessageReverter(sender, receiver, messageFormatted);
     }
+
+    /**
+     * Gets the counters of items lent and borrowed of all users in columns, for scans over all users. The columns are
+     * kept in the registry of users once asked for.
+     *
+     * @return the <code>UserColumns</code> of all users, identified by their id.
+     */
+    public UserColumns getColumns() {
+        return getRegistry().getIndex(UserColumns.class, key -> new UserColumns());
+    }
+
+    /**
+     * Gets the username of the <code>User</code> with id <code>id</code>.
+     *
+     * @param id the id of the <code>User</code>, as in <code>UserColumns</code>.
+     * @return the username of the <code>User</code>.
+     */
+    public String getUsername(int id) {
+        return getRegistry().usernameOf(id);
+    }
+
+    /* Gets the block relations between all users, kept in the registry of users. */
+    private BlockIndex getBlockIndex() {
+        return getRegistry().getIndex(BlockIndex.class, key -> new BlockIndex(getRegistry()));
+    }
 }
@@ -0,0 +1,82 @@
+package core.user;
+
+import core.account.AccountIndex;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Class that keeps the counters of items lent and borrowed of every <code>User</code> in columns, one array of
+ * <code>int</code> per counter. Scans over the users, such as the check of the lend/borrow threshold, run over the
+ * columns rather than going from one <code>User</code> to the next.
+ * <p>
+ * Users are identified by their id in the <code>AccountRegistry</code> of users. The columns are only kept once a
+ * scan asks for them, and follow the changes users report from then on.
+ */
+public class UserColumns implements AccountIndex<User> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int[] numLent = new int[INITIAL_CAPACITY];
+    private int[] numBorrowed = new int[INITIAL_CAPACITY];
+
+    @Override
+    public void add(int id, User user) {
+        if (id >= numLent.length) {
+            int capacity = Math.max(id + 1, numLent.length * 2);
+            numLent = Arrays.copyOf(numLent, capacity);
+            numBorrowed = Arrays.copyOf(numBorrowed, capacity);
+        }
+        size = Math.max(size, id + 1);
+        update(id, user);
+    }
+
+    @Override
+    public void update(int id, User user) {
+        numLent[id] = user.getNumLent();
+        numBorrowed[id] = user.getNumBorrowed();
+    }
+
+    /**
+     * Gets the number of users in the columns.
+     *
+     * @return the number of users, which is one more than the largest id.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of items the <code>User</code> with id <code>id</code> has lent.
+     *
+     * @param id the id of the <code>User</code>.
+     * @return the number of items lent.
+     */
+    public int getNumLent(int id) {
+        return numLent[id];
+    }
+
+    /**
+     * Gets the number of items the <code>User</code> with id <code>id</code> has borrowed.
+     *
+     * @param id the id of the <code>User</code>.
+     * @return the number of items borrowed.
+     */
+    public int getNumBorrowed(int id) {
+        return numBorrowed[id];
+    }
+
+    /**
+     * Gets the ids of the users who lent fewer than <code>min</code> items more than they borrowed.
+     *
+     * @param min the smallest difference between items lent and items borrowed that is not selected.
+     * @return the ids of the users selected.
+     */
+    public BitSet lendBorrowBalanceBelow(int min) {
+        BitSet result = new BitSet(size);
+        for (int id = 0; id < size; id++) {
+            if (numLent[id] - numBorrowed[id] < min) result.set(id);
+        }
+        return result;
+    }
+}
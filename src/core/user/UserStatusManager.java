@@ -1,5 +1,6 @@
 package core.user;
 
+import core.DataLocks;
 import core.reverter.ActionReverter;
 import core.user.reverter.SwitchOnVacationReverter;
 import genericdatatype.Pair;
@@ -14,16 +15,19 @@ import java.util.Map;
 public class UserStatusManager {
     private final List<String> unfreezeRequests;
     private final List<String[]> reportedUsers;
+    private final DataLocks locks;
 
     /**
      * Construct a <code>AdminUserManager</code>
      *
      * @param unfreezeRequests the list of requests from users to unfreeze themselves
      * @param reportedUsers    requests from a user to report another user
+     * @param locks            the locks of the data, which the requests are added to through
      */
-    public UserStatusManager(List<String[]> reportedUsers, List<String> unfreezeRequests) {
+    public UserStatusManager(List<String[]> reportedUsers, List<String> unfreezeRequests, DataLocks locks) {
         this.reportedUsers = reportedUsers;
         this.unfreezeRequests = unfreezeRequests;
+        this.locks = locks;
     }
 
     /**
@@ -71,7 +75,7 @@ public class UserStatusManager {
      */
     public Map<String, Integer> getFrozenUsers(UserAccountManager ua) {
         Map<String, Integer> frozenUsers = new HashMap<>();
-        for (User user : ua.getAccounts(User::isFrozen)) frozenUsers.put(user.getUsername(), 0);
+        for (User user : ua.getAccounts(User.FROZEN.is(true))) frozenUsers.put(user.getUsername(), 0);
         return frozenUsers;
     }
 
@@ -175,7 +179,7 @@ public class UserStatusManager {
      */
     public boolean requestUnfreeze(User user) {
         if (user.isFrozen()) {
-            unfreezeRequests.add(user.getUsername());
+            locks.add(unfreezeRequests, user.getUsername());
             return true;
         }
         return false;
@@ -193,10 +197,13 @@ public class UserStatusManager {
     public boolean reportUser(User reporterUser, User reportedUser, String reason) {
         //One user can only report another user with the same reason once.
         String[] check = new String[]{reporterUser.getUsername(), reportedUser.getUsername(), reason};
-        if (reportedUsers.contains(check)) return false;
+        /* The reports are read synchronized on, since sessions of different users add to them at the same time. */
+        synchronized (reportedUsers) {
+            if (reportedUsers.contains(check)) return false;
+        }
         if (reporterUser != reportedUser) {
             String[] newReport = new String[]{reporterUser.getUsername(), reportedUser.getUsername(), reason};
-            reportedUsers.add(newReport);
+            locks.add(reportedUsers, newReport);
             return true;
         }
         return false;
@@ -7,6 +7,8 @@ import core.user.User;
  * Reverts the action of <code>User</code> add another <code>User</code> to <code>BlockList</code>.
  */
 public class AddToBlockListReverter extends ActionReverter {
+    private static final long serialVersionUID = 5085020889920997062L;
+
     private final String usernameToDelete;
     private final User user;
 
@@ -22,6 +24,24 @@ public class AddToBlockListReverter extends ActionReverter {
         this.user = user;
     }
 
+    /**
+     * Gets <code>user</code> stored in this reverter.
+     *
+     * @return <code>user</code> of this reverter.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets <code>usernameToDelete</code> stored in this reverter.
+     *
+     * @return <code>usernameToDelete</code> of this reverter.
+     */
+    public String getUsernameToDelete() {
+        return usernameToDelete;
+    }
+
     /**
      * Undo the action of adding <code>usernameToDelete</code> to <code>user</code>'s <code>BlockList</code>. Cannot
      * undo if <code>usernameToDelete</code> is not in <code>user</code>'s <code>BlockList</code>.
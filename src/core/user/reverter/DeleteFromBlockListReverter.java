@@ -7,6 +7,8 @@ import core.user.User;
  * Reverts the action of a <code>User</code> delete someone from <code>BlockList</code>.
  */
 public class DeleteFromBlockListReverter extends ActionReverter {
+    private static final long serialVersionUID = 8600062109789275980L;
+
     private final String usernameToAdd;
     private final User user;
 
@@ -22,6 +24,24 @@ public class DeleteFromBlockListReverter extends ActionReverter {
         this.user = user;
     }
 
+    /**
+     * Gets <code>user</code> stored in this reverter.
+     *
+     * @return <code>user</code> of this reverter.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets <code>usernameToAdd</code> stored in this reverter.
+     *
+     * @return <code>usernameToAdd</code> of this reverter.
+     */
+    public String getUsernameToAdd() {
+        return usernameToAdd;
+    }
+
     /**
      * Undo the action of delete <code>usernameToAdd</code> from <code>user</code>'s <code>BlockList</code>. Cannot
      * undo if <code>usernameToAdd</code> is in <code>user</code>'s <code>BlockList</code>.
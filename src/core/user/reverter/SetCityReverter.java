@@ -7,6 +7,8 @@ import core.user.User;
  * Reverts the action of setting city information by a <code>User</code>.
  */
 public class SetCityReverter extends ActionReverter {
+    private static final long serialVersionUID = -2553258154838995034L;
+
     private final String prevCity, currCity;
     private final User user;
 
@@ -24,6 +26,33 @@ public class SetCityReverter extends ActionReverter {
         this.user = user;
     }
 
+    /**
+     * Gets <code>user</code> stored in this reverter.
+     *
+     * @return <code>user</code> of this reverter.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets <code>prevCity</code> stored in this reverter.
+     *
+     * @return <code>prevCity</code> of this reverter.
+     */
+    public String getPrevCity() {
+        return prevCity;
+    }
+
+    /**
+     * Gets <code>currCity</code> stored in this reverter.
+     *
+     * @return <code>currCity</code> of this reverter.
+     */
+    public String getCurrCity() {
+        return currCity;
+    }
+
     /**
      * Undo the action of setting city by <code>user</code>. Cannot undo if <code>user</code> has reset the city again.
      *
@@ -7,6 +7,8 @@ import core.user.User;
  * Reverts the action of switching on/off on-vacation status by a <code>User</code>.
  */
 public class SwitchOnVacationReverter extends ActionReverter {
+    private static final long serialVersionUID = -6884878040107647297L;
+
     private final boolean status;
     private final User user;
 
@@ -22,6 +24,24 @@ public class SwitchOnVacationReverter extends ActionReverter {
         this.user = user;
     }
 
+    /**
+     * Gets <code>user</code> stored in this reverter.
+     *
+     * @return <code>user</code> of this reverter.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets <code>status</code> stored in this reverter.
+     *
+     * @return <code>status</code> of this reverter.
+     */
+    public boolean getStatus() {
+        return status;
+    }
+
     /**
      * Undo the action of switch on/off on-vacation status by <code>user</code>. Cannot undo if <code>user</code> has
      * switch the status again.
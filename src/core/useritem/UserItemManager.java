@@ -1,5 +1,6 @@
 package core.useritem;
 
+import core.IdSequence;
 import core.item.Item;
 import core.reverter.ActionReverter;
 import core.user.User;
@@ -20,21 +21,21 @@ import java.util.Map;
  */
 public class UserItemManager {
     private final List<Pair<String, Item>> itemRequests;
-    private int newestItemId;
+    private final IdSequence itemIds;
     private final Map<String, Integer> itemDescriptionToIDMap, wishlistItemDescriptionToIDMap;
 
     /**
      * Creates an <code>UserItemManager</code> with <code>itemRequests</code>, all requests from users, and
-     * <code>newestItemId</code>, an unique identifier to be assigned to when creating <code>Item</code> object.
+     * <code>itemIds</code>, which gives out the unique identifiers assigned when creating <code>Item</code> objects.
      *
      * @param itemRequests a list of <code>pair</code>s, with the <code>value1</code> being the username of the user
      *                     who wants to request the item, and <code>value2</code> being the data of the item to
      *                     be added.
-     * @param newestItemId the identifier the the next <code>Item</code> to be created.
+     * @param itemIds      the <code>IdSequence</code> that gives out the ids of <code>Item</code>s.
      */
-    public UserItemManager(List<Pair<String, Item>> itemRequests, int newestItemId) {
+    public UserItemManager(List<Pair<String, Item>> itemRequests, IdSequence itemIds) {
         this.itemRequests = itemRequests;
-        this.newestItemId = newestItemId;
+        this.itemIds = itemIds;
         itemDescriptionToIDMap = new HashMap<>();
         wishlistItemDescriptionToIDMap = new HashMap<>();
     }
@@ -104,15 +105,6 @@ public class UserItemManager {
         }
     }
 
-    /**
-     * Return the newest item id
-     *
-     * @return the newest item id
-     */
-    public int getNewestItemId() {
-        return newestItemId;
-    }
-
     /**
      * Gets formatted representation of <code>itemRequests</code>
      *
@@ -207,7 +199,7 @@ public class UserItemManager {
      */
     public ActionReverter createItemAndRequest(String username, String itemType, String itemName,
                                                String itemDescription) {
-        Item item = new Item(itemType, itemName, itemDescription, ++newestItemId);
+        Item item = new Item(itemType, itemName, itemDescription, itemIds.next());
         Pair<String, Item> newRequest = new Pair<>(username, item);
         itemRequests.add(newRequest);
         return new ItemRequestReverter(itemRequests, newRequest);
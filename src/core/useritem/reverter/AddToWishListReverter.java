@@ -8,6 +8,8 @@ import core.user.User;
  * Reverts the action of a <code>User</code> adding an <code>Item</code> to <code>wishList</code>.
  */
 public class AddToWishListReverter extends ActionReverter {
+    private static final long serialVersionUID = 7347921321528538318L;
+
     private final Item itemToRemove;
     private final User user;
 
@@ -23,6 +25,24 @@ public class AddToWishListReverter extends ActionReverter {
         this.user = user;
     }
 
+    /**
+     * Gets <code>user</code> stored in this reverter.
+     *
+     * @return <code>user</code> of this reverter.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets <code>itemToRemove</code> stored in this reverter.
+     *
+     * @return <code>itemToRemove</code> of this reverter.
+     */
+    public Item getItemToRemove() {
+        return itemToRemove;
+    }
+
     /**
      * Undo the action of adding <code>item</code> to <code>user</code>'s <code>wishList</code>. Cannot undo if
      * <code>item</code> is not in <code>user</code>'s <code>wishList</code>.
@@ -8,6 +8,8 @@ import core.user.User;
  * Reverts the action of a <code>User</code> delete an <code>Item</code> from <code>wishList</code>
  */
 public class DeleteFromWishListReverter extends ActionReverter {
+    private static final long serialVersionUID = -2867747703800113218L;
+
     private final Item itemToAdd;
     private final User user;
 
@@ -23,6 +25,24 @@ public class DeleteFromWishListReverter extends ActionReverter {
         this.user = user;
     }
 
+    /**
+     * Gets <code>user</code> stored in this reverter.
+     *
+     * @return <code>user</code> of this reverter.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets <code>itemToAdd</code> stored in this reverter.
+     *
+     * @return <code>itemToAdd</code> of this reverter.
+     */
+    public Item getItemToAdd() {
+        return itemToAdd;
+    }
+
     /**
      * Undo the action of delete <code>item</code> from <code>user</code>'s <code>wishList</code>. Cannot undo if
      * <code>item</code> is in <code>user</code>'s <code>wishList</code>.
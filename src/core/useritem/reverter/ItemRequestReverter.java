@@ -10,6 +10,8 @@ import java.util.List;
  * Revert action of requesting an Item.
  */
 public class ItemRequestReverter extends ActionReverter {
+    private static final long serialVersionUID = -3326475679121720069L;
+
     private final List<Pair<String, Item>> itemRequests;
     private final Pair<String, Item> request;
 
@@ -25,6 +27,15 @@ public class ItemRequestReverter extends ActionReverter {
         this.request = request;
     }
 
+    /**
+     * Gets <code>request</code> stored in this reverter.
+     *
+     * @return <code>request</code> of this reverter.
+     */
+    public Pair<String, Item> getRequest() {
+        return request;
+    }
+
     /**
      * Revert the action.
      *
@@ -6,6 +6,7 @@ import java.io.Serializable;
  * Represents a generic data type that holds a pair of values.
  */
 public class Pair<A, B> implements Serializable {
+    private static final long serialVersionUID = 3068504266016237609L;
 
     /**
      * the first slot of the pair.
@@ -0,0 +1,225 @@
+package client.controllers;
+
+import client.databundle.DataBundle;
+import client.databundle.Mutation;
+import client.databundle.SnapshotCodec;
+import core.admin.Admin;
+import core.item.Item;
+import core.meeting.Meeting;
+import core.trade.Trade;
+import core.user.User;
+import genericdatatype.Pair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static testing.Assertions.assertArrayEquals;
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that user and admin sessions sharing one bundle from many threads at once give out every id once, never
+ * fail, and journal their changes in an order that replays to the same bundle.
+ */
+public class ConcurrentSessionsTest {
+    private static final long SEED = 18;
+    private static final int USERS = 12;
+    private static final int ADMINS = 2;
+    private static final int ROUNDS = 150;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    /* Every session reads the same time, which is the time journaled with its changes. */
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 8, 3, 9, 0);
+    private static final Clock CLOCK = Clock.fixed(NOW.atZone(ZONE).toInstant(), ZONE);
+    private static final String MEETING_TIME = NOW.plusDays(2).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+
+    private final List<Mutation> journal = Collections.synchronizedList(new ArrayList<>());
+
+    public static void testConcurrentSessionsReplayToTheSameBundle() throws Exception {
+        new ConcurrentSessionsTest().concurrentSessionsReplayToTheSameBundle();
+    }
+
+    private void concurrentSessionsReplayToTheSameBundle() throws Exception {
+        DataBundle recorded = initialBundle();
+        /* The bundle is replayed on is read from a snapshot, since the passwords set up are salted at random. */
+        DataBundle replayed = new SnapshotCodec().read(ByteBuffer.wrap(encode(recorded)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(USERS + ADMINS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> sessions = new ArrayList<>();
+        try {
+            for (int i = 0; i < USERS; i++) {
+                int user = i;
+                sessions.add(executor.submit(() -> {
+                    start.await();
+                    Random random = new Random(SEED + user);
+                    for (int round = 0; round < ROUNDS; round++) userSession(recorded, user, random);
+                    return null;
+                }));
+            }
+            for (int i = 0; i < ADMINS; i++) {
+                int admin = i;
+                sessions.add(executor.submit(() -> {
+                    start.await();
+                    Random random = new Random(-SEED - admin);
+                    for (int round = 0; round < ROUNDS / 5; round++) adminSession(recorded, random);
+                    return null;
+                }));
+            }
+            start.countDown();
+            /* get throws the first exception of a session, such as an IllegalStateException of a lock */
+            for (Future<?> session : sessions) session.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(journal.size() > 500, "changes journaled: " + journal.size());
+
+        assertUnique(recorded);
+        ReplaySystem replaySystem = new ReplaySystem(replayed);
+        for (Mutation mutation : journal) replaySystem.replay(mutation);
+        assertEquals(recorded.tradeIdCounter, replayed.tradeIdCounter, "trade ids given out");
+        assertEquals(recorded.meetingIdCounter, replayed.meetingIdCounter, "meeting ids given out");
+        assertArrayEquals(encode(recorded), encode(replayed), "snapshot of the replayed bundle");
+    }
+
+    /* Makes one change of a random kind as the user, through a session of its own. */
+    private void userSession(DataBundle dataBundle, int i, Random random) {
+        UserSystem userSystem = new UserSystem(dataBundle, username(i), journal::add, CLOCK);
+        String other = username(random.nextInt(USERS));
+        /* The trades of the user as the session sees them, which other sessions may change or undo before use. */
+        List<Integer> requested = new ArrayList<>();
+        List<Integer> started = new ArrayList<>();
+        for (String tradeId : userSystem.getTradesInfo().get(0)) {
+            int trade = Integer.parseInt(tradeId);
+            (userSystem.tradeNotStarted(trade) ? requested : started).add(trade);
+        }
+        int trade = started.isEmpty() ? -1 : started.get(random.nextInt(started.size()));
+        switch (random.nextInt(12)) {
+            case 0:
+                List<String> inventory = userSystem.getInventoryForTrade();
+                if (!inventory.isEmpty())
+                    userSystem.requestTrade(inventory.get(random.nextInt(inventory.size())), "",
+                            random.nextBoolean() ? "Permanent" : "Temporary");
+                break;
+            case 1:
+                if (!requested.isEmpty()) {
+                    int request = requested.get(random.nextInt(requested.size()));
+                    if (random.nextInt(4) == 0) userSystem.denyTrade(request);
+                    else userSystem.agreeToTrade(request);
+                }
+                break;
+            case 2:
+            case 3:
+                if (trade >= 0) userSystem.createMeeting(trade, "Library", MEETING_TIME);
+                break;
+            case 4:
+                if (trade >= 0) userSystem.editMeeting(trade, "Cafe", MEETING_TIME);
+                break;
+            case 5:
+                if (trade >= 0) userSystem.confirmMeetingArrangement(trade);
+                break;
+            case 6:
+                if (trade >= 0) userSystem.confirmMeetingOccurred(trade);
+                break;
+            case 7:
+                if (!other.equals(username(i))) {
+                    if (random.nextBoolean()) userSystem.addToBlockList(other);
+                    else userSystem.removeFromBlockList(other);
+                }
+                break;
+            case 8:
+                userSystem.sendPrivateMessage(other, "hello from " + i);
+                break;
+            case 9:
+                userSystem.setCity(random.nextInt(4) == 0 ? "Ottawa" : "Toronto");
+                break;
+            case 10:
+                userSystem.createItemAndRequest("book", "title" + i, "description" + i);
+                break;
+            default:
+                userSystem.reportUser(other, "reason " + i);
+        }
+    }
+
+    /* Handles a request or undoes a change, through a session of its own. */
+    private void adminSession(DataBundle dataBundle, Random random) {
+        AdminSystem adminSystem = new AdminSystem(dataBundle, "admin", journal::add, CLOCK);
+        if (random.nextBoolean()) {
+            Map<RequestType, Collection<Pair<String, String>>> requests = adminSystem.getRequests();
+            for (RequestType type : new RequestType[]{RequestType.ITEM, RequestType.REPORT}) {
+                for (Pair<String, String> request : requests.get(type)) {
+                    adminSystem.handleRequest(type, request, random.nextBoolean());
+                    break;
+                }
+            }
+        } else {
+            List<Object> reverters = new ArrayList<>();
+            for (Map<String, List<Pair<String, Object>>> byType : adminSystem.getFormattedRevertersByUsername()
+                    .values())
+                for (List<Pair<String, Object>> list : byType.values())
+                    for (Pair<String, Object> reverter : list) reverters.add(reverter.value2);
+            if (!reverters.isEmpty())
+                new AdminSystem(dataBundle, "admin", journal::add, CLOCK)
+                        .undo(reverters.get(random.nextInt(reverters.size())));
+        }
+    }
+
+    private static void assertUnique(DataBundle dataBundle) {
+        Set<Integer> tradeIds = new HashSet<>();
+        for (Trade trade : dataBundle.getTradeRegistry().getTrades())
+            assertTrue(tradeIds.add(trade.getTradeId()), "trade id given out twice: " + trade.getTradeId());
+        Set<Integer> meetingIds = new HashSet<>();
+        for (Meeting meeting : dataBundle.getMeetingRegistry().getMeetings())
+            assertTrue(meetingIds.add(meeting.getMeetingId()), "meeting id given out twice: " + meeting.getMeetingId());
+        Set<Integer> itemIds = new HashSet<>();
+        for (User user : dataBundle.users)
+            for (Item item : user.getItemsAvailable())
+                assertTrue(itemIds.add(item.getId()), "item id given out twice: " + item.getId());
+        assertTrue(tradeIds.size() > 20, "trades made: " + tradeIds.size());
+        assertTrue(meetingIds.size() > 5, "meetings made: " + meetingIds.size());
+    }
+
+    private DataBundle initialBundle() {
+        DataBundle dataBundle = new DataBundle();
+        dataBundle.admins.add(new Admin("admin", "password", true));
+        int itemId = 1;
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(username(i), "password" + i);
+            user.setCity("Toronto");
+            for (int k = 0; k < 4; k++, itemId++)
+                user.addToItemsAvailable(new Item("type" + k % 2, "item" + itemId, "description" + itemId, itemId));
+            dataBundle.users.add(user);
+        }
+        dataBundle.itemIdCounter = itemId;
+        dataBundle.maxIncompleteTrade = 1000;
+        dataBundle.maxWeeklyTransaction = 1000;
+        new StartingSystem(dataBundle).initializeSystem();
+        return dataBundle;
+    }
+
+    private static String username(int i) {
+        return "user" + i;
+    }
+
+    private static byte[] encode(DataBundle dataBundle) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new SnapshotCodec().write(dataBundle, bytes);
+        return bytes.toByteArray();
+    }
+}
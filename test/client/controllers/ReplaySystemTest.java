@@ -0,0 +1,183 @@
+package client.controllers;
+
+import client.databundle.DataBundle;
+import client.databundle.Mutation;
+import client.databundle.SnapshotCodec;
+import core.admin.Admin;
+import core.item.Item;
+import core.user.User;
+import genericdatatype.Pair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static testing.Assertions.assertArrayEquals;
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that replaying the journal of a session on a snapshot of the bundle it started from gives the bundle the
+ * session left.
+ */
+public class ReplaySystemTest {
+    private static final int USERS = 6;
+    /* The zone mutations are replayed in. */
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    /* The journal recorded, and the time of the next change, which moves a minute at a time. */
+    private final List<Mutation> journal = new ArrayList<>();
+    private Instant now = LocalDateTime.of(2020, 8, 3, 9, 0).atZone(ZONE).toInstant();
+
+    public static void testReplayGivesTheSameBundle() throws IOException {
+        new ReplaySystemTest().replayGivesTheSameBundle();
+    }
+
+    private void replayGivesTheSameBundle() throws IOException {
+        DataBundle recorded = initialBundle();
+        /* The bundle is replayed on is read from a snapshot, since the passwords set up are salted at random. */
+        DataBundle replayed = new SnapshotCodec().read(ByteBuffer.wrap(encode(recorded)));
+        record(recorded);
+        assertTrue(journal.size() > 50, "changes recorded");
+
+        ReplaySystem replaySystem = new ReplaySystem(replayed);
+        for (Mutation mutation : journal) replaySystem.replay(mutation);
+        assertEquals(recorded.tradeIdCounter, replayed.tradeIdCounter, "trade ids given out");
+        assertArrayEquals(encode(recorded), encode(replayed), "snapshot of the replayed bundle");
+    }
+
+    /* Makes changes of every kind through the systems, journaling them. */
+    private void record(DataBundle dataBundle) {
+        for (int i = 0; i < USERS; i++) {
+            UserSystem userSystem = user(dataBundle, i);
+            List<String> inventory = userSystem.getInventoryForTrade();
+            for (int k = 0; k < 2; k++)
+                userSystem.requestTrade(inventory.get((i + 3 * k) % inventory.size()), "",
+                        k == 0 ? "Permanent" : "Temporary");
+        }
+        for (int i = 0; i < USERS; i++) {
+            for (String trade : tradesOf(dataBundle, i)) {
+                int tradeId = Integer.parseInt(trade);
+                if (user(dataBundle, i).tradeNotStarted(tradeId)) {
+                    if (tradeId % 3 == 0) user(dataBundle, i).denyTrade(tradeId);
+                    else user(dataBundle, i).agreeToTrade(tradeId);
+                }
+            }
+        }
+        String time = LocalDateTime.ofInstant(now, ZONE).plusDays(2)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        for (int i = 0; i < USERS; i++) {
+            for (String trade : tradesOf(dataBundle, i)) {
+                int tradeId = Integer.parseInt(trade);
+                user(dataBundle, i).createMeeting(tradeId, "Library", time);
+                user(dataBundle, i).editMeeting(tradeId, "Cafe", time);
+                for (int j = 0; j < USERS; j++) {
+                    user(dataBundle, j).confirmMeetingArrangement(tradeId);
+                    if (tradeId % 2 == 0) user(dataBundle, j).confirmMeetingOccurred(tradeId);
+                }
+            }
+        }
+        for (int i = 0; i < USERS; i++) {
+            UserSystem userSystem = user(dataBundle, i);
+            userSystem.addToBlockList(username((i + 1) % USERS));
+            if (i % 2 == 0) userSystem.removeFromBlockList(username((i + 1) % USERS));
+            userSystem.sendPrivateMessage(username((i + 2) % USERS), "hello from " + i);
+            userSystem.addToUserWishList(userSystem.getInventoryForWishlist().get(0));
+            userSystem.createItemAndRequest("book", "title" + i, "description" + i);
+            userSystem.reportUser(username((i + 3) % USERS), "reason " + i);
+            if (i == 1) userSystem.setCity("Ottawa");
+            if (i == 2) {
+                /* switched on and back off, both of which are journaled */
+                userSystem.switchVacationStatus();
+                userSystem.switchVacationStatus();
+            }
+            if (i == 5) userSystem.switchVacationStatus();
+            userSystem.updateCreditSubtraction();
+        }
+
+        /* Passwords are hashed with a random salt, so only a journal of the hashes replays to the same bundle. */
+        LoginSystem loginSystem = new LoginSystem(dataBundle, journal::add);
+        assertEquals(LoginType.USER, loginSystem.login(username(5), "password5"), "login of a plain text password");
+        assertEquals(LoginType.ADMIN, loginSystem.login("admin", "password"), "login of the admin");
+        user(dataBundle, 4).changeCurrUserPassword("changed4");
+        RegistrationSystem registrationSystem = new RegistrationSystem(dataBundle, journal::add);
+        registrationSystem.createUser("newcomer", "password");
+        registrationSystem.requestAdmin("applicant", "password", "applicant@example.com");
+        admin(dataBundle).createAdmin("deputy", "password");
+        admin(dataBundle).setPassword("changed");
+
+        AdminSystem adminSystem = admin(dataBundle);
+        adminSystem.freezeUser(username(3));
+        user(dataBundle, 3).requestUnfreeze();
+        adminSystem = admin(dataBundle);
+        Map<RequestType, Collection<Pair<String, String>>> requests = adminSystem.getRequests();
+        boolean accepted = true;
+        for (RequestType type : new RequestType[]{RequestType.ITEM, RequestType.UNFREEZE, RequestType.REPORT}) {
+            for (Pair<String, String> request : requests.get(type)) {
+                admin(dataBundle).handleRequest(type, request, accepted);
+                accepted = !accepted;
+            }
+        }
+        admin(dataBundle).setIncompleteTradeLimit("5");
+        admin(dataBundle).setWeeklyTransactionLimit("4");
+        admin(dataBundle).setAnnouncement("maintenance tonight");
+        adminSystem = admin(dataBundle);
+        Object reverter = adminSystem.getFormattedRevertersByUsername().get(username(0)).values().iterator().next()
+                .get(0).value2;
+        adminSystem.undo(reverter);
+    }
+
+    private DataBundle initialBundle() {
+        DataBundle dataBundle = new DataBundle();
+        dataBundle.admins.add(new Admin("admin", "password", true));
+        int itemId = 1;
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(username(i), "password" + i);
+            user.setCity("Toronto");
+            for (int k = 0; k < 3; k++, itemId++)
+                user.addToItemsAvailable(new Item("type" + k, "item" + itemId, "description" + itemId, itemId));
+            dataBundle.users.add(user);
+        }
+        dataBundle.itemIdCounter = itemId;
+        new StartingSystem(dataBundle).initializeSystem();
+        return dataBundle;
+    }
+
+    private UserSystem user(DataBundle dataBundle, int i) {
+        return new UserSystem(dataBundle, username(i), journal::add, tick());
+    }
+
+    private AdminSystem admin(DataBundle dataBundle) {
+        return new AdminSystem(dataBundle, "admin", journal::add, tick());
+    }
+
+    /* Gets the ids of the trades of a user, which may abandon late trades as a journaled change. */
+    private String[] tradesOf(DataBundle dataBundle, int i) {
+        return user(dataBundle, i).getTradesInfo().get(0);
+    }
+
+    /* A clock for one change, so that the time a change reads is the time journaled with it. */
+    private Clock tick() {
+        now = now.plusSeconds(60);
+        return Clock.fixed(now, ZONE);
+    }
+
+    private static String username(int i) {
+        return "user" + i;
+    }
+
+    private static byte[] encode(DataBundle dataBundle) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new SnapshotCodec().write(dataBundle, bytes);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,240 @@
+package client.databundle;
+
+import core.item.Item;
+import core.meeting.Meeting;
+import core.trade.Trade;
+import core.trade.TradeStatus;
+import core.user.User;
+import testing.TemporaryDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertFalse;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that changes made to the entities of a bundle loaded from an <code>EntityStore</code> are written through to
+ * the store once committed, and only then.
+ */
+public class EntityStoreTest {
+    private static final long SEED = 209;
+
+    public static void testCommittedChangeSurvivesReopening() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            File file = directory.file("store.kv");
+            String username;
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                EntityStore entityStore = new EntityStore(store);
+                assertTrue(entityStore.isEmpty(), "new store is empty");
+                DataBundle dataBundle = entityStore.importBundle(new DataBundleGenerator(SEED).generate(20, 30, 20));
+                assertFalse(entityStore.isEmpty(), "store is empty after import");
+                username = dataBundle.users.get(1).getUsername();
+                entityStore.release();
+                /* looked up again after the release, as managers do */
+                dataBundle.users.get(1).setCity("Kingston");
+                entityStore.commit();
+                store.sync();
+            }
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                User user = new EntityStore(store).load().users.get(1);
+                assertEquals(username, user.getUsername(), "username");
+                assertEquals("Kingston", user.getCity(), "city committed");
+            }
+        }
+    }
+
+    public static void testAddedElementsSurviveReopening() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            File file = directory.file("store.kv");
+            int count;
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle dataBundle = entityStore.importBundle(new DataBundleGenerator(SEED).generate(20, 30, 20));
+                User user = new User("newcomer", "password");
+                user.setCity("Kingston");
+                user.addToItemsAvailable(new Item("book", "atlas", "a new atlas", dataBundle.itemIdCounter++));
+                dataBundle.users.add(user);
+                count = dataBundle.users.size();
+                entityStore.commit();
+                store.sync();
+            }
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                DataBundle dataBundle = new EntityStore(store).load();
+                assertEquals(count, dataBundle.users.size(), "number of users");
+                User user = dataBundle.users.get(count - 1);
+                assertEquals("newcomer", user.getUsername(), "username of the user added");
+                assertEquals("Kingston", user.getCity(), "city of the user added");
+                assertEquals("atlas", user.getItemsAvailable().get(0).getName(), "item of the user added");
+            }
+        }
+    }
+
+    public static void testUsernamesAddedSurviveReopening() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            File file = directory.file("store.kv");
+            String username;
+            int tradeId;
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle dataBundle = entityStore.importBundle(new DataBundleGenerator(SEED).generate(20, 30, 20));
+                dataBundle.users.add(new User("newcomer", "password"));
+                User user = dataBundle.users.get(0);
+                username = user.getUsername();
+                user.addToBlockList("newcomer");
+                tradeId = ++dataBundle.tradeIdCounter;
+                dataBundle.getTrades().add(new Trade("newcomer", username, new Item[]{null, null}, true, tradeId));
+                entityStore.commit();
+                store.sync();
+            }
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle dataBundle = entityStore.load();
+                assertTrue(dataBundle.users.get(0).getBlockList().contains("newcomer"), "user blocked");
+                Trade trade = entityStore.getTrade(tradeId);
+                assertEquals("newcomer", trade.getUsername(0), "user added in the trade");
+                assertEquals(username, trade.getUsername(1), "user imported in the trade");
+            }
+        }
+    }
+
+    public static void testChangeThroughTheTradeRegistrySurvivesReopening() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            File file = directory.file("store.kv");
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle source = new DataBundleGenerator(SEED).generate(20, 0, 0);
+                String username0 = source.users.get(0).getUsername();
+                String username1 = source.users.get(1).getUsername();
+                source.getTrades().add(new Trade(username0, username1, new Item[]{null, null}, true, 1));
+                source.getTrades().add(new Trade(username1, username0, new Item[]{null, null}, true, 2));
+                DataBundle dataBundle = entityStore.importBundle(source);
+                assertEquals(TradeStatus.NOT_STARTED, dataBundle.getTradeRegistry().get(1).getStatus(), "status");
+                entityStore.release();
+                /* found through the indexes built before the release, as managers do */
+                dataBundle.getTradeRegistry().get(1).setStatus(TradeStatus.CANCELLED);
+                entityStore.commit();
+                store.sync();
+            }
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                Trade trade = new EntityStore(store).load().getTradeRegistry().get(1);
+                assertEquals(TradeStatus.CANCELLED, trade.getStatus(), "status committed");
+            }
+        }
+    }
+
+    public static void testChangeThroughTheMeetingRegistrySurvivesReopening() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            File file = directory.file("store.kv");
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle source = new DataBundleGenerator(SEED).generate(20, 0, 0);
+                LocalDateTime time = LocalDateTime.of(2020, 8, 3, 9, 0);
+                source.getMeetings().add(new Meeting("Cafe", time, 1));
+                source.getMeetings().add(new Meeting("Park", time, 2));
+                DataBundle dataBundle = entityStore.importBundle(source);
+                assertEquals("Cafe", dataBundle.getMeetingRegistry().get(1).getLocation(), "location");
+                entityStore.release();
+                /* found through the index built before the release, as managers do */
+                dataBundle.getMeetingRegistry().get(1).setLocation("Library");
+                entityStore.commit();
+                store.sync();
+            }
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                Meeting meeting = new EntityStore(store).load().getMeetingRegistry().get(1);
+                assertEquals("Library", meeting.getLocation(), "location committed");
+            }
+        }
+    }
+
+    public static void testCommitWritesOnlyTheEntitiesOfItsThread() throws Exception {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            try (LogStructuredStore store = new LogStructuredStore(directory.file("store.kv"))) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle dataBundle = entityStore.importBundle(new DataBundleGenerator(SEED).generate(20, 30, 20));
+                String city = dataBundle.users.get(1).getCity();
+                dataBundle.users.get(1).setCity("Kingston");
+                run(() -> {
+                    dataBundle.users.get(2).setCity("Ottawa");
+                    entityStore.commit();
+                });
+                DataBundle reloaded = new EntityStore(store).load();
+                assertEquals("Ottawa", reloaded.users.get(2).getCity(), "city committed by the other thread");
+                assertEquals(city, reloaded.users.get(1).getCity(), "city changed by this thread, not committed");
+
+                entityStore.commit();
+                assertEquals("Kingston", new EntityStore(store).load().users.get(1).getCity(), "city committed");
+            }
+        }
+    }
+
+    public static void testListIsWrittenOnceEveryThreadThatAddedToItCommits() throws Exception {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            try (LogStructuredStore store = new LogStructuredStore(directory.file("store.kv"))) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle dataBundle = entityStore.importBundle(new DataBundleGenerator(SEED).generate(20, 30, 20));
+                int count = dataBundle.users.size();
+                dataBundle.users.add(new User("newcomer", "password"));
+                run(() -> {
+                    dataBundle.users.add(new User("latecomer", "password"));
+                    entityStore.commit();
+                });
+                assertEquals(count, new EntityStore(store).load().users.size(),
+                        "users while this thread has not committed the one it added");
+
+                entityStore.commit();
+                DataBundle reloaded = new EntityStore(store).load();
+                assertEquals(count + 2, reloaded.users.size(), "users once both threads committed");
+                assertEquals("newcomer", reloaded.users.get(count).getUsername(), "user added by this thread");
+                assertEquals("latecomer", reloaded.users.get(count + 1).getUsername(), "user added by the other");
+            }
+        }
+    }
+
+    public static void testEndOfASessionCommitsTheEntitiesItUsed() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            try (LogStructuredStore store = new LogStructuredStore(directory.file("store.kv"))) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle dataBundle = entityStore.importBundle(new DataBundleGenerator(SEED).generate(20, 30, 20));
+                dataBundle.getLocks().session(() -> {
+                    dataBundle.users.get(3).setCity("Hamilton");
+                    return null;
+                });
+                assertEquals("Hamilton", new EntityStore(store).load().users.get(3).getCity(), "city committed");
+            }
+        }
+    }
+
+    public static void testLoadDiscardsUncommittedChanges() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            try (LogStructuredStore store = new LogStructuredStore(directory.file("store.kv"))) {
+                EntityStore entityStore = new EntityStore(store);
+                DataBundle dataBundle = entityStore.importBundle(new DataBundleGenerator(SEED).generate(20, 30, 20));
+                String city = dataBundle.users.get(2).getCity();
+                dataBundle.users.get(2).setCity("Nowhere");
+                assertEquals(city, entityStore.load().users.get(2).getCity(), "city after reloading");
+            }
+        }
+    }
+
+    private interface Change {
+        void run() throws IOException;
+    }
+
+    /* Runs change on another thread, and waits for it to end. */
+    private static void run(Change change) throws Exception {
+        IOException[] failure = new IOException[1];
+        Thread thread = new Thread(() -> {
+            try {
+                change.run();
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure[0] != null) throw failure[0];
+    }
+}
@@ -0,0 +1,98 @@
+package client.databundle;
+
+import testing.TemporaryDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that a <code>LogStructuredStore</code> keeps what was written across reopening, torn writes and compaction.
+ */
+public class LogStructuredStoreTest {
+    public static void testRecordsSurviveReopening() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            File file = directory.file("store.kv");
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                store.put("account/alice", bytes("alice"));
+                store.put("account/bob", bytes("bob"));
+                store.put("item/1", bytes("lamp"));
+                store.put("account/alice", bytes("alice2"));
+                store.put("account/bob", null);
+                store.sync();
+            }
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                assertEquals("alice2", string(store.get("account/alice")), "replaced record");
+                assertEquals(null, store.get("account/bob"), "removed record");
+                assertEquals(Arrays.asList("account/alice"), store.scan("account/"), "keys scanned");
+                assertEquals(Arrays.asList("account/alice", "item/1"), store.scan(""), "all keys");
+            }
+        }
+    }
+
+    public static void testTornBatchIsDiscardedAsAWhole() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            File file = directory.file("store.kv");
+            long intactLength;
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                store.put("trade/1", bytes("first"));
+                store.sync();
+                intactLength = file.length();
+                Map<String, byte[]> batch = new LinkedHashMap<>();
+                batch.put("trade/1", bytes("second"));
+                batch.put("trade/2", bytes("other"));
+                store.write(batch);
+                store.sync();
+            }
+            /* cut the commit record of the second batch off, as a crash in the middle of the write would */
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(file.length() - 3);
+            }
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                assertEquals("first", string(store.get("trade/1")), "record of the intact batch");
+                assertEquals(null, store.get("trade/2"), "record of the torn batch");
+            }
+            assertEquals(intactLength, file.length(), "length of the log after recovery");
+        }
+    }
+
+    public static void testCompactionKeepsLiveRecords() throws IOException {
+        try (TemporaryDirectory directory = new TemporaryDirectory()) {
+            File file = directory.file("store.kv");
+            byte[] large = new byte[64 * 1024];
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                store.put("meeting/1", bytes("kept"));
+                for (int i = 0; i < 40; i++) {
+                    large[0] = (byte) i;
+                    store.put("meeting/2", large);
+                }
+                long before = file.length();
+                store.sync();
+                assertTrue(file.length() < before / 4, "log compacted from " + before + " to " + file.length());
+                assertEquals("kept", string(store.get("meeting/1")), "record read after compaction");
+                store.put("meeting/3", bytes("added"));
+                store.sync();
+            }
+            try (LogStructuredStore store = new LogStructuredStore(file)) {
+                assertEquals("kept", string(store.get("meeting/1")), "record kept by compaction");
+                assertEquals(39, (int) store.get("meeting/2")[0], "newest record of a key replaced");
+                assertEquals("added", string(store.get("meeting/3")), "record added after compaction");
+            }
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package client.databundle;
+
+import core.item.Item;
+import core.meeting.Meeting;
+import core.trade.Trade;
+import core.user.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static testing.Assertions.assertArrayEquals;
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that a <code>DataBundle</code> read back from a snapshot holds what was written.
+ */
+public class SnapshotCodecTest {
+    private static final long SEED = 207;
+
+    public static void testRoundTripKeepsEveryEntity() throws IOException {
+        DataBundle source = new DataBundleGenerator(SEED).generate(40, 60, 40);
+        DataBundle read = new SnapshotCodec().read(ByteBuffer.wrap(encode(source, BlockCodecs.NONE)));
+
+        assertEquals(source.users.size(), read.users.size(), "number of users");
+        for (int i = 0; i < source.users.size(); i++) {
+            User expected = source.users.get(i);
+            User actual = read.users.get(i);
+            String user = expected.getUsername();
+            assertEquals(user, actual.getUsername(), "username");
+            assertEquals(expected.getPassword(), actual.getPassword(), "password of " + user);
+            assertEquals(expected.getCity(), actual.getCity(), "city of " + user);
+            assertEquals(expected.getCredit(), actual.getCredit(), "credit of " + user);
+            assertEquals(expected.getNumLent(), actual.getNumLent(), "items lent by " + user);
+            assertEquals(expected.getNumBorrowed(), actual.getNumBorrowed(), "items borrowed by " + user);
+            assertEquals(expected.isFrozen(), actual.isFrozen(), "frozen " + user);
+            assertEquals(expected.onVacation(), actual.onVacation(), "vacation of " + user);
+            assertEquals(expected.getBlockList(), actual.getBlockList(), "block list of " + user);
+            assertEquals(expected.getMessageReceived(), actual.getMessageReceived(), "messages of " + user);
+            assertEquals(String.valueOf(expected.getWishList()), String.valueOf(actual.getWishList()),
+                    "wish list of " + user);
+            assertEquals(String.valueOf(expected.getItemsAvailable()), String.valueOf(actual.getItemsAvailable()),
+                    "items of " + user);
+        }
+        assertEquals(source.getTrades().size(), read.getTrades().size(), "number of trades");
+        for (int i = 0; i < source.getTrades().size(); i++) {
+            Trade expected = source.getTrades().get(i);
+            Trade actual = read.getTrades().get(i);
+            assertEquals(expected.getTradeId(), actual.getTradeId(), "trade id");
+            assertEquals(expected.toString(), actual.toString(), "trade " + expected.getTradeId());
+            assertEquals(expected.getStatus(), actual.getStatus(), "status of trade " + expected.getTradeId());
+            assertTrue(Arrays.equals(expected.getRelatedMeetings(), actual.getRelatedMeetings()),
+                    "meetings of trade " + expected.getTradeId());
+            assertEquals(expected.getTradeCompletionTime(), actual.getTradeCompletionTime(),
+                    "completion of trade " + expected.getTradeId());
+        }
+        assertEquals(source.getMeetings().size(), read.getMeetings().size(), "number of meetings");
+        for (int i = 0; i < source.getMeetings().size(); i++) {
+            Meeting expected = source.getMeetings().get(i);
+            Meeting actual = read.getMeetings().get(i);
+            assertEquals(expected.getMeetingId(), actual.getMeetingId(), "meeting id");
+            assertEquals(expected.toString(), actual.toString(), "meeting " + expected.getMeetingId());
+        }
+        assertEquals(source.getActionReverters().size(), read.getActionReverters().size(), "number of reverters");
+        assertEquals(source.getItemRequests().size(), read.getItemRequests().size(), "number of item requests");
+        for (int i = 0; i < source.getItemRequests().size(); i++) {
+            assertEquals(source.getItemRequests().get(i).value1, read.getItemRequests().get(i).value1,
+                    "user of item request");
+            assertEquals(String.valueOf(source.getItemRequests().get(i).value2),
+                    String.valueOf(read.getItemRequests().get(i).value2), "item of item request");
+        }
+        assertEquals(source.itemIdCounter, read.itemIdCounter, "item id counter");
+        assertEquals(source.tradeIdCounter, read.tradeIdCounter, "trade id counter");
+        assertEquals(source.meetingIdCounter, read.meetingIdCounter, "meeting id counter");
+        assertEquals(source.maxWeeklyTransaction, read.maxWeeklyTransaction, "weekly transaction limit");
+    }
+
+    public static void testItemsStaySharedBetweenEntities() throws IOException {
+        DataBundle source = new DataBundleGenerator(SEED).generate(40, 60, 40);
+        DataBundle read = new SnapshotCodec().read(ByteBuffer.wrap(encode(source, BlockCodecs.NONE)));
+
+        Map<Item, Boolean> items = new IdentityHashMap<>();
+        for (User user : read.users) for (Item item : user.getItemsAvailable()) items.put(item, true);
+        int shared = 0;
+        for (User user : read.users) {
+            for (Item item : user.getWishList()) {
+                assertTrue(items.containsKey(item), "wished item " + item.getId() + " is an item of a user");
+                shared++;
+            }
+        }
+        assertTrue(shared > 0, "items wished for");
+    }
+
+    public static void testEncodingIsStableAcrossRoundTripsAndCodecs() throws IOException {
+        DataBundle source = new DataBundleGenerator(SEED).generate(40, 60, 40);
+        byte[] encoded = encode(source, BlockCodecs.NONE);
+        for (BlockCodec codec : new BlockCodec[]{BlockCodecs.NONE, BlockCodecs.DEFLATE}) {
+            DataBundle read = new SnapshotCodec().read(ByteBuffer.wrap(encode(source, codec)));
+            assertArrayEquals(encoded, encode(read, BlockCodecs.NONE), "snapshot written back from " +
+                    codec.getName());
+        }
+    }
+
+    public static void testUsernamesOfNoUserAreKept() throws IOException {
+        DataBundle source = new DataBundleGenerator(SEED).generate(40, 60, 40);
+        User user = source.users.get(0);
+        user.addToBlockList("ghost");
+        source.getTrades().add(new Trade(user.getUsername(), "nobody", new Item[]{null, null}, true, 1000));
+        source.getUnfreezeRequests().add("ghost");
+        DataBundle read = new SnapshotCodec().read(ByteBuffer.wrap(encode(source, BlockCodecs.NONE)));
+
+        assertEquals(source.users.size(), read.users.size(), "number of users");
+        assertEquals(user.getBlockList(), read.users.get(0).getBlockList(), "block list");
+        Trade trade = read.getTrades().get(read.getTrades().size() - 1);
+        assertEquals(user.getUsername(), trade.getUsername(0), "user of the trade");
+        assertEquals("nobody", trade.getUsername(1), "username of no user in the trade");
+        assertEquals(source.getUnfreezeRequests(), read.getUnfreezeRequests(), "unfreeze requests");
+    }
+
+    private static byte[] encode(DataBundle dataBundle, BlockCodec codec) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new SnapshotCodec(codec).write(dataBundle, bytes);
+        return bytes.toByteArray();
+    }
+}
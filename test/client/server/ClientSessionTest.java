@@ -0,0 +1,70 @@
+package client.server;
+
+import client.controllers.StartingSystem;
+import client.databundle.DataBundle;
+import client.databundle.DataBundleGenerator;
+import client.databundle.Mutation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that a <code>ClientSession</code> keeps the changes of a guest out of the data shared by all clients.
+ */
+public class ClientSessionTest {
+    private static final long SEED = 211;
+
+    public static void testChangesOfAGuestAreNotShared() throws Exception {
+        DataBundle dataBundle = new DataBundleGenerator(SEED).generate(20, 30, 20);
+        new StartingSystem(dataBundle).initializeSystem();
+        String city = dataBundle.getUserRegistry().get("GUEST").getCity();
+        int itemIdCounter = dataBundle.itemIdCounter;
+        List<Mutation> journal = new ArrayList<>();
+
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(server.getInetAddress(), server.getLocalPort())) {
+            GuestSnapshot guestSnapshot = new GuestSnapshot(dataBundle, 0, Clock.systemUTC());
+            ClientSession session = new ClientSession(dataBundle, journal::add, guestSnapshot, server.accept());
+            Thread thread = new Thread(session);
+            thread.start();
+            BufferedReader input = new BufferedReader(
+                    new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+            Writer output = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8);
+            assertEquals("USER", request(input, output, "guest").get(0), "guest login");
+            assertEquals("true", request(input, output, "setCity\tNowhere").get(0), "city set by the guest");
+            assertEquals("Nowhere", request(input, output, "getCity").get(0), "city seen by the guest");
+            assertEquals("true", request(input, output, "createItemAndRequest\tbook\tatlas\ta new atlas").get(0),
+                    "item requested by the guest");
+            request(input, output, "quit");
+            thread.join();
+        }
+
+        assertTrue(journal.isEmpty(), "changes of the guest journaled: " + journal.size());
+        assertEquals(city, dataBundle.getUserRegistry().get("GUEST").getCity(), "city of the shared guest");
+        assertEquals(itemIdCounter, dataBundle.itemIdCounter, "item ids given out");
+    }
+
+    /* Sends one request and reads the rows of its answer. */
+    private static List<String> request(BufferedReader input, Writer output, String line) throws IOException {
+        output.write(line + "\n");
+        output.flush();
+        String status = input.readLine();
+        assertTrue(status.startsWith("OK\t"), line + " answered " + status);
+        List<String> rows = new ArrayList<>();
+        for (int i = Integer.parseInt(status.substring(3)); i > 0; i--) rows.add(input.readLine());
+        return rows;
+    }
+}
@@ -0,0 +1,64 @@
+package client.server;
+
+import client.controllers.StartingSystem;
+import client.databundle.DataBundle;
+import client.databundle.DataBundleGenerator;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static testing.Assertions.assertEquals;
+
+/**
+ * Tests that a <code>GuestSnapshot</code> gives every guest a copy of its own of the shared data, from a snapshot
+ * that is only taken again once it is old.
+ */
+public class GuestSnapshotTest {
+    private static final long SEED = 227;
+    private static final long MAX_AGE_MILLIS = 1000;
+
+    /* A clock that only moves when told to. */
+    private static final class ManualClock extends Clock {
+        private Instant now = Instant.EPOCH;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    public static void testSnapshotIsTakenAgainOnceOld() {
+        DataBundle dataBundle = new DataBundleGenerator(SEED).generate(20, 30, 20);
+        new StartingSystem(dataBundle).initializeSystem();
+        int itemIdCounter = dataBundle.itemIdCounter;
+        ManualClock clock = new ManualClock();
+        GuestSnapshot guestSnapshot = new GuestSnapshot(dataBundle, MAX_AGE_MILLIS, clock);
+
+        DataBundle first = guestSnapshot.copy();
+        assertEquals(itemIdCounter, first.itemIdCounter, "item ids of the first copy");
+        first.itemIdCounter += 10;
+        dataBundle.itemIdCounter++;
+        clock.now = clock.now.plusMillis(MAX_AGE_MILLIS - 1);
+        DataBundle second = guestSnapshot.copy();
+        assertEquals(itemIdCounter, second.itemIdCounter, "item ids of a copy from the same snapshot");
+        String city = first.getUserRegistry().get("GUEST").getCity();
+        second.getUserRegistry().get("GUEST").setCity("Nowhere");
+        assertEquals(city, first.getUserRegistry().get("GUEST").getCity(), "city of the guest in another copy");
+
+        clock.now = clock.now.plusMillis(1);
+        assertEquals(itemIdCounter + 1, guestSnapshot.copy().itemIdCounter, "item ids of a copy of a new snapshot");
+        assertEquals(itemIdCounter + 1, dataBundle.itemIdCounter, "item ids of the shared data");
+    }
+}
@@ -0,0 +1,59 @@
+package core.account;
+
+import core.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertFalse;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that a <code>LoginManager</code> hashes passwords again on login, remembers the passwords it verified only
+ * while they are the stored ones, and doesn't store a password verified against one that changed since.
+ */
+public class LoginManagerTest {
+    private static final PasswordHasher HASHER = new PasswordHasher(50);
+
+    public static void testPasswordVerifiedIsForgottenOnceChanged() {
+        AccountRegistry<User> accounts = registry(new User("alice", "secret"));
+        LoginManager<User> loginManager = new LoginManager<>(accounts, HASHER);
+        User alice = accounts.get("alice");
+        assertTrue(loginManager.verifyAccount("alice", "secret"), "login with the password stored as it is");
+        assertTrue(PasswordHasher.isHashed(alice.getPassword()), "password hashed on login");
+        VerifiedCredentials verified = accounts.getVerifiedCredentials();
+        assertTrue(verified.contains(alice, alice.getPassword(), "secret"), "password remembered as verified");
+        assertFalse(verified.contains(alice, alice.getPassword(), "other"), "other password remembered");
+
+        alice.setPassword(HASHER.hash("changed"));
+        assertFalse(verified.contains(alice, alice.getPassword(), "secret"), "old password remembered once changed");
+        assertFalse(loginManager.verifyAccount("alice", "secret"), "login with the old password");
+        assertTrue(loginManager.verifyAccount("alice", "changed"), "login with the new password");
+        assertFalse(verified.contains(new User("alice", alice.getPassword()), alice.getPassword(), "changed"),
+                "password remembered for another account with the username");
+    }
+
+    public static void testPasswordChangedWhileVerifyingIsKept() {
+        AccountRegistry<User> accounts = registry(new User("bob", "secret"));
+        LoginManager<User> loginManager = new LoginManager<>(accounts, HASHER);
+        User bob = loginManager.getAccount("bob");
+        String stored = bob.getPassword();
+        String updated = loginManager.verify(bob, stored, "secret");
+        assertTrue(PasswordHasher.verify(updated, "secret"), "password to be stored hashed again");
+        assertEquals("secret", bob.getPassword(), "password stored while verifying");
+
+        String changed = HASHER.hash("changed");
+        bob.setPassword(changed);
+        assertFalse(loginManager.update(bob, stored, updated, "secret"), "login completed after a change");
+        assertEquals(changed, bob.getPassword(), "password changed while verifying");
+        assertFalse(accounts.getVerifiedCredentials().contains(bob, changed, "secret"), "old password remembered");
+        assertEquals(null, loginManager.verify(bob, changed, "secret"), "old password verified again");
+    }
+
+    private static AccountRegistry<User> registry(User user) {
+        List<User> users = new ArrayList<>();
+        users.add(user);
+        return new AccountRegistry<>(users);
+    }
+}
@@ -0,0 +1,39 @@
+package core.account;
+
+import static testing.Assertions.assertFalse;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that <code>PasswordHasher</code> checks passwords against hashed and plain stored forms, and asks for a
+ * password to be hashed again only when it was stored below the current cost.
+ */
+public class PasswordHasherTest {
+    public static void testVerifyChecksHashedAndPlainPasswords() {
+        String stored = new PasswordHasher(50).hash("secret");
+        assertTrue(PasswordHasher.isHashed(stored), "hash of a password is hashed");
+        assertTrue(PasswordHasher.verify(stored, "secret"), "password hashed");
+        assertFalse(PasswordHasher.verify(stored, "Secret"), "other password against a hash");
+        assertFalse(PasswordHasher.verify(stored, null), "no password against a hash");
+        assertFalse(stored.equals(new PasswordHasher(50).hash("secret")), "hashes of one password share a salt");
+
+        assertFalse(PasswordHasher.isHashed("secret"), "password stored as it is is hashed");
+        assertTrue(PasswordHasher.verify("secret", "secret"), "password stored as it is");
+        assertFalse(PasswordHasher.verify("secret", "other"), "other password against one stored as it is");
+        assertFalse(PasswordHasher.verify(null, "secret"), "password against none stored");
+
+        String prefix = stored.substring(0, stored.lastIndexOf('$'));
+        assertFalse(PasswordHasher.verify(prefix, "secret"), "hash missing its digest");
+        assertFalse(PasswordHasher.verify(prefix + "$!!!", "secret"), "hash with a digest that is not Base64");
+    }
+
+    public static void testNeedsRehashOnlyBelowTheCurrentCost() {
+        String cheap = new PasswordHasher(50).hash("secret");
+        String costly = new PasswordHasher(100).hash("secret");
+        assertTrue(new PasswordHasher(100).needsRehash(cheap), "hash below the current cost");
+        assertFalse(new PasswordHasher(100).needsRehash(costly), "hash at the current cost");
+        assertFalse(new PasswordHasher(50).needsRehash(costly), "hash above the current cost");
+        assertTrue(new PasswordHasher(50).needsRehash("secret"), "password stored as it is");
+        assertTrue(PasswordHasher.verify(cheap, "secret") && PasswordHasher.verify(costly, "secret"),
+                "hashes checked with the cost they were made with");
+    }
+}
@@ -0,0 +1,153 @@
+package core.meeting;
+
+import core.IdSequence;
+import core.item.Item;
+import core.reverter.ActionReverter;
+import core.trade.Trade;
+import core.trade.TradeFunctionManager;
+import core.trade.TradeStatus;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertFalse;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that <code>MeetingDeadlines</code> finds the same late meetings as going through every meeting did, as
+ * meetings are edited, the number of days before a meeting is late changes, and days run over the end of a month.
+ */
+public class MeetingDeadlinesTest {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final int MAX_EDITS = 3;
+    private static final int MAX_LATE_DAYS = 3;
+
+    private final MeetingRegistry meetings = new MeetingRegistry(new ArrayList<>());
+    private final MeetingDeadlines deadlines = new MeetingDeadlines(meetings.getMeetings());
+    private final IdSequence meetingIds = new IdSequence(0);
+
+    public static void testEditedMeetingIsRescheduledAtItsNewTime() {
+        MeetingDeadlinesTest test = new MeetingDeadlinesTest();
+        LocalDateTime time = LocalDateTime.of(2020, 8, 3, 9, 0);
+        int meetingId = test.arrange(time);
+        int other = test.arrange(time.plusDays(1));
+        LocalDateTime edited = time.plusDays(5);
+        assertTrue(test.manager(time).editMeeting(meetingId, edited, "Cafe", 1, "user1") != null, "meeting edited");
+        assertEquals(Collections.singletonList(other), test.lateAt(time.plusDays(MAX_LATE_DAYS + 2)),
+                "late meetings while the edit is not confirmed");
+
+        test.manager(time).confirmMeetingArrangement(meetingId, 0, "user0");
+        assertEquals(Collections.emptyList(), test.lateAt(time.plusDays(MAX_LATE_DAYS + 2)),
+                "late meetings before the time the meeting was moved to");
+        assertEquals(Collections.emptyList(), test.lateAt(edited.plusDays(MAX_LATE_DAYS)),
+                "late meetings on the last day before the edited time is late");
+        assertEquals(Collections.singletonList(meetingId), test.lateAt(edited.plusDays(MAX_LATE_DAYS).plusMinutes(1)),
+                "late meetings once the edited time is late");
+        assertEquals(Collections.emptyList(), test.lateAt(edited.plusDays(30)), "late meetings found again");
+    }
+
+    public static void testLateTimeChangedByAnAdminAppliesToEveryMeeting() {
+        MeetingDeadlinesTest test = new MeetingDeadlinesTest();
+        LocalDateTime time = LocalDateTime.of(2020, 8, 3, 9, 0);
+        int first = test.arrange(time);
+        int second = test.arrange(time.plusDays(2));
+        int third = test.arrange(time.plusDays(4));
+        LocalDateTime now = time.plusDays(MAX_LATE_DAYS).plusHours(1);
+        assertEquals(Collections.singletonList(first), test.lateAt(now), "late meetings at the default threshold");
+
+        MeetingManager lowered = test.manager(now);
+        lowered.setThreshold(MeetingThresholdType.MAX_LATE_TIMES, 1);
+        assertTrue(lowered.mayHaveLateMeetings(), "meetings late once the threshold is lowered");
+        assertEquals(Collections.singletonList(second), lowered.getLateMeetingIds(),
+                "late meetings once the threshold is lowered");
+
+        MeetingManager raised = test.manager(time.plusDays(8));
+        raised.setThreshold(MeetingThresholdType.MAX_LATE_TIMES, 5);
+        assertFalse(raised.mayHaveLateMeetings(), "meetings late once the threshold is raised");
+        assertEquals(Collections.emptyList(), raised.getLateMeetingIds(), "late meetings once the threshold is raised");
+        raised = test.manager(time.plusDays(9).plusMinutes(1));
+        raised.setThreshold(MeetingThresholdType.MAX_LATE_TIMES, 5);
+        assertEquals(Collections.singletonList(third), raised.getLateMeetingIds(),
+                "late meetings at the raised threshold");
+    }
+
+    public static void testLateMeetingWhoseAbandonmentIsUndoneIsFoundOnceArrangedAgain() {
+        MeetingDeadlinesTest test = new MeetingDeadlinesTest();
+        LocalDateTime time = LocalDateTime.of(2020, 8, 3, 9, 0);
+        int meetingId = test.manager(time).createMeeting("Library", time, 0);
+        ActionReverter confirmation = test.manager(time).confirmMeetingArrangement(meetingId, 1, "user1");
+        Trade trade = new Trade("user0", "user1", new Item[]{null, null}, true, 1);
+        trade.setStatus(TradeStatus.ONGOING);
+        trade.addMeetingRelated(meetingId);
+        List<Trade> trades = Collections.singletonList(trade);
+        LocalDateTime now = time.plusDays(MAX_LATE_DAYS + 1);
+        TradeFunctionManager tradeFunctionManager = new TradeFunctionManager(new IdSequence(1), test.clock(now));
+        assertEquals(Arrays.asList("user0", "user1"),
+                tradeFunctionManager.updateTradesAbandoned(test.lateAt(now), trades), "users of the trade abandoned");
+        assertEquals(TradeStatus.ABANDONED, trade.getStatus(), "trade of the late meeting");
+
+        /* No reverter undoes an abandonment, but a trade set going again keeps the meeting it had. Unlike going
+         * through every meeting, the meeting was taken out of the queue when it was found, so it isn't found again
+         * until it changes.
+         */
+        trade.setStatus(TradeStatus.ONGOING);
+        assertFalse(test.manager(now.plusDays(1)).mayHaveLateMeetings(), "meetings late after the undo");
+        assertEquals(Collections.emptyList(), test.lateAt(now.plusDays(1)), "late meetings after the undo");
+
+        confirmation.execute();
+        assertEquals(Collections.emptyList(), test.lateAt(now.plusDays(1)), "late meetings once not arranged");
+        test.manager(now).confirmMeetingArrangement(meetingId, 1, "user1");
+        assertEquals(Collections.singletonList(meetingId), test.lateAt(now.plusDays(1)),
+                "late meetings once the meeting is arranged again");
+        assertEquals(Arrays.asList("user0", "user1"),
+                tradeFunctionManager.updateTradesAbandoned(Collections.singletonList(meetingId), trades),
+                "users of the trade abandoned again");
+    }
+
+    public static void testLateTimeCountsDaysOverTheEndOfAMonth() {
+        MeetingDeadlinesTest test = new MeetingDeadlinesTest();
+        LocalDateTime endOfJanuary = LocalDateTime.of(2020, 1, 30, 18, 0);
+        LocalDateTime endOfFebruary = LocalDateTime.of(2020, 2, 28, 18, 0);
+        LocalDateTime endOfYear = LocalDateTime.of(2020, 12, 31, 18, 0);
+        int january = test.arrange(endOfJanuary);
+        int february = test.arrange(endOfFebruary);
+        int december = test.arrange(endOfYear);
+        assertEquals(Collections.emptyList(), test.lateAt(LocalDateTime.of(2020, 2, 2, 18, 0)),
+                "late meetings on the last day of the meeting of January");
+        assertEquals(Collections.singletonList(january), test.lateAt(LocalDateTime.of(2020, 2, 2, 18, 1)),
+                "late meetings after the last day of the meeting of January");
+        assertEquals(Collections.emptyList(), test.lateAt(LocalDateTime.of(2020, 3, 2, 18, 0)),
+                "late meetings on the last day of the meeting of February, in a leap year");
+        assertEquals(Collections.singletonList(february), test.lateAt(LocalDateTime.of(2020, 3, 2, 18, 1)),
+                "late meetings after the last day of the meeting of February");
+        assertEquals(Collections.singletonList(december), test.lateAt(LocalDateTime.of(2021, 1, 3, 18, 1)),
+                "late meetings after the last day of the meeting of December");
+    }
+
+    /* Creates a meeting at time that both users confirmed, the way a trade arranges it. */
+    private int arrange(LocalDateTime time) {
+        int meetingId = manager(time.minusDays(1)).createMeeting("Library", time, 0);
+        assertTrue(manager(time.minusDays(1)).confirmMeetingArrangement(meetingId, 1, "user1") != null,
+                "meeting confirmed");
+        return meetingId;
+    }
+
+    private List<Integer> lateAt(LocalDateTime now) {
+        return manager(now).getLateMeetingIds();
+    }
+
+    /* A manager of a session at now, which every session shares the meetings and their queue with. */
+    private MeetingManager manager(LocalDateTime now) {
+        return new MeetingManager(meetings, deadlines, MAX_EDITS, meetingIds, MAX_LATE_DAYS, clock(now));
+    }
+
+    private Clock clock(LocalDateTime now) {
+        return Clock.fixed(now.atZone(ZONE).toInstant(), ZONE);
+    }
+}
@@ -0,0 +1,153 @@
+package core.trade;
+
+import core.account.AccountRegistry;
+import core.item.Item;
+import core.user.User;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static testing.Assertions.assertEquals;
+
+/**
+ * Tests that the trades completed in a week, counted by the <code>DailyCompletions</code> of a
+ * <code>TradeRegistry</code>, are the ones going through every trade finds, as weeks roll over, completions are
+ * taken back and the counts are built again from trades that are not in the order they were completed in.
+ */
+public class DailyCompletionsTest {
+    private static final long SEED = 25;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final int USERS = 5;
+
+    public static void testWeekRollsOverFromSaturdayToSunday() {
+        List<Trade> trades = new ArrayList<>();
+        TradeRegistry registry = registry(trades);
+        LocalDate sunday = LocalDate.of(2020, 8, 2);
+        LocalDate saturday = sunday.plusDays(6);
+        complete(trades, 0, 1, sunday.atTime(0, 0));
+        complete(trades, 0, 2, saturday.atTime(12, 0));
+        complete(trades, 1, 2, saturday.atTime(23, 59));
+        assertEquals(counts("user0", 2, "user1", 2, "user2", 2), overWeeklyLimit(registry, saturday.atTime(23, 59)),
+                "trades completed in the week ending on Saturday");
+
+        /* the next Sunday reuses the bucket of the Sunday a week before */
+        LocalDate nextSunday = saturday.plusDays(1);
+        assertEquals(counts(), overWeeklyLimit(registry, nextSunday.atStartOfDay()),
+                "trades completed in the week starting on Sunday, before any is");
+        complete(trades, 3, 4, nextSunday.atTime(10, 0));
+        assertEquals(counts("user3", 1, "user4", 1), overWeeklyLimit(registry, nextSunday.atTime(10, 0)),
+                "trades completed in the week starting on Sunday");
+        assertEquals(scan(trades, sunday.plusDays(1), nextSunday),
+                registry.countCompleted(sunday.plusDays(1), nextSunday), "trades completed in the last seven days");
+    }
+
+    public static void testCompletionTakenBackOnADayNoLongerCountedIsIgnored() {
+        List<Trade> trades = new ArrayList<>();
+        TradeRegistry registry = registry(trades);
+        LocalDate monday = LocalDate.of(2020, 8, 3);
+        Trade old = complete(trades, 0, 1, monday.atTime(9, 0));
+        Trade recent = complete(trades, 0, 2, monday.plusDays(7).atTime(9, 0));
+        LocalDate weekStart = monday.plusDays(6);
+        assertEquals(counts("user0", 1, "user2", 1), registry.countCompleted(weekStart, weekStart.plusDays(6)),
+                "trades completed in the week of the recent trade");
+
+        /* the trade completed a week before shares its bucket with the recent one, which dropped its count */
+        old.setStatus(TradeStatus.ONGOING);
+        assertEquals(scan(trades, weekStart, weekStart.plusDays(6)),
+                registry.countCompleted(weekStart, weekStart.plusDays(6)),
+                "trades completed once a trade completed a week before is taken back");
+        assertEquals(counts("user0", 1, "user2", 1), registry.countCompleted(weekStart, weekStart.plusDays(6)),
+                "trades completed once a trade completed a week before is taken back");
+
+        recent.setStatus(TradeStatus.ONGOING);
+        assertEquals(counts(), registry.countCompleted(weekStart, weekStart.plusDays(6)),
+                "trades completed once the recent trade is taken back");
+        recent.setStatus(TradeStatus.COMPLETED);
+        assertEquals(counts("user0", 1, "user2", 1), registry.countCompleted(weekStart, weekStart.plusDays(6)),
+                "trades completed once the recent trade is completed again");
+    }
+
+    public static void testCountsRebuiltFromTradesNotInTheOrderTheyWereCompleted() {
+        List<Trade> trades = new ArrayList<>();
+        TradeRegistry registry = registry(trades);
+        Random random = new Random(SEED);
+        LocalDate first = LocalDate.of(2020, 8, 1);
+        int days = 20;
+        List<LocalDateTime> times = new ArrayList<>();
+        for (int i = 0; i < 200; i++) times.add(first.plusDays(random.nextInt(days)).atTime(random.nextInt(24), 0));
+        Collections.shuffle(times, random);
+        for (LocalDateTime time : times) {
+            int user1 = random.nextInt(USERS);
+            complete(trades, user1, (user1 + 1 + random.nextInt(USERS - 1)) % USERS, time);
+        }
+        LocalDate last = first.plusDays(days - 1);
+        assertWeeksMatchScan(registry, trades, last, "trades completed");
+
+        /* a trade taken out of the list, as undoing its request does, makes the registry index every trade again */
+        trades.remove(trades.size() - 1);
+        assertWeeksMatchScan(registry, trades, last, "trades completed once the counts are built again");
+        Collections.shuffle(trades, random);
+        trades.remove(trades.size() - 1);
+        assertWeeksMatchScan(registry, trades, last, "trades completed once built again from a shuffled list");
+    }
+
+    /* Checks every range of a week that ends on or after the last day a trade was completed. */
+    private static void assertWeeksMatchScan(TradeRegistry registry, List<Trade> trades, LocalDate last,
+                                             String message) {
+        for (int i = 0; i < DailyCompletions.DAYS; i++) {
+            LocalDate to = last.plusDays(i);
+            LocalDate from = to.minusDays(DailyCompletions.DAYS - 1);
+            assertEquals(scan(trades, from, to), registry.countCompleted(from, to), message + " to " + to);
+        }
+    }
+
+    /* Counts the trades each user completed in the range by going through every trade. */
+    private static Map<String, Integer> scan(List<Trade> trades, LocalDate from, LocalDate to) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Trade trade : trades) {
+            if (trade.getStatus() != TradeStatus.COMPLETED) continue;
+            LocalDate date = trade.getTradeCompletionTime().toLocalDate();
+            if (date.isBefore(from) || date.isAfter(to)) continue;
+            for (int userOrder = 0; userOrder < 2; userOrder++)
+                counts.merge(trade.getUsername(userOrder), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /* The trades completed this week at now by every user, as the admin sees them with a weekly limit of 0. */
+    private static Map<String, Integer> overWeeklyLimit(TradeRegistry registry, LocalDateTime now) {
+        Clock clock = Clock.fixed(now.atZone(ZONE).toInstant(), ZONE);
+        return new TradeThresholdManager(0, 0, 0, clock).getUserOverWeeklyTransMaxMap(new TradeInfoManager(registry));
+    }
+
+    /* Adds a trade between two users that is completed at time, the way the last meeting of a trade completes it. */
+    private static Trade complete(List<Trade> trades, int user1, int user2, LocalDateTime time) {
+        Trade trade = new Trade("user" + user1, "user" + user2, new Item[]{null, null}, true, trades.size() + 1);
+        trade.setStatus(TradeStatus.ONGOING);
+        trades.add(trade);
+        trade.setTradeCompletionTime(time);
+        trade.setStatus(TradeStatus.COMPLETED);
+        return trade;
+    }
+
+    private static TradeRegistry registry(List<Trade> trades) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) users.add(new User("user" + i, "password"));
+        return new TradeRegistry(trades, new AccountRegistry<>(users), new TradeStatistics());
+    }
+
+    private static Map<String, Integer> counts(Object... usernamesAndCounts) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < usernamesAndCounts.length; i += 2)
+            counts.put((String) usernamesAndCounts[i], (Integer) usernamesAndCounts[i + 1]);
+        return counts;
+    }
+}
@@ -0,0 +1,115 @@
+package core.trade;
+
+import core.account.AccountRegistry;
+import core.item.Item;
+import core.user.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that a <code>TradeRegistry</code> finds the trades of each user by status as they change, with indexes that
+ * grow with the number of trades rather than with users times trades.
+ */
+public class TradeRegistryTest {
+    private static final long SEED = 213;
+    private static final TradeStatus[] STATUSES = {TradeStatus.NOT_STARTED, TradeStatus.DENIED, TradeStatus.ONGOING,
+            TradeStatus.CANCELLED, TradeStatus.ABANDONED};
+
+    public static void testStatusChangeMovesTheTradeOfBothUsers() {
+        List<User> users = users(3);
+        List<Trade> trades = new ArrayList<>();
+        Trade trade1 = trade(trades, 0, 1, 1);
+        Trade trade2 = trade(trades, 1, 2, 2);
+        Trade trade3 = trade(trades, 0, 2, 3);
+        TradeRegistry registry = new TradeRegistry(trades, new AccountRegistry<>(users), new TradeStatistics());
+        assertEquals(2, registry.count("user0", TradeStatus.NOT_STARTED), "trades not started of user0");
+
+        trade3.setStatus(TradeStatus.ONGOING);
+        trade1.setStatus(TradeStatus.ONGOING);
+        assertEquals(0, registry.count("user0", TradeStatus.NOT_STARTED), "trades not started of user0");
+        assertEquals(Arrays.asList(trade1, trade3), registry.getTrades("user0", TradeStatus.ONGOING),
+                "trades under way of user0, in the order of the list");
+        assertEquals(Arrays.asList(trade1), registry.getTrades("user1", TradeStatus.ONGOING),
+                "trades under way of user1");
+        assertEquals(Arrays.asList(trade2), registry.getTrades("user1", TradeStatus.NOT_STARTED),
+                "trades not started of user1");
+
+        trade1.setStatus(TradeStatus.CANCELLED);
+        assertEquals(Arrays.asList(trade3), registry.getTrades("user0", TradeStatus.ONGOING),
+                "trades under way of user0 after one is cancelled");
+        assertEquals(Arrays.asList(trade1), registry.getTrades("user1", TradeStatus.CANCELLED),
+                "trades cancelled of user1");
+        assertEquals(Arrays.asList(trade1, trade3), registry.getTrades("user0", TradeStatus.NONE),
+                "trades of user0 in any status");
+        assertEquals(Arrays.asList(trade2, trade3), registry.getTrades("user2", TradeStatus.NONE),
+                "trades of user2 in any status");
+    }
+
+    public static void testIndexesOfManyTradesStaySmall() {
+        int userCount = 50000;
+        int tradeCount = 100000;
+        List<User> users = users(userCount);
+        List<Trade> trades = new ArrayList<>(tradeCount);
+        Random random = new Random(SEED);
+        for (int i = 0; i < tradeCount; i++) {
+            int user1 = random.nextInt(userCount);
+            int user2 = (user1 + 1 + random.nextInt(userCount - 1)) % userCount;
+            trade(trades, user1, user2, i + 1).setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+        }
+        AccountRegistry<User> accounts = new AccountRegistry<>(users);
+        accounts.get("user0");
+        TradeRegistry registry = new TradeRegistry(trades, accounts, new TradeStatistics());
+
+        /* the first lookup indexes every trade */
+        long before = usedHeap();
+        long start = System.nanoTime();
+        registry.count("user0", TradeStatus.NONE);
+        long millis = (System.nanoTime() - start) / 1000000;
+        long grown = usedHeap() - before;
+        assertTrue(grown < 64L << 20, "indexes of " + tradeCount + " trades take " + (grown >> 20) + " MB");
+        assertTrue(millis < 5000, "indexes of " + tradeCount + " trades built in " + millis + " ms");
+
+        long indexed = 0;
+        for (int i = 0; i < userCount; i++) {
+            String username = "user" + i;
+            int count = 0;
+            for (TradeStatus status : STATUSES) count += registry.count(username, status);
+            assertEquals(registry.count(username, TradeStatus.NONE), count, "trades of " + username + " by status");
+            indexed += count;
+        }
+        assertEquals(2L * tradeCount, indexed, "trades indexed for their users");
+
+        Trade moved = trades.get(tradeCount / 2);
+        String username = moved.getUsername(0);
+        TradeStatus status = moved.getStatus() == TradeStatus.ONGOING ? TradeStatus.DENIED : TradeStatus.ONGOING;
+        int count = registry.count(username, status);
+        moved.setStatus(status);
+        assertEquals(count + 1, registry.count(username, status), "trades of " + username + " after a move");
+        assertTrue(registry.getTrades(username, status).contains(moved), "trade moved found by its new status");
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) users.add(new User("user" + i, "password"));
+        return users;
+    }
+
+    private static Trade trade(List<Trade> trades, int user1, int user2, int tradeId) {
+        Trade trade = new Trade("user" + user1, "user" + user2, new Item[]{null, null}, true, tradeId);
+        trades.add(trade);
+        return trade;
+    }
+
+    /* The heap used by objects still reachable. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,176 @@
+package core.user;
+
+import core.account.AccountRegistry;
+import core.reverter.ActionReverter;
+import core.user.reverter.SwitchOnVacationReverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static testing.Assertions.assertEquals;
+import static testing.Assertions.assertFalse;
+import static testing.Assertions.assertTrue;
+
+/**
+ * Tests that <code>UserAccountManager</code> finds the same users to trade with from its indexes as going through
+ * every user and their block lists did, as cities, vacations and block lists change and changes are undone.
+ */
+public class UserAccountManagerTest {
+    private static final long SEED = 13;
+    private static final String[] CITIES = {"Toronto", "Ottawa", ""};
+
+    private final List<User> users = new ArrayList<>();
+    private final AccountRegistry<User> registry = new AccountRegistry<>(users);
+    private final UserAccountManager manager = new UserAccountManager(registry);
+
+    public static void testCityAndVacationChangesAreFollowed() {
+        UserAccountManagerTest test = new UserAccountManagerTest("Toronto", "Toronto", "Ottawa", "");
+        test.assertMatchesScan("users to trade with at the start");
+
+        ActionReverter moved = test.manager.setCity("user2", "Toronto");
+        test.assertMatchesScan("users to trade with once a user moved in");
+        moved.execute();
+        test.assertMatchesScan("users to trade with once the move is undone");
+        test.manager.setCity("user0", "");
+        test.assertMatchesScan("users to trade with once a user's city is deleted");
+
+        User away = test.registry.get("user1");
+        ActionReverter vacation = new SwitchOnVacationReverter(away, away.onVacation());
+        away.setOnVacation(true);
+        test.assertMatchesScan("users to trade with once a user is on vacation");
+        assertEquals(new ArrayList<>(), test.manager.getFilteredUsers("user1"), "users to trade with of a user away");
+        vacation.execute();
+        assertFalse(away.onVacation(), "vacation undone");
+        test.assertMatchesScan("users to trade with once the vacation is undone");
+    }
+
+    public static void testBlocksInBothDirectionsAndTheirUndo() {
+        UserAccountManagerTest test = new UserAccountManagerTest("Toronto", "Toronto", "Toronto");
+        ActionReverter blocked = test.manager.addToBlockList("user0", "user1");
+        assertTrue(test.blockIndex().isBlocking("user0", "user1"), "user0 blocking user1");
+        assertFalse(test.blockIndex().isBlocking("user1", "user0"), "user1 blocking user0");
+        test.assertMatchesScan("users to trade with once user0 blocked user1");
+
+        ActionReverter blockedBack = test.manager.addToBlockList("user1", "user0");
+        test.assertMatchesScan("users to trade with once both blocked the other");
+        ActionReverter unblocked = test.manager.deletedFromBlockList("user0", "user1");
+        assertTrue(test.blockIndex().eitherBlocked("user0", "user1"), "relation kept while user1 blocks user0");
+        test.assertMatchesScan("users to trade with once user0 unblocked user1");
+
+        blockedBack.execute();
+        assertFalse(test.blockIndex().eitherBlocked("user1", "user0"), "relation once both unblocked");
+        test.assertMatchesScan("users to trade with once the block of user1 is undone");
+        unblocked.execute();
+        assertTrue(test.blockIndex().eitherBlocked("user1", "user0"), "relation once the unblock is undone");
+        test.assertMatchesScan("users to trade with once the unblock of user0 is undone");
+        blocked.execute();
+        assertFalse(test.blockIndex().eitherBlocked("user0", "user1"), "relation once the block is undone");
+        test.assertMatchesScan("users to trade with once the block of user0 is undone");
+    }
+
+    public static void testBlockOfAUsernameWithNoAccountYet() {
+        UserAccountManagerTest test = new UserAccountManagerTest("Toronto", "Toronto");
+        test.manager.addToBlockList("user0", "newcomer");
+        ActionReverter blocked = test.manager.addToBlockList("user1", "newcomer");
+        ActionReverter unblocked = test.manager.deletedFromBlockList("user1", "newcomer");
+        assertTrue(test.blockIndex().isBlocking("user0", "newcomer"), "user0 blocking a username with no user");
+        assertFalse(test.blockIndex().eitherBlocked("user0", "newcomer"), "relation to a username with no user");
+
+        test.manager.createUser("newcomer", "password");
+        test.manager.setCity("newcomer", "Toronto");
+        assertTrue(test.blockIndex().eitherBlocked("newcomer", "user0"), "relation once the user is created");
+        assertFalse(test.blockIndex().eitherBlocked("newcomer", "user1"), "relation unblocked before creation");
+        test.assertMatchesScan("users to trade with once a blocked username has a user");
+
+        unblocked.execute();
+        test.assertMatchesScan("users to trade with once the unblock before creation is undone");
+        blocked.execute();
+        test.assertMatchesScan("users to trade with once the block before creation is undone");
+        assertFalse(test.blockIndex().eitherBlocked("newcomer", "user1"), "relation once both are undone");
+    }
+
+    public static void testRandomChangesMatchTheScan() {
+        int userCount = 30;
+        String[] cities = new String[userCount];
+        Random random = new Random(SEED);
+        for (int i = 0; i < userCount; i++) cities[i] = CITIES[random.nextInt(CITIES.length)];
+        UserAccountManagerTest test = new UserAccountManagerTest(cities);
+        List<ActionReverter> reverters = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            String username = "user" + random.nextInt(userCount);
+            String other = "user" + random.nextInt(userCount + 5);
+            ActionReverter reverter = null;
+            switch (random.nextInt(6)) {
+                case 0:
+                    reverter = test.manager.setCity(username, CITIES[random.nextInt(CITIES.length)]);
+                    break;
+                case 1:
+                    User user = test.registry.get(username);
+                    reverter = new SwitchOnVacationReverter(user, user.onVacation());
+                    user.setOnVacation(!user.onVacation());
+                    break;
+                case 2:
+                case 3:
+                    if (!other.equals(username)) reverter = test.manager.addToBlockList(username, other);
+                    break;
+                case 4:
+                    reverter = test.manager.deletedFromBlockList(username, other);
+                    break;
+                default:
+                    if (!reverters.isEmpty()) reverters.remove(random.nextInt(reverters.size())).execute();
+            }
+            if (reverter != null) reverters.add(reverter);
+            if (step % 5 == 0 && test.users.size() < userCount + 5 && random.nextInt(20) == 0)
+                test.manager.createUser("user" + test.users.size(), "password");
+            if (step % 50 == 0) test.assertMatchesScan("users to trade with after step " + step);
+        }
+        test.assertMatchesScan("users to trade with after every step");
+    }
+
+    private UserAccountManagerTest(String... cities) {
+        for (int i = 0; i < cities.length; i++) {
+            User user = new User("user" + i, "password");
+            user.setCity(cities[i]);
+            users.add(user);
+        }
+        users.add(new User("GUEST", "GUEST"));
+    }
+
+    private BlockIndex blockIndex() {
+        return registry.getIndex(BlockIndex.class, key -> new BlockIndex(registry));
+    }
+
+    /* Checks the users every user can trade with against going through every user, as was done before indexes. */
+    private void assertMatchesScan(String message) {
+        for (User user : users) {
+            assertEquals(scan(user), usernames(manager.getFilteredUsers(user.getUsername())),
+                    message + ", of " + user.getUsername());
+            for (User other : users) {
+                boolean blocked = user.getBlockList().contains(other.getUsername())
+                        || other.getBlockList().contains(user.getUsername());
+                assertEquals(blocked, blockIndex().eitherBlocked(user.getUsername(), other.getUsername()),
+                        message + ", " + user.getUsername() + " and " + other.getUsername() + " blocked");
+            }
+        }
+    }
+
+    private List<String> scan(User user) {
+        List<String> usernames = new ArrayList<>();
+        if (user.onVacation() || user.isFrozen()) return usernames;
+        for (User other : users) {
+            if (other == user || other.getUsername().equals("GUEST") || other.onVacation()) continue;
+            if (!user.getCity().isEmpty() && !user.getCity().equals(other.getCity())) continue;
+            if (user.getBlockList().contains(other.getUsername())) continue;
+            if (other.getBlockList().contains(user.getUsername())) continue;
+            usernames.add(other.getUsername());
+        }
+        return usernames;
+    }
+
+    private static List<String> usernames(List<User> users) {
+        List<String> usernames = new ArrayList<>();
+        for (User user : users) usernames.add(user.getUsername());
+        return usernames;
+    }
+}
@@ -0,0 +1,72 @@
+package testing;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Checks made by tests, which throw an <code>AssertionError</code> when they don't hold.
+ */
+public class Assertions {
+    private Assertions() {
+    }
+
+    /**
+     * Checks that <code>condition</code> holds.
+     *
+     * @param condition the condition checked.
+     * @param message   what is checked, reported if it fails.
+     */
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    /**
+     * Checks that <code>condition</code> doesn't hold.
+     *
+     * @param condition the condition checked.
+     * @param message   what is checked, reported if it fails.
+     */
+    public static void assertFalse(boolean condition, String message) {
+        assertTrue(!condition, message);
+    }
+
+    /**
+     * Checks that <code>actual</code> equals <code>expected</code>.
+     *
+     * @param expected the value expected.
+     * @param actual   the value found.
+     * @param message  what is checked, reported if it fails.
+     */
+    public static void assertEquals(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual))
+            throw new AssertionError(message + ": expected <" + expected + "> but was <" + actual + ">");
+    }
+
+    /**
+     * Checks that <code>actual</code> doesn't equal <code>unexpected</code>.
+     *
+     * @param unexpected the value not expected.
+     * @param actual     the value found.
+     * @param message    what is checked, reported if it fails.
+     */
+    public static void assertNotEquals(Object unexpected, Object actual, String message) {
+        if (Objects.equals(unexpected, actual)) throw new AssertionError(message + ": was <" + actual + ">");
+    }
+
+    /**
+     * Checks that <code>actual</code> holds the same bytes as <code>expected</code>, reporting the first byte that
+     * differs if it doesn't.
+     *
+     * @param expected the bytes expected.
+     * @param actual   the bytes found.
+     * @param message  what is checked, reported if it fails.
+     */
+    public static void assertArrayEquals(byte[] expected, byte[] actual, String message) {
+        if (Arrays.equals(expected, actual)) return;
+        int length = Math.min(expected.length, actual.length);
+        int i = 0;
+        while (i < length && expected[i] == actual[i]) i++;
+        throw new AssertionError(message + ": " + expected.length + " and " + actual.length +
+                " bytes differ at byte " + i);
+    }
+}
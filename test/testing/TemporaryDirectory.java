@@ -0,0 +1,43 @@
+package testing;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * A directory for the files of a test, deleted with everything in it when closed.
+ */
+public class TemporaryDirectory implements Closeable {
+    private final File directory;
+
+    /**
+     * Creates a new empty directory in the directory for temporary files.
+     *
+     * @throws IOException if the directory can't be created.
+     */
+    public TemporaryDirectory() throws IOException {
+        directory = Files.createTempDirectory("tradingsystem-test").toFile();
+    }
+
+    /**
+     * Gets a file in this directory.
+     *
+     * @param name the name of the file.
+     * @return the file named <code>name</code> in this directory, which may not exist.
+     */
+    public File file(String name) {
+        return new File(directory, name);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delete(directory);
+    }
+
+    private static void delete(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) for (File child : children) delete(child);
+        Files.deleteIfExists(file.toPath());
+    }
+}
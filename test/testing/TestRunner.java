@@ -0,0 +1,76 @@
+package testing;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs tests, which are the <code>public static void</code> methods without parameters whose name starts with
+ * <code>test</code>, of each test class. A test fails by throwing, usually an <code>AssertionError</code> from
+ * <code>Assertions</code>.
+ * <p>
+ * The test classes are the classes named on the command line, or every class whose name ends with
+ * <code>Test</code> in the directory this class was compiled to if none are named. The process exits with status 1
+ * if any test failed.
+ */
+public class TestRunner {
+    /**
+     * Runs the tests of the classes named in <code>args</code>, or of every test class if none are named.
+     *
+     * @param args the names of the test classes.
+     * @throws Exception if a test class can't be found or loaded.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> classNames = new ArrayList<>();
+        Collections.addAll(classNames, args);
+        if (classNames.isEmpty()) classNames = findTestClasses();
+        int run = 0;
+        int failed = 0;
+        for (String className : classNames) {
+            List<Method> tests = new ArrayList<>();
+            for (Method method : Class.forName(className).getMethods()) {
+                if (method.getName().startsWith("test") && method.getParameterCount() == 0 &&
+                        Modifier.isStatic(method.getModifiers()))
+                    tests.add(method);
+            }
+            tests.sort((m1, m2) -> m1.getName().compareTo(m2.getName()));
+            for (Method test : tests) {
+                run++;
+                try {
+                    test.invoke(null);
+                    System.out.println("PASS " + className + "." + test.getName());
+                } catch (InvocationTargetException e) {
+                    failed++;
+                    System.out.println("FAIL " + className + "." + test.getName());
+                    e.getCause().printStackTrace(System.out);
+                }
+            }
+        }
+        System.out.println(run + " tests, " + failed + " failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /* Finds the test classes compiled to the same directory as this class. */
+    private static List<String> findTestClasses() throws URISyntaxException {
+        File root = new File(TestRunner.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> classNames = new ArrayList<>();
+        findTestClasses(root, "", classNames);
+        Collections.sort(classNames);
+        return classNames;
+    }
+
+    private static void findTestClasses(File directory, String packagePrefix, List<String> classNames) {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) findTestClasses(file, packagePrefix + name + ".", classNames);
+            else if (name.endsWith("Test.class")) classNames.add(packagePrefix + name.substring(0, name.length() - 6));
+        }
+    }
+}